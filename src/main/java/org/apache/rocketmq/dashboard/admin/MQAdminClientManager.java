@@ -0,0 +1,164 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.rocketmq.dashboard.admin;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.rocketmq.dashboard.config.RMQConfigure;
+import org.apache.rocketmq.dashboard.util.UserInfoContext;
+import org.apache.rocketmq.dashboard.util.WebUtil;
+import org.apache.rocketmq.remoting.protocol.body.UserInfo;
+import org.apache.rocketmq.tools.admin.MQAdminExt;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps one started MQAdminExt per credential set, shared by all requests.
+ * <p>
+ * A MQAdminExt is a client over Netty channels that takes concurrent calls, so the requests do not borrow
+ * and return admins or validate them against the name server. The clients are only rebuilt when the name
+ * server, VIP channel or TLS settings change, or when a user logs out.
+ */
+@Component
+@Slf4j
+public class MQAdminClientManager {
+
+    /**
+     * calls still running on a replaced client get this long to finish before it is shut down
+     */
+    private static final long RETIRE_DELAY_SECONDS = 30;
+
+    private static final Set<String> METHODS_TO_CHECK = new HashSet<>();
+
+    static {
+        METHODS_TO_CHECK.add("getUser");
+        METHODS_TO_CHECK.add("examineBrokerClusterInfo");
+        METHODS_TO_CHECK.add("examineConsumerConnectionInfo");
+        METHODS_TO_CHECK.add("examineConsumeStats");
+        METHODS_TO_CHECK.add("examineProducerConnectionInfo");
+        METHODS_TO_CHECK.add("fetchBrokerRuntimeStats");
+        METHODS_TO_CHECK.add("fetchAllTopicList");
+        METHODS_TO_CHECK.add("examineTopicRouteInfo");
+        METHODS_TO_CHECK.add("queryTopicConsumeByWho");
+    }
+
+    private final RMQConfigure rmqConfigure;
+
+    private final MQAdminFactory mqAdminFactory;
+
+    private final ConcurrentMap<String/* accessKey:secretKey */, MQAdminExt> clients = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService retireScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "MQAdminClientRetire");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    public MQAdminClientManager(RMQConfigure rmqConfigure) {
+        this.rmqConfigure = rmqConfigure;
+        this.mqAdminFactory = new MQAdminFactory(rmqConfigure);
+    }
+
+    /**
+     * @return the client a call of the admin method makes for the current user, the user's own client when
+     * the ACL login isolates the users and the dashboard's client otherwise
+     */
+    public MQAdminExt resolve(String methodName) throws Exception {
+        if (isIsolatedByUser(rmqConfigure.isLoginRequired(), rmqConfigure.getAuthMode(), methodName)) {
+            UserInfo currentUserInfo = (UserInfo) UserInfoContext.get(WebUtil.USER_NAME);
+            return getMQAdminExt(currentUserInfo.getUsername(), currentUserInfo.getPassword());
+        }
+        return getMQAdminExt(rmqConfigure.getAccessKey(), rmqConfigure.getSecretKey());
+    }
+
+    public MQAdminExt getMQAdminExt(String accessKey, String secretKey) throws Exception {
+        String key = clientKey(accessKey, secretKey);
+        MQAdminExt mqAdminExt = clients.get(key);
+        if (mqAdminExt != null) {
+            return mqAdminExt;
+        }
+        synchronized (this) {
+            mqAdminExt = clients.get(key);
+            if (mqAdminExt == null) {
+                mqAdminExt = mqAdminFactory.getInstance(accessKey, secretKey);
+                clients.put(key, mqAdminExt);
+                log.info("Created shared MQAdminExt {} for access key {}", mqAdminExt, StringUtils.defaultString(accessKey));
+            }
+            return mqAdminExt;
+        }
+    }
+
+    /**
+     * Replace all clients, e.g. after the name server address changed.
+     */
+    public synchronized void reset() {
+        List<MQAdminExt> retired = new ArrayList<>(clients.values());
+        clients.clear();
+        retired.forEach(this::retire);
+    }
+
+    public synchronized void shutdownClient(String accessKey, String secretKey) {
+        MQAdminExt mqAdminExt = clients.remove(clientKey(accessKey, secretKey));
+        if (mqAdminExt != null) {
+            retire(mqAdminExt);
+        }
+    }
+
+    private void retire(MQAdminExt mqAdminExt) {
+        retireScheduler.schedule(() -> shutdown(mqAdminExt), RETIRE_DELAY_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private void shutdown(MQAdminExt mqAdminExt) {
+        try {
+            mqAdminExt.shutdown();
+            log.info("Shutdown MQAdminExt {}", mqAdminExt);
+        } catch (Exception e) {
+            log.warn("MQAdminExt shutdown err", e);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void shutdownAll() {
+        retireScheduler.shutdownNow();
+        clients.values().forEach(this::shutdown);
+        clients.clear();
+    }
+
+    private static String clientKey(String accessKey, String secretKey) {
+        return StringUtils.defaultString(accessKey) + ":" + StringUtils.defaultString(secretKey);
+    }
+
+    private boolean isIsolatedByUser(boolean loginRequired, String authMode, String methodName) {
+        if (!loginRequired || authMode.equals("file")) {
+            return false;
+        } else {
+            return !METHODS_TO_CHECK.contains(methodName);
+        }
+    }
+}
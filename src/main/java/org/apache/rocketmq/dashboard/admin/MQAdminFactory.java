@@ -38,9 +38,11 @@ public class MQAdminFactory {
     private final AtomicLong adminIndex = new AtomicLong(0);
 
     public MQAdminExt getInstance() throws Exception {
+        return getInstance(rmqConfigure.getAccessKey(), rmqConfigure.getSecretKey());
+    }
+
+    public MQAdminExt getInstance(String accessKey, String secretKey) throws Exception {
         RPCHook rpcHook = null;
-        final String accessKey = rmqConfigure.getAccessKey();
-        final String secretKey = rmqConfigure.getSecretKey();
         boolean isEnableAcl = StringUtils.isNotEmpty(accessKey) && StringUtils.isNotEmpty(secretKey);
         if (isEnableAcl) {
             rpcHook = new AclClientRPCHook(new SessionCredentials(accessKey, secretKey));
@@ -51,10 +53,12 @@ public class MQAdminFactory {
         } else {
             mqAdminExt = new DefaultMQAdminExt(rpcHook, rmqConfigure.getTimeoutMillis());
         }
-        mqAdminExt.setAdminExtGroup(mqAdminExt.getAdminExtGroup() + "_" + adminIndex.getAndIncrement());
+        long index = adminIndex.getAndIncrement();
+        mqAdminExt.setAdminExtGroup(mqAdminExt.getAdminExtGroup() + "_" + index);
         mqAdminExt.setVipChannelEnabled(Boolean.parseBoolean(rmqConfigure.getIsVIPChannel()));
         mqAdminExt.setUseTLS(rmqConfigure.isUseTLS());
-        mqAdminExt.setInstanceName(Long.toString(System.currentTimeMillis()));
+        // admins with different credentials must not share a client instance
+        mqAdminExt.setInstanceName(System.currentTimeMillis() + "_" + index);
         mqAdminExt.start();
         log.info("create MQAdmin instance {} success.", mqAdminExt);
         return mqAdminExt;
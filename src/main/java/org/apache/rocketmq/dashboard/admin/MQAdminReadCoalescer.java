@@ -0,0 +1,183 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.rocketmq.dashboard.admin;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import org.apache.rocketmq.dashboard.config.RMQConfigure;
+import org.apache.rocketmq.tools.admin.MQAdminExt;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lets identical admin reads share one request.
+ * <p>
+ * A read is identified by the client it runs on, the method and the arguments, so users never share the
+ * results of their own clients. Reads arriving while the same read is running wait for its result instead of
+ * sending their own request. A method with a TTL in {@link RMQConfigure#getAdminReadCacheTtl()} also reuses
+ * its results for that long. Only reads whose results are not modified by the callers take part.
+ */
+@Component
+public class MQAdminReadCoalescer {
+
+    private static final Set<String> READ_METHODS = new HashSet<>();
+
+    static {
+        READ_METHODS.add("examineTopicStats");
+        READ_METHODS.add("examineTopicRouteInfo");
+        READ_METHODS.add("examineConsumeStats");
+        READ_METHODS.add("examineConsumerConnectionInfo");
+        READ_METHODS.add("queryTopicConsumeByWho");
+    }
+
+    private final ConcurrentMap<ReadKey, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    private final Map<String, Cache<ReadKey, Object>> caches = new HashMap<>();
+
+    private final Map<String, ReadCounters> counters = new HashMap<>();
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    public MQAdminReadCoalescer(RMQConfigure rmqConfigure) {
+        for (String methodName : READ_METHODS) {
+            counters.put(methodName, new ReadCounters());
+            Long ttl = rmqConfigure.getAdminReadCacheTtl().get(methodName);
+            if (ttl != null && ttl > 0) {
+                caches.put(methodName, CacheBuilder.newBuilder()
+                        .maximumSize(10000)
+                        .expireAfterWrite(ttl, TimeUnit.MILLISECONDS)
+                        .build());
+            }
+        }
+    }
+
+    @PostConstruct
+    public void registerMetrics() {
+        if (meterRegistry == null) {
+            return;
+        }
+        counters.forEach((methodName, readCounters) -> {
+            register(methodName, "hit", readCounters.hits, "Admin reads answered from the result cache");
+            register(methodName, "miss", readCounters.misses, "Admin reads sent to the cluster");
+            register(methodName, "coalesced", readCounters.coalesced, "Admin reads that joined an identical read in flight");
+        });
+    }
+
+    private void register(String methodName, String result, LongAdder counter, String description) {
+        FunctionCounter.builder("rocketmq.dashboard.admin.read", counter, LongAdder::sum)
+                .tag("method", methodName)
+                .tag("result", result)
+                .description(description)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs the read, or returns the result of the identical read in flight or in the cache.
+     */
+    public Object read(MQAdminExt mqAdminExt, String methodName, Object[] args, AdminRead read) throws Throwable {
+        ReadCounters readCounters = counters.get(methodName);
+        if (readCounters == null) {
+            return read.proceed();
+        }
+        ReadKey key = new ReadKey(mqAdminExt, methodName, Arrays.asList(args));
+        Cache<ReadKey, Object> cache = caches.get(methodName);
+        if (cache != null) {
+            Object cached = cache.getIfPresent(key);
+            if (cached != null) {
+                readCounters.hits.increment();
+                return cached;
+            }
+        }
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, flight);
+        if (running != null) {
+            readCounters.coalesced.increment();
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                throw e.getCause();
+            }
+        }
+        readCounters.misses.increment();
+        try {
+            Object result = read.proceed();
+            if (cache != null && result != null) {
+                cache.put(key, result);
+            }
+            flight.complete(result);
+            return result;
+        } catch (Throwable t) {
+            flight.completeExceptionally(t);
+            throw t;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    public long getHits(String methodName) {
+        return counters.get(methodName).hits.sum();
+    }
+
+    public long getMisses(String methodName) {
+        return counters.get(methodName).misses.sum();
+    }
+
+    public long getCoalesced(String methodName) {
+        return counters.get(methodName).coalesced.sum();
+    }
+
+    @FunctionalInterface
+    public interface AdminRead {
+        Object proceed() throws Throwable;
+    }
+
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static final class ReadKey {
+        /**
+         * the clients do not override equals, so reads on different clients never match
+         */
+        private final MQAdminExt mqAdminExt;
+        private final String methodName;
+        private final List<Object> args;
+    }
+
+    private static final class ReadCounters {
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder coalesced = new LongAdder();
+    }
+}
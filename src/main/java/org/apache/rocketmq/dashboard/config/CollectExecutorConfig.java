@@ -37,6 +37,14 @@ public class CollectExecutorConfig {
     private int maxSize = 20;
     private long keepAliveTime = 3000L;
     private int queueSize = 1000;
+    /**
+     * stats requests of one collection cycle running against the same broker at the same time
+     */
+    private int brokerConcurrency = 2;
+    /**
+     * time budget in milliseconds of one topic collection cycle, topics not sampled by then are left out of that minute
+     */
+    private long cycleDeadline = 50000L;
 
     @Bean(name = "collectExecutor")
     public ExecutorService collectExecutor(CollectExecutorConfig collectExecutorConfig) {
@@ -54,7 +62,7 @@ public class CollectExecutorConfig {
                         return new Thread(r, "collectTopicThread_" + this.threadIndex.incrementAndGet());
                     }
                 },
-                new ThreadPoolExecutor.DiscardOldestPolicy()
+                new ThreadPoolExecutor.AbortPolicy()
         );
         return collectExecutor;
     }
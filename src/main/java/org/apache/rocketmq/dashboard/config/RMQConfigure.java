@@ -33,7 +33,9 @@ import org.springframework.http.HttpStatus;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.apache.rocketmq.client.ClientConfig.SEND_MESSAGE_WITH_VIP_CHANNEL_PROPERTY;
 
@@ -95,6 +97,34 @@ public class RMQConfigure {
     @Getter
     private String authMode = "file";
 
+    /**
+     * bytes of pulled messages a message list query may hold at the same time, 0 for no limit
+     */
+    @Setter
+    @Getter
+    private long messageListByteBudget = 16 * 1024 * 1024;
+
+    /**
+     * milliseconds a streamed response, e.g. the message list of a topic, may take before it is cut off
+     */
+    @Setter
+    @Getter
+    private long streamTimeout = 300000;
+
+    /**
+     * dead letter messages re-produced per second, 0 for no limit
+     */
+    @Setter
+    @Getter
+    private int dlqResendPermitsPerSecond = 500;
+
+    /**
+     * milliseconds the result of an admin read is reused, by MQAdminExt method name, no caching by default
+     */
+    @Setter
+    @Getter
+    private Map<String, Long> adminReadCacheTtl = new HashMap<>();
+
     public void setProxyAddrs(List<String> proxyAddrs) {
         this.proxyAddrs = proxyAddrs;
         if (CollectionUtils.isNotEmpty(proxyAddrs)) {
@@ -84,6 +84,25 @@ public class ConsumerController {
         return consumerService.resetOffset(resetOffsetRequest);
     }
 
+    @RequestMapping(value = "/submitResetOffsetJob.do", method = {RequestMethod.POST})
+    @ResponseBody
+    public Object submitResetOffsetJob(@RequestBody ResetOffsetRequest resetOffsetRequest) {
+        logger.info("op=submitResetOffsetJob resetOffsetRequest={}", JsonUtil.obj2String(resetOffsetRequest));
+        return consumerService.submitResetOffsetJob(resetOffsetRequest);
+    }
+
+    @RequestMapping(value = "/queryResetOffsetJob.query", method = RequestMethod.GET)
+    @ResponseBody
+    public Object queryResetOffsetJob(@RequestParam String jobId) {
+        return consumerService.queryResetOffsetJob(jobId);
+    }
+
+    @RequestMapping(value = "/cancelResetOffsetJob.do", method = {RequestMethod.POST})
+    @ResponseBody
+    public Object cancelResetOffsetJob(@RequestParam String jobId) {
+        return consumerService.cancelResetOffsetJob(jobId);
+    }
+
     @RequestMapping(value = "/examineSubscriptionGroupConfig.query")
     @ResponseBody
     public Object examineSubscriptionGroupConfig(@RequestParam String consumerGroup) {
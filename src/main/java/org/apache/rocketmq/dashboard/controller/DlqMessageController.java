@@ -23,8 +23,10 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.rocketmq.common.MixAll;
 import org.apache.rocketmq.common.message.MessageExt;
 import org.apache.rocketmq.dashboard.exception.ServiceException;
+import org.apache.rocketmq.dashboard.model.DlqBulkJobRequest;
 import org.apache.rocketmq.dashboard.model.DlqMessageExcelModel;
 import org.apache.rocketmq.dashboard.model.DlqMessageRequest;
+import org.apache.rocketmq.dashboard.model.DlqReproduceRequest;
 import org.apache.rocketmq.dashboard.model.request.MessageQuery;
 import org.apache.rocketmq.dashboard.permisssion.Permission;
 import org.apache.rocketmq.dashboard.service.DlqMessageService;
@@ -39,7 +41,7 @@ import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 
-import java.util.ArrayList;
+import java.io.File;
 import java.util.List;
 
 @Controller
@@ -84,24 +86,46 @@ public class DlqMessageController {
         return dlqMessageService.batchResendDlqMessage(dlqMessages);
     }
 
+    @PostMapping(value = "/batchReproduceDlqMessage.do")
+    @ResponseBody
+    public Object batchReproduceDlqMessage(@RequestBody DlqReproduceRequest request) {
+        return dlqMessageService.batchReproduceDlqMessage(request);
+    }
+
     @PostMapping(value = "/batchExportDlqMessage.do")
     public void batchExportDlqMessage(HttpServletResponse response, @RequestBody List<DlqMessageRequest> dlqMessages) {
-        List<DlqMessageExcelModel> dlqMessageExcelModelList = new ArrayList<>(dlqMessages.size());
-        for (DlqMessageRequest dlqMessage : dlqMessages) {
-            DlqMessageExcelModel excelModel = new DlqMessageExcelModel();
-            try {
-                String topic = MixAll.DLQ_GROUP_TOPIC_PREFIX + dlqMessage.getConsumerGroup();
-                MessageExt messageExt = mqAdminExt.viewMessage(topic, dlqMessage.getMsgId());
-                excelModel = new DlqMessageExcelModel(messageExt);
-            } catch (Exception e) {
-                log.error("Failed to query message by Id:{}", dlqMessage.getMsgId(), e);
-                excelModel.setMsgId(dlqMessage.getMsgId());
-                excelModel.setException(e.getMessage());
-            }
-            dlqMessageExcelModelList.add(excelModel);
+        try (ExcelUtil.ExcelRowWriter<DlqMessageExcelModel> rowWriter =
+                     ExcelUtil.openExcel(response, "dlqs", "dlqs", DlqMessageExcelModel.class)) {
+            dlqMessageService.batchExportDlqMessage(dlqMessages, rowWriter::write);
+        } catch (Exception e) {
+            log.error("Failed to export dlq messages", e);
+            throw new ServiceException(-1, String.format("export dlq message failed!"));
         }
+    }
+
+    @PostMapping(value = "/submitBulkJob.do")
+    @ResponseBody
+    public Object submitBulkJob(@RequestBody DlqBulkJobRequest request) {
+        return dlqMessageService.submitBulkJob(request);
+    }
+
+    @GetMapping(value = "/queryBulkJob.query")
+    @ResponseBody
+    public Object queryBulkJob(@RequestParam String jobId) {
+        return dlqMessageService.queryBulkJob(jobId);
+    }
+
+    @PostMapping(value = "/cancelBulkJob.do")
+    @ResponseBody
+    public Object cancelBulkJob(@RequestParam String jobId) {
+        return dlqMessageService.cancelBulkJob(jobId);
+    }
+
+    @GetMapping(value = "/downloadBulkJobExport.do")
+    public void downloadBulkJobExport(HttpServletResponse response, @RequestParam String jobId) {
+        File file = dlqMessageService.bulkJobExportFile(jobId);
         try {
-            ExcelUtil.writeExcel(response, dlqMessageExcelModelList, "dlqs", "dlqs", DlqMessageExcelModel.class);
+            ExcelUtil.writeExcelFile(response, file, "dlqs");
         } catch (Exception e) {
             throw new ServiceException(-1, String.format("export dlq message failed!"));
         }
@@ -24,11 +24,14 @@ import org.apache.rocketmq.dashboard.model.MessageView;
 import org.apache.rocketmq.dashboard.model.request.MessageQuery;
 import org.apache.rocketmq.dashboard.permisssion.Permission;
 import org.apache.rocketmq.dashboard.service.MessageService;
+import org.apache.rocketmq.dashboard.support.JsonResult;
 import org.apache.rocketmq.dashboard.util.JsonUtil;
 import org.apache.rocketmq.remoting.protocol.body.ConsumeMessageDirectlyResult;
 import org.apache.rocketmq.tools.admin.api.MessageTrack;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -36,9 +39,15 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Controller
 @RequestMapping("/message")
@@ -77,6 +86,47 @@ public class MessageController {
         return messageService.queryMessageByTopic(topic, begin, end);
     }
 
+    /**
+     * Same result as {@link #queryMessageByTopic}, written as newline delimited json while the queues are
+     * still being scanned, so the newest messages show up before the whole range is read.
+     * <p>
+     * The status is sent before the scan ends, so the last line is a {@link JsonResult}: status 0 with the
+     * number of messages as data, or -1 with the error when the scan failed. A stream without it was cut off.
+     */
+    @RequestMapping(value = "/queryMessageByTopic.stream", method = RequestMethod.GET)
+    public ResponseEntity<StreamingResponseBody> streamMessageByTopic(@RequestParam String topic,
+                                                                      @RequestParam long begin,
+                                                                      @RequestParam long end) {
+        StreamingResponseBody body = outputStream -> {
+            AtomicInteger count = new AtomicInteger();
+            JsonResult<Integer> result;
+            try {
+                messageService.queryMessageByTopic(topic, begin, end, messageView -> {
+                    writeLine(outputStream, messageView);
+                    count.incrementAndGet();
+                });
+                result = new JsonResult<>(count.get());
+            } catch (UncheckedIOException e) {
+                // the client is gone, there is no one left to tell
+                throw e.getCause();
+            } catch (Exception e) {
+                logger.error("op=streamMessageByTopic topic={} failed after {} messages", topic, count.get(), e);
+                result = new JsonResult<>(-1, e.getMessage());
+            }
+            writeLine(outputStream, result);
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    private void writeLine(OutputStream outputStream, Object line) {
+        try {
+            outputStream.write((JsonUtil.obj2String(line) + "\n").getBytes(StandardCharsets.UTF_8));
+            outputStream.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     @RequestMapping(value = "/consumeMessageDirectly.do", method = RequestMethod.POST)
     @ResponseBody
     public Object consumeMessageDirectly(@RequestParam String topic, @RequestParam String consumerGroup,
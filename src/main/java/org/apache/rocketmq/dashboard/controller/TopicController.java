@@ -20,10 +20,12 @@ import com.google.common.base.Preconditions;
 import jakarta.annotation.Resource;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.rocketmq.client.exception.MQClientException;
+import org.apache.rocketmq.dashboard.model.SendLoadJobRequest;
 import org.apache.rocketmq.dashboard.model.request.SendTopicMessageRequest;
 import org.apache.rocketmq.dashboard.model.request.TopicConfigInfo;
 import org.apache.rocketmq.dashboard.permisssion.Permission;
 import org.apache.rocketmq.dashboard.service.ConsumerService;
+import org.apache.rocketmq.dashboard.service.TopicCatalog;
 import org.apache.rocketmq.dashboard.service.TopicService;
 import org.apache.rocketmq.dashboard.util.JsonUtil;
 import org.apache.rocketmq.remoting.exception.RemotingException;
@@ -36,6 +38,8 @@ import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 
+import java.util.List;
+
 @Controller
 @RequestMapping("/topic")
 @Permission
@@ -48,6 +52,9 @@ public class TopicController {
     @Resource
     private ConsumerService consumerService;
 
+    @Resource
+    private TopicCatalog topicCatalog;
+
     @RequestMapping(value = "/list.query", method = RequestMethod.GET)
     @ResponseBody
     public Object list(@RequestParam(value = "skipSysProcess", required = false) boolean skipSysProcess,
@@ -62,6 +69,16 @@ public class TopicController {
         return topicService.examineAllTopicType();
     }
 
+    @RequestMapping(value = "/catalog.query", method = RequestMethod.GET)
+    @ResponseBody
+    public Object catalog(@RequestParam(required = false) String prefix,
+                          @RequestParam(required = false) String keyword,
+                          @RequestParam(required = false) List<String> types,
+                          @RequestParam(required = false) String cursor,
+                          @RequestParam(defaultValue = "100") int limit) {
+        return topicCatalog.query(prefix, keyword, types, cursor, limit);
+    }
+
     @RequestMapping(value = "/stats.query", method = RequestMethod.GET)
     @ResponseBody
     public Object stats(@RequestParam String topic) {
@@ -111,6 +128,25 @@ public class TopicController {
         return topicService.sendTopicMessageRequest(sendTopicMessageRequest);
     }
 
+    @RequestMapping(value = "/submitSendLoadJob.do", method = {RequestMethod.POST})
+    @ResponseBody
+    public Object submitSendLoadJob(@RequestBody SendLoadJobRequest request) {
+        logger.info("op=submitSendLoadJob request={}", JsonUtil.obj2String(request));
+        return topicService.submitSendLoadJob(request);
+    }
+
+    @RequestMapping(value = "/querySendLoadJob.query", method = RequestMethod.GET)
+    @ResponseBody
+    public Object querySendLoadJob(@RequestParam String jobId) {
+        return topicService.querySendLoadJob(jobId);
+    }
+
+    @RequestMapping(value = "/cancelSendLoadJob.do", method = {RequestMethod.POST})
+    @ResponseBody
+    public Object cancelSendLoadJob(@RequestParam String jobId) {
+        return topicService.cancelSendLoadJob(jobId);
+    }
+
     @RequestMapping(value = "/deleteTopic.do", method = {RequestMethod.POST})
     @ResponseBody
     public Object delete(@RequestParam(required = false) String clusterName, @RequestParam String topic) {
@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.rocketmq.dashboard.model;
+
+import lombok.Data;
+
+@Data
+public class DlqBulkJob {
+
+    public enum Status {
+        PENDING,
+        RUNNING,
+        SUCCEEDED,
+        FAILED,
+        CANCELLED
+    }
+
+    private String jobId;
+
+    private String topic;
+
+    private DlqBulkJobRequest.Action action;
+
+    private Status status;
+
+    /**
+     * offsets of the time range in all queues
+     */
+    private long total;
+
+    /**
+     * offsets of the time range scanned so far
+     */
+    private long scanned;
+
+    /**
+     * messages that passed the tag and key filters
+     */
+    private long matched;
+
+    private long succeeded;
+
+    private long failed;
+
+    /**
+     * messages resent before according to the resend ledger
+     */
+    private long skipped;
+
+    private long createTime;
+
+    private long finishTime;
+
+    private String error;
+}
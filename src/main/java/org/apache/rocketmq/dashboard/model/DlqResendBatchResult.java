@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.rocketmq.dashboard.model;
+
+import lombok.Data;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+public class DlqResendBatchResult {
+
+    public enum Target {
+        /**
+         * the %RETRY% topic of the consumer group, so only the group that failed the message consumes it again
+         */
+        RETRY_TOPIC,
+        /**
+         * the topic the message was first sent to, so every group subscribing to it consumes it again
+         */
+        ORIGIN_TOPIC
+    }
+
+    private int batch;
+
+    private int sent;
+
+    /**
+     * messages resent before according to the resend ledger
+     */
+    private int skipped;
+
+    /**
+     * msgId to the reason the message was not resent
+     */
+    private Map<String, String> failures = new LinkedHashMap<>();
+}
@@ -17,7 +17,6 @@
 
 package org.apache.rocketmq.dashboard.model;
 
-import com.google.common.base.Charsets;
 import org.apache.rocketmq.client.trace.TraceBean;
 import org.apache.rocketmq.client.trace.TraceContext;
 import org.apache.rocketmq.common.message.MessageExt;
@@ -25,6 +24,7 @@ import org.apache.rocketmq.dashboard.model.trace.MessageTraceStatusEnum;
 import org.apache.rocketmq.dashboard.util.MsgTraceDecodeUtil;
 
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
 public class MessageTraceView {
@@ -52,18 +52,11 @@ public class MessageTraceView {
 
     public static List<MessageTraceView> decodeFromTraceTransData(String key, MessageExt messageExt) {
         List<MessageTraceView> messageTraceViewList = new ArrayList<MessageTraceView>();
-        String messageBody = new String(messageExt.getBody(), Charsets.UTF_8);
-        if (messageBody == null || messageBody.length() <= 0) {
-            return messageTraceViewList;
-        }
-
-        List<TraceContext> traceContextList = MsgTraceDecodeUtil.decoderFromTraceDataString(messageBody);
-        for (TraceContext context : traceContextList) {
+        Iterator<TraceContext> traceContexts = MsgTraceDecodeUtil.decoderFromTraceData(messageExt.getBody(), key);
+        while (traceContexts.hasNext()) {
+            TraceContext context = traceContexts.next();
             MessageTraceView messageTraceView = new MessageTraceView();
             TraceBean traceBean = context.getTraceBeans().get(0);
-            if (!traceBean.getMsgId().equals(key)) {
-                continue;
-            }
             messageTraceView.setCostTime(context.getCostTime());
             messageTraceView.setGroupName(context.getGroupName());
             if (context.isSuccess()) {
@@ -55,6 +55,15 @@ public class MessageView {
      * from Message
      **/
 
+    /**
+     * Header only view for the message lists, the body is loaded when a single message is viewed.
+     */
+    public static MessageView summaryOf(MessageExt messageExt) {
+        MessageView messageView = new MessageView();
+        BeanUtils.copyProperties(messageExt, messageView);
+        return messageView;
+    }
+
     public static MessageView fromMessageExt(MessageExt messageExt) {
         MessageView messageView = new MessageView();
         BeanUtils.copyProperties(messageExt, messageView);
@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.rocketmq.dashboard.model;
+
+import lombok.Data;
+
+import java.util.Map;
+
+@Data
+public class ResetOffsetJob {
+
+    public enum Status {
+        RUNNING,
+        FINISHED,
+        CANCELLED
+    }
+
+    private String jobId;
+
+    private String topic;
+
+    private long resetTime;
+
+    private boolean force;
+
+    private Status status;
+
+    private int total;
+
+    private int succeeded;
+
+    private int failed;
+
+    /**
+     * groups not reset because the job was cancelled before their turn
+     */
+    private int skipped;
+
+    /**
+     * results of the groups reset so far, with the new offset of every queue
+     */
+    private Map<String, ConsumerGroupRollBackStat> groupRollbackStats;
+
+    private long createTime;
+
+    private long finishTime;
+}
@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.rocketmq.dashboard.model;
+
+import lombok.Data;
+
+@Data
+public class SendLoadJob {
+
+    public enum Status {
+        PENDING,
+        RUNNING,
+        SUCCEEDED,
+        FAILED,
+        CANCELLED
+    }
+
+    private String jobId;
+
+    private String topic;
+
+    private SendLoadJobRequest.Mode mode;
+
+    private Status status;
+
+    private long total;
+
+    private long succeeded;
+
+    private long failed;
+
+    /**
+     * messages acknowledged per second since the job started
+     */
+    private double throughput;
+
+    /**
+     * latencies of the sends in milliseconds, a batch counts as one send
+     */
+    private double latencyP50;
+
+    private double latencyP90;
+
+    private double latencyP99;
+
+    private double latencyMax;
+
+    private long createTime;
+
+    private long startTime;
+
+    private long finishTime;
+
+    /**
+     * cause of the first failed send, or of the failure of the job
+     */
+    private String error;
+}
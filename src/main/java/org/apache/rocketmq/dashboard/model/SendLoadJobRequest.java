@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.rocketmq.dashboard.model;
+
+import lombok.Data;
+
+@Data
+public class SendLoadJobRequest {
+
+    public enum Mode {
+        /**
+         * every worker sends one message at a time and waits for the result
+         */
+        SYNC,
+        /**
+         * messages are sent with callbacks, at most concurrency of them in flight
+         */
+        ASYNC,
+        /**
+         * every worker sends batchSize messages at a time and waits for the result
+         */
+        BATCH
+    }
+
+    private String topic;
+
+    private String tag;
+
+    private long messageCount;
+
+    private int bodySize = 1024;
+
+    /**
+     * messages per second, no limit if 0 or less
+     */
+    private int tps;
+
+    /**
+     * sending workers, or messages in flight in ASYNC mode
+     */
+    private int concurrency = 1;
+
+    private Mode mode = Mode.SYNC;
+
+    private int batchSize = 32;
+}
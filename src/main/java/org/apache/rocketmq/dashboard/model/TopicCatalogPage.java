@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.rocketmq.dashboard.model;
+
+import lombok.Data;
+import org.apache.rocketmq.dashboard.model.request.TopicTypeMeta;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+public class TopicCatalogPage {
+
+    private List<TopicTypeMeta> topics;
+
+    /**
+     * cursor of the next page, null on the last page
+     */
+    private String nextCursor;
+
+    /**
+     * topics matching the search and the types
+     */
+    private int total;
+
+    /**
+     * topics matching the search by message type, whatever the requested types
+     */
+    private Map<String, Integer> typeCounts;
+
+    /**
+     * when the catalog was built
+     */
+    private long timestamp;
+}
@@ -0,0 +1,183 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.rocketmq.dashboard.service;
+
+import com.google.common.base.Throwables;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.rocketmq.dashboard.service.client.BrokerFanOut;
+import org.apache.rocketmq.dashboard.service.client.MQAdminAsyncClient;
+import org.apache.rocketmq.remoting.protocol.body.ClusterInfo;
+import org.apache.rocketmq.remoting.protocol.body.KVTable;
+import org.apache.rocketmq.remoting.protocol.route.BrokerData;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runtime stats of every master and slave, shared by the cluster page and the dashboard collector.
+ * <p>
+ * All brokers are asked in parallel on a schedule and reads are served from memory. A read that finds the
+ * snapshot older than the refresh interval keeps getting it while the next one is built, and concurrent
+ * refreshes join the one already running.
+ */
+@Slf4j
+@Service
+public class BrokerRuntimeStatsService {
+
+    private static final long FETCH_TIMEOUT_MS = 5000;
+
+    @Autowired
+    private ClusterInfoService clusterInfoService;
+
+    @Autowired
+    private MQAdminAsyncClient mqAdminAsyncClient;
+
+    @Value("${rocketmq.broker.stats.refresh:30000}")
+    private long refreshIntervalMs = 30000;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "BrokerRuntimeStats");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicReference<Snapshot> cachedRef = new AtomicReference<>();
+
+    private final AtomicReference<CompletableFuture<Snapshot>> refreshRef = new AtomicReference<>();
+
+    @PostConstruct
+    public void init() {
+        scheduler.scheduleAtFixedRate(this::refresh, 0, refreshIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * @return the current snapshot, only waits when there is none yet
+     */
+    public Snapshot get() {
+        Snapshot snapshot = cachedRef.get();
+        if (snapshot == null) {
+            return await(refresh());
+        }
+        if (System.currentTimeMillis() - snapshot.getTimestamp() > refreshIntervalMs) {
+            refresh();
+        }
+        return snapshot;
+    }
+
+    /**
+     * @return a snapshot taken at most maxAgeMs ago, waits for a refresh otherwise
+     */
+    public Snapshot get(long maxAgeMs) {
+        Snapshot snapshot = cachedRef.get();
+        if (snapshot != null && System.currentTimeMillis() - snapshot.getTimestamp() <= maxAgeMs) {
+            return snapshot;
+        }
+        return await(refresh());
+    }
+
+    /**
+     * Start building the next snapshot, or join the build already running.
+     */
+    public CompletableFuture<Snapshot> refresh() {
+        CompletableFuture<Snapshot> running = refreshRef.get();
+        if (running != null && !running.isDone()) {
+            return running;
+        }
+        CompletableFuture<Snapshot> refresh = new CompletableFuture<>();
+        if (!refreshRef.compareAndSet(running, refresh)) {
+            return refreshRef.get();
+        }
+        try {
+            CompletableFuture.supplyAsync(this::load, scheduler).whenComplete((snapshot, e) -> {
+                if (e != null) {
+                    log.warn("Refresh broker runtime stats failed", e);
+                    refresh.completeExceptionally(e);
+                } else {
+                    cachedRef.set(snapshot);
+                    refresh.complete(snapshot);
+                }
+            });
+        } catch (Exception e) {
+            refresh.completeExceptionally(e);
+        }
+        return refresh;
+    }
+
+    private Snapshot load() {
+        long timestamp = System.currentTimeMillis();
+        ClusterInfo clusterInfo = clusterInfoService.get();
+        Set<String> brokerAddrs = new LinkedHashSet<>();
+        for (BrokerData brokerData : clusterInfo.getBrokerAddrTable().values()) {
+            brokerAddrs.addAll(brokerData.getBrokerAddrs().values());
+        }
+        BrokerFanOut<KVTable> fanOut = BrokerFanOut.call(brokerAddrs,
+                brokerAddr -> mqAdminAsyncClient.fetchBrokerRuntimeStats(brokerAddr, FETCH_TIMEOUT_MS), FETCH_TIMEOUT_MS);
+        fanOut.getFailures().forEach((brokerAddr, e) ->
+                log.warn("op=fetchBrokerRuntimeStats_error brokerAddr={}", brokerAddr, e));
+        Map<String, Map<String, String>> stats = new HashMap<>();
+        fanOut.getResults().forEach((brokerAddr, kvTable) -> stats.put(brokerAddr, kvTable.getTable()));
+        return new Snapshot(timestamp, clusterInfo, Collections.unmodifiableMap(stats));
+    }
+
+    private Snapshot await(CompletableFuture<Snapshot> refresh) {
+        try {
+            return refresh.join();
+        } catch (CompletionException e) {
+            Throwables.throwIfUnchecked(e.getCause());
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    @Getter
+    public static final class Snapshot {
+        /**
+         * when the brokers were asked
+         */
+        private final long timestamp;
+        private final ClusterInfo clusterInfo;
+        /**
+         * runtime stats by broker address, brokers that did not answer are missing
+         */
+        private final Map<String, Map<String, String>> stats;
+
+        public Snapshot(long timestamp, ClusterInfo clusterInfo, Map<String, Map<String, String>> stats) {
+            this.timestamp = timestamp;
+            this.clusterInfo = clusterInfo;
+            this.stats = stats;
+        }
+    }
+}
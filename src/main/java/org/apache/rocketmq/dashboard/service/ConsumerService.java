@@ -19,6 +19,7 @@ package org.apache.rocketmq.dashboard.service;
 
 import org.apache.rocketmq.dashboard.model.ConsumerGroupRollBackStat;
 import org.apache.rocketmq.dashboard.model.GroupConsumeInfo;
+import org.apache.rocketmq.dashboard.model.ResetOffsetJob;
 import org.apache.rocketmq.dashboard.model.TopicConsumerInfo;
 import org.apache.rocketmq.dashboard.model.request.ConsumerConfigInfo;
 import org.apache.rocketmq.dashboard.model.request.DeleteSubGroupRequest;
@@ -44,6 +45,12 @@ public interface ConsumerService {
 
     Map<String /*consumerGroup*/, ConsumerGroupRollBackStat> resetOffset(ResetOffsetRequest resetOffsetRequest);
 
+    ResetOffsetJob submitResetOffsetJob(ResetOffsetRequest resetOffsetRequest);
+
+    ResetOffsetJob queryResetOffsetJob(String jobId);
+
+    ResetOffsetJob cancelResetOffsetJob(String jobId);
+
     List<ConsumerConfigInfo> examineSubscriptionGroupConfig(String group);
 
     boolean deleteSubGroup(DeleteSubGroupRequest deleteSubGroupRequest);
@@ -16,7 +16,8 @@
  */
 package org.apache.rocketmq.dashboard.service;
 
-import com.google.common.cache.LoadingCache;
+import org.apache.rocketmq.dashboard.service.store.TimeSeriesBuffer;
+import org.apache.rocketmq.dashboard.service.store.TimeSeriesData;
 
 import java.io.File;
 import java.util.List;
@@ -25,13 +26,49 @@ import java.util.Map;
 public interface DashboardCollectService {
     // todo just move the task to org.apache.rocketmq.dashboard.task.DashboardCollectTask
     // the code can be reconstruct
-    LoadingCache<String, List<String>> getBrokerMap();
+    /**
+     * brokerName:brokerId -> samples (timestamp, tps) not flushed yet
+     */
+    Map<String, TimeSeriesBuffer> getBrokerMap();
 
-    LoadingCache<String, List<String>> getTopicMap();
+    /**
+     * topic -> samples (timestamp, inTps, inMsgCntToday, outTps, outMsgCntToday) not flushed yet
+     */
+    Map<String, TimeSeriesBuffer> getTopicMap();
+
+    void addBrokerSample(String broker, long timestamp, double tps);
+
+    void addTopicSample(String topic, long timestamp, double inTps, long inMsgCntToday,
+                        double outTps, long outMsgCntToday);
 
     Map<String, List<String>> jsonDataFile2map(File file);
 
-    Map<String, List<String>> getBrokerCache(String date);
+    /**
+     * @param date format yyyy-MM-dd
+     */
+    Map<String, TimeSeriesData> getBrokerCache(String date);
+
+    /**
+     * @param date format yyyy-MM-dd
+     */
+    Map<String, TimeSeriesData> getTopicCache(String date);
+
+    /**
+     * Read a single topic series of the given day.
+     *
+     * @param date format yyyy-MM-dd
+     */
+    TimeSeriesData getTopicCache(String date, String topicName);
+
+    /**
+     * Read the last sample of every topic series of the given day.
+     *
+     * @param date format yyyy-MM-dd
+     */
+    Map<String, TimeSeriesData> getTopicLatest(String date);
 
-    Map<String, List<String>> getTopicCache(String date);
+    /**
+     * Append the samples collected since the previous flush to the time series store.
+     */
+    void flushToStore();
 }
@@ -17,16 +17,48 @@
 
 package org.apache.rocketmq.dashboard.service;
 
+import org.apache.rocketmq.dashboard.model.DlqBulkJob;
+import org.apache.rocketmq.dashboard.model.DlqBulkJobRequest;
+import org.apache.rocketmq.dashboard.model.DlqMessageExcelModel;
 import org.apache.rocketmq.dashboard.model.DlqMessageRequest;
 import org.apache.rocketmq.dashboard.model.DlqMessageResendResult;
+import org.apache.rocketmq.dashboard.model.DlqReproduceRequest;
+import org.apache.rocketmq.dashboard.model.DlqResendBatchResult;
 import org.apache.rocketmq.dashboard.model.MessagePage;
 import org.apache.rocketmq.dashboard.model.request.MessageQuery;
 
+import java.io.File;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface DlqMessageService {
 
     MessagePage queryDlqMessageByPage(MessageQuery query);
 
     List<DlqMessageResendResult> batchResendDlqMessage(List<DlqMessageRequest> dlqMessages);
+
+    /**
+     * Resend the messages by producing them again to the target topic, which needs no online consumer.
+     */
+    List<DlqResendBatchResult> batchReproduceDlqMessage(DlqReproduceRequest request);
+
+    /**
+     * Look up the messages to export and pass their rows to the consumer in the order of the requests, a message
+     * that cannot be looked up gets a row with the error.
+     */
+    void batchExportDlqMessage(List<DlqMessageRequest> dlqMessages, Consumer<DlqMessageExcelModel> rowConsumer);
+
+    /**
+     * Start a background job that exports or resends the messages of a DLQ topic stored in a time range.
+     */
+    DlqBulkJob submitBulkJob(DlqBulkJobRequest request);
+
+    DlqBulkJob queryBulkJob(String jobId);
+
+    DlqBulkJob cancelBulkJob(String jobId);
+
+    /**
+     * @return the workbook of a finished export job
+     */
+    File bulkJobExportFile(String jobId);
 }
@@ -26,6 +26,7 @@ import org.apache.rocketmq.remoting.protocol.body.ConsumeMessageDirectlyResult;
 import org.apache.rocketmq.tools.admin.api.MessageTrack;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface MessageService {
     /**
@@ -44,6 +45,11 @@ public interface MessageService {
     List<MessageView> queryMessageByTopic(final String topic, final long begin,
                                           final long end);
 
+    /**
+     * Pass the messages of the time range to the sink newest first, as soon as they are pulled.
+     */
+    void queryMessageByTopic(String topic, long begin, long end, Consumer<MessageView> sink);
+
     List<MessageTrack> messageTrackDetail(MessageExt msg);
 
     ConsumeMessageDirectlyResult consumeMessageDirectly(String topic, String msgId, String consumerGroup,
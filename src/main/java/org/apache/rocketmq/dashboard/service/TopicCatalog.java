@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.rocketmq.dashboard.service;
+
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.rocketmq.common.TopicConfig;
+import org.apache.rocketmq.dashboard.model.TopicCatalogPage;
+import org.apache.rocketmq.dashboard.model.request.TopicTypeList;
+import org.apache.rocketmq.dashboard.model.request.TopicTypeMeta;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Sorted index of all topics and their message types, for searching and paging the topic list on the server.
+ * <p>
+ * The index is searched in memory: a prefix is looked up by binary search, a keyword and the types are matched
+ * by a scan of the prefix range. Pages are cut after the last topic name of the previous page, so they stay
+ * consistent when the index is rebuilt between two pages.
+ * <p>
+ * The index is derived from the {@link TopicConfigIndex} of the current user, which decides when the configs
+ * are fetched again. It is rebuilt only when the topic configs of that index changed, by the first query that
+ * sees them, and the concurrent queries of the same configs wait for it.
+ */
+@Service
+public class TopicCatalog {
+
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    @Autowired
+    private TopicService topicService;
+
+    @Autowired
+    private TopicConfigIndex topicConfigIndex;
+
+    /**
+     * keyed by the identity of the merged topic configs, which a refresh keeps when no broker changed, and dropped
+     * with them
+     */
+    private final Cache<Map<String, Map<String, TopicConfig>>, Index> indexes =
+        CacheBuilder.newBuilder().weakKeys().build();
+
+    /**
+     * @param prefix  case-sensitive start of the topic names, blank for all
+     * @param keyword case-insensitive part of the topic names, blank for all
+     * @param types   message types to keep, empty for all
+     * @param cursor  nextCursor of the previous page, blank for the first page
+     * @param limit   topics per page, at most {@link #MAX_PAGE_SIZE}
+     */
+    public TopicCatalogPage query(String prefix, String keyword, Collection<String> types, String cursor, int limit) {
+        TopicConfigIndex.Snapshot snapshot = topicConfigIndex.get();
+        Index index = indexOf(snapshot);
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        String lowerKeyword = StringUtils.isBlank(keyword) ? null : keyword.toLowerCase(Locale.ROOT);
+        Set<String> typeSet = CollectionUtils.isEmpty(types) ? null : new HashSet<>(types);
+
+        int from = 0;
+        int to = index.names.length;
+        if (StringUtils.isNotEmpty(prefix)) {
+            from = index.lowerBound(prefix);
+            to = from;
+            while (to < index.names.length && index.names[to].startsWith(prefix)) {
+                to++;
+            }
+        }
+        int start = StringUtils.isEmpty(cursor) ? from : Math.max(from, index.upperBound(cursor));
+
+        Map<String, Integer> typeCounts = new TreeMap<>();
+        List<TopicTypeMeta> topics = new ArrayList<>(Math.min(pageSize, Math.max(to - start, 0)));
+        int total = 0;
+        boolean more = false;
+        for (int i = from; i < to; i++) {
+            if (lowerKeyword != null && !index.lowerNames[i].contains(lowerKeyword)) {
+                continue;
+            }
+            typeCounts.merge(index.types[i], 1, Integer::sum);
+            if (typeSet != null && !typeSet.contains(index.types[i])) {
+                continue;
+            }
+            total++;
+            if (i < start) {
+                continue;
+            }
+            if (topics.size() < pageSize) {
+                TopicTypeMeta topic = new TopicTypeMeta();
+                topic.setTopicName(index.names[i]);
+                topic.setMessageType(index.types[i]);
+                topics.add(topic);
+            } else {
+                more = true;
+            }
+        }
+
+        TopicCatalogPage page = new TopicCatalogPage();
+        page.setTopics(topics);
+        page.setNextCursor(more ? topics.get(topics.size() - 1).getTopicName() : null);
+        page.setTotal(total);
+        page.setTypeCounts(typeCounts);
+        page.setTimestamp(snapshot.getTimestamp());
+        return page;
+    }
+
+    private Index indexOf(TopicConfigIndex.Snapshot snapshot) {
+        try {
+            return indexes.get(snapshot.getTopicConfigs(), () -> load(snapshot));
+        } catch (ExecutionException e) {
+            Throwables.throwIfUnchecked(e.getCause());
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private Index load(TopicConfigIndex.Snapshot snapshot) {
+        TopicTypeList topicTypeList = topicService.examineAllTopicType(snapshot);
+        List<String> names = topicTypeList.getTopicNameList();
+        List<String> types = topicTypeList.getMessageTypeList();
+        Integer[] order = new Integer[names.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> names.get(a).compareTo(names.get(b)));
+        Index index = new Index(order.length);
+        for (int i = 0; i < order.length; i++) {
+            index.names[i] = names.get(order[i]);
+            index.lowerNames[i] = index.names[i].toLowerCase(Locale.ROOT);
+            index.types[i] = types.get(order[i]);
+        }
+        return index;
+    }
+
+    private static final class Index {
+        private final String[] names;
+        private final String[] lowerNames;
+        private final String[] types;
+
+        private Index(int size) {
+            this.names = new String[size];
+            this.lowerNames = new String[size];
+            this.types = new String[size];
+        }
+
+        /**
+         * @return position of the first name not before the given one
+         */
+        private int lowerBound(String name) {
+            int position = Arrays.binarySearch(names, name);
+            return position >= 0 ? position : -position - 1;
+        }
+
+        /**
+         * @return position of the first name after the given one
+         */
+        private int upperBound(String name) {
+            int position = Arrays.binarySearch(names, name);
+            return position >= 0 ? position + 1 : -position - 1;
+        }
+    }
+}
@@ -0,0 +1,244 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.rocketmq.dashboard.service;
+
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.rocketmq.common.MixAll;
+import org.apache.rocketmq.common.TopicConfig;
+import org.apache.rocketmq.dashboard.admin.MQAdminClientManager;
+import org.apache.rocketmq.dashboard.service.client.BrokerFanOut;
+import org.apache.rocketmq.dashboard.service.client.MQAdminAsyncClient;
+import org.apache.rocketmq.remoting.protocol.DataVersion;
+import org.apache.rocketmq.remoting.protocol.body.ClusterInfo;
+import org.apache.rocketmq.remoting.protocol.body.TopicConfigSerializeWrapper;
+import org.apache.rocketmq.tools.admin.MQAdminExt;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Topic configs of all master brokers, merged by topic, shared by the topic pages.
+ * <p>
+ * The configs of all masters are fetched in parallel when the index is older than the refresh interval or
+ * was invalidated by a write. A broker whose {@link DataVersion} did not change since the previous fetch
+ * keeps its part of the index, and the merged index is only rebuilt when some broker changed. A broker that
+ * does not answer keeps its previous configs.
+ * <p>
+ * There is one index per admin client, as the users of an ACL login may see different topics. The configs
+ * are fetched on the thread of the read that found the index out of date, which serves the user of the
+ * client, and the concurrent reads of the same client wait for that fetch.
+ */
+@Slf4j
+@Service
+public class TopicConfigIndex {
+
+    private static final long FETCH_TIMEOUT_MS = 10000;
+
+    @Autowired
+    private ClusterInfoService clusterInfoService;
+
+    @Autowired
+    private MQAdminAsyncClient mqAdminAsyncClient;
+
+    @Autowired
+    private MQAdminClientManager mqAdminClientManager;
+
+    @Value("${rocketmq.topic.config.index.refresh:30000}")
+    private long refreshIntervalMs = 30000;
+
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * a client replaced or shut down by the client manager drops its index
+     */
+    private final Cache<MQAdminExt, ClientIndex> indexes = CacheBuilder.newBuilder().weakKeys().build();
+
+    /**
+     * @return an index of the current user's client, younger than the refresh interval and built after the last
+     * invalidation
+     */
+    public Snapshot get() {
+        ClientIndex index;
+        try {
+            index = indexes.asMap().computeIfAbsent(mqAdminClientManager.resolve("getAllTopicConfig"),
+                key -> new ClientIndex());
+        } catch (Exception e) {
+            Throwables.throwIfUnchecked(e);
+            throw new RuntimeException(e);
+        }
+        Snapshot snapshot = index.snapshotRef.get();
+        if (isCurrent(snapshot)) {
+            return snapshot;
+        }
+        snapshot = await(refresh(index));
+        if (!isCurrent(snapshot)) {
+            // the joined refresh started before the last invalidation
+            snapshot = await(refresh(index));
+        }
+        return snapshot;
+    }
+
+    /**
+     * Make the next read fetch the configs again, after a topic was created, updated or deleted.
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+    }
+
+    private boolean isCurrent(Snapshot snapshot) {
+        return snapshot != null && snapshot.generation == generation.get()
+            && System.currentTimeMillis() - snapshot.timestamp <= refreshIntervalMs;
+    }
+
+    private CompletableFuture<Snapshot> refresh(ClientIndex index) {
+        CompletableFuture<Snapshot> running = index.refreshRef.get();
+        if (running != null && !running.isDone()) {
+            return running;
+        }
+        CompletableFuture<Snapshot> refresh = new CompletableFuture<>();
+        if (!index.refreshRef.compareAndSet(running, refresh)) {
+            return index.refreshRef.get();
+        }
+        long refreshGeneration = generation.get();
+        try {
+            Snapshot snapshot = load(index.snapshotRef.get(), refreshGeneration);
+            index.snapshotRef.set(snapshot);
+            refresh.complete(snapshot);
+        } catch (Exception e) {
+            log.warn("Refresh topic config index failed", e);
+            refresh.completeExceptionally(e);
+        }
+        return refresh;
+    }
+
+    private Snapshot load(Snapshot previous, long refreshGeneration) {
+        long timestamp = System.currentTimeMillis();
+        ClusterInfo clusterInfo = clusterInfoService.get();
+        Map<String, String> masterAddrs = new LinkedHashMap<>();
+        clusterInfo.getBrokerAddrTable().forEach((brokerName, brokerData) -> {
+            String masterAddr = brokerData.getBrokerAddrs().get(MixAll.MASTER_ID);
+            if (masterAddr != null) {
+                masterAddrs.put(brokerName, masterAddr);
+            }
+        });
+        BrokerFanOut<TopicConfigSerializeWrapper> fanOut = BrokerFanOut.call(masterAddrs,
+            brokerAddr -> mqAdminAsyncClient.getAllTopicConfig(brokerAddr, FETCH_TIMEOUT_MS), FETCH_TIMEOUT_MS);
+        fanOut.getFailures().forEach((brokerName, e) ->
+            log.warn("op=getAllTopicConfig_error brokerName={}", brokerName, e));
+
+        Map<String, BrokerTopics> brokers = new LinkedHashMap<>();
+        boolean changed = previous == null || !previous.brokers.keySet().equals(masterAddrs.keySet());
+        for (Map.Entry<String, String> entry : masterAddrs.entrySet()) {
+            String brokerName = entry.getKey();
+            BrokerTopics before = previous == null ? null : previous.brokers.get(brokerName);
+            TopicConfigSerializeWrapper wrapper = fanOut.getResults().get(brokerName);
+            if (wrapper == null) {
+                if (before != null) {
+                    brokers.put(brokerName, before);
+                }
+                continue;
+            }
+            if (before != null && before.brokerAddr.equals(entry.getValue())
+                && Objects.equals(before.dataVersion, wrapper.getDataVersion())) {
+                brokers.put(brokerName, before);
+                continue;
+            }
+            brokers.put(brokerName, new BrokerTopics(entry.getValue(), wrapper.getDataVersion(),
+                new HashMap<>(wrapper.getTopicConfigTable())));
+            changed = true;
+        }
+        if (!changed && brokers.size() == previous.brokers.size()) {
+            return new Snapshot(timestamp, refreshGeneration, previous.brokers, previous.topicConfigs);
+        }
+
+        Map<String, Map<String, TopicConfig>> topicConfigs = new HashMap<>();
+        brokers.forEach((brokerName, brokerTopics) -> brokerTopics.topicConfigTable.forEach((topic, topicConfig) ->
+            topicConfigs.computeIfAbsent(topic, key -> new LinkedHashMap<>()).put(brokerName, topicConfig)));
+        topicConfigs.replaceAll((topic, configs) -> Collections.unmodifiableMap(configs));
+        return new Snapshot(timestamp, refreshGeneration, brokers, Collections.unmodifiableMap(topicConfigs));
+    }
+
+    private Snapshot await(CompletableFuture<Snapshot> refresh) {
+        try {
+            return refresh.join();
+        } catch (CompletionException e) {
+            Throwables.throwIfUnchecked(e.getCause());
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private static final class ClientIndex {
+        private final AtomicReference<Snapshot> snapshotRef = new AtomicReference<>();
+        private final AtomicReference<CompletableFuture<Snapshot>> refreshRef = new AtomicReference<>();
+    }
+
+    private static final class BrokerTopics {
+        private final String brokerAddr;
+        private final DataVersion dataVersion;
+        private final Map<String, TopicConfig> topicConfigTable;
+
+        private BrokerTopics(String brokerAddr, DataVersion dataVersion, Map<String, TopicConfig> topicConfigTable) {
+            this.brokerAddr = brokerAddr;
+            this.dataVersion = dataVersion;
+            this.topicConfigTable = topicConfigTable;
+        }
+    }
+
+    public static final class Snapshot {
+        /**
+         * when the brokers were asked
+         */
+        @Getter
+        private final long timestamp;
+        private final long generation;
+        private final Map<String, BrokerTopics> brokers;
+        /**
+         * topic name to the configs of the topic by broker name
+         */
+        @Getter
+        private final Map<String, Map<String, TopicConfig>> topicConfigs;
+
+        private Snapshot(long timestamp, long generation, Map<String, BrokerTopics> brokers,
+                         Map<String, Map<String, TopicConfig>> topicConfigs) {
+            this.timestamp = timestamp;
+            this.generation = generation;
+            this.brokers = brokers;
+            this.topicConfigs = topicConfigs;
+        }
+
+        /**
+         * @return the configs of the topic by broker name, empty if no master has the topic
+         */
+        public Map<String, TopicConfig> getTopicConfigs(String topic) {
+            return topicConfigs.getOrDefault(topic, Collections.emptyMap());
+        }
+    }
+}
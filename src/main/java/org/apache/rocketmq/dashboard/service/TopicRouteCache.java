@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.rocketmq.dashboard.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.rocketmq.client.exception.MQClientException;
+import org.apache.rocketmq.dashboard.service.client.MQAdminAsyncClient;
+import org.apache.rocketmq.remoting.protocol.ResponseCode;
+import org.apache.rocketmq.remoting.protocol.route.TopicRouteData;
+import org.apache.rocketmq.tools.admin.MQAdminExt;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Routes of the topics in use, shared by every service.
+ * <p>
+ * A topic is loaded on its first lookup, from then on the routes of all cached topics are refreshed together
+ * in the background, so lookups are memory reads. A route older than the expiry, because its refresh failed,
+ * is loaded again on lookup. Topics not looked up for a while are dropped instead of refreshed, and writes
+ * that change a topic invalidate it.
+ */
+@Slf4j
+@Service
+public class TopicRouteCache {
+
+    private static final long IDLE_MS = TimeUnit.MINUTES.toMillis(10);
+
+    @Autowired
+    private MQAdminExt mqAdminExt;
+
+    @Autowired
+    private MQAdminAsyncClient mqAdminAsyncClient;
+
+    @Value("${rocketmq.topic.route.cache.expire:60000}")
+    private long cacheExpireMs = 60000;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "TopicRouteCache");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ConcurrentMap<String, CachedRoute> routes = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        scheduler.scheduleAtFixedRate(this::refresh,
+                cacheExpireMs / 2, cacheExpireMs / 2, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * @throws MQClientException with {@link ResponseCode#TOPIC_NOT_EXIST} if the topic has no route
+     */
+    public TopicRouteData get(String topic) throws Exception {
+        long now = System.currentTimeMillis();
+        CachedRoute cached = routes.get(topic);
+        if (cached != null && now - cached.loadTime <= cacheExpireMs) {
+            cached.lastAccess = now;
+            return cached.route;
+        }
+        TopicRouteData route = mqAdminExt.examineTopicRouteInfo(topic);
+        // a route fetched earlier by a concurrent lookup does not replace this one, nor the other way round
+        routes.merge(topic, new CachedRoute(route, now),
+                (current, loaded) -> current.loadTime > loaded.loadTime ? current : loaded);
+        return route;
+    }
+
+    /**
+     * Drop the route of a topic that was created, updated or deleted.
+     */
+    public void invalidate(String topic) {
+        routes.remove(topic);
+    }
+
+    /**
+     * Reload the routes of all topics looked up recently, in parallel.
+     */
+    public void refresh() {
+        long now = System.currentTimeMillis();
+        Map<String, CachedRoute> refreshed = new HashMap<>();
+        Map<String, CompletableFuture<TopicRouteData>> futures = new HashMap<>();
+        for (Map.Entry<String, CachedRoute> entry : routes.entrySet()) {
+            if (now - entry.getValue().lastAccess > IDLE_MS) {
+                routes.remove(entry.getKey(), entry.getValue());
+                continue;
+            }
+            refreshed.put(entry.getKey(), entry.getValue());
+            futures.put(entry.getKey(), mqAdminAsyncClient.examineTopicRouteInfo(entry.getKey()));
+        }
+        int failures = 0;
+        for (Map.Entry<String, CompletableFuture<TopicRouteData>> entry : futures.entrySet()) {
+            String topic = entry.getKey();
+            // the result only applies to the entry it was fetched for: an entry invalidated or loaded again
+            // during the fetch is newer than the result
+            CachedRoute cached = refreshed.get(topic);
+            try {
+                TopicRouteData route = entry.getValue().join();
+                routes.replace(topic, cached, new CachedRoute(route, now, cached.lastAccess));
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof MQClientException
+                        && ((MQClientException) e.getCause()).getResponseCode() == ResponseCode.TOPIC_NOT_EXIST) {
+                    routes.remove(topic, cached);
+                } else {
+                    failures++;
+                }
+            }
+        }
+        if (failures > 0) {
+            log.warn("Refresh topic routes failed for {} of {} topics", failures, futures.size());
+        }
+    }
+
+    private static final class CachedRoute {
+        private final TopicRouteData route;
+        private final long loadTime;
+        private volatile long lastAccess;
+
+        private CachedRoute(TopicRouteData route, long loadTime) {
+            this(route, loadTime, loadTime);
+        }
+
+        private CachedRoute(TopicRouteData route, long loadTime, long lastAccess) {
+            this.route = route;
+            this.loadTime = loadTime;
+            this.lastAccess = lastAccess;
+        }
+    }
+}
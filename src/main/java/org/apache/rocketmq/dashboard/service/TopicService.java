@@ -19,6 +19,8 @@ package org.apache.rocketmq.dashboard.service;
 
 import org.apache.rocketmq.client.producer.SendResult;
 import org.apache.rocketmq.common.TopicConfig;
+import org.apache.rocketmq.dashboard.model.SendLoadJob;
+import org.apache.rocketmq.dashboard.model.SendLoadJobRequest;
 import org.apache.rocketmq.dashboard.model.request.SendTopicMessageRequest;
 import org.apache.rocketmq.dashboard.model.request.TopicConfigInfo;
 import org.apache.rocketmq.dashboard.model.request.TopicTypeList;
@@ -34,6 +36,11 @@ public interface TopicService {
 
     TopicTypeList examineAllTopicType();
 
+    /**
+     * @param snapshot topic configs to classify, from {@link TopicConfigIndex#get()}
+     */
+    TopicTypeList examineAllTopicType(TopicConfigIndex.Snapshot snapshot);
+
     TopicStatsTable stats(String topic);
 
     TopicRouteData route(String topic);
@@ -54,4 +61,10 @@ public interface TopicService {
 
     SendResult sendTopicMessageRequest(SendTopicMessageRequest sendTopicMessageRequest);
 
+    SendLoadJob submitSendLoadJob(SendLoadJobRequest request);
+
+    SendLoadJob querySendLoadJob(String jobId);
+
+    SendLoadJob cancelSendLoadJob(String jobId);
+
 }
@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.rocketmq.dashboard.service.client;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * The results of one async call per broker, collected after all of them are done, so a fan-out takes as long
+ * as the slowest broker instead of the sum of all of them.
+ * <p>
+ * Every call has its own timeout. A broker whose call fails or times out only ends up in the failures, the
+ * results of the other brokers are kept.
+ */
+public final class BrokerFanOut<T> {
+
+    private final Map<String, T> results;
+
+    private final Map<String, Throwable> failures;
+
+    private BrokerFanOut(Map<String, T> results, Map<String, Throwable> failures) {
+        this.results = results;
+        this.failures = failures;
+    }
+
+    /**
+     * @param brokerAddrs   broker address by key, e.g. by broker name
+     * @param call          the async call for a broker address
+     * @param timeoutMillis timeout of every single call
+     */
+    public static <T> BrokerFanOut<T> call(Map<String, String> brokerAddrs, Function<String, CompletableFuture<T>> call,
+                                           long timeoutMillis) {
+        Map<String, CompletableFuture<T>> futures = new LinkedHashMap<>();
+        for (Map.Entry<String, String> entry : brokerAddrs.entrySet()) {
+            CompletableFuture<T> future;
+            try {
+                future = call.apply(entry.getValue());
+            } catch (Exception e) {
+                future = new CompletableFuture<>();
+                future.completeExceptionally(e);
+            }
+            futures.put(entry.getKey(), future.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS));
+        }
+        Map<String, T> results = new LinkedHashMap<>();
+        Map<String, Throwable> failures = new LinkedHashMap<>();
+        for (Map.Entry<String, CompletableFuture<T>> entry : futures.entrySet()) {
+            try {
+                T result = entry.getValue().join();
+                if (result != null) {
+                    results.put(entry.getKey(), result);
+                }
+            } catch (CompletionException e) {
+                failures.put(entry.getKey(), e.getCause() != null ? e.getCause() : e);
+            }
+        }
+        return new BrokerFanOut<>(results, failures);
+    }
+
+    /**
+     * Same as {@link #call(Map, Function, long)}, keyed by the broker addresses themselves.
+     */
+    public static <T> BrokerFanOut<T> call(Collection<String> brokerAddrs, Function<String, CompletableFuture<T>> call,
+                                           long timeoutMillis) {
+        Map<String, String> byAddr = new LinkedHashMap<>();
+        for (String brokerAddr : brokerAddrs) {
+            byAddr.put(brokerAddr, brokerAddr);
+        }
+        return call(byAddr, call, timeoutMillis);
+    }
+
+    /**
+     * @return the non null results by key, in the order of the keys
+     */
+    public Map<String, T> getResults() {
+        return Collections.unmodifiableMap(results);
+    }
+
+    /**
+     * @return the cause of the failed or timed out calls by key
+     */
+    public Map<String, Throwable> getFailures() {
+        return Collections.unmodifiableMap(failures);
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.rocketmq.dashboard.service.client;
+
+import jakarta.annotation.Resource;
+import org.apache.rocketmq.client.exception.MQBrokerException;
+import org.apache.rocketmq.dashboard.admin.MQAdminClientManager;
+import org.apache.rocketmq.dashboard.support.BackgroundJobs;
+import org.apache.rocketmq.remoting.RemotingClient;
+import org.apache.rocketmq.remoting.protocol.RemotingCommand;
+import org.apache.rocketmq.remoting.protocol.RemotingSerializable;
+import org.apache.rocketmq.remoting.protocol.RequestCode;
+import org.apache.rocketmq.remoting.protocol.ResponseCode;
+import org.apache.rocketmq.remoting.protocol.admin.ConsumeStats;
+import org.apache.rocketmq.remoting.protocol.admin.TopicStatsTable;
+import org.apache.rocketmq.remoting.protocol.body.AclInfo;
+import org.apache.rocketmq.remoting.protocol.body.ClusterInfo;
+import org.apache.rocketmq.remoting.protocol.body.ConsumerConnection;
+import org.apache.rocketmq.remoting.protocol.body.KVTable;
+import org.apache.rocketmq.remoting.protocol.body.SubscriptionGroupWrapper;
+import org.apache.rocketmq.remoting.protocol.body.TopicConfigSerializeWrapper;
+import org.apache.rocketmq.remoting.protocol.body.UserInfo;
+import org.apache.rocketmq.remoting.protocol.header.ListAclsRequestHeader;
+import org.apache.rocketmq.remoting.protocol.header.ListUsersRequestHeader;
+import org.apache.rocketmq.remoting.protocol.route.TopicRouteData;
+import org.apache.rocketmq.remoting.protocol.subscription.SubscriptionGroupConfig;
+import org.apache.rocketmq.tools.admin.MQAdminExt;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
+
+/**
+ * Async variants of the hot admin calls.
+ * <p>
+ * The client of the current user is resolved on the calling thread and the call runs on the shared client,
+ * so the futures neither hold an admin from a pool nor depend on the thread local of {@link MQAdminInstance}.
+ * The calls that fan out to every broker go straight to the remoting client and wait on no thread at all,
+ * see {@link BrokerFanOut} to collect them.
+ */
+@Component
+public class MQAdminAsyncClient {
+
+    @Resource
+    private MQAdminClientManager mqAdminClientManager;
+
+    private final ExecutorService executor = BackgroundJobs.newExecutor("MQAdminAsync_", 16);
+
+    public CompletableFuture<ClusterInfo> examineBrokerClusterInfo() {
+        return call("examineBrokerClusterInfo", MQAdminExt::examineBrokerClusterInfo);
+    }
+
+    public CompletableFuture<TopicRouteData> examineTopicRouteInfo(String topic) {
+        return call("examineTopicRouteInfo", mqAdminExt -> mqAdminExt.examineTopicRouteInfo(topic));
+    }
+
+    public CompletableFuture<TopicStatsTable> examineTopicStats(String topic) {
+        return call("examineTopicStats", mqAdminExt -> mqAdminExt.examineTopicStats(topic));
+    }
+
+    public CompletableFuture<ConsumeStats> examineConsumeStats(String consumerGroup) {
+        return call("examineConsumeStats", mqAdminExt -> mqAdminExt.examineConsumeStats(consumerGroup));
+    }
+
+    public CompletableFuture<ConsumeStats> examineConsumeStats(String consumerGroup, String topic) {
+        return call("examineConsumeStats", mqAdminExt -> mqAdminExt.examineConsumeStats(consumerGroup, topic));
+    }
+
+    public CompletableFuture<ConsumerConnection> examineConsumerConnectionInfo(String consumerGroup) {
+        return call("examineConsumerConnectionInfo", mqAdminExt -> mqAdminExt.examineConsumerConnectionInfo(consumerGroup));
+    }
+
+    public CompletableFuture<KVTable> fetchBrokerRuntimeStats(String brokerAddr, long timeoutMillis) {
+        RemotingCommand request = RemotingCommand.createRequestCommand(RequestCode.GET_BROKER_RUNTIME_INFO, null);
+        return invoke("fetchBrokerRuntimeStats", brokerAddr, request, timeoutMillis,
+                body -> RemotingSerializable.decode(body, KVTable.class));
+    }
+
+    public CompletableFuture<SubscriptionGroupWrapper> getAllSubscriptionGroup(String brokerAddr, long timeoutMillis) {
+        RemotingCommand request = RemotingCommand.createRequestCommand(RequestCode.GET_ALL_SUBSCRIPTIONGROUP_CONFIG, null);
+        return invoke("getAllSubscriptionGroup", brokerAddr, request, timeoutMillis,
+                body -> RemotingSerializable.decode(body, SubscriptionGroupWrapper.class));
+    }
+
+    /**
+     * @return the config of the group on the broker, null if the broker does not know the group
+     */
+    public CompletableFuture<SubscriptionGroupConfig> examineSubscriptionGroupConfig(String brokerAddr, String group,
+                                                                                     long timeoutMillis) {
+        return getAllSubscriptionGroup(brokerAddr, timeoutMillis)
+                .thenApply(wrapper -> wrapper == null ? null : wrapper.getSubscriptionGroupTable().get(group));
+    }
+
+    public CompletableFuture<TopicConfigSerializeWrapper> getAllTopicConfig(String brokerAddr, long timeoutMillis) {
+        RemotingCommand request = RemotingCommand.createRequestCommand(RequestCode.GET_ALL_TOPIC_CONFIG, null);
+        return invoke("getAllTopicConfig", brokerAddr, request, timeoutMillis,
+                body -> RemotingSerializable.decode(body, TopicConfigSerializeWrapper.class));
+    }
+
+    public CompletableFuture<List<UserInfo>> listUser(String brokerAddr, String filter, long timeoutMillis) {
+        RemotingCommand request = RemotingCommand.createRequestCommand(RequestCode.AUTH_LIST_USER,
+                new ListUsersRequestHeader(filter));
+        return invoke("listUser", brokerAddr, request, timeoutMillis,
+                body -> RemotingSerializable.decodeList(body, UserInfo.class));
+    }
+
+    public CompletableFuture<List<AclInfo>> listAcl(String brokerAddr, String subjectFilter, String resourceFilter,
+                                                    long timeoutMillis) {
+        RemotingCommand request = RemotingCommand.createRequestCommand(RequestCode.AUTH_LIST_ACL,
+                new ListAclsRequestHeader(subjectFilter, resourceFilter));
+        return invoke("listAcl", brokerAddr, request, timeoutMillis,
+                body -> RemotingSerializable.decodeList(body, AclInfo.class));
+    }
+
+    /**
+     * Sends the request with {@code invokeAsync} of the remoting client of the resolved admin, so no thread
+     * waits for the broker. The response is decoded on the thread of the remoting callback.
+     */
+    private <T> CompletableFuture<T> invoke(String methodName, String brokerAddr, RemotingCommand request,
+                                            long timeoutMillis, Function<byte[], T> decoder) {
+        RemotingClient remotingClient;
+        try {
+            remotingClient = MQAdminInstance.remotingClient(mqAdminClientManager.resolve(methodName));
+        } catch (Exception e) {
+            CompletableFuture<T> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+        return remotingClient.invoke(brokerAddr, request, timeoutMillis).thenApply(response -> {
+            if (response.getCode() != ResponseCode.SUCCESS) {
+                throw new CompletionException(new MQBrokerException(response.getCode(), response.getRemark(), brokerAddr));
+            }
+            return response.getBody() == null ? null : decoder.apply(response.getBody());
+        });
+    }
+
+    private <T> CompletableFuture<T> call(String methodName, AdminCall<T> adminCall) {
+        MQAdminExt mqAdminExt;
+        try {
+            mqAdminExt = mqAdminClientManager.resolve(methodName);
+        } catch (Exception e) {
+            CompletableFuture<T> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return adminCall.call(mqAdminExt);
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    @FunctionalInterface
+    private interface AdminCall<T> {
+        T call(MQAdminExt mqAdminExt) throws Exception;
+    }
+}
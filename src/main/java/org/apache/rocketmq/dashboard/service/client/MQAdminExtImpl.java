@@ -675,8 +675,7 @@ public class MQAdminExtImpl implements MQAdminExt {
 
     @Override
     public AdminToolResult<BrokerOperatorResult> resetOffsetNewConcurrent(String group, String topic, long timestamp) {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException("Unimplemented method 'resetOffsetNewConcurrent'");
+        return MQAdminInstance.threadLocalMQAdminExt().resetOffsetNewConcurrent(group, topic, timestamp);
     }
 
     @Override
@@ -46,6 +46,13 @@ public class MQAdminInstance {
         return mqAdminExt;
     }
 
+    /**
+     * @return the MQAdminExt instance of the current thread, null outside of an admin call
+     */
+    public static MQAdminExt currentMQAdminExt() {
+        return MQ_ADMIN_EXT_THREAD_LOCAL.get();
+    }
+
     /**
      * Retrieves the RemotingClient from the MQAdminExt instance in the current thread.
      * This method relies on reflection and the internal structure of RocketMQ classes.
@@ -53,7 +60,18 @@ public class MQAdminInstance {
      * @return The RemotingClient instance.
      */
     public static RemotingClient threadLocalRemotingClient() { // Assuming RemotingClient is a type you have
-        MQClientInstance mqClientInstance = threadLocalMqClientInstance();
+        return remotingClient(threadLocalMQAdminExt());
+    }
+
+    /**
+     * Retrieves the RemotingClient from the given MQAdminExt instance, for calls that leave the thread of the
+     * aspect.
+     *
+     * @param mqAdminExt the started MQAdminExt instance.
+     * @return The RemotingClient instance.
+     */
+    public static RemotingClient remotingClient(MQAdminExt mqAdminExt) {
+        MQClientInstance mqClientInstance = mqClientInstance(mqAdminExt);
         // Use jOOQ-Reflect to access private field "mQClientAPIImpl" from mqClientInstance
         MQClientAPIImpl mQClientAPIImpl = Reflect.on(mqClientInstance).get("mQClientAPIImpl");
         // Use jOOQ-Reflect to access private field "remotingClient" from mQClientAPIImpl
@@ -67,15 +85,19 @@ public class MQAdminInstance {
      * @return The MQClientInstance instance.
      */
     public static MQClientInstance threadLocalMqClientInstance() {
-        // Use jOOQ-Reflect to access private field "defaultMQAdminExtImpl" from threadLocalMQAdminExt()
-        DefaultMQAdminExtImpl defaultMQAdminExtImpl = Reflect.on(MQAdminInstance.threadLocalMQAdminExt()).get("defaultMQAdminExtImpl");
+        return mqClientInstance(threadLocalMQAdminExt());
+    }
+
+    private static MQClientInstance mqClientInstance(MQAdminExt mqAdminExt) {
+        // Use jOOQ-Reflect to access private field "defaultMQAdminExtImpl" from the MQAdminExt instance
+        DefaultMQAdminExtImpl defaultMQAdminExtImpl = Reflect.on(mqAdminExt).get("defaultMQAdminExtImpl");
         // Use jOOQ-Reflect to access private field "mqClientInstance" from defaultMQAdminExtImpl
         return Reflect.on(defaultMQAdminExtImpl).get("mqClientInstance");
     }
 
     /**
      * Sets the MQAdminExt instance for the current thread.
-     * This method should be called by the aspect after borrowing an instance from the pool.
+     * This method should be called by the aspect before the admin call.
      *
      * @param mqAdminExt The MQAdminExt instance to set.
      */
@@ -86,7 +108,7 @@ public class MQAdminInstance {
 
     /**
      * Clears the MQAdminExt instance from the current thread.
-     * This method should be called by the aspect after returning the instance to the pool.
+     * This method should be called by the aspect after the admin call.
      */
     public static void clearCurrentMQAdminExt() {
         MQ_ADMIN_EXT_THREAD_LOCAL.remove();
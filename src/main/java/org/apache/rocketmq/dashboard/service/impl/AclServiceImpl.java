@@ -26,6 +26,8 @@ import org.apache.rocketmq.dashboard.model.request.UserInfoParam;
 import org.apache.rocketmq.dashboard.service.AbstractCommonService;
 import org.apache.rocketmq.dashboard.service.AclService;
 import org.apache.rocketmq.dashboard.service.ClusterInfoService;
+import org.apache.rocketmq.dashboard.service.client.BrokerFanOut;
+import org.apache.rocketmq.dashboard.service.client.MQAdminAsyncClient;
 import org.apache.rocketmq.remoting.protocol.body.AclInfo;
 import org.apache.rocketmq.remoting.protocol.body.ClusterInfo;
 import org.apache.rocketmq.remoting.protocol.body.UserInfo;
@@ -36,6 +38,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -52,21 +55,26 @@ public class AclServiceImpl extends AbstractCommonService implements AclService
     @Autowired
     private ClusterInfoService clusterInfoService;
 
+    @Autowired
+    private MQAdminAsyncClient mqAdminAsyncClient;
+
+    private static final long ACL_TIMEOUT_MS = 5000;
+
 
     @Override
     public List<UserInfoDto> listUsers(String clusterName, String brokerName) {
 
         List<String> brokerAddrList = getBrokerAddressList(clusterName, brokerName);
+        BrokerFanOut<List<UserInfo>> fanOut = BrokerFanOut.call(brokerAddrList,
+                address -> mqAdminAsyncClient.listUser(address, "", ACL_TIMEOUT_MS), ACL_TIMEOUT_MS);
+        fanOut.getFailures().forEach((address, ex) -> {
+            logger.error("Failed to list users from broker: {}", address, ex);
+            throw new RuntimeException("Failed to list users", ex);
+        });
         Set<UserInfoDto> commonUsers = new HashSet<>();
         final boolean[] firstIteration = {true};
         brokerAddrList.forEach(address -> {
-            List<UserInfo> userList;
-            try {
-                userList = mqAdminExt.listUser(address, "");
-            } catch (Exception ex) {
-                logger.error("Failed to list users from broker: {}", address, ex);
-                throw new RuntimeException("Failed to list users", ex);
-            }
+            List<UserInfo> userList = fanOut.getResults().getOrDefault(address, Collections.emptyList());
 
             List<UserInfoDto> userListDtos = new ArrayList<>();
             userList.forEach(user -> {
@@ -95,23 +103,30 @@ public class AclServiceImpl extends AbstractCommonService implements AclService
         Set<org.apache.rocketmq.dashboard.model.AclInfo> commonAcls = new HashSet<>();
         final boolean[] firstIteration = {true};
         ObjectMapper mapper = new ObjectMapper(); // Initialize ObjectMapper once
+        String user = searchParam != null ? searchParam : "";
+        String res = searchParam != null ? searchParam : "";
+        // Combine results from both listAcl calls for a single broker
+        BrokerFanOut<List<AclInfo>> fanOut = BrokerFanOut.call(brokerAddrList,
+                address -> mqAdminAsyncClient.listAcl(address, user, "", ACL_TIMEOUT_MS)
+                        .thenCombine(mqAdminAsyncClient.listAcl(address, "", res, ACL_TIMEOUT_MS), (byUser, byRes) -> {
+                            List<AclInfo> acls = new ArrayList<>();
+                            if (byUser != null) {
+                                acls.addAll(byUser);
+                            }
+                            if (byRes != null) {
+                                acls.addAll(byRes);
+                            }
+                            return acls;
+                        }), ACL_TIMEOUT_MS);
+        fanOut.getFailures().forEach((address, ex) -> {
+            logger.error("Failed to list ACLs from broker: {}", address, ex);
+            throw new RuntimeException("Failed to list ACLs", ex);
+        });
 
         brokerAddrList.forEach(address -> {
             List<AclInfo> aclListForBroker;
             try {
-                String user = searchParam != null ? searchParam : "";
-                String res = searchParam != null ? searchParam : "";
-                // Combine results from both listAcl calls for a single broker
-                List<AclInfo> byUser = mqAdminExt.listAcl(address, user, "");
-                List<AclInfo> byRes = mqAdminExt.listAcl(address, "", res);
-
-                aclListForBroker = new ArrayList<>();
-                if (byUser != null) {
-                    aclListForBroker.addAll(byUser);
-                }
-                if (byRes != null) {
-                    aclListForBroker.addAll(byRes);
-                }
+                aclListForBroker = fanOut.getResults().getOrDefault(address, Collections.emptyList());
 
                 // Deduplicate ACLs for the current broker to ensure accurate intersection
                 Set<AclInfo> uniqueAclsForBroker = new HashSet<>();
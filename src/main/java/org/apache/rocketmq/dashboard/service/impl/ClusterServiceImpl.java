@@ -21,10 +21,9 @@ import com.google.common.base.Throwables;
 import com.google.common.collect.Maps;
 import jakarta.annotation.Resource;
 import org.apache.rocketmq.common.attribute.TopicMessageType;
+import org.apache.rocketmq.dashboard.service.BrokerRuntimeStatsService;
 import org.apache.rocketmq.dashboard.service.ClusterService;
-import org.apache.rocketmq.dashboard.util.JsonUtil;
 import org.apache.rocketmq.remoting.protocol.body.ClusterInfo;
-import org.apache.rocketmq.remoting.protocol.body.KVTable;
 import org.apache.rocketmq.remoting.protocol.route.BrokerData;
 import org.apache.rocketmq.tools.admin.MQAdminExt;
 import org.slf4j.Logger;
@@ -32,6 +31,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Map;
 import java.util.Properties;
 import java.util.stream.Collectors;
@@ -42,23 +42,27 @@ public class ClusterServiceImpl implements ClusterService {
     @Resource
     private MQAdminExt mqAdminExt;
 
+    @Resource
+    private BrokerRuntimeStatsService brokerRuntimeStatsService;
+
     @Override
     public Map<String, Object> list() {
         try {
             Map<String, Object> resultMap = Maps.newHashMap();
-            ClusterInfo clusterInfo = mqAdminExt.examineBrokerClusterInfo();
-            logger.info("op=look_clusterInfo {}", JsonUtil.obj2String(clusterInfo));
+            BrokerRuntimeStatsService.Snapshot snapshot = brokerRuntimeStatsService.get();
+            ClusterInfo clusterInfo = snapshot.getClusterInfo();
             Map<String/*brokerName*/, Map<Long/* brokerId */, Object/* brokerDetail */>> brokerServer = Maps.newHashMap();
             for (BrokerData brokerData : clusterInfo.getBrokerAddrTable().values()) {
                 Map<Long, Object> brokerMasterSlaveMap = Maps.newHashMap();
                 for (Map.Entry<Long/* brokerId */, String/* broker address */> brokerAddr : brokerData.getBrokerAddrs().entrySet()) {
-                    KVTable kvTable = mqAdminExt.fetchBrokerRuntimeStats(brokerAddr.getValue());
-                    brokerMasterSlaveMap.put(brokerAddr.getKey(), kvTable.getTable());
+                    // an unreachable broker shows up without stats instead of failing the whole list
+                    brokerMasterSlaveMap.put(brokerAddr.getKey(), snapshot.getStats().getOrDefault(brokerAddr.getValue(), Collections.emptyMap()));
                 }
                 brokerServer.put(brokerData.getBrokerName(), brokerMasterSlaveMap);
             }
             resultMap.put("clusterInfo", clusterInfo);
             resultMap.put("brokerServer", brokerServer);
+            resultMap.put("statsTimestamp", snapshot.getTimestamp());
             // add messageType
             resultMap.put("messageTypes", Arrays.stream(TopicMessageType.values()).sorted()
                     .collect(Collectors.toMap(TopicMessageType::getValue, messageType -> String.format("MESSAGE_TYPE_%s", messageType.getValue()))));
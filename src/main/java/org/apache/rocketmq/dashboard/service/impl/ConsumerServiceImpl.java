@@ -19,6 +19,7 @@ package org.apache.rocketmq.dashboard.service.impl;
 
 import com.google.common.base.Predicate;
 import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableSetMultimap;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
@@ -29,12 +30,15 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.rocketmq.client.exception.MQClientException;
 import org.apache.rocketmq.common.MQVersion;
 import org.apache.rocketmq.common.MixAll;
+import org.apache.rocketmq.common.message.MessageClientIDSetter;
 import org.apache.rocketmq.common.message.MessageQueue;
 import org.apache.rocketmq.common.utils.ThreadUtils;
 import org.apache.rocketmq.dashboard.config.RMQConfigure;
+import org.apache.rocketmq.dashboard.exception.ServiceException;
 import org.apache.rocketmq.dashboard.model.ConsumerGroupRollBackStat;
 import org.apache.rocketmq.dashboard.model.GroupConsumeInfo;
 import org.apache.rocketmq.dashboard.model.QueueStatInfo;
+import org.apache.rocketmq.dashboard.model.ResetOffsetJob;
 import org.apache.rocketmq.dashboard.model.TopicConsumerInfo;
 import org.apache.rocketmq.dashboard.model.request.ConsumerConfigInfo;
 import org.apache.rocketmq.dashboard.model.request.DeleteSubGroupRequest;
@@ -42,18 +46,28 @@ import org.apache.rocketmq.dashboard.model.request.ResetOffsetRequest;
 import org.apache.rocketmq.dashboard.service.AbstractCommonService;
 import org.apache.rocketmq.dashboard.service.ClusterInfoService;
 import org.apache.rocketmq.dashboard.service.ConsumerService;
+import org.apache.rocketmq.dashboard.service.TopicRouteCache;
+import org.apache.rocketmq.dashboard.service.client.BrokerFanOut;
+import org.apache.rocketmq.dashboard.service.client.MQAdminAsyncClient;
 import org.apache.rocketmq.dashboard.service.client.ProxyAdmin;
+import org.apache.rocketmq.dashboard.support.BackgroundJobs;
+import org.apache.rocketmq.dashboard.util.JsonUtil;
+import org.apache.rocketmq.dashboard.util.UserInfoContext;
 import org.apache.rocketmq.remoting.protocol.ResponseCode;
 import org.apache.rocketmq.remoting.protocol.admin.ConsumeStats;
+import org.apache.rocketmq.remoting.protocol.admin.OffsetWrapper;
 import org.apache.rocketmq.remoting.protocol.admin.RollbackStats;
 import org.apache.rocketmq.remoting.protocol.body.ClusterInfo;
 import org.apache.rocketmq.remoting.protocol.body.Connection;
+import org.apache.rocketmq.remoting.protocol.body.ConsumeStatsList;
 import org.apache.rocketmq.remoting.protocol.body.ConsumerConnection;
 import org.apache.rocketmq.remoting.protocol.body.ConsumerRunningInfo;
 import org.apache.rocketmq.remoting.protocol.body.GroupList;
 import org.apache.rocketmq.remoting.protocol.body.SubscriptionGroupWrapper;
 import org.apache.rocketmq.remoting.protocol.route.BrokerData;
 import org.apache.rocketmq.remoting.protocol.subscription.SubscriptionGroupConfig;
+import org.apache.rocketmq.tools.admin.api.BrokerOperatorResult;
+import org.apache.rocketmq.tools.admin.common.AdminToolResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.DisposableBean;
@@ -63,23 +77,29 @@ import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RejectedExecutionHandler;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 
 @Service
 public class ConsumerServiceImpl extends AbstractCommonService implements ConsumerService, InitializingBean, DisposableBean {
@@ -93,15 +113,33 @@ public class ConsumerServiceImpl extends AbstractCommonService implements Consum
     @Autowired
     private ClusterInfoService clusterInfoService;
 
-    private volatile boolean isCacheBeingBuilt = false;
+    @Resource
+    private MQAdminAsyncClient mqAdminAsyncClient;
+
+    @Resource
+    private TopicRouteCache topicRouteCache;
+
+    private static final long GROUP_SNAPSHOT_REFRESH_INTERVAL_MS = TimeUnit.MINUTES.toMillis(1);
+
+    private static final long SUBSCRIPTION_GROUP_TIMEOUT_MS = 8000;
 
     private static final Set<String> SYSTEM_GROUP_SET = new HashSet<>();
 
+    /**
+     * groups reset at the same time by all offset resets together, the others wait in the queue of the executor
+     */
+    private static final int RESET_OFFSET_PARALLELISM = 8;
+
     private ExecutorService executorService;
 
-    private final List<GroupConsumeInfo> cacheConsumeInfoList = Collections.synchronizedList(new ArrayList<>());
+    private ExecutorService resetOffsetExecutor;
+
+    private final BackgroundJobs<ResetJob> resetOffsetJobs =
+            new BackgroundJobs<>("offset reset job", TimeUnit.HOURS.toMillis(1));
+
+    private final AtomicReference<GroupSnapshot> groupSnapshot = new AtomicReference<>(GroupSnapshot.EMPTY);
 
-    private final HashMap<String, List<String>> consumerGroupMap = Maps.newHashMap();
+    private final AtomicReference<CompletableFuture<GroupSnapshot>> snapshotRefresh = new AtomicReference<>();
 
     @Override
     public void afterPropertiesSet() {
@@ -116,14 +154,17 @@ public class ConsumerServiceImpl extends AbstractCommonService implements Consum
                 return new Thread(r, "QueryGroup_" + this.threadIndex.incrementAndGet());
             }
         };
-        RejectedExecutionHandler handler = new ThreadPoolExecutor.DiscardOldestPolicy();
+        RejectedExecutionHandler handler = new ThreadPoolExecutor.CallerRunsPolicy();
         this.executorService = new ThreadPoolExecutor(corePoolSize, maximumPoolSize, 60L, TimeUnit.SECONDS,
                 new LinkedBlockingQueue<>(5000), threadFactory, handler);
+        this.resetOffsetExecutor = BackgroundJobs.newExecutor("ResetOffset_", RESET_OFFSET_PARALLELISM);
     }
 
     @Override
     public void destroy() {
         ThreadUtils.shutdownGracefully(executorService, 10L, TimeUnit.SECONDS);
+        resetOffsetJobs.clear();
+        resetOffsetExecutor.shutdownNow();
     }
 
     static {
@@ -140,123 +181,230 @@ public class ConsumerServiceImpl extends AbstractCommonService implements Consum
 
     @Override
     public List<GroupConsumeInfo> queryGroupList(boolean skipSysGroup, String address) {
-        if (isCacheBeingBuilt) {
-            throw new RuntimeException("Cache is being built, please try again later");
-        }
-
-        synchronized (this) {
-            if (cacheConsumeInfoList.isEmpty() && !isCacheBeingBuilt) {
-                isCacheBeingBuilt = true;
-                try {
-                    makeGroupListCache(address);
-                } finally {
-                    isCacheBeingBuilt = false;
-                }
-            }
+        GroupSnapshot snapshot = groupSnapshot.get();
+        if (snapshot.version == 0) {
+            snapshot = awaitSnapshot(refreshSnapshot(address));
+        } else if (System.currentTimeMillis() - snapshot.timestamp > GROUP_SNAPSHOT_REFRESH_INTERVAL_MS) {
+            // the current snapshot keeps being served while the next one is built
+            refreshSnapshot(address);
         }
 
-        if (cacheConsumeInfoList.isEmpty()) {
+        if (snapshot.groups.isEmpty()) {
             throw new RuntimeException("No consumer group information available");
         }
 
-        List<GroupConsumeInfo> groupConsumeInfoList = new ArrayList<>(cacheConsumeInfoList);
-
-        if (!skipSysGroup) {
-            groupConsumeInfoList.stream().map(group -> {
-                if (SYSTEM_GROUP_SET.contains(group.getGroup())) {
-                    group.setGroup(String.format("%s%s", "%SYS%", group.getGroup()));
-                }
-                return group;
-            }).collect(Collectors.toList());
+        List<GroupConsumeInfo> groupConsumeInfoList = new ArrayList<>(snapshot.groups.size());
+        for (GroupConsumeInfo groupConsumeInfo : snapshot.groups.values()) {
+            if (!skipSysGroup && SYSTEM_GROUP_SET.contains(groupConsumeInfo.getGroup())) {
+                groupConsumeInfoList.add(copyOf(groupConsumeInfo, String.format("%s%s", "%SYS%", groupConsumeInfo.getGroup())));
+            } else {
+                groupConsumeInfoList.add(groupConsumeInfo);
+            }
         }
         Collections.sort(groupConsumeInfoList);
         return groupConsumeInfoList;
     }
 
+    /**
+     * Start building the next group snapshot, or join the build already running. The admin calls of the build
+     * run as the user of the calling thread.
+     */
+    private CompletableFuture<GroupSnapshot> refreshSnapshot(String address) {
+        CompletableFuture<GroupSnapshot> running = snapshotRefresh.get();
+        if (running != null && !running.isDone()) {
+            return running;
+        }
+        CompletableFuture<GroupSnapshot> refresh = new CompletableFuture<>();
+        if (!snapshotRefresh.compareAndSet(running, refresh)) {
+            return snapshotRefresh.get();
+        }
+        Map<String, Object> userInfo = UserInfoContext.getAll();
+        GroupSnapshot previous = groupSnapshot.get();
+        CompletableFuture.supplyAsync(UserInfoContext.wrap(userInfo, this::loadSubscriptions), executorService)
+            .thenCompose(subscriptions -> buildSnapshot(previous, subscriptions, address, userInfo))
+            .whenComplete((snapshot, e) -> {
+                if (e != null) {
+                    logger.error("Building the consumer group snapshot failed", e);
+                    refresh.completeExceptionally(e);
+                } else {
+                    refresh.complete(groupSnapshot.updateAndGet(current -> snapshot.rebase(previous, current)));
+                }
+            });
+        return refresh;
+    }
+
+    private GroupSnapshot awaitSnapshot(CompletableFuture<GroupSnapshot> refresh) {
+        try {
+            return refresh.join();
+        } catch (CompletionException e) {
+            Throwables.throwIfUnchecked(e.getCause());
+            throw new RuntimeException(e.getCause());
+        }
+    }
 
-    public void makeGroupListCache(String address) {
-        SubscriptionGroupWrapper subscriptionGroupWrapper = null;
+    /**
+     * @return subscription config of every group by broker name, and the broker addresses hosting it
+     */
+    private Map<String, GroupSubscription> loadSubscriptions() {
+        Map<String, GroupSubscription> subscriptions = new HashMap<>();
         try {
             ClusterInfo clusterInfo = clusterInfoService.get();
             for (BrokerData brokerData : clusterInfo.getBrokerAddrTable().values()) {
-                subscriptionGroupWrapper = mqAdminExt.getAllSubscriptionGroup(brokerData.selectBrokerAddr(), 30000L);
-                for (String groupName : subscriptionGroupWrapper.getSubscriptionGroupTable().keySet()) {
-                    if (!consumerGroupMap.containsKey(groupName)) {
-                        consumerGroupMap.putIfAbsent(groupName, new ArrayList<>());
-                    }
-                    List<String> addresses = consumerGroupMap.get(groupName);
-                    addresses.add(brokerData.selectBrokerAddr());
-                    consumerGroupMap.put(groupName, addresses);
+                String brokerAddr = brokerData.selectBrokerAddr();
+                SubscriptionGroupWrapper subscriptionGroupWrapper = mqAdminExt.getAllSubscriptionGroup(brokerAddr, 30000L);
+                for (Map.Entry<String, SubscriptionGroupConfig> entry : subscriptionGroupWrapper.getSubscriptionGroupTable().entrySet()) {
+                    GroupSubscription subscription = subscriptions.computeIfAbsent(entry.getKey(), k -> new GroupSubscription());
+                    subscription.configs.put(brokerData.getBrokerName(), entry.getValue());
+                    subscription.addresses.add(brokerAddr);
                 }
             }
         } catch (Exception err) {
             Throwables.throwIfUnchecked(err);
             throw new RuntimeException(err);
         }
-
-        if (subscriptionGroupWrapper != null && subscriptionGroupWrapper.getSubscriptionGroupTable().isEmpty()) {
+        if (subscriptions.isEmpty()) {
             logger.warn("No subscription group information available");
-            isCacheBeingBuilt = false;
-            return;
         }
-        final ConcurrentMap<String, SubscriptionGroupConfig> subscriptionGroupTable = subscriptionGroupWrapper.getSubscriptionGroupTable();
-        List<GroupConsumeInfo> groupConsumeInfoList = Collections.synchronizedList(Lists.newArrayList());
-        CountDownLatch countDownLatch = new CountDownLatch(consumerGroupMap.size());
-        for (Map.Entry<String, List<String>> entry : consumerGroupMap.entrySet()) {
+        return subscriptions;
+    }
+
+    /**
+     * Apply the group membership diff to the previous snapshot. Every group gets its consume stats and
+     * connections refreshed, the subscription type is only resolved again for new groups and groups whose
+     * subscription config changed. A group whose refresh fails keeps its previous entry.
+     */
+    private CompletableFuture<GroupSnapshot> buildSnapshot(GroupSnapshot previous, Map<String, GroupSubscription> subscriptions,
+                                                           String address, Map<String, Object> userInfo) {
+        long start = System.currentTimeMillis();
+        ImmutableSetMultimap.Builder<String, String> builder = ImmutableSetMultimap.builder();
+        for (Map.Entry<String, GroupSubscription> entry : subscriptions.entrySet()) {
+            builder.putAll(entry.getKey(), entry.getValue().addresses);
+        }
+        ImmutableSetMultimap<String, String> groupBrokers = builder.build();
+        return fetchBrokerConsumeStats(groupBrokers.inverse(), userInfo)
+            .thenCompose(brokerConsumeStats -> buildSnapshot(previous, subscriptions, groupBrokers, brokerConsumeStats, address,
+                start, userInfo));
+    }
+
+    private CompletableFuture<GroupSnapshot> buildSnapshot(GroupSnapshot previous, Map<String, GroupSubscription> subscriptions,
+                                                           ImmutableSetMultimap<String, String> groupBrokers,
+                                                           BrokerConsumeStats brokerConsumeStats, String address, long start,
+                                                           Map<String, Object> userInfo) {
+        Map<String, GroupConsumeInfo> groups = new ConcurrentHashMap<>();
+        AtomicInteger changedGroups = new AtomicInteger();
+        List<CompletableFuture<Void>> futures = new ArrayList<>(subscriptions.size());
+        for (Map.Entry<String, GroupSubscription> entry : subscriptions.entrySet()) {
             String consumerGroup = entry.getKey();
-            executorService.submit(() -> {
+            GroupSubscription subscription = entry.getValue();
+            GroupConsumeInfo previousInfo = previous.groups.get(consumerGroup);
+            boolean configChanged = previousInfo == null || !subscription.configs.equals(previous.subscriptions.get(consumerGroup));
+            if (configChanged) {
+                changedGroups.incrementAndGet();
+            }
+            futures.add(CompletableFuture.runAsync(UserInfoContext.wrap(userInfo, () -> {
+                GroupConsumeInfo consumeInfo = queryGroup(consumerGroup, address, brokerConsumeStats.get(consumerGroup));
+                consumeInfo.setAddress(groupBrokers.get(consumerGroup).asList());
+                consumeInfo.setSubGroupType(configChanged ? subGroupType(consumerGroup, subscription) : previousInfo.getSubGroupType());
+                consumeInfo.setUpdateTime(new Date());
+                groups.put(consumerGroup, consumeInfo);
+            }), executorService).exceptionally(e -> {
+                logger.error("queryGroup exception, consumerGroup: {}", consumerGroup, e);
+                if (previousInfo != null) {
+                    groups.put(consumerGroup, previousInfo);
+                }
+                return null;
+            }));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).thenApply(v -> {
+            Map<String, Map<String, SubscriptionGroupConfig>> configs = new HashMap<>(subscriptions.size());
+            for (Map.Entry<String, GroupSubscription> entry : subscriptions.entrySet()) {
+                configs.put(entry.getKey(), entry.getValue().configs);
+            }
+            int removedGroups = 0;
+            for (String consumerGroup : previous.groups.keySet()) {
+                if (!subscriptions.containsKey(consumerGroup)) {
+                    removedGroups++;
+                }
+            }
+            GroupSnapshot snapshot = new GroupSnapshot(previous.version + 1, start, Collections.unmodifiableMap(groups), configs,
+                groupBrokers);
+            logger.info("Consumer group snapshot {} built in {}ms: {} groups, {} new or changed, {} removed",
+                snapshot.version, System.currentTimeMillis() - start, groups.size(), changedGroups.get(), removedGroups);
+            return snapshot;
+        });
+    }
+
+    /**
+     * Fetch the consume stats of all groups with one request per broker instead of one per group and broker.
+     */
+    private CompletableFuture<BrokerConsumeStats> fetchBrokerConsumeStats(ImmutableSetMultimap<String, String> brokerGroups,
+                                                                          Map<String, Object> userInfo) {
+        BrokerConsumeStats brokerConsumeStats = new BrokerConsumeStats();
+        List<CompletableFuture<Void>> futures = new ArrayList<>(brokerGroups.keySet().size());
+        for (String brokerAddr : brokerGroups.keySet()) {
+            futures.add(CompletableFuture.runAsync(UserInfoContext.wrap(userInfo, () -> {
                 try {
-                    GroupConsumeInfo consumeInfo = queryGroup(consumerGroup, address);
-                    consumeInfo.setAddress(entry.getValue());
-                    if (SYSTEM_GROUP_SET.contains(consumerGroup)) {
-                        consumeInfo.setSubGroupType("SYSTEM");
-                    } else {
-                        try {
-                            consumeInfo.setSubGroupType(subscriptionGroupTable.get(consumerGroup).isConsumeMessageOrderly() ? "FIFO" : "NORMAL");
-                        } catch (NullPointerException e) {
-                            logger.warn("SubscriptionGroupConfig not found for consumer group: {}", consumerGroup);
-                            boolean isFifoType = examineSubscriptionGroupConfig(consumerGroup)
-                                    .stream().map(ConsumerConfigInfo::getSubscriptionGroupConfig)
-                                    .allMatch(SubscriptionGroupConfig::isConsumeMessageOrderly);
-                            consumeInfo.setSubGroupType(isFifoType ? "FIFO" : "NORMAL");
-                        }
+                    ConsumeStatsList consumeStatsList = mqAdminExt.fetchConsumeStatsInBroker(brokerAddr, false, 30000L);
+                    if (consumeStatsList == null || consumeStatsList.getConsumeStatsList() == null) {
+                        throw new IllegalStateException("empty response");
                     }
-                    consumeInfo.setUpdateTime(new Date());
-                    groupConsumeInfoList.add(consumeInfo);
+                    brokerConsumeStats.add(consumeStatsList);
                 } catch (Exception e) {
-                    logger.error("queryGroup exception, consumerGroup: {}", consumerGroup, e);
-                } finally {
-                    countDownLatch.countDown();
+                    logger.warn("fetchConsumeStatsInBroker failed, broker [{}], its groups are queried one by one", brokerAddr, e);
+                    brokerConsumeStats.unknownGroups.addAll(brokerGroups.get(brokerAddr));
                 }
-            });
+            }), executorService));
         }
-        try {
-            countDownLatch.await();
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            logger.error("Interruption occurred while waiting for task completion", e);
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).thenApply(v -> brokerConsumeStats);
+    }
+
+    private String subGroupType(String consumerGroup, GroupSubscription subscription) {
+        if (SYSTEM_GROUP_SET.contains(consumerGroup)) {
+            return "SYSTEM";
         }
-        logger.info("All consumer group query tasks have been completed");
-        isCacheBeingBuilt = false;
-        Collections.sort(groupConsumeInfoList);
+        boolean isFifoType = subscription.configs.values().stream().allMatch(SubscriptionGroupConfig::isConsumeMessageOrderly);
+        return isFifoType ? "FIFO" : "NORMAL";
+    }
 
-        cacheConsumeInfoList.clear();
-        cacheConsumeInfoList.addAll(groupConsumeInfoList);
+    private static GroupConsumeInfo copyOf(GroupConsumeInfo source, String group) {
+        GroupConsumeInfo copy = new GroupConsumeInfo();
+        copy.setGroup(group);
+        copy.setVersion(source.getVersion());
+        copy.setCount(source.getCount());
+        copy.setConsumeType(source.getConsumeType());
+        copy.setMessageModel(source.getMessageModel());
+        copy.setAddress(source.getAddress());
+        copy.setConsumeTps(source.getConsumeTps());
+        copy.setDiffTotal(source.getDiffTotal());
+        copy.setSubGroupType(source.getSubGroupType());
+        copy.setUpdateTime(source.getUpdateTime());
+        return copy;
     }
 
     @Override
     public GroupConsumeInfo queryGroup(String consumerGroup, String address) {
+        return queryGroup(consumerGroup, address, null);
+    }
+
+    /**
+     * @param groupStats consume stats of the group fetched in bulk, null to query them for this group
+     */
+    private GroupConsumeInfo queryGroup(String consumerGroup, String address, GroupStats groupStats) {
         GroupConsumeInfo groupConsumeInfo = new GroupConsumeInfo();
         try {
-            ConsumeStats consumeStats = null;
-            try {
-                consumeStats = mqAdminExt.examineConsumeStats(consumerGroup);
-            } catch (Exception e) {
-                logger.warn("examineConsumeStats exception to consumerGroup {}, response [{}]", consumerGroup, e.getMessage());
-            }
-            if (consumeStats != null) {
-                groupConsumeInfo.setConsumeTps((int) consumeStats.getConsumeTps());
-                groupConsumeInfo.setDiffTotal(consumeStats.computeTotalDiff());
+            if (groupStats != null) {
+                groupStats.applyTo(groupConsumeInfo);
+            } else {
+                ConsumeStats consumeStats = null;
+                try {
+                    consumeStats = mqAdminExt.examineConsumeStats(consumerGroup);
+                } catch (Exception e) {
+                    logger.warn("examineConsumeStats exception to consumerGroup {}, response [{}]", consumerGroup, e.getMessage());
+                }
+                if (consumeStats != null) {
+                    groupConsumeInfo.setConsumeTps((int) consumeStats.getConsumeTps());
+                    groupConsumeInfo.setDiffTotal(consumeStats.computeTotalDiff());
+                }
             }
             ConsumerConnection consumerConnection = null;
             try {
@@ -288,8 +436,7 @@ public class ConsumerServiceImpl extends AbstractCommonService implements Consum
         List<ConsumeStats> consumeStatses = new ArrayList<>();
         String topic = null;
         try {
-            String[] addresses = address.split(",");
-            for (String addr : addresses) {
+            for (String addr : brokerAddrsOf(groupName, address)) {
                 consumeStatses.add(mqAdminExt.examineConsumeStats(addr, groupName, null, 3000));
             }
         } catch (Exception e) {
@@ -384,63 +531,160 @@ public class ConsumerServiceImpl extends AbstractCommonService implements Consum
 
     @Override
     public Map<String, ConsumerGroupRollBackStat> resetOffset(ResetOffsetRequest resetOffsetRequest) {
-        Map<String, ConsumerGroupRollBackStat> groupRollbackStats = Maps.newHashMap();
+        Map<String, CompletableFuture<ConsumerGroupRollBackStat>> resets = new LinkedHashMap<>();
         for (String consumerGroup : resetOffsetRequest.getConsumerGroupList()) {
-            try {
-                Map<MessageQueue, Long> rollbackStatsMap =
-                        mqAdminExt.resetOffsetByTimestamp(resetOffsetRequest.getTopic(), consumerGroup, resetOffsetRequest.getResetTime(), resetOffsetRequest.isForce());
-                ConsumerGroupRollBackStat consumerGroupRollBackStat = new ConsumerGroupRollBackStat(true);
-                List<RollbackStats> rollbackStatsList = consumerGroupRollBackStat.getRollbackStatsList();
-                for (Map.Entry<MessageQueue, Long> rollbackStatsEntty : rollbackStatsMap.entrySet()) {
-                    RollbackStats rollbackStats = new RollbackStats();
-                    rollbackStats.setRollbackOffset(rollbackStatsEntty.getValue());
-                    rollbackStats.setQueueId(rollbackStatsEntty.getKey().getQueueId());
-                    rollbackStats.setBrokerName(rollbackStatsEntty.getKey().getBrokerName());
-                    rollbackStatsList.add(rollbackStats);
+            resets.put(consumerGroup, supplyAsCurrentUser(() -> resetGroupOffset(resetOffsetRequest, consumerGroup)));
+        }
+        Map<String, ConsumerGroupRollBackStat> groupRollbackStats = Maps.newHashMap();
+        resets.forEach((consumerGroup, reset) -> groupRollbackStats.put(consumerGroup, reset.join()));
+        return groupRollbackStats;
+    }
+
+    @Override
+    public ResetOffsetJob submitResetOffsetJob(ResetOffsetRequest resetOffsetRequest) {
+        if (StringUtils.isBlank(resetOffsetRequest.getTopic())) {
+            throw new ServiceException(-1, "the topic of the offset reset is missing");
+        }
+        if (CollectionUtils.isEmpty(resetOffsetRequest.getConsumerGroupList())) {
+            throw new ServiceException(-1, "the consumer groups of the offset reset are missing");
+        }
+        ResetJob job = new ResetJob(MessageClientIDSetter.createUniqID(), resetOffsetRequest, UserInfoContext.getUsername());
+        resetOffsetJobs.add(job);
+        List<CompletableFuture<Void>> resets = new ArrayList<>(job.groups.size());
+        for (String consumerGroup : job.groups) {
+            resets.add(supplyAsCurrentUser(() -> {
+                if (job.cancelled) {
+                    job.skipped.incrementAndGet();
+                    return null;
                 }
-                groupRollbackStats.put(consumerGroup, consumerGroupRollBackStat);
-            } catch (MQClientException e) {
-                if (ResponseCode.CONSUMER_NOT_ONLINE == e.getResponseCode()) {
-                    try {
-                        ConsumerGroupRollBackStat consumerGroupRollBackStat = new ConsumerGroupRollBackStat(true);
-                        List<RollbackStats> rollbackStatsList = mqAdminExt.resetOffsetByTimestampOld(consumerGroup, resetOffsetRequest.getTopic(), resetOffsetRequest.getResetTime(), true);
-                        consumerGroupRollBackStat.setRollbackStatsList(rollbackStatsList);
-                        groupRollbackStats.put(consumerGroup, consumerGroupRollBackStat);
-                        continue;
-                    } catch (Exception err) {
-                        logger.error("op=resetOffset_which_not_online_error", err);
-                    }
-                } else {
-                    logger.error("op=resetOffset_error", e);
+                ConsumerGroupRollBackStat stat = resetGroupOffset(resetOffsetRequest, consumerGroup);
+                job.groupRollbackStats.put(consumerGroup, stat);
+                (stat.isStatus() ? job.succeeded : job.failed).incrementAndGet();
+                return null;
+            }));
+        }
+        CompletableFuture.allOf(resets.toArray(new CompletableFuture[0]))
+                .whenComplete((ignored, e) -> job.finish());
+        return job.toView();
+    }
+
+    @Override
+    public ResetOffsetJob queryResetOffsetJob(String jobId) {
+        return resetOffsetJobs.get(jobId, UserInfoContext.getUsername()).toView();
+    }
+
+    @Override
+    public ResetOffsetJob cancelResetOffsetJob(String jobId) {
+        ResetJob job = resetOffsetJobs.get(jobId, UserInfoContext.getUsername());
+        job.cancel();
+        return job.toView();
+    }
+
+    /**
+     * Runs the task on the pool of the offset resets as the user of the calling thread, so the admin calls of
+     * the task use the client of that user.
+     */
+    private <T> CompletableFuture<T> supplyAsCurrentUser(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(UserInfoContext.wrap(task), resetOffsetExecutor);
+    }
+
+    /**
+     * A forced reset first resets all brokers of the topic at once, brokers that cannot do so are reset
+     * queue by queue.
+     */
+    private ConsumerGroupRollBackStat resetGroupOffset(ResetOffsetRequest resetOffsetRequest, String consumerGroup) {
+        if (resetOffsetRequest.isForce()) {
+            try {
+                ConsumerGroupRollBackStat consumerGroupRollBackStat =
+                        resetGroupOffsetConcurrently(resetOffsetRequest.getTopic(), consumerGroup, resetOffsetRequest.getResetTime());
+                if (consumerGroupRollBackStat != null) {
+                    return consumerGroupRollBackStat;
                 }
-                groupRollbackStats.put(consumerGroup, new ConsumerGroupRollBackStat(false, e.getMessage()));
             } catch (Exception e) {
+                logger.warn("op=resetOffsetNewConcurrent_error group={}", consumerGroup, e);
+            }
+        }
+        return resetGroupOffsetByTimestamp(resetOffsetRequest, consumerGroup);
+    }
+
+    /**
+     * @return the offsets of the group after the reset, null if a broker did not reset them
+     */
+    private ConsumerGroupRollBackStat resetGroupOffsetConcurrently(String topic, String consumerGroup, long timestamp)
+            throws Exception {
+        AdminToolResult<BrokerOperatorResult> result = mqAdminExt.resetOffsetNewConcurrent(consumerGroup, topic, timestamp);
+        if (result == null || !result.isSuccess() || result.getData() == null
+                || CollectionUtils.isNotEmpty(result.getData().getFailureList())) {
+            logger.warn("op=resetOffsetNewConcurrent group={} topic={} result={}", consumerGroup, topic,
+                    result == null ? null : JsonUtil.obj2String(result));
+            return null;
+        }
+        ConsumeStats consumeStats = mqAdminExt.examineConsumeStats(consumerGroup, topic);
+        ConsumerGroupRollBackStat consumerGroupRollBackStat = new ConsumerGroupRollBackStat(true);
+        for (Map.Entry<MessageQueue, OffsetWrapper> entry : consumeStats.getOffsetTable().entrySet()) {
+            RollbackStats rollbackStats = new RollbackStats();
+            rollbackStats.setBrokerName(entry.getKey().getBrokerName());
+            rollbackStats.setQueueId(entry.getKey().getQueueId());
+            rollbackStats.setBrokerOffset(entry.getValue().getBrokerOffset());
+            rollbackStats.setConsumerOffset(entry.getValue().getConsumerOffset());
+            rollbackStats.setRollbackOffset(entry.getValue().getConsumerOffset());
+            consumerGroupRollBackStat.getRollbackStatsList().add(rollbackStats);
+        }
+        return consumerGroupRollBackStat;
+    }
+
+    private ConsumerGroupRollBackStat resetGroupOffsetByTimestamp(ResetOffsetRequest resetOffsetRequest, String consumerGroup) {
+        try {
+            Map<MessageQueue, Long> rollbackStatsMap =
+                    mqAdminExt.resetOffsetByTimestamp(resetOffsetRequest.getTopic(), consumerGroup, resetOffsetRequest.getResetTime(), resetOffsetRequest.isForce());
+            ConsumerGroupRollBackStat consumerGroupRollBackStat = new ConsumerGroupRollBackStat(true);
+            List<RollbackStats> rollbackStatsList = consumerGroupRollBackStat.getRollbackStatsList();
+            for (Map.Entry<MessageQueue, Long> rollbackStatsEntty : rollbackStatsMap.entrySet()) {
+                RollbackStats rollbackStats = new RollbackStats();
+                rollbackStats.setRollbackOffset(rollbackStatsEntty.getValue());
+                rollbackStats.setQueueId(rollbackStatsEntty.getKey().getQueueId());
+                rollbackStats.setBrokerName(rollbackStatsEntty.getKey().getBrokerName());
+                rollbackStatsList.add(rollbackStats);
+            }
+            return consumerGroupRollBackStat;
+        } catch (MQClientException e) {
+            if (ResponseCode.CONSUMER_NOT_ONLINE == e.getResponseCode()) {
+                try {
+                    ConsumerGroupRollBackStat consumerGroupRollBackStat = new ConsumerGroupRollBackStat(true);
+                    List<RollbackStats> rollbackStatsList = mqAdminExt.resetOffsetByTimestampOld(consumerGroup, resetOffsetRequest.getTopic(), resetOffsetRequest.getResetTime(), true);
+                    consumerGroupRollBackStat.setRollbackStatsList(rollbackStatsList);
+                    return consumerGroupRollBackStat;
+                } catch (Exception err) {
+                    logger.error("op=resetOffset_which_not_online_error", err);
+                }
+            } else {
                 logger.error("op=resetOffset_error", e);
-                groupRollbackStats.put(consumerGroup, new ConsumerGroupRollBackStat(false, e.getMessage()));
             }
+            return new ConsumerGroupRollBackStat(false, e.getMessage());
+        } catch (Exception e) {
+            logger.error("op=resetOffset_error", e);
+            return new ConsumerGroupRollBackStat(false, e.getMessage());
         }
-        return groupRollbackStats;
     }
 
+
     @Override
     public List<ConsumerConfigInfo> examineSubscriptionGroupConfig(String consumerGroup) {
-        consumerGroup = getConsumerGroup(consumerGroup);
+        String group = getConsumerGroup(consumerGroup);
         List<ConsumerConfigInfo> consumerConfigInfoList = Lists.newArrayList();
         try {
             ClusterInfo clusterInfo = clusterInfoService.get();
-            for (String brokerName : clusterInfo.getBrokerAddrTable().keySet()) { //foreach brokerName
-                String brokerAddress = clusterInfo.getBrokerAddrTable().get(brokerName).selectBrokerAddr();
-                SubscriptionGroupConfig subscriptionGroupConfig = null;
-                try {
-                    subscriptionGroupConfig = mqAdminExt.examineSubscriptionGroupConfig(brokerAddress, consumerGroup);
-                } catch (Exception e) {
-                    logger.warn("op=examineSubscriptionGroupConfig_error brokerName={} group={}", brokerName, consumerGroup);
-                }
-                if (subscriptionGroupConfig == null) {
-                    continue;
-                }
-                consumerConfigInfoList.add(new ConsumerConfigInfo(Lists.newArrayList(brokerName), subscriptionGroupConfig));
+            Map<String, String> brokerAddrs = new LinkedHashMap<>();
+            for (Map.Entry<String, BrokerData> entry : clusterInfo.getBrokerAddrTable().entrySet()) {
+                brokerAddrs.put(entry.getKey(), entry.getValue().selectBrokerAddr());
             }
+            BrokerFanOut<SubscriptionGroupConfig> fanOut = BrokerFanOut.call(brokerAddrs,
+                    brokerAddr -> mqAdminAsyncClient.examineSubscriptionGroupConfig(brokerAddr, group, SUBSCRIPTION_GROUP_TIMEOUT_MS),
+                    SUBSCRIPTION_GROUP_TIMEOUT_MS);
+            fanOut.getFailures().forEach((brokerName, e) ->
+                    logger.warn("op=examineSubscriptionGroupConfig_error brokerName={} group={}", brokerName, group));
+            fanOut.getResults().forEach((brokerName, subscriptionGroupConfig) ->
+                    consumerConfigInfoList.add(new ConsumerConfigInfo(Lists.newArrayList(brokerName), subscriptionGroupConfig)));
         } catch (Exception e) {
             Throwables.throwIfUnchecked(e);
             throw new RuntimeException(e);
@@ -474,6 +718,7 @@ public class ConsumerServiceImpl extends AbstractCommonService implements Consum
     }
 
     private void deleteResources(String topic, String brokerName, ClusterInfo clusterInfo, boolean deleteInNsFlag) throws Exception {
+        topicRouteCache.invalidate(topic);
         mqAdminExt.deleteTopicInBroker(Sets.newHashSet(clusterInfo.getBrokerAddrTable().get(brokerName).selectBrokerAddr()), topic);
         Set<String> nameServerSet = null;
         if (StringUtils.isNotBlank(configure.getNamesrvAddr())) {
@@ -522,9 +767,11 @@ public class ConsumerServiceImpl extends AbstractCommonService implements Consum
     public ConsumerConnection getConsumerConnection(String consumerGroup, String address) {
         consumerGroup = getConsumerGroup(consumerGroup);
         try {
-            String[] addresses = address.split(",");
-            String addr = addresses[0];
-            return mqAdminExt.examineConsumerConnectionInfo(consumerGroup, addr);
+            Collection<String> addresses = brokerAddrsOf(consumerGroup, address);
+            if (addresses.isEmpty()) {
+                return mqAdminExt.examineConsumerConnectionInfo(consumerGroup);
+            }
+            return mqAdminExt.examineConsumerConnectionInfo(consumerGroup, addresses.iterator().next());
         } catch (Exception e) {
             Throwables.throwIfUnchecked(e);
             throw new RuntimeException(e);
@@ -544,36 +791,235 @@ public class ConsumerServiceImpl extends AbstractCommonService implements Consum
 
     @Override
     public GroupConsumeInfo refreshGroup(String address, String consumerGroup) {
-        if (isCacheBeingBuilt || cacheConsumeInfoList.isEmpty()) {
+        GroupSnapshot snapshot = groupSnapshot.get();
+        if (snapshot.groups.isEmpty()) {
             throw new RuntimeException("Cache is being built or empty, please try again later");
         }
-        synchronized (cacheConsumeInfoList) {
-            for (int i = 0; i < cacheConsumeInfoList.size(); i++) {
-                GroupConsumeInfo groupConsumeInfo = cacheConsumeInfoList.get(i);
-                if (groupConsumeInfo.getGroup().equals(consumerGroup)) {
-                    GroupConsumeInfo updatedInfo = queryGroup(consumerGroup, address);
-                    updatedInfo.setUpdateTime(new Date());
-                    updatedInfo.setGroup(consumerGroup);
-                    updatedInfo.setAddress(consumerGroupMap.get(consumerGroup));
-                    cacheConsumeInfoList.set(i, updatedInfo);
-                    return updatedInfo;
-                }
-            }
+        GroupConsumeInfo previousInfo = snapshot.groups.get(consumerGroup);
+        if (previousInfo == null) {
+            throw new RuntimeException("No consumer group information available");
         }
-        throw new RuntimeException("No consumer group information available");
+        GroupConsumeInfo updatedInfo = queryGroup(consumerGroup, address);
+        updatedInfo.setUpdateTime(new Date());
+        updatedInfo.setAddress(previousInfo.getAddress());
+        updatedInfo.setSubGroupType(previousInfo.getSubGroupType());
+        groupSnapshot.updateAndGet(current -> current.withGroup(updatedInfo));
+        return updatedInfo;
     }
 
     @Override
     public List<GroupConsumeInfo> refreshAllGroup(String address) {
-        cacheConsumeInfoList.clear();
-        consumerGroupMap.clear();
+        awaitSnapshot(refreshSnapshot(address));
         return queryGroupList(false, address);
     }
 
+    /**
+     * @return the broker addresses passed by the caller without duplicates, or the brokers hosting the group
+     * according to the current snapshot
+     */
+    private Collection<String> brokerAddrsOf(String consumerGroup, String address) {
+        if (StringUtils.isNotBlank(address)) {
+            Set<String> addresses = new LinkedHashSet<>();
+            for (String addr : address.split(",")) {
+                if (StringUtils.isNotBlank(addr)) {
+                    addresses.add(addr.trim());
+                }
+            }
+            return addresses;
+        }
+        return groupSnapshot.get().groupBrokers.get(consumerGroup);
+    }
+
     public String getConsumerGroup(String consumerGroup) {
         if (consumerGroup != null && consumerGroup.startsWith("%SYS%")) {
             return consumerGroup.substring(5); // Remove "%SYS%" prefix
         }
         return consumerGroup;
     }
+
+    /**
+     * Consume stats of all groups, summed over the brokers that answered the bulk request.
+     */
+    private static final class BrokerConsumeStats {
+        private static final GroupStats NO_STATS = new GroupStats();
+
+        private final Map<String, GroupStats> groups = new ConcurrentHashMap<>();
+        /**
+         * groups hosted by a broker that did not answer
+         */
+        private final Set<String> unknownGroups = ConcurrentHashMap.newKeySet();
+
+        private void add(ConsumeStatsList consumeStatsList) {
+            for (Map<String, List<ConsumeStats>> groupConsumeStats : consumeStatsList.getConsumeStatsList()) {
+                for (Map.Entry<String, List<ConsumeStats>> entry : groupConsumeStats.entrySet()) {
+                    GroupStats groupStats = groups.computeIfAbsent(entry.getKey(), k -> new GroupStats());
+                    for (ConsumeStats consumeStats : entry.getValue()) {
+                        groupStats.add(consumeStats);
+                    }
+                }
+            }
+        }
+
+        /**
+         * @return stats of the group, null if one of its brokers did not answer and the group has to be queried on its own
+         */
+        private GroupStats get(String consumerGroup) {
+            if (unknownGroups.contains(consumerGroup)) {
+                return null;
+            }
+            return groups.getOrDefault(consumerGroup, NO_STATS);
+        }
+    }
+
+    private static final class GroupStats {
+        private double consumeTps;
+        private long diffTotal;
+        private boolean found;
+
+        private synchronized void add(ConsumeStats consumeStats) {
+            consumeTps += consumeStats.getConsumeTps();
+            diffTotal += consumeStats.computeTotalDiff();
+            found = true;
+        }
+
+        /**
+         * A group without any offset keeps the defaults, as when examineConsumeStats finds nothing.
+         */
+        private synchronized void applyTo(GroupConsumeInfo groupConsumeInfo) {
+            if (found) {
+                groupConsumeInfo.setConsumeTps((int) consumeTps);
+                groupConsumeInfo.setDiffTotal(diffTotal);
+            }
+        }
+    }
+
+    private static final class GroupSubscription {
+        private final Map<String /*brokerName*/, SubscriptionGroupConfig> configs = new HashMap<>();
+        private final Set<String> addresses = new LinkedHashSet<>();
+    }
+
+    /**
+     * Immutable view of all consumer groups, replaced as a whole whenever it is rebuilt.
+     */
+    private static final class GroupSnapshot {
+        private static final GroupSnapshot EMPTY = new GroupSnapshot(0, 0, Collections.emptyMap(), Collections.emptyMap(),
+            ImmutableSetMultimap.of());
+
+        private final long version;
+        /**
+         * when the group list was loaded from the brokers
+         */
+        private final long timestamp;
+        private final Map<String, GroupConsumeInfo> groups;
+        private final Map<String, Map<String, SubscriptionGroupConfig>> subscriptions;
+        /**
+         * addresses of the brokers hosting each group without duplicates, its inverse gives the groups of each broker
+         */
+        private final ImmutableSetMultimap<String, String> groupBrokers;
+
+        private GroupSnapshot(long version, long timestamp, Map<String, GroupConsumeInfo> groups,
+                              Map<String, Map<String, SubscriptionGroupConfig>> subscriptions,
+                              ImmutableSetMultimap<String, String> groupBrokers) {
+            this.version = version;
+            this.timestamp = timestamp;
+            this.groups = groups;
+            this.subscriptions = subscriptions;
+            this.groupBrokers = groupBrokers;
+        }
+
+        private GroupSnapshot withGroup(GroupConsumeInfo groupConsumeInfo) {
+            Map<String, GroupConsumeInfo> updated = new HashMap<>(groups);
+            updated.put(groupConsumeInfo.getGroup(), groupConsumeInfo);
+            return new GroupSnapshot(version + 1, timestamp, Collections.unmodifiableMap(updated), subscriptions, groupBrokers);
+        }
+
+        /**
+         * @param base    the snapshot this one was built from
+         * @param current the snapshot installed now, the base with the groups refreshed one by one since
+         * @return this snapshot with the refreshed groups that are newer than its own entries
+         */
+        private GroupSnapshot rebase(GroupSnapshot base, GroupSnapshot current) {
+            if (current == base) {
+                return this;
+            }
+            Map<String, GroupConsumeInfo> merged = new HashMap<>(groups);
+            for (Map.Entry<String, GroupConsumeInfo> entry : current.groups.entrySet()) {
+                GroupConsumeInfo refreshed = entry.getValue();
+                GroupConsumeInfo built = merged.get(entry.getKey());
+                if (built != null && refreshed != base.groups.get(entry.getKey()) && refreshed.getUpdateTime() != null
+                    && (built.getUpdateTime() == null || refreshed.getUpdateTime().after(built.getUpdateTime()))) {
+                    merged.put(entry.getKey(), refreshed);
+                }
+            }
+            return new GroupSnapshot(Math.max(version, current.version) + 1, timestamp, Collections.unmodifiableMap(merged),
+                subscriptions, groupBrokers);
+        }
+    }
+
+    private static final class ResetJob implements BackgroundJobs.Job {
+        private final String jobId;
+        private final ResetOffsetRequest request;
+        private final String owner;
+        private final List<String> groups;
+        private final long createTime = System.currentTimeMillis();
+        private final Map<String, ConsumerGroupRollBackStat> groupRollbackStats = new ConcurrentHashMap<>();
+        private final AtomicInteger succeeded = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final AtomicInteger skipped = new AtomicInteger();
+        private volatile ResetOffsetJob.Status status = ResetOffsetJob.Status.RUNNING;
+        /**
+         * groups already being reset are finished, the others are skipped
+         */
+        private volatile boolean cancelled;
+        private volatile long finishTime;
+
+        private ResetJob(String jobId, ResetOffsetRequest request, String owner) {
+            this.jobId = jobId;
+            this.request = request;
+            this.owner = owner;
+            this.groups = new ArrayList<>(new LinkedHashSet<>(request.getConsumerGroupList()));
+        }
+
+        @Override
+        public String getJobId() {
+            return jobId;
+        }
+
+        @Override
+        public String getOwner() {
+            return owner;
+        }
+
+        @Override
+        public long getFinishTime() {
+            return finishTime;
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+
+        private void finish() {
+            this.finishTime = System.currentTimeMillis();
+            this.status = cancelled ? ResetOffsetJob.Status.CANCELLED : ResetOffsetJob.Status.FINISHED;
+        }
+
+        private ResetOffsetJob toView() {
+            ResetOffsetJob view = new ResetOffsetJob();
+            view.setJobId(jobId);
+            view.setTopic(request.getTopic());
+            view.setResetTime(request.getResetTime());
+            view.setForce(request.isForce());
+            view.setStatus(status);
+            view.setTotal(groups.size());
+            view.setSucceeded(succeeded.get());
+            view.setFailed(failed.get());
+            view.setSkipped(skipped.get());
+            view.setGroupRollbackStats(new HashMap<>(groupRollbackStats));
+            view.setCreateTime(createTime);
+            view.setFinishTime(finishTime);
+            return view;
+        }
+    }
 }
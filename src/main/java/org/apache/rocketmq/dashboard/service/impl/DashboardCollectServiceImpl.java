@@ -20,18 +20,15 @@ import com.alibaba.fastjson.JSONArray;
 import com.alibaba.fastjson.JSONObject;
 import com.google.common.base.Charsets;
 import com.google.common.base.Throwables;
-import com.google.common.base.Ticker;
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
-import com.google.common.cache.RemovalListener;
-import com.google.common.cache.RemovalNotification;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.io.Files;
 import jakarta.annotation.Resource;
 import org.apache.rocketmq.dashboard.config.RMQConfigure;
 import org.apache.rocketmq.dashboard.service.DashboardCollectService;
+import org.apache.rocketmq.dashboard.service.store.TimeSeriesBuffer;
+import org.apache.rocketmq.dashboard.service.store.TimeSeriesData;
+import org.apache.rocketmq.dashboard.service.store.TimeSeriesStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -41,6 +38,7 @@ import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class DashboardCollectServiceImpl implements DashboardCollectService {
@@ -50,58 +48,52 @@ public class DashboardCollectServiceImpl implements DashboardCollectService {
 
     private final static Logger log = LoggerFactory.getLogger(DashboardCollectServiceImpl.class);
 
-    private LoadingCache<String, List<String>> brokerMap = CacheBuilder.newBuilder()
-            .maximumSize(1000)
-            .concurrencyLevel(10)
-            .recordStats()
-            .ticker(Ticker.systemTicker())
-            .removalListener(new RemovalListener<Object, Object>() {
-                @Override
-                public void onRemoval(RemovalNotification<Object, Object> notification) {
-                    log.debug(notification.getKey() + " was removed, cause is " + notification.getCause());
-                }
-            })
-            .build(
-                    new CacheLoader<String, List<String>>() {
-                        @Override
-                        public List<String> load(String key) {
-                            List<String> list = Lists.newArrayList();
-                            return list;
-                        }
-                    }
-            );
-
-    private LoadingCache<String, List<String>> topicMap = CacheBuilder.newBuilder()
-            .maximumSize(1000)
-            .concurrencyLevel(10)
-            .recordStats()
-            .ticker(Ticker.systemTicker())
-            .removalListener(new RemovalListener<Object, Object>() {
-                @Override
-                public void onRemoval(RemovalNotification<Object, Object> notification) {
-                    log.debug(notification.getKey() + " was removed, cause is " + notification.getCause());
-                }
-            })
-            .build(
-                    new CacheLoader<String, List<String>>() {
-                        @Override
-                        public List<String> load(String key) {
-                            List<String> list = Lists.newArrayList();
-                            return list;
-                        }
-                    }
-            );
+    /**
+     * broker sample: timestamp,tps
+     */
+    private static final int BROKER_PAIRS = 1;
+
+    /**
+     * topic sample: timestamp,inTps,inMsgCntToday,outTps,outMsgCntToday
+     */
+    private static final int TOPIC_PAIRS = 2;
+
+    /**
+     * Samples are flushed every few seconds, so the buffers only need to cover a store outage.
+     */
+    private static final int BUFFER_CAPACITY = 60;
+
+    private volatile TimeSeriesStore brokerStore;
+
+    private volatile TimeSeriesStore topicStore;
+
+    private final Map<String, TimeSeriesBuffer> brokerMap = new ConcurrentHashMap<>();
+
+    private final Map<String, TimeSeriesBuffer> topicMap = new ConcurrentHashMap<>();
 
     @Override
-    public LoadingCache<String, List<String>> getBrokerMap() {
+    public Map<String, TimeSeriesBuffer> getBrokerMap() {
         return brokerMap;
     }
 
     @Override
-    public LoadingCache<String, List<String>> getTopicMap() {
+    public Map<String, TimeSeriesBuffer> getTopicMap() {
         return topicMap;
     }
 
+    @Override
+    public void addBrokerSample(String broker, long timestamp, double tps) {
+        brokerMap.computeIfAbsent(broker, k -> new TimeSeriesBuffer(BROKER_PAIRS, BUFFER_CAPACITY))
+            .add(timestamp, tps, 0L);
+    }
+
+    @Override
+    public void addTopicSample(String topic, long timestamp, double inTps, long inMsgCntToday,
+                               double outTps, long outMsgCntToday) {
+        topicMap.computeIfAbsent(topic, k -> new TimeSeriesBuffer(TOPIC_PAIRS, BUFFER_CAPACITY))
+            .add(timestamp, inTps, inMsgCntToday, outTps, outMsgCntToday);
+    }
+
     @Override
     public Map<String, List<String>> jsonDataFile2map(File file) {
         List<String> strings;
@@ -134,26 +126,179 @@ public class DashboardCollectServiceImpl implements DashboardCollectService {
     }
 
     @Override
-    public Map<String, List<String>> getBrokerCache(String date) {
-        String dataLocationPath = configure.getDashboardCollectData();
-        File file = new File(dataLocationPath + date + ".json");
+    public Map<String, TimeSeriesData> getBrokerCache(String date) {
+        Map<String, TimeSeriesData> stored = readAll(getBrokerStore(), date);
+        if (stored != null) {
+            return stored;
+        }
+        File file = legacyFile(date, ".json");
         if (!file.exists()) {
             log.info(String.format("No dashboard data for broker cache data: %s", date));
             return Maps.newHashMap();
         }
-        return jsonDataFile2map(file);
+        return parse(jsonDataFile2map(file), BROKER_PAIRS);
     }
 
     @Override
-    public Map<String, List<String>> getTopicCache(String date) {
-        String dataLocationPath = configure.getDashboardCollectData();
-        File file = new File(dataLocationPath + date + "_topic" + ".json");
+    public Map<String, TimeSeriesData> getTopicCache(String date) {
+        Map<String, TimeSeriesData> stored = readAll(getTopicStore(), date);
+        if (stored != null) {
+            return stored;
+        }
+        File file = legacyFile(date, "_topic.json");
         if (!file.exists()) {
             log.info(String.format("No dashboard data for data: %s", date));
             //throw Throwables.propagate(new ServiceException(1, "This date have't data!"));
             return Maps.newHashMap();
         }
-        return jsonDataFile2map(file);
+        return parse(jsonDataFile2map(file), TOPIC_PAIRS);
+    }
+
+    @Override
+    public TimeSeriesData getTopicCache(String date, String topicName) {
+        TimeSeriesStore store = getTopicStore();
+        if (store.hasDay(date)) {
+            try {
+                return store.read(date, topicName, Long.MIN_VALUE, Long.MAX_VALUE);
+            } catch (IOException e) {
+                Throwables.throwIfUnchecked(e);
+                throw new RuntimeException(e);
+            }
+        }
+        return getTopicCache(date).get(topicName);
+    }
+
+    @Override
+    public Map<String, TimeSeriesData> getTopicLatest(String date) {
+        TimeSeriesStore store = getTopicStore();
+        if (store.hasDay(date)) {
+            try {
+                return store.readLatest(date);
+            } catch (IOException e) {
+                Throwables.throwIfUnchecked(e);
+                throw new RuntimeException(e);
+            }
+        }
+        Map<String, TimeSeriesData> result = Maps.newHashMap();
+        for (Map.Entry<String, TimeSeriesData> entry : getTopicCache(date).entrySet()) {
+            TimeSeriesData data = entry.getValue();
+            if (data.size() > 0) {
+                TimeSeriesData latest = new TimeSeriesData(TOPIC_PAIRS, 1);
+                int index = latest.add(data.getTimestamp(data.size() - 1));
+                for (int p = 0; p < TOPIC_PAIRS; p++) {
+                    latest.set(index, p, data.getValue(data.size() - 1, p), data.getCount(data.size() - 1, p));
+                }
+                result.put(entry.getKey(), latest);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void flushToStore() {
+        try {
+            flush(brokerMap, getBrokerStore(), ".json");
+            flush(topicMap, getTopicStore(), "_topic.json");
+        } catch (IOException e) {
+            Throwables.throwIfUnchecked(e);
+            throw new RuntimeException(e);
+        }
     }
 
+    private void flush(Map<String, TimeSeriesBuffer> map, TimeSeriesStore store, String legacySuffix) throws IOException {
+        Map<String, TimeSeriesData> pending = Maps.newHashMap();
+        Map<TimeSeriesBuffer, Long> copied = Maps.newHashMap();
+        for (Map.Entry<String, TimeSeriesBuffer> entry : map.entrySet()) {
+            TimeSeriesBuffer buffer = entry.getValue();
+            TimeSeriesData data = new TimeSeriesData(store.getPairs(), 4);
+            long sequence = buffer.copyTo(data);
+            if (data.size() == 0) {
+                continue;
+            }
+            pending.put(entry.getKey(), data);
+            copied.put(buffer, sequence);
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+        for (TimeSeriesData data : pending.values()) {
+            String date = TimeSeriesStore.dayOf(data.getTimestamp(0));
+            if (!store.hasDay(date)) {
+                importLegacyFile(store, date, legacyFile(date, legacySuffix));
+            }
+        }
+        store.append(pending);
+        for (Map.Entry<TimeSeriesBuffer, Long> entry : copied.entrySet()) {
+            entry.getKey().discard(entry.getValue());
+        }
+    }
+
+    /**
+     * Move the data of a json file written by an older version into the store, so that upgrading
+     * in the middle of a day does not lose the samples collected earlier that day.
+     */
+    private void importLegacyFile(TimeSeriesStore store, String date, File file) throws IOException {
+        if (!file.exists()) {
+            return;
+        }
+        store.append(date, parse(jsonDataFile2map(file), store.getPairs()));
+        log.info("Imported dashboard data file {} into the time series store", file);
+    }
+
+    private Map<String, TimeSeriesData> readAll(TimeSeriesStore store, String date) {
+        try {
+            return store.readAll(date);
+        } catch (IOException e) {
+            Throwables.throwIfUnchecked(e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    private TimeSeriesStore getBrokerStore() {
+        if (brokerStore == null) {
+            synchronized (this) {
+                if (brokerStore == null) {
+                    brokerStore = new TimeSeriesStore(configure.getDashboardCollectData(), "broker", BROKER_PAIRS);
+                }
+            }
+        }
+        return brokerStore;
+    }
+
+    private TimeSeriesStore getTopicStore() {
+        if (topicStore == null) {
+            synchronized (this) {
+                if (topicStore == null) {
+                    topicStore = new TimeSeriesStore(configure.getDashboardCollectData(), "topic", TOPIC_PAIRS);
+                }
+            }
+        }
+        return topicStore;
+    }
+
+    private File legacyFile(String date, String suffix) {
+        return new File(configure.getDashboardCollectData() + date + suffix);
+    }
+
+    /**
+     * Parse the "timestamp,value,count,..." samples of the json files written by older versions.
+     */
+    private static Map<String, TimeSeriesData> parse(Map<String, List<String>> samples, int pairs) {
+        Map<String, TimeSeriesData> result = Maps.newHashMapWithExpectedSize(samples.size());
+        for (Map.Entry<String, List<String>> entry : samples.entrySet()) {
+            TimeSeriesData data = new TimeSeriesData(pairs, entry.getValue().size());
+            for (String sample : entry.getValue()) {
+                String[] fields = sample.split(",");
+                int index = data.add(Long.parseLong(fields[0]));
+                for (int p = 0; p < pairs; p++) {
+                    int valueIndex = 1 + p * 2;
+                    data.set(index, p,
+                        valueIndex < fields.length ? Double.parseDouble(fields[valueIndex]) : 0D,
+                        valueIndex + 1 < fields.length ? Long.parseLong(fields[valueIndex + 1]) : 0L);
+                }
+            }
+            result.put(entry.getKey(), data);
+        }
+        return result;
+    }
 }
@@ -18,11 +18,15 @@
 package org.apache.rocketmq.dashboard.service.impl;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import jakarta.annotation.Resource;
 import org.apache.rocketmq.dashboard.service.DashboardCollectService;
 import org.apache.rocketmq.dashboard.service.DashboardService;
+import org.apache.rocketmq.dashboard.service.store.TimeSeriesData;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.Date;
@@ -40,12 +44,12 @@ public class DashboardServiceImpl implements DashboardService {
      */
     @Override
     public Map<String, List<String>> queryBrokerData(String date) {
-        return dashboardCollectService.getBrokerCache(date);
+        return render(dashboardCollectService.getBrokerCache(date));
     }
 
     @Override
     public Map<String, List<String>> queryTopicData(String date) {
-        return dashboardCollectService.getTopicCache(date);
+        return render(dashboardCollectService.getTopicCache(date));
     }
 
     /**
@@ -54,22 +58,55 @@ public class DashboardServiceImpl implements DashboardService {
      */
     @Override
     public List<String> queryTopicData(String date, String topicName) {
-        if (null != dashboardCollectService.getTopicCache(date)) {
-            return dashboardCollectService.getTopicCache(date).get(topicName);
-        }
-        return null;
+        TimeSeriesData data = dashboardCollectService.getTopicCache(date, topicName);
+        return data == null ? null : render(data);
     }
 
     @Override
     public List<String> queryTopicCurrentData() {
         Date date = new Date();
         DateFormat format = new SimpleDateFormat("yyyy-MM-dd");
-        Map<String, List<String>> topicCache = dashboardCollectService.getTopicCache(format.format(date));
+        Map<String, TimeSeriesData> topicLatest = dashboardCollectService.getTopicLatest(format.format(date));
         List<String> result = Lists.newArrayList();
-        for (Map.Entry<String, List<String>> entry : topicCache.entrySet()) {
-            List<String> value = entry.getValue();
-            result.add(entry.getKey() + "," + value.get(value.size() - 1).split(",")[4]);
+        for (Map.Entry<String, TimeSeriesData> entry : topicLatest.entrySet()) {
+            TimeSeriesData value = entry.getValue();
+            // outMsgCntToday
+            result.add(entry.getKey() + "," + value.getCount(value.size() - 1, 1));
         }
         return result;
     }
+
+    private static Map<String, List<String>> render(Map<String, TimeSeriesData> series) {
+        Map<String, List<String>> result = Maps.newHashMapWithExpectedSize(series.size());
+        for (Map.Entry<String, TimeSeriesData> entry : series.entrySet()) {
+            result.put(entry.getKey(), render(entry.getValue()));
+        }
+        return result;
+    }
+
+    /**
+     * Render samples as the page expects them: broker {@code timestamp,tps},
+     * topic {@code timestamp,inTps,inMsgCntToday,outTps,outMsgCntToday}.
+     */
+    private static List<String> render(TimeSeriesData data) {
+        List<String> result = Lists.newArrayListWithCapacity(data.size());
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < data.size(); i++) {
+            sb.setLength(0);
+            sb.append(data.getTimestamp(i)).append(',').append(tps(data.getValue(i, 0)));
+            for (int p = 1; p < data.getPairs(); p++) {
+                sb.append(',').append(data.getCount(i, p - 1))
+                    .append(',').append(tps(data.getValue(i, p)));
+            }
+            if (data.getPairs() > 1) {
+                sb.append(',').append(data.getCount(i, data.getPairs() - 1));
+            }
+            result.add(sb.toString());
+        }
+        return result;
+    }
+
+    private static String tps(double value) {
+        return BigDecimal.valueOf(value).setScale(5, RoundingMode.HALF_UP).toPlainString();
+    }
 }
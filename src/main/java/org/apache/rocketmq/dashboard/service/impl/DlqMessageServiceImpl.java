@@ -18,27 +18,70 @@
 package org.apache.rocketmq.dashboard.service.impl;
 
 import com.google.common.base.Throwables;
+import jakarta.annotation.PostConstruct;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.rocketmq.acl.common.AclClientRPCHook;
+import org.apache.rocketmq.acl.common.SessionCredentials;
+import org.apache.rocketmq.client.consumer.DefaultMQPullConsumer;
+import org.apache.rocketmq.client.consumer.PullResult;
+import org.apache.rocketmq.client.consumer.PullStatus;
 import org.apache.rocketmq.client.exception.MQClientException;
 import org.apache.rocketmq.common.MixAll;
+import org.apache.rocketmq.common.message.MessageClientIDSetter;
+import org.apache.rocketmq.common.message.MessageConst;
+import org.apache.rocketmq.common.message.MessageExt;
+import org.apache.rocketmq.common.message.MessageQueue;
+import org.apache.rocketmq.dashboard.config.RMQConfigure;
+import org.apache.rocketmq.dashboard.exception.ServiceException;
+import org.apache.rocketmq.dashboard.model.DlqBulkJob;
+import org.apache.rocketmq.dashboard.model.DlqBulkJobRequest;
+import org.apache.rocketmq.dashboard.model.DlqMessageExcelModel;
 import org.apache.rocketmq.dashboard.model.DlqMessageRequest;
 import org.apache.rocketmq.dashboard.model.DlqMessageResendResult;
+import org.apache.rocketmq.dashboard.model.DlqReproduceRequest;
+import org.apache.rocketmq.dashboard.model.DlqResendBatchResult;
 import org.apache.rocketmq.dashboard.model.MessagePage;
 import org.apache.rocketmq.dashboard.model.MessageView;
+import org.apache.rocketmq.dashboard.model.QueueOffsetInfo;
 import org.apache.rocketmq.dashboard.model.request.MessageQuery;
 import org.apache.rocketmq.dashboard.service.DlqMessageService;
 import org.apache.rocketmq.dashboard.service.MessageService;
+import org.apache.rocketmq.dashboard.service.TopicRouteCache;
+import org.apache.rocketmq.dashboard.support.AutoCloseConsumerWrapper;
+import org.apache.rocketmq.dashboard.support.BackgroundJobs;
+import org.apache.rocketmq.dashboard.support.DlqMessageReproducer;
+import org.apache.rocketmq.dashboard.util.ExcelUtil;
+import org.apache.rocketmq.dashboard.util.UserInfoContext;
+import org.apache.rocketmq.remoting.RPCHook;
 import org.apache.rocketmq.remoting.protocol.ResponseCode;
+import org.apache.rocketmq.remoting.protocol.body.CMResult;
 import org.apache.rocketmq.remoting.protocol.body.ConsumeMessageDirectlyResult;
 import org.apache.rocketmq.tools.admin.MQAdminExt;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
+import java.io.File;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 @Service
 @Slf4j
@@ -50,13 +93,45 @@ public class DlqMessageServiceImpl implements DlqMessageService {
     @Resource
     private MessageService messageService;
 
+    @Resource
+    private TopicRouteCache topicRouteCache;
+
+    @Resource
+    private AutoCloseConsumerWrapper autoCloseConsumerWrapper;
+
+    @Resource
+    private RMQConfigure configure;
+
+    @Resource
+    private DlqMessageReproducer dlqMessageReproducer;
+
+    private static final int RESEND_BATCH_SIZE = 32;
+
+    /**
+     * lookups of an export in flight at the same time, each of them may hold a message body
+     */
+    private static final int EXPORT_WINDOW = 16;
+
+    private static final int EXPORT_PROGRESS_INTERVAL = 1000;
+
+    private final ExecutorService exportExecutor = BackgroundJobs.newExecutor("DlqExport_", 8);
+
+    /**
+     * bulk jobs running at the same time, the others wait in the queue of the executor
+     */
+    private final ExecutorService bulkJobExecutor = BackgroundJobs.newExecutor("DlqBulkJob_", 2);
+
+    private final BackgroundJobs<BulkJob> bulkJobs = new BackgroundJobs<>("bulk job", TimeUnit.HOURS.toMillis(1));
+
+    private final MessageOffsetResolver offsetResolver = new MessageOffsetResolver();
+
     @Override
     public MessagePage queryDlqMessageByPage(MessageQuery query) {
         List<MessageView> messageViews = new ArrayList<>();
         PageRequest page = PageRequest.of(query.getPageNum(), query.getPageSize());
         String topic = query.getTopic();
         try {
-            mqAdminExt.examineTopicRouteInfo(topic);
+            topicRouteCache.get(topic);
         } catch (MQClientException e) {
             // If the %DLQ%Group does not exist, the message returns null
             if (topic.startsWith(MixAll.DLQ_GROUP_TOPIC_PREFIX)
@@ -85,4 +160,356 @@ public class DlqMessageServiceImpl implements DlqMessageService {
         }
         return batchResendResults;
     }
+
+    @Override
+    public List<DlqResendBatchResult> batchReproduceDlqMessage(DlqReproduceRequest request) {
+        List<DlqMessageRequest> dlqMessages = request.getDlqMessages();
+        Map<String, Object> userInfo = UserInfoContext.getAll();
+        List<DlqResendBatchResult> results = new ArrayList<>();
+        for (int from = 0; from < dlqMessages.size(); from += RESEND_BATCH_SIZE) {
+            List<DlqMessageRequest> batch = dlqMessages.subList(from, Math.min(from + RESEND_BATCH_SIZE, dlqMessages.size()));
+            List<CompletableFuture<MessageExt>> lookups = new ArrayList<>(batch.size());
+            for (DlqMessageRequest dlqMessage : batch) {
+                lookups.add(CompletableFuture.supplyAsync(
+                        UserInfoContext.wrap(userInfo, () -> viewDlqMessage(dlqMessage)), exportExecutor));
+            }
+            List<MessageExt> messages = new ArrayList<>(batch.size());
+            Map<String, String> lookupFailures = new LinkedHashMap<>();
+            for (int i = 0; i < batch.size(); i++) {
+                try {
+                    messages.add(lookups.get(i).join());
+                } catch (CompletionException e) {
+                    log.error("Failed to query message by Id:{}", batch.get(i).getMsgId(), e.getCause());
+                    lookupFailures.put(batch.get(i).getMsgId(), e.getCause().getMessage());
+                }
+            }
+            DlqResendBatchResult result = dlqMessageReproducer.resend(messages, request.getTarget(), request.isForce());
+            result.setBatch(results.size());
+            result.getFailures().putAll(lookupFailures);
+            results.add(result);
+        }
+        return results;
+    }
+
+    private MessageExt viewDlqMessage(DlqMessageRequest dlqMessage) {
+        try {
+            return mqAdminExt.viewMessage(MixAll.DLQ_GROUP_TOPIC_PREFIX + dlqMessage.getConsumerGroup(),
+                    dlqMessage.getMsgId());
+        } catch (Exception e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    @Override
+    public void batchExportDlqMessage(List<DlqMessageRequest> dlqMessages, Consumer<DlqMessageExcelModel> rowConsumer) {
+        AtomicInteger failures = new AtomicInteger();
+        Map<String, Object> userInfo = UserInfoContext.getAll();
+        Deque<CompletableFuture<DlqMessageExcelModel>> window = new ArrayDeque<>(EXPORT_WINDOW);
+        Iterator<DlqMessageRequest> requests = dlqMessages.iterator();
+        int exported = 0;
+        try {
+            while (requests.hasNext() || !window.isEmpty()) {
+                while (requests.hasNext() && window.size() < EXPORT_WINDOW) {
+                    DlqMessageRequest dlqMessage = requests.next();
+                    window.add(CompletableFuture.supplyAsync(
+                            UserInfoContext.wrap(userInfo, () -> toExcelModel(dlqMessage, failures)), exportExecutor));
+                }
+                rowConsumer.accept(window.poll().join());
+                if (++exported % EXPORT_PROGRESS_INTERVAL == 0) {
+                    log.info("Exported {}/{} dlq messages, {} failed", exported, dlqMessages.size(), failures.get());
+                }
+            }
+        } finally {
+            window.forEach(future -> future.cancel(false));
+        }
+        log.info("Exported {} dlq messages, {} failed", exported, failures.get());
+    }
+
+    private DlqMessageExcelModel toExcelModel(DlqMessageRequest dlqMessage, AtomicInteger failures) {
+        try {
+            String topic = MixAll.DLQ_GROUP_TOPIC_PREFIX + dlqMessage.getConsumerGroup();
+            return new DlqMessageExcelModel(mqAdminExt.viewMessage(topic, dlqMessage.getMsgId()));
+        } catch (Exception e) {
+            log.error("Failed to query message by Id:{}", dlqMessage.getMsgId(), e);
+            failures.incrementAndGet();
+            DlqMessageExcelModel excelModel = new DlqMessageExcelModel();
+            excelModel.setMsgId(dlqMessage.getMsgId());
+            excelModel.setException(e.getMessage());
+            return excelModel;
+        }
+    }
+
+    @Override
+    public DlqBulkJob submitBulkJob(DlqBulkJobRequest request) {
+        if (request.getTopic() == null || !request.getTopic().startsWith(MixAll.DLQ_GROUP_TOPIC_PREFIX)) {
+            throw new ServiceException(-1, String.format("%s is not a dlq topic", request.getTopic()));
+        }
+        if (request.getAction() == null) {
+            throw new ServiceException(-1, "the action of the bulk job is missing");
+        }
+        BulkJob job = new BulkJob(MessageClientIDSetter.createUniqID(), request, UserInfoContext.getUsername(),
+                UserInfoContext.getAll());
+        bulkJobs.add(job);
+        bulkJobExecutor.execute(UserInfoContext.wrap(job.userInfo, () -> runBulkJob(job)));
+        return job.toView();
+    }
+
+    @Override
+    public DlqBulkJob queryBulkJob(String jobId) {
+        return bulkJobs.get(jobId, UserInfoContext.getUsername()).toView();
+    }
+
+    @Override
+    public DlqBulkJob cancelBulkJob(String jobId) {
+        BulkJob job = bulkJobs.get(jobId, UserInfoContext.getUsername());
+        job.cancel();
+        return job.toView();
+    }
+
+    @Override
+    public File bulkJobExportFile(String jobId) {
+        BulkJob job = bulkJobs.get(jobId, UserInfoContext.getUsername());
+        if (job.request.getAction() != DlqBulkJobRequest.Action.EXPORT || job.status != DlqBulkJob.Status.SUCCEEDED) {
+            throw new ServiceException(-1, String.format("bulk job %s has no finished export", jobId));
+        }
+        return job.exportFile;
+    }
+
+    /**
+     * Delete the exports left by the bulk jobs of an earlier run, their jobs are gone with it.
+     */
+    @PostConstruct
+    public void cleanExports() {
+        File[] exports = exportDir().listFiles();
+        if (exports == null) {
+            return;
+        }
+        for (File export : exports) {
+            if (!export.delete()) {
+                log.warn("Failed to delete the stale dlq export {}", export);
+            }
+        }
+    }
+
+    private File exportDir() {
+        return new File(configure.getRocketMqDashboardDataPath() + File.separatorChar + "dlq-export");
+    }
+
+    private void runBulkJob(BulkJob job) {
+        if (job.cancelled) {
+            job.finish(DlqBulkJob.Status.CANCELLED);
+            return;
+        }
+        job.status = DlqBulkJob.Status.RUNNING;
+        DlqBulkJobRequest request = job.request;
+        try {
+            if (request.getAction() == DlqBulkJobRequest.Action.EXPORT) {
+                File file = new File(exportDir(), job.jobId + ".xlsx");
+                Files.createDirectories(file.getParentFile().toPath());
+                job.exportFile = file;
+                try (OutputStream outputStream = Files.newOutputStream(file.toPath());
+                     ExcelUtil.ExcelRowWriter<DlqMessageExcelModel> rowWriter =
+                             ExcelUtil.openExcel(outputStream, "dlqs", DlqMessageExcelModel.class)) {
+                    scanBulkJob(job, messageExt -> {
+                        rowWriter.write(new DlqMessageExcelModel(messageExt));
+                        job.succeeded.incrementAndGet();
+                    });
+                }
+            } else if (request.getResendTarget() != null) {
+                List<MessageExt> batch = new ArrayList<>(RESEND_BATCH_SIZE);
+                scanBulkJob(job, messageExt -> {
+                    batch.add(messageExt);
+                    if (batch.size() >= RESEND_BATCH_SIZE) {
+                        reproduce(job, batch);
+                    }
+                });
+                if (!batch.isEmpty()) {
+                    reproduce(job, batch);
+                }
+            } else {
+                String consumerGroup = request.getTopic().substring(MixAll.DLQ_GROUP_TOPIC_PREFIX.length());
+                scanBulkJob(job, messageExt -> {
+                    if (resend(request, consumerGroup, messageExt)) {
+                        job.succeeded.incrementAndGet();
+                    } else {
+                        job.failed.incrementAndGet();
+                    }
+                });
+            }
+            job.finish(job.cancelled ? DlqBulkJob.Status.CANCELLED : DlqBulkJob.Status.SUCCEEDED);
+        } catch (Exception e) {
+            log.error("Bulk job {} on {} failed", job.jobId, request.getTopic(), e);
+            job.error = e.getMessage();
+            job.finish(DlqBulkJob.Status.FAILED);
+        }
+        log.info("Bulk job {} {} {}: {} matched, {} succeeded, {} failed", job.jobId, request.getAction(),
+                request.getTopic(), job.matched.get(), job.succeeded.get(), job.failed.get());
+    }
+
+    private void reproduce(BulkJob job, List<MessageExt> batch) {
+        DlqResendBatchResult result = dlqMessageReproducer.resend(batch, job.request.getResendTarget(),
+                job.request.isForce());
+        job.succeeded.addAndGet(result.getSent());
+        job.skipped.addAndGet(result.getSkipped());
+        job.failed.addAndGet(result.getFailures().size());
+        batch.clear();
+    }
+
+    private boolean resend(DlqBulkJobRequest request, String consumerGroup, MessageExt messageExt) {
+        try {
+            ConsumeMessageDirectlyResult result = messageService.consumeMessageDirectly(request.getTopic(),
+                    messageExt.getMsgId(), consumerGroup, request.getClientId());
+            return result.getConsumeResult() == CMResult.CR_SUCCESS;
+        } catch (Exception e) {
+            log.warn("Failed to resend dlq message {}", messageExt.getMsgId(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Pull the messages of the time range queue by queue and pass the ones matching the filters to the sink.
+     */
+    private void scanBulkJob(BulkJob job, Consumer<MessageExt> sink) throws Exception {
+        DlqBulkJobRequest request = job.request;
+        boolean isEnableAcl = !StringUtils.isEmpty(configure.getAccessKey()) && !StringUtils.isEmpty(configure.getSecretKey());
+        RPCHook rpcHook = null;
+        if (isEnableAcl) {
+            rpcHook = new AclClientRPCHook(new SessionCredentials(configure.getAccessKey(), configure.getSecretKey()));
+        }
+        DefaultMQPullConsumer consumer = autoCloseConsumerWrapper.getConsumer(rpcHook, configure.isUseTLS());
+
+        List<QueueOffsetInfo> queueOffsetInfos = new ArrayList<>();
+        int idx = 0;
+        for (MessageQueue messageQueue : consumer.fetchSubscribeMessageQueues(request.getTopic())) {
+            long minOffset = consumer.searchOffset(messageQueue, request.getBegin());
+            long maxOffset = consumer.maxOffset(messageQueue);
+            long start = offsetResolver.firstOffsetAtOrAfter(consumer, messageQueue, request.getBegin(),
+                    minOffset, maxOffset);
+            long end = offsetResolver.firstOffsetAtOrAfter(consumer, messageQueue, request.getEnd() + 1,
+                    start, maxOffset);
+            queueOffsetInfos.add(new QueueOffsetInfo(idx++, start, end, start, start, messageQueue));
+            job.total.addAndGet(end - start);
+        }
+
+        String subExpression = StringUtils.isBlank(request.getTag()) ? "*" : request.getTag();
+        MessagePullBudget budget = new MessagePullBudget(configure.getMessageListByteBudget(), 1);
+        for (QueueOffsetInfo queueOffsetInfo : queueOffsetInfos) {
+            long offset = queueOffsetInfo.getStart();
+            long end = queueOffsetInfo.getEnd();
+            while (offset < end && !job.cancelled) {
+                PullResult pullResult = consumer.pull(queueOffsetInfo.getMessageQueues(), subExpression, offset,
+                        (int) Math.min(end - offset, budget.batchSize()));
+                if (pullResult.getPullStatus() == PullStatus.FOUND) {
+                    budget.record(pullResult.getMsgFoundList());
+                    for (MessageExt messageExt : pullResult.getMsgFoundList()) {
+                        if (messageExt.getQueueOffset() >= end || job.cancelled) {
+                            break;
+                        }
+                        if (!matchesKey(messageExt, request.getKey())) {
+                            continue;
+                        }
+                        job.matched.incrementAndGet();
+                        sink.accept(messageExt);
+                    }
+                }
+                // a pull filtered by tag moves on without returning messages
+                if (pullResult.getNextBeginOffset() <= offset) {
+                    break;
+                }
+                long next = Math.min(pullResult.getNextBeginOffset(), end);
+                job.scanned.addAndGet(next - offset);
+                offset = next;
+            }
+        }
+    }
+
+    private boolean matchesKey(MessageExt messageExt, String key) {
+        if (StringUtils.isBlank(key)) {
+            return true;
+        }
+        return messageExt.getKeys() != null
+                && Arrays.asList(messageExt.getKeys().split(MessageConst.KEY_SEPARATOR)).contains(key);
+    }
+
+    private static final class BulkJob implements BackgroundJobs.Job {
+        private final String jobId;
+        private final DlqBulkJobRequest request;
+        private final String owner;
+        /**
+         * the user who submitted the job, its admin calls run as that user
+         */
+        private final Map<String, Object> userInfo;
+        private final long createTime = System.currentTimeMillis();
+        private final AtomicLong total = new AtomicLong();
+        private final AtomicLong scanned = new AtomicLong();
+        private final AtomicLong matched = new AtomicLong();
+        private final AtomicLong succeeded = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final AtomicLong skipped = new AtomicLong();
+        private volatile DlqBulkJob.Status status = DlqBulkJob.Status.PENDING;
+        private volatile boolean cancelled;
+        private volatile String error;
+        private volatile long finishTime;
+        private volatile File exportFile;
+
+        private BulkJob(String jobId, DlqBulkJobRequest request, String owner, Map<String, Object> userInfo) {
+            this.jobId = jobId;
+            this.request = request;
+            this.owner = owner;
+            this.userInfo = userInfo;
+        }
+
+        private void finish(DlqBulkJob.Status status) {
+            this.finishTime = System.currentTimeMillis();
+            this.status = status;
+        }
+
+        @Override
+        public String getJobId() {
+            return jobId;
+        }
+
+        @Override
+        public String getOwner() {
+            return owner;
+        }
+
+        @Override
+        public long getFinishTime() {
+            return finishTime;
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+
+        /**
+         * Delete the export once the job is no longer tracked.
+         */
+        @Override
+        public void discard() {
+            if (exportFile != null && !exportFile.delete()) {
+                log.warn("Failed to delete the export {} of bulk job {}", exportFile, jobId);
+            }
+        }
+
+        private DlqBulkJob toView() {
+            DlqBulkJob view = new DlqBulkJob();
+            view.setJobId(jobId);
+            view.setTopic(request.getTopic());
+            view.setAction(request.getAction());
+            view.setStatus(status);
+            view.setTotal(total.get());
+            view.setScanned(scanned.get());
+            view.setMatched(matched.get());
+            view.setSucceeded(succeeded.get());
+            view.setFailed(failed.get());
+            view.setSkipped(skipped.get());
+            view.setCreateTime(createTime);
+            view.setFinishTime(finishTime);
+            view.setError(error);
+            return view;
+        }
+    }
 }
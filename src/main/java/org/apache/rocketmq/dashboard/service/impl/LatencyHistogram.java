@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.rocketmq.dashboard.service.impl;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * Lock-free histogram of latencies in microseconds, read while it is being written.
+ * <p>
+ * Latencies below 64us have a bucket each, above that every power of two is split into 32 buckets, so a
+ * percentile is off by at most 1/32 of its value.
+ */
+class LatencyHistogram {
+
+    private static final int LINEAR_BUCKETS = 64;
+
+    private static final int SUB_BUCKETS = 32;
+
+    private final AtomicLongArray counts = new AtomicLongArray(LINEAR_BUCKETS + (Long.SIZE - 6) * SUB_BUCKETS);
+
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    void record(long micros) {
+        long value = Math.max(micros, 0);
+        counts.incrementAndGet(bucket(value));
+        max.accumulate(value);
+    }
+
+    long max() {
+        return max.get();
+    }
+
+    /**
+     * @param quantile between 0 and 1
+     * @return upper bound of the bucket holding the quantile, 0 if nothing was recorded
+     */
+    long percentile(double quantile) {
+        long[] snapshot = new long[counts.length()];
+        long total = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(upperBound(i), max());
+            }
+        }
+        return max();
+    }
+
+    private static int bucket(long value) {
+        if (value < LINEAR_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int mantissa = (int) (value >>> (exponent - 5));
+        return LINEAR_BUCKETS + (exponent - 6) * SUB_BUCKETS + mantissa - SUB_BUCKETS;
+    }
+
+    private static long upperBound(int bucket) {
+        if (bucket < LINEAR_BUCKETS) {
+            return bucket;
+        }
+        int exponent = (bucket - LINEAR_BUCKETS) / SUB_BUCKETS + 6;
+        long mantissa = (bucket - LINEAR_BUCKETS) % SUB_BUCKETS + SUB_BUCKETS;
+        return ((mantissa + 1) << (exponent - 5)) - 1;
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.rocketmq.dashboard.service.impl;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.apache.rocketmq.client.consumer.DefaultMQPullConsumer;
+import org.apache.rocketmq.client.consumer.PullResult;
+import org.apache.rocketmq.client.consumer.PullStatus;
+import org.apache.rocketmq.client.exception.MQBrokerException;
+import org.apache.rocketmq.client.exception.MQClientException;
+import org.apache.rocketmq.common.message.MessageExt;
+import org.apache.rocketmq.common.message.MessageQueue;
+import org.apache.rocketmq.remoting.exception.RemotingException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finds the offset where the store timestamps of a queue reach a given time.
+ * <p>
+ * The offsets are bisected with pulls of a single message. A boundary found strictly inside the searched
+ * range has messages on both sides of it, so it no longer moves when new messages arrive and is cached per
+ * queue and timestamp.
+ */
+class MessageOffsetResolver {
+
+    private final Cache<String, Long> boundaries = CacheBuilder.newBuilder()
+            .maximumSize(10000)
+            .expireAfterWrite(10, TimeUnit.MINUTES)
+            .build();
+
+    /**
+     * @return the first offset in [low, high) whose message is stored at or after the timestamp, high if
+     * there is none
+     */
+    long firstOffsetAtOrAfter(DefaultMQPullConsumer consumer, MessageQueue mq, long timestamp, long low,
+                              long high) throws MQClientException, RemotingException, MQBrokerException,
+            InterruptedException {
+        if (low >= high) {
+            return low;
+        }
+        String key = mq.getBrokerName() + "@" + mq.getTopic() + "@" + mq.getQueueId() + "@" + timestamp;
+        Long cached = boundaries.getIfPresent(key);
+        if (cached != null) {
+            return Math.min(Math.max(cached, low), high);
+        }
+        long lo = low;
+        long hi = high;
+        while (lo < hi) {
+            long mid = lo + (hi - lo) / 2;
+            MessageExt messageExt = messageAt(consumer, mq, mid);
+            // a missing message counts as late, which only widens the range
+            if (messageExt != null && messageExt.getStoreTimestamp() < timestamp) {
+                // skip the offsets the pull jumped over as well
+                lo = Math.min(Math.max(mid, messageExt.getQueueOffset()) + 1, hi);
+            } else {
+                hi = mid;
+            }
+        }
+        if (lo > low && lo < high) {
+            boundaries.put(key, lo);
+        }
+        return lo;
+    }
+
+    private MessageExt messageAt(DefaultMQPullConsumer consumer, MessageQueue mq, long offset)
+            throws MQClientException, RemotingException, MQBrokerException, InterruptedException {
+        PullResult pullResult = consumer.pull(mq, "*", offset, 1);
+        if (pullResult.getPullStatus() != PullStatus.FOUND || pullResult.getMsgFoundList().isEmpty()) {
+            return null;
+        }
+        return pullResult.getMsgFoundList().get(0);
+    }
+}
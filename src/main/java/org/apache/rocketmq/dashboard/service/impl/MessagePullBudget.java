@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.rocketmq.dashboard.service.impl;
+
+import org.apache.rocketmq.common.message.MessageExt;
+
+import java.util.List;
+
+/**
+ * Sizes the pulls of one message list query so that the pulls in flight together hold at most the byte
+ * budget of the query.
+ * <p>
+ * Until a message has been seen every message is assumed to have the default maximum size of the broker,
+ * afterwards the largest message seen by the query is used.
+ */
+class MessagePullBudget {
+
+    static final int MAX_BATCH_SIZE = 32;
+
+    /**
+     * @see org.apache.rocketmq.common.BrokerConfig maxMessageSize = 1024 * 1024 * 4
+     */
+    private static final int ASSUMED_MESSAGE_SIZE = 1024 * 1024 * 4;
+
+    private final long byteBudget;
+
+    private final int parallelism;
+
+    private int maxStoreSize = ASSUMED_MESSAGE_SIZE;
+
+    private boolean measured;
+
+    /**
+     * @param byteBudget  bytes the query may hold in pulled messages, 0 or less for no limit
+     * @param parallelism pulls of the query in flight at the same time
+     */
+    MessagePullBudget(long byteBudget, int parallelism) {
+        this.byteBudget = byteBudget;
+        this.parallelism = Math.max(parallelism, 1);
+    }
+
+    synchronized int batchSize() {
+        if (byteBudget <= 0) {
+            return MAX_BATCH_SIZE;
+        }
+        long batchSize = byteBudget / parallelism / maxStoreSize;
+        return (int) Math.max(1, Math.min(batchSize, MAX_BATCH_SIZE));
+    }
+
+    synchronized void record(List<MessageExt> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        int batchMax = 1;
+        for (MessageExt messageExt : messages) {
+            batchMax = Math.max(batchMax, messageExt.getStoreSize());
+        }
+        maxStoreSize = measured ? Math.max(maxStoreSize, batchMax) : batchMax;
+        measured = true;
+    }
+}
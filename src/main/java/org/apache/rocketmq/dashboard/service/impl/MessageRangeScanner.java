@@ -0,0 +1,242 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.rocketmq.dashboard.service.impl;
+
+import org.apache.rocketmq.client.consumer.DefaultMQPullConsumer;
+import org.apache.rocketmq.client.consumer.PullResult;
+import org.apache.rocketmq.client.consumer.PullStatus;
+import org.apache.rocketmq.client.exception.MQClientException;
+import org.apache.rocketmq.common.message.MessageExt;
+import org.apache.rocketmq.common.message.MessageQueue;
+import org.apache.rocketmq.dashboard.model.MessageView;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * Scans the messages of a topic stored in a time range, newest first.
+ * <p>
+ * Every queue is read backwards from the end of the range in small pulls, with one pull in flight per queue
+ * and the pulls of all queues sharing the given executor. The pulls are sized by a {@link MessagePullBudget}
+ * and only the headers of the messages are kept. The queues are merged by store timestamp, so
+ * messages reach the sink in order while older parts of the queues are still being pulled. The result cap
+ * is split between the queues up front: a queue gets an equal share, and the shares not needed by
+ * smaller queues go to the bigger ones.
+ */
+class MessageRangeScanner {
+
+    private static final Logger logger = LoggerFactory.getLogger(MessageRangeScanner.class);
+
+    private static final Comparator<QueueCursor> NEWEST_FIRST =
+        Comparator.comparingLong((QueueCursor cursor) -> cursor.buffer.peekFirst().getStoreTimestamp()).reversed();
+
+    private final DefaultMQPullConsumer consumer;
+
+    private final Executor executor;
+
+    private final long byteBudget;
+
+    private MessagePullBudget budget;
+
+    /**
+     * @param byteBudget bytes the pulls of a scan may hold at the same time, 0 or less for no limit
+     */
+    MessageRangeScanner(DefaultMQPullConsumer consumer, Executor executor, long byteBudget) {
+        this.consumer = consumer;
+        this.executor = executor;
+        this.byteBudget = byteBudget;
+    }
+
+    /**
+     * @return number of messages passed to the sink
+     */
+    int scan(String topic, long begin, long end, int maxNum, Consumer<MessageView> sink) throws MQClientException {
+        Set<MessageQueue> mqs = consumer.fetchSubscribeMessageQueues(topic);
+        List<CompletableFuture<QueueCursor>> futures = new ArrayList<>(mqs.size());
+        for (MessageQueue mq : mqs) {
+            futures.add(CompletableFuture.supplyAsync(() -> openCursor(mq, begin, end), executor));
+        }
+        List<QueueCursor> cursors = new ArrayList<>(mqs.size());
+        for (CompletableFuture<QueueCursor> future : futures) {
+            QueueCursor cursor = future.join();
+            if (cursor != null) {
+                cursors.add(cursor);
+            }
+        }
+        assignQuotas(cursors, maxNum);
+        budget = new MessagePullBudget(byteBudget, cursors.size());
+
+        PriorityQueue<QueueCursor> heads = new PriorityQueue<>(Math.max(cursors.size(), 1), NEWEST_FIRST);
+        for (QueueCursor cursor : cursors) {
+            cursor.prefetch();
+        }
+        for (QueueCursor cursor : cursors) {
+            if (cursor.load()) {
+                heads.add(cursor);
+            }
+        }
+        int count = 0;
+        while (!heads.isEmpty()) {
+            QueueCursor cursor = heads.poll();
+            sink.accept(cursor.buffer.pollFirst());
+            count++;
+            if (cursor.load()) {
+                heads.add(cursor);
+            }
+        }
+        return count;
+    }
+
+    private QueueCursor openCursor(MessageQueue mq, long begin, long end) {
+        try {
+            long minOffset = consumer.searchOffset(mq, begin);
+            long maxOffset = consumer.searchOffset(mq, end);
+            return new QueueCursor(mq, begin, end, minOffset, maxOffset + 1);
+        } catch (Exception e) {
+            logger.warn("searchOffset failed, queue {} is skipped", mq, e);
+            return null;
+        }
+    }
+
+    /**
+     * Water-filling of the result cap over the queues by the size of their offset range.
+     */
+    private void assignQuotas(List<QueueCursor> cursors, int maxNum) {
+        List<QueueCursor> bySize = new ArrayList<>(cursors);
+        bySize.sort(Comparator.comparingLong(QueueCursor::size));
+        long remaining = maxNum;
+        for (int i = 0; i < bySize.size(); i++) {
+            long share = remaining / (bySize.size() - i);
+            QueueCursor cursor = bySize.get(i);
+            cursor.quota = (int) Math.min(cursor.size(), share);
+            remaining -= cursor.quota;
+        }
+    }
+
+    private final class QueueCursor {
+        private final MessageQueue mq;
+        private final long begin;
+        private final long end;
+        private final long minOffset;
+        /**
+         * exclusive upper bound of the offsets not pulled yet
+         */
+        private long nextOffset;
+        private int quota;
+        private boolean reachedBegin;
+        private final Deque<MessageView> buffer = new ArrayDeque<>();
+        private CompletableFuture<List<MessageView>> pending;
+
+        private QueueCursor(MessageQueue mq, long begin, long end, long minOffset, long nextOffset) {
+            this.mq = mq;
+            this.begin = begin;
+            this.end = end;
+            this.minOffset = minOffset;
+            this.nextOffset = nextOffset;
+        }
+
+        private long size() {
+            return Math.max(nextOffset - minOffset, 0);
+        }
+
+        private void prefetch() {
+            if (reachedBegin || quota <= 0 || nextOffset <= minOffset) {
+                pending = null;
+                return;
+            }
+            pending = CompletableFuture.supplyAsync(this::pullPreviousBatch, executor);
+        }
+
+        /**
+         * Wait for the pulled batches until the buffer holds a message or the queue is exhausted.
+         *
+         * @return whether the buffer holds a message
+         */
+        private boolean load() {
+            while (buffer.isEmpty() && pending != null) {
+                List<MessageView> batch;
+                try {
+                    batch = pending.join();
+                } catch (CompletionException e) {
+                    logger.warn("pull failed, the rest of queue {} is skipped", mq, e.getCause());
+                    pending = null;
+                    break;
+                }
+                buffer.addAll(batch);
+                prefetch();
+            }
+            return !buffer.isEmpty();
+        }
+
+        /**
+         * @return the messages in range of the batch before {@link #nextOffset}, newest first
+         */
+        private List<MessageView> pullPreviousBatch() {
+            long from = Math.max(minOffset, nextOffset - budget.batchSize());
+            List<MessageExt> found = pull(from, nextOffset);
+            budget.record(found);
+            nextOffset = from;
+            List<MessageView> views = new ArrayList<>(found.size());
+            for (int i = found.size() - 1; i >= 0 && views.size() < quota; i--) {
+                MessageExt messageExt = found.get(i);
+                if (messageExt.getStoreTimestamp() > end) {
+                    continue;
+                }
+                if (messageExt.getStoreTimestamp() < begin) {
+                    reachedBegin = true;
+                    break;
+                }
+                views.add(MessageView.summaryOf(messageExt));
+            }
+            quota -= views.size();
+            return views;
+        }
+
+        private List<MessageExt> pull(long from, long to) {
+            List<MessageExt> found = new ArrayList<>();
+            long offset = from;
+            try {
+                while (offset < to) {
+                    PullResult pullResult = consumer.pull(mq, "*", offset, (int) (to - offset));
+                    if (pullResult.getPullStatus() != PullStatus.FOUND) {
+                        break;
+                    }
+                    found.addAll(pullResult.getMsgFoundList());
+                    if (pullResult.getNextBeginOffset() <= offset) {
+                        break;
+                    }
+                    offset = pullResult.getNextBeginOffset();
+                }
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+            return found;
+        }
+    }
+}
@@ -19,11 +19,9 @@ package org.apache.rocketmq.dashboard.service.impl;
 
 
 import com.google.common.base.Function;
-import com.google.common.base.Predicate;
 import com.google.common.base.Throwables;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
-import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import jakarta.annotation.Resource;
 import org.apache.commons.lang3.StringUtils;
@@ -47,6 +45,7 @@ import org.apache.rocketmq.dashboard.model.QueueOffsetInfo;
 import org.apache.rocketmq.dashboard.model.request.MessageQuery;
 import org.apache.rocketmq.dashboard.service.MessageService;
 import org.apache.rocketmq.dashboard.support.AutoCloseConsumerWrapper;
+import org.apache.rocketmq.dashboard.support.BackgroundJobs;
 import org.apache.rocketmq.remoting.RPCHook;
 import org.apache.rocketmq.remoting.protocol.body.Connection;
 import org.apache.rocketmq.remoting.protocol.body.ConsumeMessageDirectlyResult;
@@ -63,11 +62,10 @@ import org.springframework.stereotype.Service;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Comparator;
-import java.util.Date;
 import java.util.List;
-import java.util.Set;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
@@ -90,6 +88,16 @@ public class MessageServiceImpl implements MessageService {
      * @see org.apache.rocketmq.store.index.IndexService maxNum = Math.min(maxNum, this.defaultMessageStore.getMessageStoreConfig().getMaxMsgsNumBatch());
      */
     private final static int QUERY_MESSAGE_MAX_NUM = 64;
+
+    private final static int QUERY_MESSAGE_BY_TOPIC_MAX_NUM = 2000;
+
+    /**
+     * pulls of the time range scans, its size bounds the pulls in flight over all running scans
+     */
+    private final ExecutorService scanExecutor = BackgroundJobs.newExecutor("MessageScan_", 16);
+
+    private final MessageOffsetResolver offsetResolver = new MessageOffsetResolver();
+
     @Resource
     private MQAdminExt mqAdminExt;
 
@@ -111,7 +119,7 @@ public class MessageServiceImpl implements MessageService {
             return Lists.transform(mqAdminExt.queryMessage(topic, key, QUERY_MESSAGE_MAX_NUM, 0, System.currentTimeMillis()).getMessageList(), new Function<MessageExt, MessageView>() {
                 @Override
                 public MessageView apply(MessageExt messageExt) {
-                    return MessageView.fromMessageExt(messageExt);
+                    return MessageView.summaryOf(messageExt);
                 }
             });
         } catch (Exception err) {
@@ -125,6 +133,13 @@ public class MessageServiceImpl implements MessageService {
 
     @Override
     public List<MessageView> queryMessageByTopic(String topic, final long begin, final long end) {
+        List<MessageView> messageViewList = Lists.newArrayList();
+        queryMessageByTopic(topic, begin, end, messageViewList::add);
+        return messageViewList;
+    }
+
+    @Override
+    public void queryMessageByTopic(String topic, long begin, long end, Consumer<MessageView> sink) {
         boolean isEnableAcl = !StringUtils.isEmpty(configure.getAccessKey()) && !StringUtils.isEmpty(configure.getSecretKey());
         RPCHook rpcHook = null;
         if (isEnableAcl) {
@@ -132,62 +147,9 @@ public class MessageServiceImpl implements MessageService {
         }
 
         DefaultMQPullConsumer consumer = autoCloseConsumerWrapper.getConsumer(rpcHook, configure.isUseTLS());
-        List<MessageView> messageViewList = Lists.newArrayList();
         try {
-            String subExpression = "*";
-            Set<MessageQueue> mqs = consumer.fetchSubscribeMessageQueues(topic);
-            for (MessageQueue mq : mqs) {
-                long minOffset = consumer.searchOffset(mq, begin);
-                long maxOffset = consumer.searchOffset(mq, end);
-                READQ:
-                for (long offset = minOffset; offset <= maxOffset; ) {
-                    try {
-                        if (messageViewList.size() > 2000) {
-                            break;
-                        }
-                        PullResult pullResult = consumer.pull(mq, subExpression, offset, 32);
-                        offset = pullResult.getNextBeginOffset();
-                        switch (pullResult.getPullStatus()) {
-                            case FOUND:
-
-                                List<MessageView> messageViewListByQuery = Lists.transform(pullResult.getMsgFoundList(), new Function<MessageExt, MessageView>() {
-                                    @Override
-                                    public MessageView apply(MessageExt messageExt) {
-                                        messageExt.setBody(null);
-                                        return MessageView.fromMessageExt(messageExt);
-                                    }
-                                });
-                                List<MessageView> filteredList = Lists.newArrayList(Iterables.filter(messageViewListByQuery, new Predicate<MessageView>() {
-                                    @Override
-                                    public boolean apply(MessageView messageView) {
-                                        if (messageView.getStoreTimestamp() < begin || messageView.getStoreTimestamp() > end) {
-                                            logger.info("begin={} end={} time not in range {} {}", begin, end, messageView.getStoreTimestamp(), new Date(messageView.getStoreTimestamp()).toString());
-                                        }
-                                        return messageView.getStoreTimestamp() >= begin && messageView.getStoreTimestamp() <= end;
-                                    }
-                                }));
-                                messageViewList.addAll(filteredList);
-                                break;
-                            case NO_MATCHED_MSG:
-                            case NO_NEW_MSG:
-                            case OFFSET_ILLEGAL:
-                                break READQ;
-                        }
-                    } catch (Exception e) {
-                        break;
-                    }
-                }
-            }
-            Collections.sort(messageViewList, new Comparator<MessageView>() {
-                @Override
-                public int compare(MessageView o1, MessageView o2) {
-                    if (o1.getStoreTimestamp() - o2.getStoreTimestamp() == 0) {
-                        return 0;
-                    }
-                    return (o1.getStoreTimestamp() > o2.getStoreTimestamp()) ? -1 : 1;
-                }
-            });
-            return messageViewList;
+            new MessageRangeScanner(consumer, scanExecutor, configure.getMessageListByteBudget())
+                    .scan(topic, begin, end, QUERY_MESSAGE_BY_TOPIC_MAX_NUM, sink);
         } catch (Exception e) {
             Throwables.throwIfUnchecked(e);
             throw new RuntimeException(e);
@@ -281,75 +243,18 @@ public class MessageServiceImpl implements MessageService {
                 queueOffsetInfos.add(new QueueOffsetInfo(idx++, minOffset, maxOffset, minOffset, minOffset, messageQueue));
             }
 
-            // check first offset has message
-            // filter the begin time
+            // bisect the exact offsets of the time range inside the estimate of searchOffset
             for (QueueOffsetInfo queueOffset : queueOffsetInfos) {
-                Long start = queueOffset.getStart();
-                boolean hasData = false;
-                boolean hasIllegalOffset = true;
-                while (hasIllegalOffset) {
-                    PullResult pullResult = consumer.pull(queueOffset.getMessageQueues(), "*", start, 32);
-                    if (pullResult.getPullStatus() == PullStatus.FOUND) {
-                        hasData = true;
-                        List<MessageExt> msgFoundList = pullResult.getMsgFoundList();
-                        for (MessageExt messageExt : msgFoundList) {
-                            if (messageExt.getStoreTimestamp() < query.getBegin()) {
-                                start++;
-                            } else {
-                                hasIllegalOffset = false;
-                                break;
-                            }
-                        }
-                    } else {
-                        hasIllegalOffset = false;
-                    }
-                }
-                if (!hasData) {
-                    queueOffset.setEnd(queueOffset.getStart());
-                }
+                MessageQueue messageQueue = queueOffset.getMessageQueues();
+                long start = offsetResolver.firstOffsetAtOrAfter(consumer, messageQueue, query.getBegin(),
+                        queueOffset.getStart(), queueOffset.getEnd());
+                long end = offsetResolver.firstOffsetAtOrAfter(consumer, messageQueue, query.getEnd() + 1,
+                        start, queueOffset.getEnd());
                 queueOffset.setStart(start);
+                queueOffset.setEnd(end);
                 queueOffset.setStartOffset(start);
                 queueOffset.setEndOffset(start);
-            }
-
-            // filter the end time
-            for (QueueOffsetInfo queueOffset : queueOffsetInfos) {
-                if (queueOffset.getStart().equals(queueOffset.getEnd())) {
-                    continue;
-                }
-                long end = queueOffset.getEnd();
-                long pullOffset = end;
-                int pullSize = 32;
-                boolean hasIllegalOffset = true;
-                while (hasIllegalOffset) {
-
-                    if (pullOffset - pullSize > queueOffset.getStart()) {
-                        pullOffset = pullOffset - pullSize;
-                    } else {
-                        pullOffset = queueOffset.getStartOffset();
-                        pullSize = (int) (end - pullOffset);
-                    }
-                    PullResult pullResult = consumer.pull(queueOffset.getMessageQueues(), "*", pullOffset, pullSize);
-                    if (pullResult.getPullStatus() == PullStatus.FOUND) {
-                        List<MessageExt> msgFoundList = pullResult.getMsgFoundList();
-                        for (int i = msgFoundList.size() - 1; i >= 0; i--) {
-                            MessageExt messageExt = msgFoundList.get(i);
-                            if (messageExt.getStoreTimestamp() > query.getEnd()) {
-                                end--;
-                            } else {
-                                hasIllegalOffset = false;
-                                break;
-                            }
-                        }
-                    } else {
-                        hasIllegalOffset = false;
-                    }
-                    if (pullOffset == queueOffset.getStartOffset()) {
-                        break;
-                    }
-                }
-                queueOffset.setEnd(end);
-                total += queueOffset.getEnd() - queueOffset.getStart();
+                total += end - start;
             }
 
             long pageSize = total > query.getPageSize() ? query.getPageSize() : total;
@@ -360,36 +265,7 @@ public class MessageServiceImpl implements MessageService {
             moveEndOffset(queueOffsetInfos, query, next);
 
             // find the first page of message
-            for (QueueOffsetInfo queueOffsetInfo : queueOffsetInfos) {
-                Long start = queueOffsetInfo.getStartOffset();
-                Long end = queueOffsetInfo.getEndOffset();
-                long size = Math.min(end - start, pageSize);
-                if (size == 0) {
-                    continue;
-                }
-
-                while (size > 0) {
-                    PullResult pullResult = consumer.pull(queueOffsetInfo.getMessageQueues(), "*", start, 32);
-                    if (pullResult.getPullStatus() == PullStatus.FOUND) {
-                        List<MessageExt> poll = pullResult.getMsgFoundList();
-                        if (poll.size() == 0) {
-                            break;
-                        }
-                        List<MessageView> collect = poll.stream()
-                                .map(MessageView::fromMessageExt).collect(Collectors.toList());
-
-                        for (MessageView view : collect) {
-                            if (size > 0) {
-                                messageViews.add(view);
-                                size--;
-                            }
-                        }
-                    } else {
-                        break;
-                    }
-
-                }
-            }
+            pullPage(consumer, queueOffsetInfos, pageSize, messageViews);
             PageImpl<MessageView> page = new PageImpl<>(messageViews, query.page(), total);
             return new MessagePageTask(page, queueOffsetInfos);
         } catch (Exception e) {
@@ -427,36 +303,7 @@ public class MessageServiceImpl implements MessageService {
             int next = moveStartOffset(queueOffsetInfos, query);
             moveEndOffset(queueOffsetInfos, query, next);
 
-            for (QueueOffsetInfo queueOffsetInfo : queueOffsetInfos) {
-                Long start = queueOffsetInfo.getStartOffset();
-                Long end = queueOffsetInfo.getEndOffset();
-                long size = Math.min(end - start, pageSize);
-                if (size == 0) {
-                    continue;
-                }
-
-                while (size > 0) {
-                    PullResult pullResult = consumer.pull(queueOffsetInfo.getMessageQueues(), "*", start, 32);
-                    if (pullResult.getPullStatus() == PullStatus.FOUND) {
-                        List<MessageExt> poll = pullResult.getMsgFoundList();
-                        if (poll.size() == 0) {
-                            break;
-                        }
-                        List<MessageView> collect = poll.stream()
-                                .map(MessageView::fromMessageExt).collect(Collectors.toList());
-
-                        for (MessageView view : collect) {
-                            if (size > 0) {
-                                messageViews.add(view);
-                                size--;
-                            }
-                        }
-                    } else {
-                        break;
-                    }
-
-                }
-            }
+            pullPage(consumer, queueOffsetInfos, pageSize, messageViews);
             return new PageImpl<>(messageViews, query.page(), total);
         } catch (Exception e) {
             Throwables.throwIfUnchecked(e);
@@ -464,6 +311,37 @@ public class MessageServiceImpl implements MessageService {
         }
     }
 
+    /**
+     * Pull the messages between the start and end offsets of the queues for the list view, the bodies are
+     * dropped right after each pull and only loaded again when a single message is viewed.
+     */
+    private void pullPage(DefaultMQPullConsumer consumer, List<QueueOffsetInfo> queueOffsetInfos, long pageSize,
+                          List<MessageView> messageViews) throws Exception {
+        MessagePullBudget budget = new MessagePullBudget(configure.getMessageListByteBudget(), 1);
+        for (QueueOffsetInfo queueOffsetInfo : queueOffsetInfos) {
+            long offset = queueOffsetInfo.getStartOffset();
+            long size = Math.min(queueOffsetInfo.getEndOffset() - offset, pageSize);
+            while (size > 0) {
+                PullResult pullResult = consumer.pull(queueOffsetInfo.getMessageQueues(), "*", offset,
+                        (int) Math.min(size, budget.batchSize()));
+                if (pullResult.getPullStatus() != PullStatus.FOUND || pullResult.getMsgFoundList().isEmpty()) {
+                    break;
+                }
+                budget.record(pullResult.getMsgFoundList());
+                for (MessageExt messageExt : pullResult.getMsgFoundList()) {
+                    if (size > 0) {
+                        messageViews.add(MessageView.summaryOf(messageExt));
+                        size--;
+                    }
+                }
+                if (pullResult.getNextBeginOffset() <= offset) {
+                    break;
+                }
+                offset = pullResult.getNextBeginOffset();
+            }
+        }
+    }
+
     private int moveStartOffset(List<QueueOffsetInfo> queueOffsets, MessageQueryByPage query) {
         int size = queueOffsets.size();
         int next = 0;
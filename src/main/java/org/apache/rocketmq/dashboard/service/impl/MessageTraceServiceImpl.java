@@ -18,14 +18,21 @@
 package org.apache.rocketmq.dashboard.service.impl;
 
 import com.google.common.base.Function;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import jakarta.annotation.Resource;
+import lombok.Value;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.rocketmq.client.exception.MQClientException;
 import org.apache.rocketmq.client.trace.TraceType;
 import org.apache.rocketmq.common.Pair;
+import org.apache.rocketmq.common.message.MessageClientIDSetter;
 import org.apache.rocketmq.common.message.MessageExt;
 import org.apache.rocketmq.common.topic.TopicValidator;
+import org.apache.rocketmq.dashboard.admin.MQAdminClientManager;
 import org.apache.rocketmq.dashboard.config.RMQConfigure;
 import org.apache.rocketmq.dashboard.exception.ServiceException;
 import org.apache.rocketmq.dashboard.model.MessageTraceView;
@@ -35,6 +42,7 @@ import org.apache.rocketmq.dashboard.model.trace.ProducerNode;
 import org.apache.rocketmq.dashboard.model.trace.SubscriptionNode;
 import org.apache.rocketmq.dashboard.model.trace.TraceNode;
 import org.apache.rocketmq.dashboard.service.MessageTraceService;
+import org.apache.rocketmq.remoting.protocol.ResponseCode;
 import org.apache.rocketmq.tools.admin.MQAdminExt;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -43,8 +51,11 @@ import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Service
@@ -56,12 +67,26 @@ public class MessageTraceServiceImpl implements MessageTraceService {
 
     private final static String UNKNOWN_GROUP_NAME = "%UNKNOWN_GROUP%";
     private final static int MESSAGE_TRACE_MISSING_VALUE = -1;
+
+    /**
+     * clock skew between the producer and the brokers, and the rounding of the time in the message id
+     */
+    private final static long TRACE_TIME_TOLERANCE_MS = TimeUnit.HOURS.toMillis(12);
+
+    private final Cache<TraceGraphKey, MessageTraceGraph> traceGraphCache = CacheBuilder.newBuilder()
+            .maximumSize(1000)
+            .expireAfterWrite(30, TimeUnit.SECONDS)
+            .build();
+
     @Resource
     private MQAdminExt mqAdminExt;
 
     @Resource
     private RMQConfigure configure;
 
+    @Resource
+    private MQAdminClientManager mqAdminClientManager;
+
     @Override
     public List<MessageTraceView> queryMessageTraceKey(String key) {
         String queryTopic = TopicValidator.RMQ_SYS_TRACE_TOPIC;
@@ -71,17 +96,7 @@ public class MessageTraceServiceImpl implements MessageTraceService {
 
     @Override
     public List<MessageTraceView> queryMessageTraceByTopicAndKey(String topic, String key) {
-        try {
-            List<MessageTraceView> messageTraceViews = new ArrayList<MessageTraceView>();
-            List<MessageExt> messageTraceList = mqAdminExt.queryMessage(topic, key, QUERY_MESSAGE_MAX_NUM, 0, System.currentTimeMillis()).getMessageList();
-            for (MessageExt messageExt : messageTraceList) {
-                List<MessageTraceView> messageTraceView = MessageTraceView.decodeFromTraceTransData(key, messageExt);
-                messageTraceViews.addAll(messageTraceView);
-            }
-            return messageTraceViews;
-        } catch (Exception err) {
-            throw new ServiceException(-1, String.format("Failed to query message trace by msgId %s", key));
-        }
+        return new ArrayList<>(queryTraceGraph(topic, key).getMessageTraceViews());
     }
 
     @Override
@@ -89,8 +104,80 @@ public class MessageTraceServiceImpl implements MessageTraceService {
         if (StringUtils.isEmpty(topic)) {
             topic = TopicValidator.RMQ_SYS_TRACE_TOPIC;
         }
-        List<MessageTraceView> messageTraceViews = queryMessageTraceByTopicAndKey(topic, key);
-        return buildMessageTraceGraph(messageTraceViews);
+        return queryTraceGraph(topic, key);
+    }
+
+    /**
+     * The graphs are cached for a short time, a message without traces is looked up again on the next call
+     * because its traces may not be written yet. A graph is only served to the users sharing the client that
+     * loaded it, since the ACL login may give every user a client of their own.
+     */
+    private MessageTraceGraph queryTraceGraph(String topic, String key) {
+        TraceGraphKey cacheKey = new TraceGraphKey(queryMessageClient(), topic, key);
+        try {
+            MessageTraceGraph messageTraceGraph = traceGraphCache.get(cacheKey,
+                    () -> buildMessageTraceGraph(queryTraceViews(topic, key)));
+            if (CollectionUtils.isEmpty(messageTraceGraph.getMessageTraceViews())) {
+                traceGraphCache.invalidate(cacheKey);
+            }
+            return messageTraceGraph;
+        } catch (ExecutionException | UncheckedExecutionException err) {
+            throw new ServiceException(-1, String.format("Failed to query message trace by msgId %s", key));
+        }
+    }
+
+    private MQAdminExt queryMessageClient() {
+        try {
+            return mqAdminClientManager.resolve("queryMessage");
+        } catch (Exception e) {
+            throw new ServiceException(-1, String.format("Failed to resolve the admin client: %s", e.getMessage()));
+        }
+    }
+
+    private List<MessageTraceView> queryTraceViews(String topic, String key) throws Exception {
+        long end = System.currentTimeMillis();
+        long begin = traceBeginTimestamp(key, end);
+        List<MessageExt> messageTraceList = queryTraceMessages(topic, key, begin, end);
+        if (messageTraceList.isEmpty() && begin > 0) {
+            // the key is not a unique message id, search the whole lifetime of the topic
+            messageTraceList = queryTraceMessages(topic, key, 0, end);
+        }
+        List<MessageTraceView> messageTraceViews = new ArrayList<MessageTraceView>();
+        for (MessageExt messageExt : messageTraceList) {
+            List<MessageTraceView> messageTraceView = MessageTraceView.decodeFromTraceTransData(key, messageExt);
+            messageTraceViews.addAll(messageTraceView);
+        }
+        return messageTraceViews;
+    }
+
+    private List<MessageExt> queryTraceMessages(String topic, String key, long begin, long end) throws Exception {
+        try {
+            return mqAdminExt.queryMessage(topic, key, QUERY_MESSAGE_MAX_NUM, begin, end).getMessageList();
+        } catch (MQClientException e) {
+            if (e.getResponseCode() == ResponseCode.NO_MESSAGE) {
+                return Collections.emptyList();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Traces are written after the message is sent, so the key index only has to be searched from the send
+     * time carried by a unique message id on.
+     *
+     * @return 0 if the key carries no usable send time
+     */
+    private long traceBeginTimestamp(String key, long now) {
+        long sendTime;
+        try {
+            sendTime = MessageClientIDSetter.getNearlyTimeFromID(key).getTime();
+        } catch (Exception e) {
+            return 0;
+        }
+        if (sendTime > now) {
+            return 0;
+        }
+        return Math.max(sendTime - TRACE_TIME_TOLERANCE_MS, 0);
     }
 
     private MessageTraceGraph buildMessageTraceGraph(List<MessageTraceView> messageTraceViews) {
@@ -238,4 +325,11 @@ public class MessageTraceServiceImpl implements MessageTraceService {
         traceNodeList.sort((o1, o2) -> -Long.compare(o1.getBeginTimestamp(), o2.getBeginTimestamp()));
         return traceNodeList;
     }
+
+    @Value
+    private static class TraceGraphKey {
+        MQAdminExt client;
+        String topic;
+        String key;
+    }
 }
@@ -18,13 +18,12 @@ package org.apache.rocketmq.dashboard.service.impl;
 
 import com.google.common.collect.Maps;
 import jakarta.annotation.Resource;
-import org.apache.commons.pool2.impl.GenericObjectPool;
+import org.apache.rocketmq.dashboard.admin.MQAdminClientManager;
 import org.apache.rocketmq.dashboard.config.RMQConfigure;
 import org.apache.rocketmq.dashboard.service.AbstractCommonService;
 import org.apache.rocketmq.dashboard.service.OpsService;
 import org.apache.rocketmq.dashboard.service.checker.CheckerType;
 import org.apache.rocketmq.dashboard.service.checker.RocketMqChecker;
-import org.apache.rocketmq.tools.admin.MQAdminExt;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -38,7 +37,7 @@ public class OpsServiceImpl extends AbstractCommonService implements OpsService
     private RMQConfigure configure;
 
     @Autowired
-    private GenericObjectPool<MQAdminExt> mqAdminExtPool;
+    private MQAdminClientManager mqAdminClientManager;
 
     @Resource
     private List<RocketMqChecker> rocketMqCheckerList;
@@ -56,8 +55,8 @@ public class OpsServiceImpl extends AbstractCommonService implements OpsService
     @Override
     public void updateNameSvrAddrList(String nameSvrAddrList) {
         configure.setNamesrvAddr(nameSvrAddrList);
-        // when update namesrvAddr, clean the mqAdminExt objects pool.
-        mqAdminExtPool.clear();
+        // when update namesrvAddr, replace the shared mqAdminExt clients.
+        mqAdminClientManager.reset();
     }
 
     @Override
@@ -77,14 +76,14 @@ public class OpsServiceImpl extends AbstractCommonService implements OpsService
     @Override
     public boolean updateIsVIPChannel(String useVIPChannel) {
         configure.setIsVIPChannel(useVIPChannel);
-        mqAdminExtPool.clear();
+        mqAdminClientManager.reset();
         return true;
     }
 
     @Override
     public boolean updateUseTLS(boolean useTLS) {
         configure.setUseTLS(useTLS);
-        mqAdminExtPool.clear();
+        mqAdminClientManager.reset();
         return true;
     }
 
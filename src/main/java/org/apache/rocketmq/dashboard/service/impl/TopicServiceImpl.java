@@ -18,59 +18,82 @@
 package org.apache.rocketmq.dashboard.service.impl;
 
 import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.RateLimiter;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import jakarta.annotation.PreDestroy;
+import lombok.Value;
+import org.apache.commons.lang3.RandomStringUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.rocketmq.acl.common.AclClientRPCHook;
 import org.apache.rocketmq.acl.common.SessionCredentials;
+import org.apache.rocketmq.client.exception.MQClientException;
 import org.apache.rocketmq.client.producer.DefaultMQProducer;
 import org.apache.rocketmq.client.producer.LocalTransactionState;
+import org.apache.rocketmq.client.producer.SendCallback;
 import org.apache.rocketmq.client.producer.SendResult;
 import org.apache.rocketmq.client.producer.TransactionListener;
 import org.apache.rocketmq.client.producer.TransactionMQProducer;
-import org.apache.rocketmq.client.trace.TraceContext;
-import org.apache.rocketmq.client.trace.TraceDispatcher;
 import org.apache.rocketmq.common.MixAll;
 import org.apache.rocketmq.common.TopicConfig;
 import org.apache.rocketmq.common.attribute.TopicMessageType;
 import org.apache.rocketmq.common.message.Message;
+import org.apache.rocketmq.common.message.MessageClientIDSetter;
 import org.apache.rocketmq.common.message.MessageExt;
 import org.apache.rocketmq.common.topic.TopicValidator;
 import org.apache.rocketmq.dashboard.config.RMQConfigure;
+import org.apache.rocketmq.dashboard.exception.ServiceException;
+import org.apache.rocketmq.dashboard.model.SendLoadJob;
+import org.apache.rocketmq.dashboard.model.SendLoadJobRequest;
 import org.apache.rocketmq.dashboard.model.request.SendTopicMessageRequest;
 import org.apache.rocketmq.dashboard.model.request.TopicConfigInfo;
 import org.apache.rocketmq.dashboard.model.request.TopicTypeList;
 import org.apache.rocketmq.dashboard.model.request.TopicTypeMeta;
 import org.apache.rocketmq.dashboard.service.AbstractCommonService;
 import org.apache.rocketmq.dashboard.service.ClusterInfoService;
+import org.apache.rocketmq.dashboard.service.TopicConfigIndex;
+import org.apache.rocketmq.dashboard.service.TopicRouteCache;
 import org.apache.rocketmq.dashboard.service.TopicService;
+import org.apache.rocketmq.dashboard.support.BackgroundJobs;
 import org.apache.rocketmq.dashboard.support.GlobalExceptionHandler;
+import org.apache.rocketmq.dashboard.util.UserInfoContext;
 import org.apache.rocketmq.remoting.RPCHook;
 import org.apache.rocketmq.remoting.protocol.admin.TopicStatsTable;
 import org.apache.rocketmq.remoting.protocol.body.ClusterInfo;
 import org.apache.rocketmq.remoting.protocol.body.GroupList;
-import org.apache.rocketmq.remoting.protocol.body.TopicConfigSerializeWrapper;
 import org.apache.rocketmq.remoting.protocol.body.TopicList;
 import org.apache.rocketmq.remoting.protocol.route.BrokerData;
 import org.apache.rocketmq.remoting.protocol.route.TopicRouteData;
 import org.apache.rocketmq.tools.command.CommandUtil;
-import org.joor.Reflect;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import static org.apache.rocketmq.common.TopicAttributes.TOPIC_MESSAGE_TYPE_ATTRIBUTE;
@@ -83,6 +106,12 @@ public class TopicServiceImpl extends AbstractCommonService implements TopicServ
     @Autowired
     private ClusterInfoService clusterInfoService;
 
+    @Autowired
+    private TopicRouteCache topicRouteCache;
+
+    @Autowired
+    private TopicConfigIndex topicConfigIndex;
+
     private transient DefaultMQProducer systemTopicProducer;
 
     private final Object producerLock = new Object();
@@ -90,6 +119,30 @@ public class TopicServiceImpl extends AbstractCommonService implements TopicServ
     @Autowired
     private RMQConfigure configure;
 
+    private static final AtomicInteger SEND_PRODUCER_SEQ = new AtomicInteger();
+
+    private static final long MAX_LOAD_MESSAGE_COUNT = 100_000_000L;
+
+    private static final int MAX_LOAD_CONCURRENCY = 64;
+
+    /**
+     * @see org.apache.rocketmq.common.BrokerConfig maxMessageSize = 1024 * 1024 * 4
+     */
+    private static final int MAX_LOAD_SEND_BYTES = 1024 * 1024 * 4;
+
+    /**
+     * started producers of sendTopicMessageRequest, shut down after 5 idle minutes
+     */
+    private final Cache<SendProducerKey, DefaultMQProducer> sendProducers = CacheBuilder.newBuilder()
+            .expireAfterAccess(5, TimeUnit.MINUTES)
+            .removalListener((RemovalListener<SendProducerKey, DefaultMQProducer>) notification ->
+                    notification.getValue().shutdown())
+            .build();
+
+    private final ExecutorService sendLoadJobExecutor = BackgroundJobs.newExecutor("SendLoadJobRunner_", 2);
+
+    private final BackgroundJobs<LoadJob> sendLoadJobs = new BackgroundJobs<>("load job", TimeUnit.HOURS.toMillis(1));
+
     @Override
     public TopicList fetchAllTopicList(boolean skipSysProcess, boolean skipRetryAndDlq) {
         try {
@@ -119,34 +172,23 @@ public class TopicServiceImpl extends AbstractCommonService implements TopicServ
 
     @Override
     public TopicTypeList examineAllTopicType() {
-        List<String> messageTypes = new ArrayList<>();
-        List<String> names = new ArrayList<>();
-        ClusterInfo clusterInfo = clusterInfoService.get();
+        return examineAllTopicType(topicConfigIndex.get());
+    }
+
+    @Override
+    public TopicTypeList examineAllTopicType(TopicConfigIndex.Snapshot snapshot) {
+        // topic name to message type
+        Map<String, String> topicTypes = new LinkedHashMap<>();
         TopicList sysTopics = getSystemTopicList();
-        clusterInfo.getBrokerAddrTable().values().forEach(brokerAddr -> {
-            try {
-                TopicConfigSerializeWrapper topicConfigSerializeWrapper = mqAdminExt.getAllTopicConfig(brokerAddr.getBrokerAddrs().get(0L), 10000L);
-                for (TopicConfig topicConfig : topicConfigSerializeWrapper.getTopicConfigTable().values()) {
-                    TopicTypeMeta topicType = classifyTopicType(topicConfig.getTopicName(), topicConfigSerializeWrapper.getTopicConfigTable().get(topicConfig.getTopicName()).getAttributes(), sysTopics.getTopicList());
-                    if (names.contains(topicType.getTopicName())) {
-                        continue;
-                    }
-                    names.add(topicType.getTopicName());
-                    messageTypes.add(topicType.getMessageType());
-                }
-            } catch (Exception e) {
-                logger.warn("Failed to classify topic type for broker: " + brokerAddr, e);
-            }
-        });
-        sysTopics.getTopicList().forEach(topicName -> {
-            String sysTopicName = String.format("%s%s", "%SYS%", topicName);
-            if (!names.contains(sysTopicName)) {
-                names.add(sysTopicName);
-                messageTypes.add("SYSTEM");
-            }
+        snapshot.getTopicConfigs().forEach((topicName, brokerConfigs) -> {
+            TopicConfig topicConfig = brokerConfigs.values().iterator().next();
+            TopicTypeMeta topicType = classifyTopicType(topicName, topicConfig.getAttributes(), sysTopics.getTopicList());
+            topicTypes.putIfAbsent(topicType.getTopicName(), topicType.getMessageType());
         });
+        sysTopics.getTopicList().forEach(topicName ->
+                topicTypes.putIfAbsent(String.format("%s%s", "%SYS%", topicName), "SYSTEM"));
 
-        return new TopicTypeList(names, messageTypes);
+        return new TopicTypeList(new ArrayList<>(topicTypes.keySet()), new ArrayList<>(topicTypes.values()));
     }
 
     private TopicTypeMeta classifyTopicType(String topicName, Map<String, String> attributes, Set<String> sysTopics) {
@@ -191,7 +233,7 @@ public class TopicServiceImpl extends AbstractCommonService implements TopicServ
     @Override
     public TopicRouteData route(String topic) {
         try {
-            return mqAdminExt.examineTopicRouteInfo(topic);
+            return topicRouteCache.get(topic);
         } catch (Exception ex) {
             Throwables.throwIfUnchecked(ex);
             throw new RuntimeException(ex);
@@ -226,6 +268,9 @@ public class TopicServiceImpl extends AbstractCommonService implements TopicServ
         } catch (Exception err) {
             Throwables.throwIfUnchecked(err);
             throw new RuntimeException(err);
+        } finally {
+            topicRouteCache.invalidate(topicConfig.getTopicName());
+            topicConfigIndex.invalidate();
         }
     }
 
@@ -248,9 +293,13 @@ public class TopicServiceImpl extends AbstractCommonService implements TopicServ
     public List<TopicConfigInfo> examineTopicConfig(String topic) {
         List<TopicConfigInfo> topicConfigInfoList = Lists.newArrayList();
         TopicRouteData topicRouteData = route(topic);
+        Map<String, TopicConfig> indexedConfigs = topicConfigIndex.get().getTopicConfigs(topic);
         for (BrokerData brokerData : topicRouteData.getBrokerDatas()) {
             TopicConfigInfo topicConfigInfo = new TopicConfigInfo();
-            TopicConfig topicConfig = examineTopicConfig(topic, brokerData.getBrokerName());
+            TopicConfig topicConfig = indexedConfigs.get(brokerData.getBrokerName());
+            if (topicConfig == null) {
+                topicConfig = examineTopicConfig(topic, brokerData.getBrokerName());
+            }
             BeanUtils.copyProperties(topicConfig, topicConfigInfo);
             topicConfigInfo.setBrokerNameList(Lists.newArrayList(brokerData.getBrokerName()));
             String messageType = topicConfig.getAttributes().get(TOPIC_MESSAGE_TYPE_ATTRIBUTE.getName());
@@ -280,6 +329,9 @@ public class TopicServiceImpl extends AbstractCommonService implements TopicServ
         } catch (Exception err) {
             Throwables.throwIfUnchecked(err);
             throw new RuntimeException(err);
+        } finally {
+            topicRouteCache.invalidate(topic);
+            topicConfigIndex.invalidate();
         }
         return true;
     }
@@ -314,6 +366,9 @@ public class TopicServiceImpl extends AbstractCommonService implements TopicServ
         } catch (Exception e) {
             Throwables.throwIfUnchecked(e);
             throw new RuntimeException(e);
+        } finally {
+            topicRouteCache.invalidate(topic);
+            topicConfigIndex.invalidate();
         }
         return true;
     }
@@ -381,80 +436,335 @@ public class TopicServiceImpl extends AbstractCommonService implements TopicServ
     public SendResult sendTopicMessageRequest(SendTopicMessageRequest sendTopicMessageRequest) {
         List<TopicConfigInfo> topicConfigInfos = examineTopicConfig(sendTopicMessageRequest.getTopic());
         String messageType = topicConfigInfos.get(0).getMessageType();
+        boolean transaction = TopicMessageType.TRANSACTION.getValue().equals(messageType);
+        SendProducerKey key = new SendProducerKey(configure.getNamesrvAddr(),
+                configure.isACLEnabled() ? configure.getAccessKey() : null,
+                configure.isACLEnabled() ? configure.getSecretKey() : null,
+                configure.isUseTLS(), sendTopicMessageRequest.isTraceEnabled(), transaction);
+        Message msg = new Message(sendTopicMessageRequest.getTopic(),
+                sendTopicMessageRequest.getTag(),
+                sendTopicMessageRequest.getKey(),
+                sendTopicMessageRequest.getMessageBody().getBytes()
+        );
+        try {
+            DefaultMQProducer producer = sendProducers.get(key, () -> startSendProducer(key));
+            if (transaction) {
+                return ((TransactionMQProducer) producer).sendMessageInTransaction(msg, null);
+            }
+            return producer.send(msg);
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            Throwables.throwIfUnchecked(e.getCause());
+            throw new RuntimeException(e.getCause());
+        } catch (Exception e) {
+            Throwables.throwIfUnchecked(e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * The trace dispatcher of a pooled producer sends the traces in the background, and flushes them when
+     * the producer is shut down.
+     */
+    private DefaultMQProducer startSendProducer(SendProducerKey key) throws MQClientException {
         AclClientRPCHook rpcHook = null;
-        if (configure.isACLEnabled()) {
-            rpcHook = new AclClientRPCHook(new SessionCredentials(
-                    configure.getAccessKey(),
-                    configure.getSecretKey()
-            ));
-        }
-        if (TopicMessageType.TRANSACTION.getValue().equals(messageType)) {
-            // transaction message
-            TransactionListener transactionListener = new TransactionListenerImpl();
-
-            TransactionMQProducer producer = buildTransactionMQProducer(MixAll.SELF_TEST_PRODUCER_GROUP, rpcHook, sendTopicMessageRequest.isTraceEnabled());
-            producer.setInstanceName(String.valueOf(System.currentTimeMillis()));
+        if (key.getAccessKey() != null) {
+            rpcHook = new AclClientRPCHook(new SessionCredentials(key.getAccessKey(), key.getSecretKey()));
+        }
+        DefaultMQProducer producer;
+        if (key.isTransaction()) {
+            TransactionMQProducer transactionProducer = buildTransactionMQProducer(MixAll.SELF_TEST_PRODUCER_GROUP, rpcHook, key.isTraceEnabled());
+            transactionProducer.setTransactionListener(new TransactionListenerImpl());
+            producer = transactionProducer;
+        } else {
+            producer = buildDefaultMQProducer(MixAll.SELF_TEST_PRODUCER_GROUP, rpcHook, key.isTraceEnabled());
+        }
+        // a client instance of its own, the pooled producers differ in credentials
+        producer.setInstanceName("SendTopicMessage-" + SEND_PRODUCER_SEQ.incrementAndGet() + "-" + System.currentTimeMillis());
+        producer.setNamesrvAddr(key.getNamesrvAddr());
+        producer.start();
+        return producer;
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    public void evictIdleSendProducers() {
+        sendProducers.cleanUp();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sendProducers.invalidateAll();
+        sendLoadJobs.clear();
+        sendLoadJobExecutor.shutdownNow();
+    }
+
+    @Override
+    public SendLoadJob submitSendLoadJob(SendLoadJobRequest request) {
+        if (StringUtils.isBlank(request.getTopic())) {
+            throw new ServiceException(-1, "the topic of the load job is missing");
+        }
+        if (request.getMode() == null) {
+            request.setMode(SendLoadJobRequest.Mode.SYNC);
+        }
+        int batchSize = request.getMode() == SendLoadJobRequest.Mode.BATCH ? request.getBatchSize() : 1;
+        if (request.getMessageCount() <= 0 || request.getMessageCount() > MAX_LOAD_MESSAGE_COUNT) {
+            throw new ServiceException(-1, String.format("the message count must be between 1 and %d", MAX_LOAD_MESSAGE_COUNT));
+        }
+        if (request.getConcurrency() <= 0 || request.getConcurrency() > MAX_LOAD_CONCURRENCY) {
+            throw new ServiceException(-1, String.format("the concurrency must be between 1 and %d", MAX_LOAD_CONCURRENCY));
+        }
+        if (request.getBodySize() <= 0 || batchSize <= 0
+                || (long) request.getBodySize() * batchSize > MAX_LOAD_SEND_BYTES) {
+            throw new ServiceException(-1, String.format("the bodies of one send must hold between 1 and %d bytes", MAX_LOAD_SEND_BYTES));
+        }
+        List<TopicConfigInfo> topicConfigInfos = examineTopicConfig(request.getTopic());
+        if (TopicMessageType.TRANSACTION.getValue().equals(topicConfigInfos.get(0).getMessageType())) {
+            throw new ServiceException(-1, String.format("%s is a transaction topic", request.getTopic()));
+        }
+        LoadJob job = new LoadJob(MessageClientIDSetter.createUniqID(), request, UserInfoContext.getUsername());
+        sendLoadJobs.add(job);
+        sendLoadJobExecutor.execute(() -> runLoadJob(job));
+        return job.toView();
+    }
+
+    @Override
+    public SendLoadJob querySendLoadJob(String jobId) {
+        return sendLoadJobs.get(jobId, UserInfoContext.getUsername()).toView();
+    }
+
+    @Override
+    public SendLoadJob cancelSendLoadJob(String jobId) {
+        LoadJob job = sendLoadJobs.get(jobId, UserInfoContext.getUsername());
+        job.cancel();
+        return job.toView();
+    }
+
+    /**
+     * A load job sends with a producer of its own, so it neither slows down nor outlives the pooled ones.
+     */
+    private void runLoadJob(LoadJob job) {
+        if (job.cancelled) {
+            job.finish(SendLoadJob.Status.CANCELLED);
+            return;
+        }
+        job.startTime = System.currentTimeMillis();
+        job.status = SendLoadJob.Status.RUNNING;
+        SendLoadJobRequest request = job.request;
+        DefaultMQProducer producer = null;
+        ExecutorService workers = null;
+        try {
+            AclClientRPCHook rpcHook = null;
+            if (configure.isACLEnabled()) {
+                rpcHook = new AclClientRPCHook(new SessionCredentials(configure.getAccessKey(), configure.getSecretKey()));
+            }
+            producer = buildDefaultMQProducer(MixAll.SELF_TEST_PRODUCER_GROUP, rpcHook, false);
+            producer.setInstanceName("SendLoadJob-" + job.jobId);
             producer.setNamesrvAddr(configure.getNamesrvAddr());
-            producer.setTransactionListener(transactionListener);
+            producer.start();
+            byte[] body = RandomStringUtils.randomAlphanumeric(request.getBodySize()).getBytes(StandardCharsets.UTF_8);
+            RateLimiter rateLimiter = request.getTps() > 0 ? RateLimiter.create(request.getTps()) : null;
+            if (request.getMode() == SendLoadJobRequest.Mode.ASYNC) {
+                sendAsync(job, producer, body, rateLimiter);
+            } else {
+                int batchSize = request.getMode() == SendLoadJobRequest.Mode.BATCH ? request.getBatchSize() : 1;
+                workers = Executors.newFixedThreadPool(request.getConcurrency(), r -> {
+                    Thread thread = new Thread(r, "SendLoadJob_" + job.jobId);
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                List<CompletableFuture<Void>> loops = new ArrayList<>(request.getConcurrency());
+                DefaultMQProducer loopProducer = producer;
+                for (int i = 0; i < request.getConcurrency(); i++) {
+                    loops.add(CompletableFuture.runAsync(() -> sendLoop(job, loopProducer, body, batchSize, rateLimiter), workers));
+                }
+                CompletableFuture.allOf(loops.toArray(new CompletableFuture[0])).join();
+            }
+            job.finish(job.cancelled ? SendLoadJob.Status.CANCELLED : SendLoadJob.Status.SUCCEEDED);
+        } catch (Exception e) {
+            logger.warn("Load job {} on topic {} failed", job.jobId, request.getTopic(), e);
+            job.error = e.getMessage();
+            job.finish(SendLoadJob.Status.FAILED);
+        } finally {
+            if (workers != null) {
+                workers.shutdownNow();
+            }
+            if (producer != null) {
+                producer.shutdown();
+            }
+        }
+    }
+
+    private void sendLoop(LoadJob job, DefaultMQProducer producer, byte[] body, int batchSize, RateLimiter rateLimiter) {
+        int count;
+        while ((count = job.claim(batchSize)) > 0) {
+            if (rateLimiter != null) {
+                rateLimiter.acquire(count);
+            }
+            long start = System.nanoTime();
             try {
-                producer.start();
-                Message msg = new Message(sendTopicMessageRequest.getTopic(),
-                        sendTopicMessageRequest.getTag(),
-                        sendTopicMessageRequest.getKey(),
-                        sendTopicMessageRequest.getMessageBody().getBytes()
-                );
-                return producer.sendMessageInTransaction(msg, null);
+                if (count == 1) {
+                    producer.send(loadMessage(job, body));
+                } else {
+                    List<Message> batch = new ArrayList<>(count);
+                    for (int i = 0; i < count; i++) {
+                        batch.add(loadMessage(job, body));
+                    }
+                    producer.send(batch);
+                }
+                job.succeed(count, start);
             } catch (Exception e) {
-                Throwables.throwIfUnchecked(e);
-                throw new RuntimeException(e);
-            } finally {
-                waitSendTraceFinish(producer, sendTopicMessageRequest.isTraceEnabled());
-                producer.shutdown();
+                job.fail(count, e);
             }
-        } else {
-            // no transaction message
-            DefaultMQProducer producer = null;
-            producer = buildDefaultMQProducer(MixAll.SELF_TEST_PRODUCER_GROUP, rpcHook, sendTopicMessageRequest.isTraceEnabled());
-            producer.setInstanceName(String.valueOf(System.currentTimeMillis()));
-            producer.setNamesrvAddr(configure.getNamesrvAddr());
+        }
+    }
+
+    private void sendAsync(LoadJob job, DefaultMQProducer producer, byte[] body, RateLimiter rateLimiter)
+            throws InterruptedException {
+        int concurrency = job.request.getConcurrency();
+        Semaphore inFlight = new Semaphore(concurrency);
+        while (job.claim(1) > 0) {
+            if (rateLimiter != null) {
+                rateLimiter.acquire();
+            }
+            inFlight.acquire();
+            long start = System.nanoTime();
             try {
-                producer.start();
-                Message msg = new Message(sendTopicMessageRequest.getTopic(),
-                        sendTopicMessageRequest.getTag(),
-                        sendTopicMessageRequest.getKey(),
-                        sendTopicMessageRequest.getMessageBody().getBytes()
-                );
-                return producer.send(msg);
+                producer.send(loadMessage(job, body), new SendCallback() {
+                    @Override
+                    public void onSuccess(SendResult sendResult) {
+                        job.succeed(1, start);
+                        inFlight.release();
+                    }
+
+                    @Override
+                    public void onException(Throwable e) {
+                        job.fail(1, e);
+                        inFlight.release();
+                    }
+                });
             } catch (Exception e) {
-                Throwables.throwIfUnchecked(e);
-                throw new RuntimeException(e);
-            } finally {
-                waitSendTraceFinish(producer, sendTopicMessageRequest.isTraceEnabled());
-                producer.shutdown();
+                job.fail(1, e);
+                inFlight.release();
             }
         }
+        // wait for the callbacks of the sends in flight
+        inFlight.acquire(concurrency);
+    }
 
+    private Message loadMessage(LoadJob job, byte[] body) {
+        return new Message(job.request.getTopic(), job.request.getTag(), body);
     }
 
+    private static final class LoadJob implements BackgroundJobs.Job {
+        private final String jobId;
+        private final SendLoadJobRequest request;
+        private final String owner;
+        private final long createTime = System.currentTimeMillis();
+        /**
+         * messages not handed to a sender yet
+         */
+        private final AtomicLong remaining;
+        private final AtomicLong succeeded = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private volatile SendLoadJob.Status status = SendLoadJob.Status.PENDING;
+        private volatile boolean cancelled;
+        private volatile String error;
+        private volatile long startTime;
+        private volatile long finishTime;
+
+        private LoadJob(String jobId, SendLoadJobRequest request, String owner) {
+            this.jobId = jobId;
+            this.request = request;
+            this.owner = owner;
+            this.remaining = new AtomicLong(request.getMessageCount());
+        }
 
-    private void waitSendTraceFinish(DefaultMQProducer producer, boolean traceEnabled) {
-        if (!traceEnabled) {
-            return;
+        @Override
+        public String getJobId() {
+            return jobId;
         }
-        try {
-            TraceDispatcher traceDispatcher = Reflect.on(producer).field("traceDispatcher").get();
-            if (traceDispatcher != null) {
-                ArrayBlockingQueue<TraceContext> traceContextQueue = Reflect.on(traceDispatcher).field("traceContextQueue").get();
-                while (traceContextQueue.size() > 0) {
-                    Thread.sleep(1);
+
+        @Override
+        public String getOwner() {
+            return owner;
+        }
+
+        @Override
+        public long getFinishTime() {
+            return finishTime;
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+
+        /**
+         * @return messages the caller has to send, at most max, 0 when the job is done or cancelled
+         */
+        private int claim(int max) {
+            while (!cancelled) {
+                long left = remaining.get();
+                if (left <= 0) {
+                    return 0;
+                }
+                int count = (int) Math.min(max, left);
+                if (remaining.compareAndSet(left, left - count)) {
+                    return count;
                 }
             }
-            // wait another 150ms until async request send finish
-            // after new RocketMQ version released, this logic can be removed
-            // https://github.com/apache/rocketmq/pull/2989
-            Thread.sleep(150);
-        } catch (Exception ignore) {
+            return 0;
+        }
+
+        private void succeed(int count, long startNanos) {
+            latency.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos));
+            succeeded.addAndGet(count);
+        }
+
+        private void fail(int count, Throwable e) {
+            if (failed.getAndAdd(count) == 0) {
+                error = e.getMessage();
+            }
         }
+
+        private void finish(SendLoadJob.Status status) {
+            this.finishTime = System.currentTimeMillis();
+            this.status = status;
+        }
+
+        private SendLoadJob toView() {
+            SendLoadJob view = new SendLoadJob();
+            view.setJobId(jobId);
+            view.setTopic(request.getTopic());
+            view.setMode(request.getMode());
+            view.setStatus(status);
+            view.setTotal(request.getMessageCount());
+            view.setSucceeded(succeeded.get());
+            view.setFailed(failed.get());
+            if (startTime > 0) {
+                long end = finishTime > 0 ? finishTime : System.currentTimeMillis();
+                view.setThroughput(succeeded.get() * 1000.0 / Math.max(end - startTime, 1));
+            }
+            view.setLatencyP50(latency.percentile(0.5) / 1000.0);
+            view.setLatencyP90(latency.percentile(0.9) / 1000.0);
+            view.setLatencyP99(latency.percentile(0.99) / 1000.0);
+            view.setLatencyMax(latency.max() / 1000.0);
+            view.setCreateTime(createTime);
+            view.setStartTime(startTime);
+            view.setFinishTime(finishTime);
+            view.setError(error);
+            return view;
+        }
+    }
+
+    @Value
+    private static class SendProducerKey {
+        String namesrvAddr;
+        String accessKey;
+        String secretKey;
+        boolean useTLS;
+        boolean traceEnabled;
+        boolean transaction;
     }
 
     static class TransactionListenerImpl implements TransactionListener {
@@ -18,7 +18,7 @@
 package org.apache.rocketmq.dashboard.service.impl;
 
 import org.apache.rocketmq.auth.authentication.enums.UserType;
-import org.apache.rocketmq.dashboard.admin.UserMQAdminPoolManager;
+import org.apache.rocketmq.dashboard.admin.MQAdminClientManager;
 import org.apache.rocketmq.dashboard.model.User;
 import org.apache.rocketmq.dashboard.service.UserService;
 import org.apache.rocketmq.dashboard.service.strategy.UserContext;
@@ -39,7 +39,7 @@ public class UserServiceImpl implements UserService {
     private UserContext userContext;
 
     @Autowired
-    private UserMQAdminPoolManager userMQAdminPoolManager;
+    private MQAdminClientManager mqAdminClientManager;
 
 
     @Override
@@ -65,21 +65,13 @@ public class UserServiceImpl implements UserService {
         if (user == null) {
             throw new IllegalArgumentException("User object cannot be null when requesting MQAdminExt.");
         }
-        return userMQAdminPoolManager.borrowMQAdminExt(user.getName(), user.getPassword());
-    }
-
-    public void returnMQAdminExtForUser(User user, MQAdminExt mqAdminExt) {
-        if (user == null || mqAdminExt == null) {
-            log.warn("Attempted to return MQAdminExt with null user or mqAdminExt object.");
-            return;
-        }
-        userMQAdminPoolManager.returnMQAdminExt(user.getName(), mqAdminExt);
+        return mqAdminClientManager.getMQAdminExt(user.getName(), user.getPassword());
     }
 
     public void onUserLogout(User user) {
         if (user != null) {
-            userMQAdminPoolManager.shutdownUserPool(user.getName());
-            log.info("User {} logged out, their MQAdminExt pool has been shut down.", user.getName());
+            mqAdminClientManager.shutdownClient(user.getName(), user.getPassword());
+            log.info("User {} logged out, their MQAdminExt client has been shut down.", user.getName());
         }
     }
 
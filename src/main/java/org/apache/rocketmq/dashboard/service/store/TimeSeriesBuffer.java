@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.rocketmq.dashboard.service.store;
+
+/**
+ * Fixed-capacity ring buffer holding the samples of one broker or topic that have not been
+ * flushed to the {@link TimeSeriesStore} yet. When the buffer is full the oldest sample is overwritten.
+ */
+public class TimeSeriesBuffer {
+
+    private final int pairs;
+
+    private final long[] timestamps;
+
+    private final double[] values;
+
+    private final long[] counts;
+
+    private int head;
+
+    private int size;
+
+    private long overwritten;
+
+    /**
+     * number of samples ever added, the sequence of the next sample
+     */
+    private long added;
+
+    public TimeSeriesBuffer(int pairs, int capacity) {
+        this.pairs = pairs;
+        this.timestamps = new long[capacity];
+        this.values = new double[capacity * pairs];
+        this.counts = new long[capacity * pairs];
+    }
+
+    public synchronized void add(long timestamp, double value, long count) {
+        int slot = nextSlot(timestamp);
+        values[slot * pairs] = value;
+        counts[slot * pairs] = count;
+    }
+
+    public synchronized void add(long timestamp, double value0, long count0, double value1, long count1) {
+        int slot = nextSlot(timestamp);
+        values[slot * pairs] = value0;
+        counts[slot * pairs] = count0;
+        values[slot * pairs + 1] = value1;
+        counts[slot * pairs + 1] = count1;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * @return number of samples dropped because they were not flushed in time
+     */
+    public synchronized long getOverwritten() {
+        return overwritten;
+    }
+
+    /**
+     * Copy the buffered samples, oldest first, without removing them.
+     *
+     * @return sequence following the last copied sample, to be passed to {@link #discard(long)} once they
+     * are persisted
+     */
+    public synchronized long copyTo(TimeSeriesData target) {
+        int start = head - size;
+        for (int i = 0; i < size; i++) {
+            int slot = Math.floorMod(start + i, timestamps.length);
+            int index = target.add(timestamps[slot]);
+            for (int p = 0; p < pairs && p < target.getPairs(); p++) {
+                target.set(index, p, values[slot * pairs + p], counts[slot * pairs + p]);
+            }
+        }
+        return added;
+    }
+
+    /**
+     * Remove the samples before the given sequence, the ones added since stay even if they overwrote
+     * copied samples.
+     */
+    public synchronized void discard(long sequence) {
+        size = (int) Math.min(size, Math.max(added - sequence, 0));
+    }
+
+    private int nextSlot(long timestamp) {
+        int slot = head;
+        timestamps[slot] = timestamp;
+        for (int p = 0; p < pairs; p++) {
+            values[slot * pairs + p] = 0D;
+            counts[slot * pairs + p] = 0L;
+        }
+        head = (head + 1) % timestamps.length;
+        added++;
+        if (size == timestamps.length) {
+            overwritten++;
+        } else {
+            size++;
+        }
+        return slot;
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.rocketmq.dashboard.service.store;
+
+import java.util.Arrays;
+
+/**
+ * Columnar samples of one series. Every sample is a timestamp followed by a fixed
+ * number of (double, long) pairs, e.g. (tps, msgCount).
+ */
+public class TimeSeriesData {
+
+    private final int pairs;
+
+    private long[] timestamps;
+
+    private double[] values;
+
+    private long[] counts;
+
+    private int size;
+
+    public TimeSeriesData(int pairs) {
+        this(pairs, 16);
+    }
+
+    public TimeSeriesData(int pairs, int initialCapacity) {
+        this.pairs = pairs;
+        int capacity = Math.max(initialCapacity, 1);
+        this.timestamps = new long[capacity];
+        this.values = new double[capacity * pairs];
+        this.counts = new long[capacity * pairs];
+    }
+
+    public void add(long timestamp, double[] sampleValues, long[] sampleCounts) {
+        int index = add(timestamp);
+        for (int i = 0; i < pairs; i++) {
+            set(index, i, sampleValues != null && i < sampleValues.length ? sampleValues[i] : 0D,
+                sampleCounts != null && i < sampleCounts.length ? sampleCounts[i] : 0L);
+        }
+    }
+
+    /**
+     * Append a sample whose pairs are all zero and fill them with {@link #set(int, int, double, long)}.
+     *
+     * @return index of the new sample
+     */
+    public int add(long timestamp) {
+        ensureCapacity(size + 1);
+        timestamps[size] = timestamp;
+        for (int i = 0; i < pairs; i++) {
+            values[size * pairs + i] = 0D;
+            counts[size * pairs + i] = 0L;
+        }
+        return size++;
+    }
+
+    public void set(int index, int pair, double value, long count) {
+        values[index * pairs + pair] = value;
+        counts[index * pairs + pair] = count;
+    }
+
+    public int getPairs() {
+        return pairs;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getTimestamp(int index) {
+        return timestamps[index];
+    }
+
+    public double getValue(int index, int pair) {
+        return values[index * pairs + pair];
+    }
+
+    public long getCount(int index, int pair) {
+        return counts[index * pairs + pair];
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= timestamps.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, timestamps.length << 1);
+        timestamps = Arrays.copyOf(timestamps, newCapacity);
+        values = Arrays.copyOf(values, newCapacity * pairs);
+        counts = Arrays.copyOf(counts, newCapacity * pairs);
+    }
+}
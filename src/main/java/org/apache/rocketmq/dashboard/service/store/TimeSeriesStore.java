@@ -0,0 +1,486 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.rocketmq.dashboard.service.store;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.Maps;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Append-only binary store for the dashboard time series.
+ * <p>
+ * Samples are bucketed per day into {@code <root>/<yyyy-MM-dd>/<kind>.seg}, a segment of fixed-width
+ * records {@code (seriesId:int, timestamp:long, (value:double, count:long) * pairs)}. Series names are
+ * kept in the append-only dictionary {@code <kind>.dict}. Each series owns an in-memory index of
+ * (timestamp, record number) which is maintained on append and rebuilt by one sequential scan when
+ * an older day is opened, so queries only touch the records of the requested series and range.
+ * <p>
+ * There is at most one open segment per day. Past days nobody is using are closed once more than
+ * {@link #MAX_OPEN_DAYS} days are open or they have been idle for a while, the current day stays open.
+ */
+public class TimeSeriesStore {
+
+    private static final Logger log = LoggerFactory.getLogger(TimeSeriesStore.class);
+
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd")
+        .withZone(ZoneId.systemDefault());
+
+    private final Path rootDir;
+
+    private final String kind;
+
+    private final int pairs;
+
+    private static final int MAX_OPEN_DAYS = 4;
+
+    private static final long IDLE_CLOSE_MILLIS = TimeUnit.MINUTES.toMillis(30);
+
+    private final int recordSize;
+
+    /**
+     * open segments by day, guarded by itself
+     */
+    private final Map<String, DaySegment> segments = new HashMap<>();
+
+    public TimeSeriesStore(String rootDir, String kind, int pairs) {
+        this.rootDir = Paths.get(rootDir);
+        this.kind = kind;
+        this.pairs = pairs;
+        this.recordSize = 4 + 8 + pairs * 16;
+    }
+
+    public static String dayOf(long timestamp) {
+        return DAY_FORMAT.format(Instant.ofEpochMilli(timestamp));
+    }
+
+    public int getPairs() {
+        return pairs;
+    }
+
+    /**
+     * @param date format yyyy-MM-dd
+     */
+    public boolean hasDay(String date) {
+        return Files.exists(segmentFile(date));
+    }
+
+    /**
+     * Append the given samples, each one routed to the segment of the day it belongs to.
+     */
+    public void append(Map<String, TimeSeriesData> samples) throws IOException {
+        Map<String, Map<String, TimeSeriesData>> byDay = new TreeMap<>();
+        for (Map.Entry<String, TimeSeriesData> entry : samples.entrySet()) {
+            TimeSeriesData data = entry.getValue();
+            for (int i = 0; i < data.size(); i++) {
+                TimeSeriesData dayData = byDay.computeIfAbsent(dayOf(data.getTimestamp(i)), k -> new LinkedHashMap<>())
+                    .computeIfAbsent(entry.getKey(), k -> new TimeSeriesData(pairs));
+                int index = dayData.add(data.getTimestamp(i));
+                for (int p = 0; p < pairs && p < data.getPairs(); p++) {
+                    dayData.set(index, p, data.getValue(i, p), data.getCount(i, p));
+                }
+            }
+        }
+        for (Map.Entry<String, Map<String, TimeSeriesData>> entry : byDay.entrySet()) {
+            append(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Append the given samples to the segment of one day, regardless of their timestamps.
+     *
+     * @param date format yyyy-MM-dd
+     */
+    public void append(String date, Map<String, TimeSeriesData> samples) throws IOException {
+        Files.createDirectories(rootDir.resolve(date));
+        DaySegment segment = acquire(date);
+        try {
+            segment.append(samples);
+        } finally {
+            release(segment);
+        }
+    }
+
+    /**
+     * @return samples of one series within [begin, end], null if nothing was stored for the day
+     */
+    public TimeSeriesData read(String date, String series, long begin, long end) throws IOException {
+        if (!hasDay(date)) {
+            return null;
+        }
+        DaySegment segment = acquire(date);
+        try {
+            return segment.read(series, begin, end);
+        } finally {
+            release(segment);
+        }
+    }
+
+    /**
+     * @return all series of the day, null if nothing was stored for the day
+     */
+    public Map<String, TimeSeriesData> readAll(String date) throws IOException {
+        if (!hasDay(date)) {
+            return null;
+        }
+        DaySegment segment = acquire(date);
+        try {
+            return segment.readAll();
+        } finally {
+            release(segment);
+        }
+    }
+
+    /**
+     * @return the last sample of every series of the day, null if nothing was stored for the day
+     */
+    public Map<String, TimeSeriesData> readLatest(String date) throws IOException {
+        if (!hasDay(date)) {
+            return null;
+        }
+        DaySegment segment = acquire(date);
+        try {
+            return segment.readLatest();
+        } finally {
+            release(segment);
+        }
+    }
+
+    /**
+     * @return the only open segment of the day, to be given back with {@link #release}
+     */
+    private DaySegment acquire(String date) throws IOException {
+        DaySegment segment;
+        synchronized (segments) {
+            segment = segments.computeIfAbsent(date, DaySegment::new);
+            segment.users++;
+        }
+        try {
+            segment.open();
+        } catch (IOException | RuntimeException e) {
+            release(segment);
+            throw e;
+        }
+        return segment;
+    }
+
+    private void release(DaySegment segment) {
+        synchronized (segments) {
+            segment.users--;
+            segment.lastAccess = System.currentTimeMillis();
+            closeIdleDays(segment.lastAccess);
+        }
+    }
+
+    /**
+     * Close the past days nobody is using that were idle too long, then the least recently used ones until
+     * at most {@link #MAX_OPEN_DAYS} days are open. A closed day is opened again by its next reader.
+     */
+    private void closeIdleDays(long now) {
+        String today = dayOf(now);
+        segments.values().removeIf(segment -> segment.users == 0 && !segment.date.equals(today)
+            && now - segment.lastAccess > IDLE_CLOSE_MILLIS);
+        while (segments.size() > MAX_OPEN_DAYS) {
+            DaySegment eldest = null;
+            for (DaySegment segment : segments.values()) {
+                if (segment.users == 0 && !segment.date.equals(today)
+                    && (eldest == null || segment.lastAccess < eldest.lastAccess)) {
+                    eldest = segment;
+                }
+            }
+            if (eldest == null) {
+                return;
+            }
+            segments.remove(eldest.date);
+        }
+    }
+
+    private Path segmentFile(String date) {
+        return rootDir.resolve(date).resolve(kind + ".seg");
+    }
+
+    /**
+     * (timestamp, record number) index of one series inside a day segment.
+     */
+    private static class SeriesIndex {
+        private long[] timestamps = new long[64];
+        private int[] records = new int[64];
+        private int size;
+
+        void add(long timestamp, int record) {
+            if (size == timestamps.length) {
+                timestamps = Arrays.copyOf(timestamps, size << 1);
+                records = Arrays.copyOf(records, size << 1);
+            }
+            timestamps[size] = timestamp;
+            records[size] = record;
+            size++;
+        }
+
+        int lowerBound(long timestamp) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (timestamps[mid] < timestamp) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+
+    private class DaySegment {
+        private final String date;
+        private final Path segmentPath;
+        private final Path dictPath;
+        private final Map<String, Integer> ids = new HashMap<>();
+        private final List<String> names = new ArrayList<>();
+        private final Map<Integer, SeriesIndex> indexes = new HashMap<>();
+        private int recordCount;
+        private boolean opened;
+        /**
+         * calls holding the segment and the time of the last one, guarded by {@link #segments}
+         */
+        private int users;
+        private long lastAccess;
+
+        DaySegment(String date) {
+            this.date = date;
+            this.segmentPath = segmentFile(date);
+            this.dictPath = rootDir.resolve(date).resolve(kind + ".dict");
+        }
+
+        synchronized void open() throws IOException {
+            if (opened) {
+                return;
+            }
+            try {
+                load();
+            } catch (IOException | RuntimeException e) {
+                ids.clear();
+                names.clear();
+                indexes.clear();
+                recordCount = 0;
+                throw e;
+            }
+            opened = true;
+        }
+
+        private void load() throws IOException {
+            if (Files.exists(dictPath)) {
+                for (String line : Files.readAllLines(dictPath, Charsets.UTF_8)) {
+                    int split = line.indexOf('\t');
+                    if (split > 0) {
+                        register(Integer.parseInt(line.substring(0, split)), line.substring(split + 1));
+                    }
+                }
+            }
+            if (!Files.exists(segmentPath)) {
+                return;
+            }
+            try (FileChannel channel = FileChannel.open(segmentPath, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                long validSize = channel.size() - channel.size() % recordSize;
+                if (validSize != channel.size()) {
+                    log.warn("Truncate partially written record of {}, size {} -> {}", segmentPath, channel.size(), validSize);
+                    channel.truncate(validSize);
+                }
+                ByteBuffer buffer = ByteBuffer.allocate(recordSize * 4096);
+                long position = 0;
+                while (position < validSize) {
+                    buffer.clear();
+                    int read = channel.read(buffer, position);
+                    if (read <= 0) {
+                        break;
+                    }
+                    buffer.flip();
+                    while (buffer.remaining() >= recordSize) {
+                        int seriesId = buffer.getInt();
+                        long timestamp = buffer.getLong();
+                        buffer.position(buffer.position() + pairs * 16);
+                        indexes.computeIfAbsent(seriesId, k -> new SeriesIndex()).add(timestamp, recordCount++);
+                    }
+                    position += read - buffer.remaining();
+                }
+            }
+            log.info("Opened dashboard {} segment of {}, series {}, records {}", kind, date, names.size(), recordCount);
+        }
+
+        synchronized void append(Map<String, TimeSeriesData> samples) throws IOException {
+            StringBuilder newNames = new StringBuilder();
+            int total = 0;
+            for (Map.Entry<String, TimeSeriesData> entry : samples.entrySet()) {
+                if (!ids.containsKey(entry.getKey())) {
+                    int id = names.size();
+                    register(id, entry.getKey());
+                    newNames.append(id).append('\t').append(entry.getKey()).append('\n');
+                }
+                total += entry.getValue().size();
+            }
+            if (newNames.length() > 0) {
+                Files.write(dictPath, newNames.toString().getBytes(Charsets.UTF_8),
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(total * recordSize);
+            for (Map.Entry<String, TimeSeriesData> entry : samples.entrySet()) {
+                int seriesId = ids.get(entry.getKey());
+                TimeSeriesData data = entry.getValue();
+                for (int i = 0; i < data.size(); i++) {
+                    buffer.putInt(seriesId);
+                    buffer.putLong(data.getTimestamp(i));
+                    for (int p = 0; p < pairs; p++) {
+                        buffer.putDouble(data.getValue(i, p));
+                        buffer.putLong(data.getCount(i, p));
+                    }
+                }
+            }
+            buffer.flip();
+            try (FileChannel channel = FileChannel.open(segmentPath, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+            for (Map.Entry<String, TimeSeriesData> entry : samples.entrySet()) {
+                SeriesIndex index = indexes.computeIfAbsent(ids.get(entry.getKey()), k -> new SeriesIndex());
+                TimeSeriesData data = entry.getValue();
+                for (int i = 0; i < data.size(); i++) {
+                    index.add(data.getTimestamp(i), recordCount++);
+                }
+            }
+        }
+
+        synchronized TimeSeriesData read(String series, long begin, long end) throws IOException {
+            TimeSeriesData result = new TimeSeriesData(pairs);
+            Integer seriesId = ids.get(series);
+            SeriesIndex index = seriesId == null ? null : indexes.get(seriesId);
+            if (index == null) {
+                return result;
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(recordSize);
+            try (FileChannel channel = FileChannel.open(segmentPath, StandardOpenOption.READ)) {
+                for (int i = index.lowerBound(begin); i < index.size && index.timestamps[i] <= end; i++) {
+                    buffer.clear();
+                    readFully(channel, buffer, (long) index.records[i] * recordSize);
+                    decode(buffer, result);
+                }
+            }
+            return result;
+        }
+
+        synchronized Map<String, TimeSeriesData> readAll() throws IOException {
+            Map<String, TimeSeriesData> result = Maps.newHashMap();
+            try (FileChannel channel = FileChannel.open(segmentPath, StandardOpenOption.READ)) {
+                ByteBuffer buffer = ByteBuffer.allocate(recordSize * 4096);
+                long limit = (long) recordCount * recordSize;
+                long position = 0;
+                while (position < limit) {
+                    buffer.clear();
+                    if (limit - position < buffer.capacity()) {
+                        buffer.limit((int) (limit - position));
+                    }
+                    int read = channel.read(buffer, position);
+                    if (read <= 0) {
+                        break;
+                    }
+                    buffer.flip();
+                    while (buffer.remaining() >= recordSize) {
+                        int seriesId = buffer.getInt(buffer.position());
+                        String name = seriesId < names.size() ? names.get(seriesId) : null;
+                        if (name == null) {
+                            buffer.position(buffer.position() + recordSize);
+                            continue;
+                        }
+                        decode(buffer, result.computeIfAbsent(name, k -> new TimeSeriesData(pairs)));
+                    }
+                    position += read - buffer.remaining();
+                }
+            }
+            return result;
+        }
+
+        synchronized Map<String, TimeSeriesData> readLatest() throws IOException {
+            Map<String, TimeSeriesData> result = Maps.newHashMap();
+            ByteBuffer buffer = ByteBuffer.allocate(recordSize);
+            try (FileChannel channel = FileChannel.open(segmentPath, StandardOpenOption.READ)) {
+                for (Map.Entry<Integer, SeriesIndex> entry : indexes.entrySet()) {
+                    SeriesIndex index = entry.getValue();
+                    if (index.size == 0) {
+                        continue;
+                    }
+                    buffer.clear();
+                    String name = entry.getKey() < names.size() ? names.get(entry.getKey()) : null;
+                    if (name == null) {
+                        continue;
+                    }
+                    readFully(channel, buffer, (long) index.records[index.size - 1] * recordSize);
+                    TimeSeriesData data = new TimeSeriesData(pairs, 1);
+                    decode(buffer, data);
+                    result.put(name, data);
+                }
+            }
+            return result;
+        }
+
+        private void register(int id, String name) {
+            ids.put(name, id);
+            while (names.size() <= id) {
+                names.add(null);
+            }
+            names.set(id, name);
+        }
+
+        private void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+            while (buffer.hasRemaining()) {
+                int read = channel.read(buffer, position + buffer.position());
+                if (read < 0) {
+                    throw new IOException("Unexpected end of segment " + segmentPath);
+                }
+            }
+            buffer.flip();
+        }
+
+        private void decode(ByteBuffer buffer, TimeSeriesData data) {
+            buffer.getInt();
+            int index = data.add(buffer.getLong());
+            for (int p = 0; p < pairs; p++) {
+                data.set(index, p, buffer.getDouble(), buffer.getLong());
+            }
+        }
+    }
+}
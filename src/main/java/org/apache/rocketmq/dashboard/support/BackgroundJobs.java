@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.rocketmq.dashboard.support;
+
+import org.apache.rocketmq.dashboard.exception.ServiceException;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Jobs a request starts in the background and later requests poll, cancel or download by id.
+ * <p>
+ * A job is only handed to the user who submitted it, the ids are not secret.
+ * <p>
+ * A job is kept as long as it runs, whether or not anyone polls it, and dropped once it finished longer
+ * than the retention ago. Finished jobs are dropped when a job is added or looked up.
+ */
+public class BackgroundJobs<J extends BackgroundJobs.Job> {
+
+    /**
+     * name of the jobs in error messages, e.g. "bulk job"
+     */
+    private final String jobName;
+
+    private final long retentionMs;
+
+    private final ConcurrentMap<String, J> jobs = new ConcurrentHashMap<>();
+
+    public BackgroundJobs(String jobName, long retentionMs) {
+        this.jobName = jobName;
+        this.retentionMs = retentionMs;
+    }
+
+    /**
+     * @return a pool of daemon threads named after the prefix, which stop after a minute without work
+     */
+    public static ExecutorService newExecutor(String threadNamePrefix, int threads) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new ThreadFactory() {
+                    private final AtomicLong threadIndex = new AtomicLong(0);
+
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        Thread thread = new Thread(r, threadNamePrefix + this.threadIndex.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    public void add(J job) {
+        purge();
+        jobs.put(job.getJobId(), job);
+    }
+
+    /**
+     * @param owner name of the user asking for the job, null when no login is required
+     * @throws ServiceException if there is no such job, it was dropped or another user submitted it
+     */
+    public J get(String jobId, String owner) {
+        purge();
+        J job = jobs.get(jobId);
+        if (job == null || !Objects.equals(job.getOwner(), owner)) {
+            throw new ServiceException(-1, String.format("%s %s not found", jobName, jobId));
+        }
+        return job;
+    }
+
+    /**
+     * Cancel and drop all jobs, when the service shuts down.
+     */
+    public void clear() {
+        jobs.forEach((jobId, job) -> {
+            if (jobs.remove(jobId, job)) {
+                job.cancel();
+                job.discard();
+            }
+        });
+    }
+
+    private void purge() {
+        long now = System.currentTimeMillis();
+        jobs.forEach((jobId, job) -> {
+            long finishTime = job.getFinishTime();
+            if (finishTime > 0 && now - finishTime > retentionMs && jobs.remove(jobId, job)) {
+                job.discard();
+            }
+        });
+    }
+
+    public interface Job {
+
+        String getJobId();
+
+        /**
+         * @return name of the user who submitted the job, null when no login is required
+         */
+        String getOwner();
+
+        /**
+         * @return when the job finished, 0 while it is pending or running
+         */
+        long getFinishTime();
+
+        void cancel();
+
+        /**
+         * Release what the job keeps for its pollers, once it is dropped.
+         */
+        default void discard() {
+        }
+    }
+}
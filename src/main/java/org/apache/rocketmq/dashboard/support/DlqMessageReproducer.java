@@ -0,0 +1,314 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.rocketmq.dashboard.support;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.RateLimiter;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import org.apache.rocketmq.acl.common.AclClientRPCHook;
+import org.apache.rocketmq.acl.common.SessionCredentials;
+import org.apache.rocketmq.client.exception.MQClientException;
+import org.apache.rocketmq.client.producer.DefaultMQProducer;
+import org.apache.rocketmq.client.producer.SendCallback;
+import org.apache.rocketmq.client.producer.SendResult;
+import org.apache.rocketmq.common.MixAll;
+import org.apache.rocketmq.common.message.Message;
+import org.apache.rocketmq.common.message.MessageAccessor;
+import org.apache.rocketmq.common.message.MessageConst;
+import org.apache.rocketmq.common.message.MessageExt;
+import org.apache.rocketmq.dashboard.config.RMQConfigure;
+import org.apache.rocketmq.dashboard.model.DlqResendBatchResult;
+import org.apache.rocketmq.remoting.RPCHook;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resends dead letter messages by producing copies of them again, so no consumer of the group has to be
+ * online.
+ * <p>
+ * All resends share one long-lived producer and one rate limit. Messages to a normal topic are sent in
+ * batches, the broker does not take batches for %RETRY% topics so those are sent asynchronously and awaited
+ * together. Every resent message is recorded in a ledger by its DLQ topic and msgId, and a message found in
+ * the ledger is skipped unless the resend is forced.
+ */
+@Component
+public class DlqMessageReproducer {
+
+    private final Logger logger = LoggerFactory.getLogger(DlqMessageReproducer.class);
+
+    public static final String DLQ_RESEND_PRODUCER_GROUP = "DLQ_RESEND_PRODUCER_GROUP";
+
+    /**
+     * bytes of message bodies in one batch send
+     */
+    private static final int MAX_BATCH_BYTES = 1024 * 1024;
+
+    /**
+     * properties of the dead letter that would stop the copy from being consumed like a new message
+     */
+    private static final String[] DROPPED_PROPERTIES = {
+        MessageConst.PROPERTY_DELAY_TIME_LEVEL,
+        MessageConst.PROPERTY_RECONSUME_TIME,
+        MessageConst.PROPERTY_MAX_RECONSUME_TIMES,
+        MessageConst.PROPERTY_REAL_TOPIC,
+        MessageConst.PROPERTY_REAL_QUEUE_ID,
+        MessageConst.PROPERTY_TRANSACTION_PREPARED,
+        MessageConst.PROPERTY_PRODUCER_GROUP
+    };
+
+    @Resource
+    private RMQConfigure configure;
+
+    private final Cache<String, Long> ledger = CacheBuilder.newBuilder()
+            .maximumSize(1000000)
+            .expireAfterWrite(7, TimeUnit.DAYS)
+            .build();
+
+    private volatile DefaultMQProducer producer;
+
+    private volatile RateLimiter rateLimiter;
+
+    public DlqResendBatchResult resend(List<MessageExt> messages, DlqResendBatchResult.Target target, boolean force) {
+        DlqResendBatchResult result = new DlqResendBatchResult();
+        Map<String, List<PendingMessage>> pendingByTopic = new LinkedHashMap<>();
+        int pendingCount = 0;
+        for (MessageExt messageExt : messages) {
+            String ledgerKey = messageExt.getTopic() + "@" + messageExt.getMsgId();
+            if (ledger.asMap().putIfAbsent(ledgerKey, System.currentTimeMillis()) != null && !force) {
+                result.setSkipped(result.getSkipped() + 1);
+                continue;
+            }
+            PendingMessage pending = new PendingMessage(ledgerKey, messageExt.getMsgId());
+            String topic = targetTopic(messageExt, target);
+            if (topic == null) {
+                fail(result, pending, String.format("%s has no %s topic", messageExt.getMsgId(), target));
+                continue;
+            }
+            pending.message = toMessage(topic, messageExt);
+            pendingByTopic.computeIfAbsent(topic, k -> new ArrayList<>()).add(pending);
+            pendingCount++;
+        }
+        if (pendingCount == 0) {
+            return result;
+        }
+
+        DefaultMQProducer producer = getProducer();
+        RateLimiter rateLimiter = getRateLimiter();
+        if (rateLimiter != null) {
+            rateLimiter.acquire(pendingCount);
+        }
+        for (Map.Entry<String, List<PendingMessage>> entry : pendingByTopic.entrySet()) {
+            if (entry.getKey().startsWith(MixAll.RETRY_GROUP_TOPIC_PREFIX)) {
+                sendAsync(producer, entry.getValue(), result);
+            } else {
+                sendBatches(producer, entry.getValue(), result);
+            }
+        }
+        return result;
+    }
+
+    private String targetTopic(MessageExt messageExt, DlqResendBatchResult.Target target) {
+        if (!messageExt.getTopic().startsWith(MixAll.DLQ_GROUP_TOPIC_PREFIX)) {
+            return null;
+        }
+        if (target == DlqResendBatchResult.Target.ORIGIN_TOPIC) {
+            return messageExt.getProperty(MessageConst.PROPERTY_RETRY_TOPIC);
+        }
+        return MixAll.getRetryTopic(messageExt.getTopic().substring(MixAll.DLQ_GROUP_TOPIC_PREFIX.length()));
+    }
+
+    private Message toMessage(String topic, MessageExt messageExt) {
+        Message message = new Message(topic, messageExt.getBody());
+        MessageAccessor.setProperties(message, new HashMap<>(messageExt.getProperties()));
+        for (String property : DROPPED_PROPERTIES) {
+            MessageAccessor.clearProperty(message, property);
+        }
+        return message;
+    }
+
+    private void sendBatches(DefaultMQProducer producer, List<PendingMessage> pendings, DlqResendBatchResult result) {
+        List<PendingMessage> batch = new ArrayList<>();
+        int batchBytes = 0;
+        for (PendingMessage pending : pendings) {
+            int bodySize = pending.message.getBody() == null ? 0 : pending.message.getBody().length;
+            if (!batch.isEmpty() && batchBytes + bodySize > MAX_BATCH_BYTES) {
+                sendBatch(producer, batch, result);
+                batch = new ArrayList<>();
+                batchBytes = 0;
+            }
+            batch.add(pending);
+            batchBytes += bodySize;
+        }
+        if (!batch.isEmpty()) {
+            sendBatch(producer, batch, result);
+        }
+    }
+
+    private void sendBatch(DefaultMQProducer producer, List<PendingMessage> batch, DlqResendBatchResult result) {
+        List<Message> messages = new ArrayList<>(batch.size());
+        for (PendingMessage pending : batch) {
+            messages.add(pending.message);
+        }
+        try {
+            if (messages.size() == 1) {
+                producer.send(messages.get(0));
+            } else {
+                producer.send(messages);
+            }
+            synchronized (result) {
+                result.setSent(result.getSent() + batch.size());
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to resend a batch of {} dlq messages", batch.size(), e);
+            for (PendingMessage pending : batch) {
+                fail(result, pending, e.getMessage());
+            }
+        }
+    }
+
+    private void sendAsync(DefaultMQProducer producer, List<PendingMessage> pendings, DlqResendBatchResult result) {
+        CountDownLatch latch = new CountDownLatch(pendings.size());
+        for (PendingMessage pending : pendings) {
+            try {
+                producer.send(pending.message, new SendCallback() {
+                    @Override
+                    public void onSuccess(SendResult sendResult) {
+                        pending.done = true;
+                        synchronized (result) {
+                            result.setSent(result.getSent() + 1);
+                        }
+                        latch.countDown();
+                    }
+
+                    @Override
+                    public void onException(Throwable e) {
+                        pending.done = true;
+                        fail(result, pending, e.getMessage());
+                        latch.countDown();
+                    }
+                });
+            } catch (Exception e) {
+                pending.done = true;
+                fail(result, pending, e.getMessage());
+                latch.countDown();
+            }
+        }
+        try {
+            if (!latch.await(producer.getSendMsgTimeout() * 2L, TimeUnit.MILLISECONDS)) {
+                for (PendingMessage pending : pendings) {
+                    if (!pending.done) {
+                        fail(result, pending, "send timeout");
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void fail(DlqResendBatchResult result, PendingMessage pending, String reason) {
+        ledger.invalidate(pending.ledgerKey);
+        synchronized (result) {
+            result.getFailures().put(pending.msgId, reason);
+        }
+    }
+
+    private DefaultMQProducer getProducer() {
+        DefaultMQProducer producer = this.producer;
+        if (producer == null) {
+            synchronized (this) {
+                producer = this.producer;
+                if (producer == null) {
+                    RPCHook rpcHook = null;
+                    if (configure.isACLEnabled()) {
+                        rpcHook = new AclClientRPCHook(new SessionCredentials(configure.getAccessKey(),
+                                configure.getSecretKey()));
+                    }
+                    producer = createProducer(rpcHook);
+                    try {
+                        producer.start();
+                    } catch (MQClientException e) {
+                        producer.shutdown();
+                        throw new RuntimeException("Failed to start dlq resend producer", e);
+                    }
+                    this.producer = producer;
+                }
+            }
+        }
+        return producer;
+    }
+
+    protected DefaultMQProducer createProducer(RPCHook rpcHook) {
+        DefaultMQProducer producer = new DefaultMQProducer(DLQ_RESEND_PRODUCER_GROUP, rpcHook);
+        producer.setInstanceName("DlqResendProducer-" + System.currentTimeMillis());
+        producer.setNamesrvAddr(configure.getNamesrvAddr());
+        producer.setUseTLS(configure.isUseTLS());
+        return producer;
+    }
+
+    private RateLimiter getRateLimiter() {
+        int permitsPerSecond = configure.getDlqResendPermitsPerSecond();
+        if (permitsPerSecond <= 0) {
+            return null;
+        }
+        RateLimiter rateLimiter = this.rateLimiter;
+        if (rateLimiter == null) {
+            synchronized (this) {
+                if (this.rateLimiter == null) {
+                    this.rateLimiter = RateLimiter.create(permitsPerSecond);
+                }
+                rateLimiter = this.rateLimiter;
+            }
+        }
+        if (rateLimiter.getRate() != permitsPerSecond) {
+            rateLimiter.setRate(permitsPerSecond);
+        }
+        return rateLimiter;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        DefaultMQProducer producer = this.producer;
+        if (producer != null) {
+            producer.shutdown();
+        }
+    }
+
+    private static final class PendingMessage {
+        private final String ledgerKey;
+        private final String msgId;
+        private Message message;
+        private volatile boolean done;
+
+        private PendingMessage(String ledgerKey, String msgId) {
+            this.ledgerKey = ledgerKey;
+            this.msgId = msgId;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.rocketmq.dashboard.task;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bookkeeping of one topic collection cycle.
+ */
+public class CollectCycleStats {
+
+    private final long startTimestamp = System.currentTimeMillis();
+
+    private final int topicCount;
+
+    private final long deadline;
+
+    private final AtomicLong rpcCount = new AtomicLong();
+
+    private final AtomicLong rpcFailures = new AtomicLong();
+
+    private final AtomicInteger collectedTopics = new AtomicInteger();
+
+    private final AtomicInteger skippedTopics = new AtomicInteger();
+
+    private volatile long durationMs = -1;
+
+    private volatile boolean deadlineExceeded;
+
+    public CollectCycleStats(int topicCount) {
+        this(topicCount, Long.MAX_VALUE);
+    }
+
+    /**
+     * @param deadlineMs time budget of the cycle in milliseconds, counted from now
+     */
+    public CollectCycleStats(int topicCount, long deadlineMs) {
+        this.topicCount = topicCount;
+        this.deadline = deadlineMs >= Long.MAX_VALUE - startTimestamp ? Long.MAX_VALUE : startTimestamp + deadlineMs;
+    }
+
+    public void recordRpc(boolean success) {
+        rpcCount.incrementAndGet();
+        if (!success) {
+            rpcFailures.incrementAndGet();
+        }
+    }
+
+    public void recordCollectedTopic() {
+        collectedTopics.incrementAndGet();
+    }
+
+    public void recordSkippedTopic() {
+        skippedTopics.incrementAndGet();
+    }
+
+    /**
+     * @return whether the time budget of the cycle is used up, requests not started yet should be skipped
+     */
+    public boolean isOverdue() {
+        if (System.currentTimeMillis() > deadline) {
+            deadlineExceeded = true;
+        }
+        return deadlineExceeded;
+    }
+
+    public void markDeadlineExceeded() {
+        deadlineExceeded = true;
+    }
+
+    public void finish() {
+        durationMs = System.currentTimeMillis() - startTimestamp;
+    }
+
+    public long getStartTimestamp() {
+        return startTimestamp;
+    }
+
+    public int getTopicCount() {
+        return topicCount;
+    }
+
+    public long getRpcCount() {
+        return rpcCount.get();
+    }
+
+    public long getRpcFailures() {
+        return rpcFailures.get();
+    }
+
+    public int getCollectedTopics() {
+        return collectedTopics.get();
+    }
+
+    /**
+     * @return topics left out of this cycle because it is not known which brokers host them, they are part
+     * of the missed topics
+     */
+    public int getSkippedTopics() {
+        return skippedTopics.get();
+    }
+
+    /**
+     * @return topics without a sample in this cycle, they show up as a gap on the dashboard
+     */
+    public int getMissedTopics() {
+        return topicCount - collectedTopics.get();
+    }
+
+    /**
+     * @return share of the topics sampled by this cycle, between 0 and 1
+     */
+    public double getCompletionRatio() {
+        return topicCount == 0 ? 1D : (double) collectedTopics.get() / topicCount;
+    }
+
+    public boolean isDeadlineExceeded() {
+        return deadlineExceeded;
+    }
+
+    /**
+     * @return duration of the cycle in milliseconds, -1 while it is still running
+     */
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    @Override
+    public String toString() {
+        return "CollectCycleStats{startTimestamp=" + startTimestamp + ", topicCount=" + topicCount
+            + ", collectedTopics=" + collectedTopics + ", skippedTopics=" + skippedTopics + ", completionRatio=" + getCompletionRatio()
+            + ", deadlineExceeded=" + deadlineExceeded + ", rpcCount=" + rpcCount + ", rpcFailures=" + rpcFailures
+            + ", durationMs=" + durationMs + '}';
+    }
+}
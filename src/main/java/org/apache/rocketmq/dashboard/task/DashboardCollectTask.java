@@ -17,19 +17,14 @@
 package org.apache.rocketmq.dashboard.task;
 
 import com.google.common.base.Throwables;
-import com.google.common.cache.LoadingCache;
-import com.google.common.collect.Lists;
-import com.google.common.collect.Maps;
-import com.google.common.io.Files;
 import jakarta.annotation.Resource;
 import org.apache.rocketmq.common.MixAll;
 import org.apache.rocketmq.common.topic.TopicValidator;
 import org.apache.rocketmq.dashboard.config.RMQConfigure;
+import org.apache.rocketmq.dashboard.service.BrokerRuntimeStatsService;
 import org.apache.rocketmq.dashboard.service.ConsumerService;
 import org.apache.rocketmq.dashboard.service.DashboardCollectService;
-import org.apache.rocketmq.dashboard.util.JsonUtil;
 import org.apache.rocketmq.remoting.protocol.body.ClusterInfo;
-import org.apache.rocketmq.remoting.protocol.body.KVTable;
 import org.apache.rocketmq.remoting.protocol.body.TopicList;
 import org.apache.rocketmq.remoting.protocol.route.BrokerData;
 import org.apache.rocketmq.tools.admin.MQAdminExt;
@@ -38,21 +33,12 @@ import org.slf4j.LoggerFactory;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
-import java.io.File;
-import java.io.IOException;
-import java.math.BigDecimal;
-import java.text.DateFormat;
-import java.text.SimpleDateFormat;
-import java.util.Date;
-import java.util.HashMap;
-import java.util.List;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ExecutorService;
 
 @Component
 public class DashboardCollectTask {
-    private Date currentDate = new Date();
     @Resource
     private MQAdminExt mqAdminExt;
     @Resource
@@ -67,7 +53,12 @@ public class DashboardCollectTask {
     private final static Logger log = LoggerFactory.getLogger(DashboardCollectTask.class);
 
     @Resource
-    private ExecutorService collectExecutor;
+    private TopicStatsCollector topicStatsCollector;
+
+    @Resource
+    private BrokerRuntimeStatsService brokerRuntimeStatsService;
+
+    private static final long BROKER_STATS_MAX_AGE_MS = 30000;
 
     @Scheduled(cron = "30 0/1 * * * ?")
     public void collectTopic() {
@@ -76,17 +67,17 @@ public class DashboardCollectTask {
         }
         try {
             TopicList topicList = mqAdminExt.fetchAllTopicList();
-            Set<String> topicSet = topicList.getTopicList();
+            Set<String> topicSet = new HashSet<>();
             this.addSystemTopic();
-            for (String topic : topicSet) {
+            for (String topic : topicList.getTopicList()) {
                 if (topic.startsWith(MixAll.RETRY_GROUP_TOPIC_PREFIX)
                         || topic.startsWith(MixAll.DLQ_GROUP_TOPIC_PREFIX)
                         || TopicValidator.isSystemTopic(topic)) {
                     continue;
                 }
-                CollectTaskRunnble collectTask = new CollectTaskRunnble(topic, mqAdminExt, dashboardCollectService);
-                collectExecutor.submit(collectTask);
+                topicSet.add(topic);
             }
+            topicStatsCollector.collect(topicSet);
         } catch (Exception err) {
             Throwables.throwIfUnchecked(err);
             throw new RuntimeException(err);
@@ -105,155 +96,36 @@ public class DashboardCollectTask {
             return;
         }
         try {
-            Date date = new Date();
-            ClusterInfo clusterInfo = mqAdminExt.examineBrokerClusterInfo();
-            Set<Map.Entry<String, BrokerData>> clusterEntries = clusterInfo.getBrokerAddrTable().entrySet();
-
-            Map<String, String> addresses = Maps.newHashMap();
-            for (Map.Entry<String, BrokerData> clusterEntry : clusterEntries) {
-                HashMap<Long, String> addrs = clusterEntry.getValue().getBrokerAddrs();
-                Set<Map.Entry<Long, String>> addrsEntries = addrs.entrySet();
-                for (Map.Entry<Long, String> addrEntry : addrsEntries) {
-                    addresses.put(addrEntry.getValue(), clusterEntry.getKey() + ":" + addrEntry.getKey());
+            // the max age is below the collect interval, so two collects never share a snapshot
+            BrokerRuntimeStatsService.Snapshot snapshot = brokerRuntimeStatsService.get(BROKER_STATS_MAX_AGE_MS);
+            for (Map.Entry<String, BrokerData> clusterEntry : snapshot.getClusterInfo().getBrokerAddrTable().entrySet()) {
+                for (Map.Entry<Long, String> addrEntry : clusterEntry.getValue().getBrokerAddrs().entrySet()) {
+                    Map<String, String> stats = snapshot.getStats().get(addrEntry.getValue());
+                    if (stats == null) {
+                        continue;
+                    }
+                    String[] tpsArray = stats.get("getTotalTps").split(" ");
+                    double totalTps = 0;
+                    for (String tps : tpsArray) {
+                        totalTps += Double.parseDouble(tps);
+                    }
+                    dashboardCollectService.addBrokerSample(clusterEntry.getKey() + ":" + addrEntry.getKey(),
+                            snapshot.getTimestamp(), totalTps / tpsArray.length);
                 }
             }
-            Set<Map.Entry<String, String>> entries = addresses.entrySet();
-            for (Map.Entry<String, String> entry : entries) {
-                List<String> list = dashboardCollectService.getBrokerMap().get(entry.getValue());
-                if (null == list) {
-                    list = Lists.newArrayList();
-                }
-                KVTable kvTable = fetchBrokerRuntimeStats(entry.getKey(), 3);
-                if (kvTable == null) {
-                    continue;
-                }
-                String[] tpsArray = kvTable.getTable().get("getTotalTps").split(" ");
-                BigDecimal totalTps = new BigDecimal(0);
-                for (String tps : tpsArray) {
-                    totalTps = totalTps.add(new BigDecimal(tps));
-                }
-                BigDecimal averageTps = totalTps.divide(new BigDecimal(tpsArray.length), 5, BigDecimal.ROUND_HALF_UP);
-                list.add(date.getTime() + "," + averageTps.toString());
-                dashboardCollectService.getBrokerMap().put(entry.getValue(), list);
-            }
-            log.debug("Broker Collected Data in memory = {}" + JsonUtil.obj2String(dashboardCollectService.getBrokerMap().asMap()));
         } catch (Exception e) {
             Throwables.throwIfUnchecked(e);
             throw new RuntimeException(e);
         }
     }
 
-    private KVTable fetchBrokerRuntimeStats(String brokerAddr, Integer retryTime) {
-        if (retryTime == 0) {
-            return null;
-        }
-        try {
-            return mqAdminExt.fetchBrokerRuntimeStats(brokerAddr);
-        } catch (Exception e) {
-            try {
-                Thread.sleep(1000);
-            } catch (InterruptedException e1) {
-                Throwables.throwIfUnchecked(e1);
-                throw new RuntimeException(e1);
-            }
-            fetchBrokerRuntimeStats(brokerAddr, retryTime - 1);
-            Throwables.throwIfUnchecked(e);
-            throw new RuntimeException(e);
-        }
-    }
-
     @Scheduled(cron = "0/5 * * * * ?")
     public void saveData() {
         if (!rmqConfigure.isEnableDashBoardCollect()) {
             return;
         }
-        //one day refresh cache one time
-        String dataLocationPath = rmqConfigure.getDashboardCollectData();
-        DateFormat format = new SimpleDateFormat("yyyy-MM-dd");
-        String nowDateStr = format.format(new Date());
-        String currentDateStr = format.format(currentDate);
-        if (!currentDateStr.equals(nowDateStr)) {
-            dashboardCollectService.getBrokerMap().invalidateAll();
-            dashboardCollectService.getTopicMap().invalidateAll();
-            currentDate = new Date();
-        }
-        File brokerFile = new File(dataLocationPath + nowDateStr + ".json");
-        File topicFile = new File(dataLocationPath + nowDateStr + "_topic" + ".json");
-        try {
-            Map<String, List<String>> brokerFileMap;
-            Map<String, List<String>> topicFileMap;
-            if (brokerFile.exists()) {
-                brokerFileMap = dashboardCollectService.jsonDataFile2map(brokerFile);
-            } else {
-                brokerFileMap = Maps.newHashMap();
-                Files.createParentDirs(brokerFile);
-            }
-
-            if (topicFile.exists()) {
-                topicFileMap = dashboardCollectService.jsonDataFile2map(topicFile);
-            } else {
-                topicFileMap = Maps.newHashMap();
-                Files.createParentDirs(topicFile);
-            }
-
-            brokerFile.createNewFile();
-            topicFile.createNewFile();
-
-            writeFile(dashboardCollectService.getBrokerMap(), brokerFileMap, brokerFile);
-            writeFile(dashboardCollectService.getTopicMap(), topicFileMap, topicFile);
-            log.debug("Broker Collected Data in memory = {}" + JsonUtil.obj2String(dashboardCollectService.getBrokerMap().asMap()));
-            log.debug("Topic Collected Data in memory = {}" + JsonUtil.obj2String(dashboardCollectService.getTopicMap().asMap()));
-
-        } catch (IOException e) {
-            Throwables.throwIfUnchecked(e);
-            throw new RuntimeException(e);
-        }
-    }
-
-    private void writeFile(LoadingCache<String, List<String>> map, Map<String, List<String>> fileMap,
-                           File file) throws IOException {
-        Map<String, List<String>> newMap = map.asMap();
-        Map<String, List<String>> resultMap = Maps.newHashMap();
-        if (fileMap.size() == 0) {
-            resultMap = newMap;
-        } else {
-            for (Map.Entry<String, List<String>> entry : fileMap.entrySet()) {
-                List<String> oldList = entry.getValue();
-                List<String> newList = newMap.get(entry.getKey());
-                resultMap.put(entry.getKey(), appendData(newList, oldList));
-                if (newList == null || newList.size() == 0) {
-                    map.put(entry.getKey(), appendData(newList, oldList));
-                }
-            }
-
-            for (Map.Entry<String, List<String>> entry : newMap.entrySet()) {
-                List<String> oldList = fileMap.get(entry.getKey());
-                if (oldList == null || oldList.size() == 0) {
-                    resultMap.put(entry.getKey(), entry.getValue());
-                }
-            }
-        }
-        Files.write(JsonUtil.obj2String(resultMap).getBytes(), file);
-    }
-
-    private List<String> appendData(List<String> newTpsList, List<String> oldTpsList) {
-        List<String> result = Lists.newArrayList();
-        if (newTpsList == null || newTpsList.size() == 0) {
-            return oldTpsList;
-        }
-        if (oldTpsList == null || oldTpsList.size() == 0) {
-            return newTpsList;
-        }
-        String oldLastTps = oldTpsList.get(oldTpsList.size() - 1);
-        Long oldLastTimestamp = Long.parseLong(oldLastTps.split(",")[0]);
-        String newFirstTps = newTpsList.get(0);
-        Long newFirstTimestamp = Long.parseLong(newFirstTps.split(",")[0]);
-        if (oldLastTimestamp.longValue() < newFirstTimestamp.longValue()) {
-            result.addAll(oldTpsList);
-            result.addAll(newTpsList);
-            return result;
-        }
-        return newTpsList;
+        // samples are routed to the segment of their own day, no need to reset anything at midnight
+        dashboardCollectService.flushToStore();
     }
 
     private void addSystemTopic() throws Exception {
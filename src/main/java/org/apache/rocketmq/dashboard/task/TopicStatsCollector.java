@@ -0,0 +1,414 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.rocketmq.dashboard.task;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.rocketmq.common.MixAll;
+import org.apache.rocketmq.common.stats.Stats;
+import org.apache.rocketmq.dashboard.config.CollectExecutorConfig;
+import org.apache.rocketmq.dashboard.service.DashboardCollectService;
+import org.apache.rocketmq.dashboard.service.TopicRouteCache;
+import org.apache.rocketmq.remoting.protocol.body.BrokerStatsData;
+import org.apache.rocketmq.remoting.protocol.body.GroupList;
+import org.apache.rocketmq.remoting.protocol.route.BrokerData;
+import org.apache.rocketmq.remoting.protocol.route.TopicRouteData;
+import org.apache.rocketmq.tools.admin.MQAdminExt;
+import org.apache.rocketmq.tools.command.stats.StatsAllSubCommand;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Collects the per-minute topic statistics of the dashboard.
+ * <p>
+ * Every cycle first resolves which master brokers host which topic, from the routes of {@link TopicRouteCache}
+ * which are refreshed in the background, and which groups consume which topic (refreshed every few minutes
+ * only). The stats requests
+ * are then grouped per broker and run on {@code collectExecutor}, at most
+ * {@link CollectExecutorConfig#getBrokerConcurrency()} at a time for one broker.
+ * <p>
+ * Only one cycle runs at a time, a tick arriving while the previous cycle is still running is skipped.
+ * A cycle is bounded by {@link CollectExecutorConfig#getCycleDeadline()}: topics are requested in the
+ * order of their traffic in the previous cycle, and a topic whose stats were not fetched from every
+ * broker hosting it before the deadline gets no sample for that minute instead of a partial one.
+ * <p>
+ * A topic whose route cannot be looked up keeps the brokers of its last known route. If it never had one, the
+ * brokers hosting it are unknown and only that topic is skipped, since its total could be partial.
+ */
+@Slf4j
+@Component
+public class TopicStatsCollector {
+
+    private static final long TOPIC_GROUP_REFRESH_INTERVAL_MS = TimeUnit.MINUTES.toMillis(10);
+
+    @Resource
+    private MQAdminExt mqAdminExt;
+
+    @Resource
+    private TopicRouteCache topicRouteCache;
+
+    @Resource
+    private DashboardCollectService dashboardCollectService;
+
+    @Resource
+    private ExecutorService collectExecutor;
+
+    @Resource
+    private CollectExecutorConfig collectExecutorConfig;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    private volatile Map<String, Set<String>> topicGroups = Collections.emptyMap();
+
+    /**
+     * master brokers of every topic in the last cycle its route was looked up
+     */
+    private final Map<String, Set<String>> lastTopicBrokers = new ConcurrentHashMap<>();
+
+    private volatile long topicGroupsTimestamp;
+
+    private volatile CollectCycleStats lastCycle = new CollectCycleStats(0);
+
+    private final AtomicReference<CompletableFuture<CollectCycleStats>> runningCycle = new AtomicReference<>();
+
+    private final AtomicLong skippedCycles = new AtomicLong();
+
+    /**
+     * inTps + outTps of every topic in the last cycle that sampled it
+     */
+    private volatile Map<String, Double> topicTraffic = Collections.emptyMap();
+
+    @PostConstruct
+    public void registerMetrics() {
+        if (meterRegistry == null) {
+            return;
+        }
+        Gauge.builder("rocketmq.dashboard.collect.topic.duration", this, c -> c.getLastCycle().getDurationMs())
+            .description("Duration in milliseconds of the last topic collection cycle")
+            .register(meterRegistry);
+        Gauge.builder("rocketmq.dashboard.collect.topic.rpc", this, c -> c.getLastCycle().getRpcCount())
+            .description("Admin RPCs issued by the last topic collection cycle")
+            .register(meterRegistry);
+        Gauge.builder("rocketmq.dashboard.collect.topic.rpc.failures", this, c -> c.getLastCycle().getRpcFailures())
+            .description("Failed admin RPCs of the last topic collection cycle")
+            .register(meterRegistry);
+        Gauge.builder("rocketmq.dashboard.collect.topic.collected", this, c -> c.getLastCycle().getCollectedTopics())
+            .description("Topics sampled by the last topic collection cycle")
+            .register(meterRegistry);
+        Gauge.builder("rocketmq.dashboard.collect.topic.completion", this, c -> c.getLastCycle().getCompletionRatio())
+            .description("Share of the topics sampled by the last topic collection cycle")
+            .register(meterRegistry);
+        Gauge.builder("rocketmq.dashboard.collect.topic.skipped", this, TopicStatsCollector::getSkippedCycles)
+            .description("Topic collection cycles skipped because the previous one was still running")
+            .register(meterRegistry);
+        Gauge.builder("rocketmq.dashboard.collect.topic.skipped.topics", this, c -> c.getLastCycle().getSkippedTopics())
+            .description("Topics left out of the last topic collection cycle because the brokers hosting them are unknown")
+            .register(meterRegistry);
+    }
+
+    public CollectCycleStats getLastCycle() {
+        return lastCycle;
+    }
+
+    public long getSkippedCycles() {
+        return skippedCycles.get();
+    }
+
+    /**
+     * Start a collection cycle for the given topics without blocking the caller.
+     *
+     * @return the new cycle, or the cycle still running if the previous one has not finished yet
+     */
+    public CompletableFuture<CollectCycleStats> collect(Set<String> topics) {
+        CompletableFuture<CollectCycleStats> running = runningCycle.get();
+        if (running != null && !running.isDone()) {
+            skippedCycles.incrementAndGet();
+            log.warn("Topic collection cycle skipped, the previous cycle is still running");
+            return running;
+        }
+        CompletableFuture<CollectCycleStats> started = new CompletableFuture<>();
+        if (!runningCycle.compareAndSet(running, started)) {
+            skippedCycles.incrementAndGet();
+            return runningCycle.get();
+        }
+        runCycle(topics).whenComplete((stats, e) -> {
+            if (e != null) {
+                started.completeExceptionally(e);
+            } else {
+                started.complete(stats);
+            }
+        });
+        return started;
+    }
+
+    private CompletableFuture<CollectCycleStats> runCycle(Set<String> topics) {
+        long cycleDeadline = collectExecutorConfig.getCycleDeadline();
+        CollectCycleStats stats = new CollectCycleStats(topics.size(), cycleDeadline);
+        Map<String, Set<String>> brokerTopics = new ConcurrentHashMap<>();
+        Map<String, TopicCounter> counters = new ConcurrentHashMap<>();
+        lastTopicBrokers.keySet().retainAll(topics);
+        Map<String, Double> traffic = topicTraffic;
+        Comparator<String> byTraffic = Comparator.comparing((String topic) -> traffic.getOrDefault(topic, 0D)).reversed();
+        return fanOut(new ArrayList<>(topics), collectExecutorConfig.getCoreSize(), stats,
+                topic -> loadTopicBrokers(topic, brokerTopics, stats))
+            .thenCompose(v -> {
+                if (stats.getSkippedTopics() > 0) {
+                    log.warn("The brokers of {} topics are unknown, they get no sample this cycle", stats.getSkippedTopics());
+                }
+                return refreshTopicGroups(topics, stats);
+            })
+            .thenCompose(groups -> {
+                for (Set<String> hosted : brokerTopics.values()) {
+                    for (String topic : hosted) {
+                        counters.computeIfAbsent(topic, k -> new TopicCounter()).pendingBrokers++;
+                    }
+                }
+                List<CompletableFuture<Void>> futures = new ArrayList<>();
+                for (Map.Entry<String, Set<String>> entry : brokerTopics.entrySet()) {
+                    String brokerAddr = entry.getKey();
+                    List<String> hosted = new ArrayList<>(entry.getValue());
+                    hosted.sort(byTraffic);
+                    futures.add(fanOut(hosted, collectExecutorConfig.getBrokerConcurrency(), stats,
+                        topic -> collectTopic(brokerAddr, topic, groups.get(topic), counters.get(topic), stats)));
+                }
+                return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+            })
+            .orTimeout(cycleDeadline, TimeUnit.MILLISECONDS)
+            .handle((v, e) -> {
+                if (e instanceof TimeoutException) {
+                    stats.markDeadlineExceeded();
+                }
+                if (stats.isDeadlineExceeded()) {
+                    log.warn("Topic collection cycle exceeded its deadline of {}ms", cycleDeadline);
+                } else if (e != null) {
+                    log.error("Topic collection cycle failed", e);
+                }
+                Map<String, Double> collectedTraffic = new HashMap<>();
+                for (Map.Entry<String, TopicCounter> entry : counters.entrySet()) {
+                    TopicCounter counter = entry.getValue();
+                    synchronized (counter) {
+                        if (counter.pendingBrokers > 0) {
+                            continue;
+                        }
+                        dashboardCollectService.addTopicSample(entry.getKey(), stats.getStartTimestamp(),
+                            counter.inTps, counter.inMsgCntToday, counter.outTps, counter.outMsgCntToday);
+                        collectedTraffic.put(entry.getKey(), counter.inTps + counter.outTps);
+                    }
+                    stats.recordCollectedTopic();
+                }
+                updateTopicTraffic(topics, collectedTraffic);
+                stats.finish();
+                lastCycle = stats;
+                if (stats.getMissedTopics() > 0) {
+                    log.warn("Topic collection cycle finished without a sample for {} topics: {}", stats.getMissedTopics(), stats);
+                } else {
+                    log.info("Topic collection cycle finished: {}", stats);
+                }
+                return stats;
+            });
+    }
+
+    private void updateTopicTraffic(Set<String> topics, Map<String, Double> collectedTraffic) {
+        Map<String, Double> previous = topicTraffic;
+        Map<String, Double> traffic = new HashMap<>(collectedTraffic);
+        for (String topic : topics) {
+            Double tps = previous.get(topic);
+            if (tps != null) {
+                traffic.putIfAbsent(topic, tps);
+            }
+        }
+        topicTraffic = traffic;
+    }
+
+    /**
+     * Add the topic to the master brokers of its route. The route is usually served from the cache, so the lookup
+     * is not counted as an RPC of the cycle.
+     */
+    private void loadTopicBrokers(String topic, Map<String, Set<String>> brokerTopics, CollectCycleStats stats) {
+        Set<String> brokers;
+        try {
+            TopicRouteData route = topicRouteCache.get(topic);
+            brokers = new HashSet<>();
+            for (BrokerData brokerData : route.getBrokerDatas()) {
+                String masterAddr = brokerData.getBrokerAddrs().get(MixAll.MASTER_ID);
+                if (masterAddr != null) {
+                    brokers.add(masterAddr);
+                }
+            }
+            lastTopicBrokers.put(topic, brokers);
+        } catch (Exception e) {
+            brokers = lastTopicBrokers.get(topic);
+            if (brokers == null) {
+                stats.recordSkippedTopic();
+                log.warn("Exception caught: route of topic [{}] failed and was never loaded", topic, e);
+                return;
+            }
+            log.warn("Exception caught: route of topic [{}] failed, using its brokers of the last cycle", topic, e);
+        }
+        for (String brokerAddr : brokers) {
+            brokerTopics.computeIfAbsent(brokerAddr, key -> ConcurrentHashMap.newKeySet()).add(topic);
+        }
+    }
+
+    /**
+     * Consumer groups of a topic change rarely, they are only looked up again every few minutes
+     * and for topics that were not known yet.
+     */
+    private CompletableFuture<Map<String, Set<String>>> refreshTopicGroups(Set<String> topics, CollectCycleStats stats) {
+        Map<String, Set<String>> current = topicGroups;
+        boolean expired = System.currentTimeMillis() - topicGroupsTimestamp > TOPIC_GROUP_REFRESH_INTERVAL_MS;
+        List<String> toQuery = new ArrayList<>();
+        for (String topic : topics) {
+            if (expired || !current.containsKey(topic)) {
+                toQuery.add(topic);
+            }
+        }
+        if (toQuery.isEmpty()) {
+            return CompletableFuture.completedFuture(current);
+        }
+        Map<String, Set<String>> refreshed = new ConcurrentHashMap<>();
+        for (String topic : topics) {
+            Set<String> groups = current.get(topic);
+            if (groups != null) {
+                refreshed.put(topic, groups);
+            }
+        }
+        return fanOut(toQuery, collectExecutorConfig.getCoreSize(), stats, topic -> {
+            try {
+                GroupList groupList = mqAdminExt.queryTopicConsumeByWho(topic);
+                stats.recordRpc(true);
+                refreshed.put(topic, groupList == null ? Collections.emptySet() : groupList.getGroupList());
+            } catch (Exception e) {
+                stats.recordRpc(false);
+                log.warn("Exception caught: mqAdminExt queryTopicConsumeByWho failed, topic [{}]", topic, e);
+            }
+        }).thenApply(v -> {
+            topicGroups = refreshed;
+            if (expired) {
+                topicGroupsTimestamp = System.currentTimeMillis();
+            }
+            return refreshed;
+        });
+    }
+
+    private void collectTopic(String brokerAddr, String topic, Set<String> groups, TopicCounter counter,
+                              CollectCycleStats stats) {
+        try {
+            BrokerStatsData bsd = mqAdminExt.viewBrokerStatsData(brokerAddr, Stats.TOPIC_PUT_NUMS, topic);
+            stats.recordRpc(true);
+            counter.addIn(bsd.getStatsMinute().getTps(), StatsAllSubCommand.compute24HourSum(bsd));
+        } catch (Exception e) {
+            stats.recordRpc(false);
+            log.warn("Exception caught: mqAdminExt get broker stats data TOPIC_PUT_NUMS failed, topic [{}]", topic, e);
+        }
+        if (groups != null) {
+            for (String group : groups) {
+                try {
+                    String statsKey = String.format("%s@%s", topic, group);
+                    BrokerStatsData bsd = mqAdminExt.viewBrokerStatsData(brokerAddr, Stats.GROUP_GET_NUMS, statsKey);
+                    stats.recordRpc(true);
+                    counter.addOut(bsd.getStatsMinute().getTps(), StatsAllSubCommand.compute24HourSum(bsd));
+                } catch (Exception e) {
+                    stats.recordRpc(false);
+                    log.warn("Exception caught: mqAdminExt get broker stats data GROUP_GET_NUMS failed, topic [{}], group [{}]", topic, group, e);
+                }
+            }
+        }
+        counter.brokerDone();
+    }
+
+    /**
+     * Run the action for every item on collectExecutor, using at most {@code parallelism} tasks that take
+     * the items in list order. Items not started before the deadline of the cycle are skipped.
+     */
+    private <T> CompletableFuture<Void> fanOut(List<T> items, int parallelism, CollectCycleStats stats, Consumer<T> action) {
+        if (items.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        Queue<T> queue = new ConcurrentLinkedQueue<>(items);
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < Math.min(Math.max(parallelism, 1), items.size()); i++) {
+            try {
+                futures.add(CompletableFuture.runAsync(() -> {
+                    T item;
+                    while (!stats.isOverdue() && (item = queue.poll()) != null) {
+                        action.accept(item);
+                    }
+                }, collectExecutor));
+            } catch (RejectedExecutionException e) {
+                // the tasks already submitted drain the queue, the cycle only runs with less parallelism
+                log.warn("collectExecutor is saturated, running with {} of {} tasks", futures.size(), parallelism);
+                break;
+            }
+        }
+        if (futures.isEmpty()) {
+            CompletableFuture<Void> rejected = new CompletableFuture<>();
+            rejected.completeExceptionally(new RejectedExecutionException("collectExecutor is saturated"));
+            return rejected;
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+    }
+
+    private static class TopicCounter {
+        private double inTps;
+        private long inMsgCntToday;
+        private double outTps;
+        private long outMsgCntToday;
+        /**
+         * brokers hosting the topic whose stats were not fetched yet, only complete topics get a sample
+         */
+        private int pendingBrokers;
+
+        synchronized void brokerDone() {
+            pendingBrokers--;
+        }
+
+        synchronized void addIn(double tps, long msgCntToday) {
+            inTps += tps;
+            inMsgCntToday += msgCntToday;
+        }
+
+        synchronized void addOut(double tps, long msgCntToday) {
+            outTps += tps;
+            outMsgCntToday += msgCntToday;
+        }
+    }
+}
@@ -17,21 +17,53 @@
 package org.apache.rocketmq.dashboard.util;
 
 import com.alibaba.excel.EasyExcel;
+import com.alibaba.excel.ExcelWriter;
 import com.alibaba.excel.support.ExcelTypeEnum;
+import com.alibaba.excel.write.metadata.WriteSheet;
 import com.alibaba.excel.write.metadata.style.WriteCellStyle;
 import com.alibaba.excel.write.metadata.style.WriteFont;
 import com.alibaba.excel.write.style.HorizontalCellStyleStrategy;
 import jakarta.servlet.http.HttpServletResponse;
 import org.apache.poi.ss.usermodel.HorizontalAlignment;
 
+import java.io.File;
 import java.io.OutputStream;
 import java.net.URLEncoder;
+import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.List;
 
 public class ExcelUtil {
 
     public static void writeExcel(HttpServletResponse response, List<? extends Object> data, String fileName,
                                   String sheetName, Class clazz) throws Exception {
+        EasyExcel.write(getOutputStream(fileName, response), clazz)
+                .excelType(ExcelTypeEnum.XLSX).sheet(sheetName).registerWriteHandler(cellStyleStrategy()).doWrite(data);
+    }
+
+    /**
+     * Open a workbook that is written to the response while the rows are added, for exports too big to be
+     * held in memory. The workbook is complete once the writer is closed.
+     */
+    public static <T> ExcelRowWriter<T> openExcel(HttpServletResponse response, String fileName,
+                                                  String sheetName, Class<T> clazz) throws Exception {
+        return openExcel(getOutputStream(fileName, response), sheetName, clazz);
+    }
+
+    public static <T> ExcelRowWriter<T> openExcel(OutputStream outputStream, String sheetName, Class<T> clazz) {
+        ExcelWriter excelWriter = EasyExcel.write(outputStream, clazz)
+                .excelType(ExcelTypeEnum.XLSX).registerWriteHandler(cellStyleStrategy()).build();
+        return new ExcelRowWriter<>(excelWriter, EasyExcel.writerSheet(sheetName).build());
+    }
+
+    /**
+     * Send a workbook written to a file before, e.g. by a background export.
+     */
+    public static void writeExcelFile(HttpServletResponse response, File file, String fileName) throws Exception {
+        Files.copy(file.toPath(), getOutputStream(fileName, response));
+    }
+
+    private static HorizontalCellStyleStrategy cellStyleStrategy() {
         WriteCellStyle headWriteCellStyle = new WriteCellStyle();
         WriteFont writeFont = new WriteFont();
         writeFont.setFontHeightInPoints((short) 12);
@@ -42,9 +74,7 @@ public class ExcelUtil {
         WriteCellStyle contentWriteCellStyle = new WriteCellStyle();
         contentWriteCellStyle.setWriteFont(writeFont);
         contentWriteCellStyle.setHorizontalAlignment(HorizontalAlignment.CENTER);
-        HorizontalCellStyleStrategy horizontalCellStyleStrategy = new HorizontalCellStyleStrategy(headWriteCellStyle, contentWriteCellStyle);
-        EasyExcel.write(getOutputStream(fileName, response), clazz)
-                .excelType(ExcelTypeEnum.XLSX).sheet(sheetName).registerWriteHandler(horizontalCellStyleStrategy).doWrite(data);
+        return new HorizontalCellStyleStrategy(headWriteCellStyle, contentWriteCellStyle);
     }
 
     private static OutputStream getOutputStream(String fileName, HttpServletResponse response) throws Exception {
@@ -54,4 +84,46 @@ public class ExcelUtil {
         response.setHeader("Content-Disposition", "attachment;filename=" + fileName + ".xlsx");
         return response.getOutputStream();
     }
+
+    /**
+     * Buffers a few rows at a time, the workbook itself keeps only a small window of rows in memory.
+     */
+    public static class ExcelRowWriter<T> implements AutoCloseable {
+
+        private static final int WRITE_BATCH_SIZE = 100;
+
+        private final ExcelWriter excelWriter;
+
+        private final WriteSheet writeSheet;
+
+        private final List<T> rows = new ArrayList<>(WRITE_BATCH_SIZE);
+
+        private ExcelRowWriter(ExcelWriter excelWriter, WriteSheet writeSheet) {
+            this.excelWriter = excelWriter;
+            this.writeSheet = writeSheet;
+        }
+
+        public void write(T row) {
+            rows.add(row);
+            if (rows.size() >= WRITE_BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            excelWriter.write(rows, writeSheet);
+            rows.clear();
+        }
+
+        @Override
+        public void close() {
+            try {
+                if (!rows.isEmpty()) {
+                    flush();
+                }
+            } finally {
+                excelWriter.finish();
+            }
+        }
+    }
 }
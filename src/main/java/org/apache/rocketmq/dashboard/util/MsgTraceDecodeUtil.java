@@ -26,8 +26,12 @@ import org.apache.rocketmq.common.message.MessageType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 import static org.apache.rocketmq.client.trace.TraceType.Pub;
 
@@ -162,6 +166,20 @@ public class MsgTraceDecodeUtil {
         return resList;
     }
 
+    /**
+     * Decode the trace contexts of a trace message body lazily, straight from the bytes.
+     * <p>
+     * Same result as {@link #decoderFromTraceDataString(String)} on the decoded body, but the separators are
+     * found without splitting the body into strings, and with a msgId given the contexts of other messages are
+     * skipped before any of their fields is decoded.
+     *
+     * @param msgId only the contexts of this message are returned, null for all
+     */
+    public static Iterator<TraceContext> decoderFromTraceData(byte[] traceData, String msgId) {
+        return new TraceDataCursor(traceData == null ? new byte[0] : traceData,
+                msgId == null ? null : msgId.getBytes(StandardCharsets.UTF_8));
+    }
+
     private static TraceContext initTraceContext() {
         TraceContext traceContext = new TraceContext();
         traceContext.setTimeStamp(0L);
@@ -169,4 +187,271 @@ public class MsgTraceDecodeUtil {
         traceContext.setRequestId(null);
         return traceContext;
     }
+
+    private static final class TraceDataCursor implements Iterator<TraceContext> {
+        private static final byte[] PUB = Pub.name().getBytes(StandardCharsets.UTF_8);
+        private static final byte[] SUB_BEFORE = TraceType.SubBefore.name().getBytes(StandardCharsets.UTF_8);
+        private static final byte[] SUB_AFTER = TraceType.SubAfter.name().getBytes(StandardCharsets.UTF_8);
+        private static final byte[] END_TRANSACTION = TraceType.EndTransaction.name().getBytes(StandardCharsets.UTF_8);
+        private static final byte[] TRUE = Boolean.TRUE.toString().getBytes(StandardCharsets.UTF_8);
+
+        private final byte[] data;
+        private final byte[] msgId;
+        private int position;
+        private int[] starts = new int[16];
+        private int[] ends = new int[16];
+        private int fieldCount;
+        private TraceContext next;
+
+        private TraceDataCursor(byte[] data, byte[] msgId) {
+            this.data = data;
+            this.msgId = msgId;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && position < data.length) {
+                next = decodeNextContext();
+            }
+            return next != null;
+        }
+
+        @Override
+        public TraceContext next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            TraceContext context = next;
+            next = null;
+            return context;
+        }
+
+        /**
+         * @return the context at the current position, null if it is skipped
+         */
+        private TraceContext decodeNextContext() {
+            fieldCount = 0;
+            int fieldStart = position;
+            int i = position;
+            for (; i < data.length && data[i] != TraceConstants.FIELD_SPLITOR; i++) {
+                if (data[i] == TraceConstants.CONTENT_SPLITOR) {
+                    addField(fieldStart, i);
+                    fieldStart = i + 1;
+                }
+            }
+            addField(fieldStart, i);
+            position = i + 1;
+            // trailing empty fields are dropped, as String.split does
+            while (fieldCount > 0 && starts[fieldCount - 1] == ends[fieldCount - 1]) {
+                fieldCount--;
+            }
+            if (fieldCount == 0) {
+                return null;
+            }
+            if (fieldEquals(0, PUB)) {
+                return matches(5) ? decodePub() : null;
+            } else if (fieldEquals(0, SUB_BEFORE)) {
+                return matches(5) ? decodeSubBefore() : null;
+            } else if (fieldEquals(0, SUB_AFTER)) {
+                return matches(2) ? decodeSubAfter() : null;
+            } else if (fieldEquals(0, END_TRANSACTION)) {
+                return matches(5) ? decodeEndTransaction() : null;
+            }
+            return null;
+        }
+
+        private TraceContext decodePub() {
+            TraceContext pubContext = initTraceContext();
+            pubContext.setTraceType(Pub);
+            pubContext.setTimeStamp(longField(1));
+            pubContext.setRegionId(stringField(2));
+            pubContext.setGroupName(stringField(3));
+            TraceBean bean = new TraceBean();
+            bean.setTopic(stringField(4));
+            bean.setMsgId(stringField(5));
+            bean.setTags(stringField(6));
+            bean.setKeys(stringField(7));
+            bean.setStoreHost(stringField(8));
+            bean.setBodyLength(intField(9));
+            pubContext.setCostTime(intField(10));
+            bean.setMsgType(MessageType.values()[intField(11)]);
+            // compatible with different version
+            switch (fieldCount) {
+                case TRACE_MSG_PUB_V1_LEN:
+                    break;
+                case TRACE_MSG_PUB_V2_LEN:
+                    pubContext.setSuccess(booleanField(12));
+                    break;
+                case TRACE_MSG_PUB_V3_LEN:
+                    bean.setOffsetMsgId(stringField(12));
+                    pubContext.setSuccess(booleanField(13));
+                    break;
+                case TRACE_MSG_PUB_V4_LEN:
+                    bean.setOffsetMsgId(stringField(12));
+                    pubContext.setSuccess(booleanField(13));
+                    bean.setClientHost(stringField(14));
+                    break;
+                default:
+                    bean.setOffsetMsgId(stringField(12));
+                    pubContext.setSuccess(booleanField(13));
+                    bean.setClientHost(stringField(14));
+                    log.warn("Detect new version trace msg of {} type", Pub.name());
+                    break;
+            }
+            pubContext.setTraceBeans(new ArrayList<TraceBean>(1));
+            pubContext.getTraceBeans().add(bean);
+            return pubContext;
+        }
+
+        private TraceContext decodeSubBefore() {
+            TraceContext subBeforeContext = initTraceContext();
+            subBeforeContext.setTraceType(TraceType.SubBefore);
+            subBeforeContext.setTimeStamp(longField(1));
+            subBeforeContext.setRegionId(stringField(2));
+            subBeforeContext.setGroupName(stringField(3));
+            subBeforeContext.setRequestId(stringField(4));
+            TraceBean bean = new TraceBean();
+            bean.setMsgId(stringField(5));
+            bean.setRetryTimes(intField(6));
+            bean.setKeys(stringField(7));
+            subBeforeContext.setTraceBeans(new ArrayList<TraceBean>(1));
+            subBeforeContext.getTraceBeans().add(bean);
+            return subBeforeContext;
+        }
+
+        private TraceContext decodeSubAfter() {
+            TraceContext subAfterContext = initTraceContext();
+            subAfterContext.setTraceType(TraceType.SubAfter);
+            subAfterContext.setRequestId(stringField(1));
+            TraceBean bean = new TraceBean();
+            bean.setMsgId(stringField(2));
+            bean.setKeys(stringField(5));
+            subAfterContext.setTraceBeans(new ArrayList<TraceBean>(1));
+            subAfterContext.getTraceBeans().add(bean);
+            subAfterContext.setCostTime(intField(3));
+            subAfterContext.setSuccess(booleanField(4));
+            // compatible with different version
+            switch (fieldCount) {
+                case TRACE_MSG_SUBAFTER_V1_LEN:
+                    break;
+                case TRACE_MSG_SUBAFTER_V2_LEN:
+                    subAfterContext.setContextCode(intField(6));
+                    break;
+                case TRACE_MSG_SUBAFTER_V3_LEN:
+                    subAfterContext.setContextCode(intField(6));
+                    subAfterContext.setTimeStamp(longField(7));
+                    subAfterContext.setGroupName(stringField(8));
+                    break;
+                default:
+                    subAfterContext.setContextCode(intField(6));
+                    subAfterContext.setTimeStamp(longField(7));
+                    subAfterContext.setGroupName(stringField(8));
+                    log.warn("Detect new version trace msg of {} type", TraceType.SubAfter.name());
+                    break;
+            }
+            return subAfterContext;
+        }
+
+        private TraceContext decodeEndTransaction() {
+            TraceContext endTransactionContext = initTraceContext();
+            endTransactionContext.setTraceType(TraceType.EndTransaction);
+            endTransactionContext.setTimeStamp(longField(1));
+            endTransactionContext.setRegionId(stringField(2));
+            endTransactionContext.setGroupName(stringField(3));
+            TraceBean bean = new TraceBean();
+            bean.setTopic(stringField(4));
+            bean.setMsgId(stringField(5));
+            bean.setTags(stringField(6));
+            bean.setKeys(stringField(7));
+            bean.setStoreHost(stringField(8));
+            bean.setMsgType(MessageType.values()[intField(9)]);
+            bean.setTransactionId(stringField(10));
+            bean.setTransactionState(LocalTransactionState.valueOf(stringField(11)));
+            bean.setFromTransactionCheck(booleanField(12));
+            endTransactionContext.setTraceBeans(new ArrayList<TraceBean>(1));
+            endTransactionContext.getTraceBeans().add(bean);
+            return endTransactionContext;
+        }
+
+        private void addField(int start, int end) {
+            if (fieldCount == starts.length) {
+                starts = Arrays.copyOf(starts, fieldCount * 2);
+                ends = Arrays.copyOf(ends, fieldCount * 2);
+            }
+            starts[fieldCount] = start;
+            ends[fieldCount] = end;
+            fieldCount++;
+        }
+
+        private boolean matches(int msgIdField) {
+            return msgId == null || msgIdField < fieldCount && fieldEquals(msgIdField, msgId);
+        }
+
+        private boolean fieldEquals(int field, byte[] expected) {
+            int start = starts[field];
+            if (ends[field] - start != expected.length) {
+                return false;
+            }
+            for (int i = 0; i < expected.length; i++) {
+                if (data[start + i] != expected[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void checkField(int field) {
+            if (field >= fieldCount) {
+                throw new ArrayIndexOutOfBoundsException("Index " + field + " out of bounds for length " + fieldCount);
+            }
+        }
+
+        private String stringField(int field) {
+            checkField(field);
+            return new String(data, starts[field], ends[field] - starts[field], StandardCharsets.UTF_8);
+        }
+
+        private boolean booleanField(int field) {
+            checkField(field);
+            int start = starts[field];
+            if (ends[field] - start != TRUE.length) {
+                return false;
+            }
+            for (int i = 0; i < TRUE.length; i++) {
+                if (Character.toLowerCase(data[start + i]) != TRUE[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private int intField(int field) {
+            long value = longField(field);
+            if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+                return Integer.parseInt(stringField(field));
+            }
+            return (int) value;
+        }
+
+        private long longField(int field) {
+            checkField(field);
+            int start = starts[field];
+            int end = ends[field];
+            boolean negative = start < end && data[start] == '-';
+            int i = negative ? start + 1 : start;
+            // long numbers, plus signs and anything unusual are left to Long.parseLong
+            if (i == end || end - i > 18) {
+                return Long.parseLong(stringField(field));
+            }
+            long value = 0;
+            for (; i < end; i++) {
+                int digit = data[i] - '0';
+                if (digit < 0 || digit > 9) {
+                    return Long.parseLong(stringField(field));
+                }
+                value = value * 10 + digit;
+            }
+            return negative ? -value : value;
+        }
+    }
 }
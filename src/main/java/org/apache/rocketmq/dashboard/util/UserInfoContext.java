@@ -17,8 +17,11 @@
 
 package org.apache.rocketmq.dashboard.util;
 
+import org.apache.rocketmq.remoting.protocol.body.UserInfo;
+
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Supplier;
 
 public class UserInfoContext {
 
@@ -35,6 +38,15 @@ public class UserInfoContext {
     }
 
 
+    /**
+     * @return name of the logged in user of the calling thread, null when no login is required
+     */
+    public static String getUsername() {
+        UserInfo userInfo = (UserInfo) get(WebUtil.USER_NAME);
+        return userInfo == null ? null : userInfo.getUsername();
+    }
+
+
     public static Map<String, Object> getAll() {
         return new HashMap<>(USER_THREAD_LOCAL.get());
     }
@@ -44,4 +56,44 @@ public class UserInfoContext {
         USER_THREAD_LOCAL.remove();
     }
 
+    /**
+     * @return the task running with the user info of the calling thread, for tasks handed to a pool whose
+     * admin calls have to use the client of that user
+     */
+    public static Runnable wrap(Runnable task) {
+        return wrap(getAll(), task);
+    }
+
+    /**
+     * @param userInfo user info taken with {@link #getAll()} on the thread serving the user
+     */
+    public static Runnable wrap(Map<String, Object> userInfo, Runnable task) {
+        return () -> runAs(userInfo, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    public static <T> Supplier<T> wrap(Supplier<T> task) {
+        return wrap(getAll(), task);
+    }
+
+    public static <T> Supplier<T> wrap(Map<String, Object> userInfo, Supplier<T> task) {
+        return () -> runAs(userInfo, task);
+    }
+
+    /**
+     * The user info of the thread is restored afterwards, the task may run on the caller's thread when the
+     * pool rejects it.
+     */
+    private static <T> T runAs(Map<String, Object> userInfo, Supplier<T> task) {
+        Map<String, Object> previous = USER_THREAD_LOCAL.get();
+        USER_THREAD_LOCAL.set(new HashMap<>(userInfo));
+        try {
+            return task.get();
+        } finally {
+            USER_THREAD_LOCAL.set(previous);
+        }
+    }
+
 }
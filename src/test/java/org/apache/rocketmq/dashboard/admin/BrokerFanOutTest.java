@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.rocketmq.dashboard.admin;
+
+import org.apache.rocketmq.dashboard.service.client.BrokerFanOut;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+
+public class BrokerFanOutTest {
+
+    @Test
+    public void testPartialResults() {
+        Map<String, String> brokerAddrs = new LinkedHashMap<>();
+        brokerAddrs.put("broker-a", "127.0.0.1:10911");
+        brokerAddrs.put("broker-b", "127.0.0.2:10911");
+        brokerAddrs.put("broker-c", "127.0.0.3:10911");
+        brokerAddrs.put("broker-d", "127.0.0.4:10911");
+        long start = System.currentTimeMillis();
+        BrokerFanOut<String> fanOut = BrokerFanOut.call(brokerAddrs, brokerAddr -> {
+            switch (brokerAddr) {
+                case "127.0.0.1:10911":
+                    return CompletableFuture.completedFuture("a");
+                case "127.0.0.2:10911":
+                    // never answers
+                    return new CompletableFuture<>();
+                case "127.0.0.3:10911":
+                    throw new IllegalStateException("broker-c failed");
+                default:
+                    return CompletableFuture.completedFuture(null);
+            }
+        }, 200);
+        Assert.assertTrue(System.currentTimeMillis() - start < 2000);
+        Assert.assertEquals(1, fanOut.getResults().size());
+        Assert.assertEquals("a", fanOut.getResults().get("broker-a"));
+        Assert.assertEquals(Arrays.asList("broker-b", "broker-c"), Arrays.asList(fanOut.getFailures().keySet().toArray()));
+        Assert.assertTrue(fanOut.getFailures().get("broker-b") instanceof TimeoutException);
+        Assert.assertTrue(fanOut.getFailures().get("broker-c") instanceof IllegalStateException);
+    }
+
+    @Test
+    public void testSlowestBrokerBoundsTheLatency() {
+        long start = System.currentTimeMillis();
+        BrokerFanOut<Integer> fanOut = BrokerFanOut.call(Arrays.asList("127.0.0.1:10911", "127.0.0.2:10911", "127.0.0.3:10911"),
+                brokerAddr -> CompletableFuture.supplyAsync(() -> {
+                    try {
+                        Thread.sleep(300);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return brokerAddr.length();
+                }), 3000);
+        Assert.assertTrue(System.currentTimeMillis() - start < 900);
+        Assert.assertEquals(3, fanOut.getResults().size());
+        Assert.assertTrue(fanOut.getFailures().isEmpty());
+    }
+}
@@ -17,85 +17,79 @@
 
 package org.apache.rocketmq.dashboard.admin;
 
-import org.apache.commons.pool2.impl.GenericObjectPool;
 import org.apache.rocketmq.dashboard.aspect.admin.MQAdminAspect;
-import org.apache.rocketmq.dashboard.config.RMQConfigure;
-import org.apache.rocketmq.tools.admin.DefaultMQAdminExt;
+import org.apache.rocketmq.dashboard.service.client.MQAdminInstance;
 import org.apache.rocketmq.tools.admin.MQAdminExt;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.reflect.MethodSignature;
-import org.junit.Before;
 import org.junit.Test;
-import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.Mock;
-import org.mockito.MockitoAnnotations;
-import org.mockito.junit.jupiter.MockitoExtension;
-
-import java.lang.reflect.Field;
-import java.lang.reflect.Method;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.fail;
-import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 public class MQAdminAspectTest {
 
-    @Mock
-    private RMQConfigure rmqConfigure;
-
-    @Before
-    public void setUp() {
-        MockitoAnnotations.initMocks(this);
-        when(rmqConfigure.isLoginRequired()).thenReturn(false);
-    }
-
     @Test
     public void testAroundMQAdminMethod() throws Throwable {
         MQAdminAspect mqAdminAspect = new MQAdminAspect();
-        Field field = mqAdminAspect.getClass().getDeclaredField("rmqConfigure");
-        field.setAccessible(true);
-        field.set(mqAdminAspect, rmqConfigure);
+        MQAdminClientManager mqAdminClientManager = mock(MQAdminClientManager.class);
+        ReflectionTestUtils.setField(mqAdminAspect, "mqAdminClientManager", mqAdminClientManager);
         ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
         MethodSignature signature = mock(MethodSignature.class);
-        Method method = mock(Method.class);
-        when(signature.getMethod()).thenReturn(method);
+        when(signature.getName()).thenReturn("examineTopicStats");
         when(joinPoint.getSignature()).thenReturn(signature);
 
-        GenericObjectPool<MQAdminExt> mqAdminExtPool = mock(GenericObjectPool.class);
-        // 1. Mock borrowObject() 行为：第一次抛异常，第二次返回 DefaultMQAdminExt
-        when(mqAdminExtPool.borrowObject())
-                .thenThrow(new RuntimeException("borrowObject exception"))
-                .thenReturn(new DefaultMQAdminExt());
+        MQAdminExt mqAdminExt = mock(MQAdminExt.class);
+        when(mqAdminClientManager.resolve("examineTopicStats"))
+                .thenThrow(new RuntimeException("resolve exception"))
+                .thenReturn(mqAdminExt);
 
-        // 2. Mock returnObject() 行为：第一次什么都不做，第二次抛异常
-        doNothing().when(mqAdminExtPool).returnObject(any());
-        doThrow(new RuntimeException("returnObject exception"))
-                .when(mqAdminExtPool).returnObject(any());
-
-        // 3. 通过反射注入 Mock 对象
-        field = mqAdminAspect.getClass().getDeclaredField("mqAdminExtPool");
-        field.setAccessible(true);
-        field.set(mqAdminAspect, mqAdminExtPool);
-
-        // 4. 第一次调用 aroundMQAdminMethod，预期 borrowObject() 抛异常
+        // 1. the client cannot be resolved
         try {
             mqAdminAspect.aroundMQAdminMethod(joinPoint);
             fail("Expected RuntimeException but no exception was thrown");
         } catch (RuntimeException e) {
-            assertEquals("borrowObject exception", e.getMessage());
+            assertEquals("resolve exception", e.getMessage());
         }
 
-        // 5. 第二次调用 aroundMQAdminMethod，预期 borrowObject() 成功，但 returnObject() 抛异常
+        // 2. the shared client is set for the call and cleared afterwards, also when the call fails
+        when(joinPoint.proceed()).thenAnswer(invocation -> {
+            assertSame(mqAdminExt, MQAdminInstance.threadLocalMQAdminExt());
+            throw new RuntimeException("proceed exception");
+        });
         try {
             mqAdminAspect.aroundMQAdminMethod(joinPoint);
             fail("Expected RuntimeException but no exception was thrown");
         } catch (RuntimeException e) {
-            assertEquals("returnObject exception", e.getMessage());
+            assertEquals("proceed exception", e.getMessage());
         }
+        assertNull(MQAdminInstance.currentMQAdminExt());
+    }
+
+    @Test
+    public void testNestedMQAdminMethodKeepsOuterClient() throws Throwable {
+        MQAdminAspect mqAdminAspect = new MQAdminAspect();
+        MQAdminClientManager mqAdminClientManager = mock(MQAdminClientManager.class);
+        ReflectionTestUtils.setField(mqAdminAspect, "mqAdminClientManager", mqAdminClientManager);
+        ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+        MethodSignature signature = mock(MethodSignature.class);
+        when(signature.getName()).thenReturn("examineTopicStats");
+        when(joinPoint.getSignature()).thenReturn(signature);
+        MQAdminExt inner = mock(MQAdminExt.class);
+        when(mqAdminClientManager.resolve("examineTopicStats")).thenReturn(inner);
 
-        // 6. 验证 borrowObject() 和 returnObject() 各调用了两次
-        verify(mqAdminExtPool, times(2)).borrowObject();
-        verify(mqAdminExtPool, times(1)).returnObject(any());
+        MQAdminExt outer = mock(MQAdminExt.class);
+        MQAdminInstance.setCurrentMQAdminExt(outer);
+        try {
+            mqAdminAspect.aroundMQAdminMethod(joinPoint);
+            assertSame(outer, MQAdminInstance.currentMQAdminExt());
+        } finally {
+            MQAdminInstance.clearCurrentMQAdminExt();
+        }
     }
 }
@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.rocketmq.dashboard.admin;
+
+import org.apache.rocketmq.dashboard.config.RMQConfigure;
+import org.apache.rocketmq.tools.admin.MQAdminExt;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class MQAdminClientManagerTest {
+
+    private MQAdminClientManager mqAdminClientManager;
+
+    private MQAdminFactory mqAdminFactory;
+
+    @Before
+    public void init() throws Exception {
+        RMQConfigure rmqConfigure = mock(RMQConfigure.class);
+        when(rmqConfigure.getAccessKey()).thenReturn("rocketmq");
+        when(rmqConfigure.getSecretKey()).thenReturn("12345678");
+        when(rmqConfigure.isLoginRequired()).thenReturn(false);
+        mqAdminClientManager = new MQAdminClientManager(rmqConfigure);
+        mqAdminFactory = mock(MQAdminFactory.class);
+        when(mqAdminFactory.getInstance(any(), any()))
+                .thenAnswer(invocation -> mock(MQAdminExt.class));
+        ReflectionTestUtils.setField(mqAdminClientManager, "mqAdminFactory", mqAdminFactory);
+    }
+
+    @After
+    public void destroy() {
+        mqAdminClientManager.shutdownAll();
+    }
+
+    @Test
+    public void testSharedClientPerCredentials() throws Exception {
+        MQAdminExt mqAdminExt = mqAdminClientManager.resolve("examineTopicStats");
+        Assert.assertSame(mqAdminExt, mqAdminClientManager.resolve("examineBrokerClusterInfo"));
+        Assert.assertSame(mqAdminExt, mqAdminClientManager.getMQAdminExt("rocketmq", "12345678"));
+        Assert.assertNotSame(mqAdminExt, mqAdminClientManager.getMQAdminExt("user", "password"));
+        verify(mqAdminFactory, times(1)).getInstance("rocketmq", "12345678");
+    }
+
+    @Test
+    public void testReset() throws Exception {
+        MQAdminExt mqAdminExt = mqAdminClientManager.resolve("examineTopicStats");
+        mqAdminClientManager.reset();
+        Assert.assertNotSame(mqAdminExt, mqAdminClientManager.resolve("examineTopicStats"));
+        verify(mqAdminFactory, times(2)).getInstance("rocketmq", "12345678");
+    }
+}
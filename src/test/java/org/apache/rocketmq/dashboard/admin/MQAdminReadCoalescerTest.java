@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.rocketmq.dashboard.admin;
+
+import org.apache.rocketmq.dashboard.config.RMQConfigure;
+import org.apache.rocketmq.remoting.protocol.admin.TopicStatsTable;
+import org.apache.rocketmq.remoting.protocol.route.TopicRouteData;
+import org.apache.rocketmq.tools.admin.MQAdminExt;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Mockito.mock;
+
+public class MQAdminReadCoalescerTest {
+
+    private MQAdminReadCoalescer mqAdminReadCoalescer;
+
+    private MQAdminExt mqAdminExt;
+
+    @Before
+    public void init() {
+        RMQConfigure rmqConfigure = new RMQConfigure();
+        rmqConfigure.getAdminReadCacheTtl().put("examineTopicRouteInfo", 60000L);
+        mqAdminReadCoalescer = new MQAdminReadCoalescer(rmqConfigure);
+        mqAdminExt = mock(MQAdminExt.class);
+    }
+
+    @Test
+    public void testConcurrentIdenticalReadsShareOneCall() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        TopicStatsTable topicStatsTable = new TopicStatsTable();
+        MQAdminReadCoalescer.AdminRead read = () -> {
+            calls.incrementAndGet();
+            release.await();
+            return topicStatsTable;
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(10);
+        List<CompletableFuture<Object>> reads = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            reads.add(CompletableFuture.supplyAsync(() -> readQuietly("examineTopicStats", read, "topic_test"), executor));
+        }
+        long deadline = System.currentTimeMillis() + 10000;
+        while (mqAdminReadCoalescer.getMisses("examineTopicStats") + mqAdminReadCoalescer.getCoalesced("examineTopicStats") < 10
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        release.countDown();
+        for (CompletableFuture<Object> future : reads) {
+            Assert.assertSame(topicStatsTable, future.get(10, TimeUnit.SECONDS));
+        }
+        Assert.assertEquals(1, calls.get());
+        Assert.assertEquals(1, mqAdminReadCoalescer.getMisses("examineTopicStats"));
+        Assert.assertEquals(9, mqAdminReadCoalescer.getCoalesced("examineTopicStats"));
+        executor.shutdown();
+
+        // without a ttl the next read goes to the cluster again
+        readQuietly("examineTopicStats", read, "topic_test");
+        Assert.assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void testCachedReadsAndFailures() throws Throwable {
+        AtomicInteger calls = new AtomicInteger();
+        TopicRouteData topicRouteData = new TopicRouteData();
+        MQAdminReadCoalescer.AdminRead read = () -> {
+            calls.incrementAndGet();
+            return topicRouteData;
+        };
+        Assert.assertSame(topicRouteData, mqAdminReadCoalescer.read(mqAdminExt, "examineTopicRouteInfo", new Object[]{"topic_test"}, read));
+        Assert.assertSame(topicRouteData, mqAdminReadCoalescer.read(mqAdminExt, "examineTopicRouteInfo", new Object[]{"topic_test"}, read));
+        Assert.assertEquals(1, calls.get());
+        Assert.assertEquals(1, mqAdminReadCoalescer.getHits("examineTopicRouteInfo"));
+
+        // other arguments or another client do not share the result
+        mqAdminReadCoalescer.read(mqAdminExt, "examineTopicRouteInfo", new Object[]{"topic_other"}, read);
+        mqAdminReadCoalescer.read(mock(MQAdminExt.class), "examineTopicRouteInfo", new Object[]{"topic_test"}, read);
+        Assert.assertEquals(3, calls.get());
+
+        // failures are not cached
+        MQAdminReadCoalescer.AdminRead failing = () -> {
+            calls.incrementAndGet();
+            throw new IllegalStateException("route not found");
+        };
+        for (int i = 0; i < 2; i++) {
+            try {
+                mqAdminReadCoalescer.read(mqAdminExt, "examineTopicRouteInfo", new Object[]{"topic_missing"}, failing);
+                Assert.fail("Expected IllegalStateException but no exception was thrown");
+            } catch (IllegalStateException e) {
+                Assert.assertEquals("route not found", e.getMessage());
+            }
+        }
+        Assert.assertEquals(5, calls.get());
+    }
+
+    private Object readQuietly(String methodName, MQAdminReadCoalescer.AdminRead read, Object... args) {
+        try {
+            return mqAdminReadCoalescer.read(mqAdminExt, methodName, args, read);
+        } catch (Throwable t) {
+            throw new RuntimeException(t);
+        }
+    }
+}
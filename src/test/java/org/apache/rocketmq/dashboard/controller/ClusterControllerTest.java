@@ -16,18 +16,24 @@
  */
 package org.apache.rocketmq.dashboard.controller;
 
+import org.apache.rocketmq.dashboard.service.BrokerRuntimeStatsService;
+import org.apache.rocketmq.dashboard.service.ClusterInfoService;
+import org.apache.rocketmq.dashboard.service.client.MQAdminAsyncClient;
 import org.apache.rocketmq.dashboard.service.impl.ClusterServiceImpl;
 import org.apache.rocketmq.dashboard.util.MockObjectUtil;
 import org.apache.rocketmq.remoting.protocol.body.ClusterInfo;
 import org.apache.rocketmq.remoting.protocol.body.KVTable;
 import org.junit.Test;
 import org.mockito.InjectMocks;
+import org.mockito.Mock;
 import org.mockito.Spy;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
 import java.util.HashMap;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
 
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -41,23 +47,35 @@ public class ClusterControllerTest extends BaseControllerTest {
     @Spy
     private ClusterServiceImpl clusterService;
 
+    @Spy
+    private BrokerRuntimeStatsService brokerRuntimeStatsService;
+
+    @Mock
+    private ClusterInfoService clusterInfoService;
+
+    @Mock
+    private MQAdminAsyncClient mqAdminAsyncClient;
+
     @Test
     public void testList() throws Exception {
         final String url = "/cluster/list.query";
         {
             ClusterInfo clusterInfo = MockObjectUtil.createClusterInfo();
-            when(mqAdminExt.examineBrokerClusterInfo()).thenReturn(clusterInfo);
+            when(clusterInfoService.get()).thenReturn(clusterInfo);
             HashMap<String, String> result = new HashMap<>();
             result.put("commitLogMaxOffset", "78830");
             result.put("commitLogMinOffset", "0");
             KVTable kvTable = new KVTable();
             kvTable.setTable(result);
-            when(mqAdminExt.fetchBrokerRuntimeStats(anyString())).thenReturn(kvTable);
+            when(mqAdminAsyncClient.fetchBrokerRuntimeStats(anyString(), anyLong()))
+                    .thenReturn(CompletableFuture.completedFuture(kvTable));
         }
         requestBuilder = MockMvcRequestBuilders.get(url);
         perform = mockMvc.perform(requestBuilder);
         perform.andExpect(status().isOk())
-                .andExpect(jsonPath("$.data.brokerServer").isMap());
+                .andExpect(jsonPath("$.data.brokerServer").isMap())
+                .andExpect(jsonPath("$.data.brokerServer['broker-a']['0'].commitLogMaxOffset").value("78830"))
+                .andExpect(jsonPath("$.data.statsTimestamp").isNumber());
     }
 
     @Test
@@ -20,26 +20,37 @@ package org.apache.rocketmq.dashboard.controller;
 import com.alibaba.fastjson.JSON;
 import com.google.common.collect.Lists;
 import org.apache.rocketmq.client.exception.MQClientException;
+import org.apache.rocketmq.common.MixAll;
 import org.apache.rocketmq.common.message.MessageQueue;
 import org.apache.rocketmq.dashboard.model.QueueStatInfo;
+import org.apache.rocketmq.dashboard.model.ResetOffsetJob;
 import org.apache.rocketmq.dashboard.model.TopicConsumerInfo;
 import org.apache.rocketmq.dashboard.model.request.ConsumerConfigInfo;
 import org.apache.rocketmq.dashboard.model.request.DeleteSubGroupRequest;
 import org.apache.rocketmq.dashboard.model.request.ResetOffsetRequest;
 import org.apache.rocketmq.dashboard.service.ClusterInfoService;
+import org.apache.rocketmq.dashboard.service.TopicRouteCache;
+import org.apache.rocketmq.dashboard.service.client.MQAdminAsyncClient;
 import org.apache.rocketmq.dashboard.service.impl.ConsumerServiceImpl;
 import org.apache.rocketmq.dashboard.util.MockObjectUtil;
+import org.apache.rocketmq.dashboard.util.UserInfoContext;
+import org.apache.rocketmq.dashboard.util.WebUtil;
 import org.apache.rocketmq.remoting.protocol.ResponseCode;
 import org.apache.rocketmq.remoting.protocol.admin.ConsumeStats;
 import org.apache.rocketmq.remoting.protocol.admin.RollbackStats;
 import org.apache.rocketmq.remoting.protocol.body.ClusterInfo;
 import org.apache.rocketmq.remoting.protocol.body.Connection;
+import org.apache.rocketmq.remoting.protocol.body.ConsumeStatsList;
 import org.apache.rocketmq.remoting.protocol.body.ConsumerConnection;
 import org.apache.rocketmq.remoting.protocol.body.ConsumerRunningInfo;
 import org.apache.rocketmq.remoting.protocol.body.SubscriptionGroupWrapper;
+import org.apache.rocketmq.remoting.protocol.body.UserInfo;
 import org.apache.rocketmq.remoting.protocol.heartbeat.ConsumeType;
 import org.apache.rocketmq.remoting.protocol.heartbeat.MessageModel;
 import org.apache.rocketmq.remoting.protocol.subscription.SubscriptionGroupConfig;
+import org.apache.rocketmq.tools.admin.api.BrokerOperatorResult;
+import org.apache.rocketmq.tools.admin.common.AdminToolResult;
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.InjectMocks;
@@ -49,15 +60,20 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -73,6 +89,12 @@ public class ConsumerControllerTest extends BaseControllerTest {
     @Mock
     private ClusterInfoService clusterInfoService;
 
+    @Mock
+    private MQAdminAsyncClient mqAdminAsyncClient;
+
+    @Mock
+    private TopicRouteCache topicRouteCache;
+
     @Before
     public void init() throws Exception {
         // 2. mock ClusterInfo data
@@ -94,8 +116,8 @@ public class ConsumerControllerTest extends BaseControllerTest {
                 .thenReturn(runningInfo);
         SubscriptionGroupConfig config = new SubscriptionGroupConfig();
         config.setGroupName("group-test");
-        when(mqAdminExt.examineSubscriptionGroupConfig(anyString(), anyString()))
-                .thenReturn(config);
+        when(mqAdminAsyncClient.examineSubscriptionGroupConfig(anyString(), anyString(), anyLong()))
+                .thenReturn(CompletableFuture.completedFuture(config));
     }
 
     @Test
@@ -111,6 +133,102 @@ public class ConsumerControllerTest extends BaseControllerTest {
         consumerService.destroy();
     }
 
+    @Test
+    public void testListAsCurrentUser() throws Exception {
+        UserInfo userInfo = new UserInfo();
+        userInfo.setUsername("user_test");
+        List<Object> callers = Collections.synchronizedList(new ArrayList<>());
+        SubscriptionGroupWrapper wrapper = MockObjectUtil.createSubscriptionGroupWrapper();
+        when(mqAdminExt.getAllSubscriptionGroup(anyString(), anyLong())).thenAnswer(invocation -> {
+            callers.add(UserInfoContext.get(WebUtil.USER_NAME));
+            return wrapper;
+        });
+        when(mqAdminExt.examineConsumerConnectionInfo(anyString())).thenAnswer(invocation -> {
+            callers.add(UserInfoContext.get(WebUtil.USER_NAME));
+            return MockObjectUtil.createConsumerConnection();
+        });
+        when(mqAdminExt.fetchConsumeStatsInBroker(anyString(), anyBoolean(), anyLong())).thenAnswer(invocation -> {
+            callers.add(UserInfoContext.get(WebUtil.USER_NAME));
+            throw new RuntimeException("fetchConsumeStatsInBroker exception");
+        });
+        UserInfoContext.set(WebUtil.USER_NAME, userInfo);
+        try {
+            requestBuilder = MockMvcRequestBuilders.get("/consumer/groupList.query");
+            perform = mockMvc.perform(requestBuilder);
+            perform.andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data", hasSize(2)));
+        } finally {
+            UserInfoContext.clear();
+        }
+        // the snapshot is built on the pool as the user who asked for it
+        Assert.assertFalse(callers.isEmpty());
+        for (Object caller : callers) {
+            Assert.assertSame(userInfo, caller);
+        }
+        consumerService.destroy();
+    }
+
+    @Test
+    public void testListWithBrokerConsumeStats() throws Exception {
+        ConsumeStats stats = MockObjectUtil.createConsumeStats();
+        stats.setConsumeTps(5.5);
+        Map<String, List<ConsumeStats>> groupConsumeStats = new HashMap<>();
+        groupConsumeStats.put("group_test", Lists.newArrayList(stats, stats));
+        ConsumeStatsList consumeStatsList = new ConsumeStatsList();
+        consumeStatsList.getConsumeStatsList().add(groupConsumeStats);
+        when(mqAdminExt.fetchConsumeStatsInBroker(anyString(), anyBoolean(), anyLong())).thenReturn(consumeStatsList);
+
+        final String url = "/consumer/groupList.query";
+        requestBuilder = MockMvcRequestBuilders.get(url);
+        perform = mockMvc.perform(requestBuilder);
+        perform.andExpect(status().isOk())
+                .andExpect(jsonPath("$.data", hasSize(2)))
+                .andExpect(jsonPath("$.data[?(@.group == 'group_test')].consumeTps").value(11))
+                .andExpect(jsonPath("$.data[?(@.group == 'group_test')].diffTotal").value(12));
+        // the stats of every group come from the single request per broker
+        verify(mqAdminExt, times(1)).fetchConsumeStatsInBroker(anyString(), anyBoolean(), anyLong());
+        verify(mqAdminExt, never()).examineConsumeStats(anyString());
+        consumerService.destroy();
+    }
+
+    @Test
+    public void testRefreshAll() throws Exception {
+        final String url = "/consumer/groupList.query";
+        requestBuilder = MockMvcRequestBuilders.get(url);
+        perform = mockMvc.perform(requestBuilder);
+        perform.andExpect(status().isOk())
+                .andExpect(jsonPath("$.data", hasSize(2)));
+
+        // one group removed, one group added, the remaining group keeps its subscription
+        SubscriptionGroupWrapper wrapper = MockObjectUtil.createSubscriptionGroupWrapper();
+        wrapper.getSubscriptionGroupTable().remove(MixAll.TOOLS_CONSUMER_GROUP);
+        SubscriptionGroupConfig orderlyConfig = new SubscriptionGroupConfig();
+        orderlyConfig.setGroupName("group_orderly");
+        orderlyConfig.setConsumeMessageOrderly(true);
+        wrapper.getSubscriptionGroupTable().put("group_orderly", orderlyConfig);
+        when(mqAdminExt.getAllSubscriptionGroup(anyString(), anyLong())).thenReturn(wrapper);
+
+        requestBuilder = MockMvcRequestBuilders.get("/consumer/group.refresh.all");
+        perform = mockMvc.perform(requestBuilder);
+        perform.andExpect(status().isOk())
+                .andExpect(jsonPath("$.data", hasSize(2)))
+                .andExpect(jsonPath("$.data[?(@.group == 'group_orderly')].subGroupType").value("FIFO"))
+                .andExpect(jsonPath("$.data[?(@.group == 'group_test')].subGroupType").value("NORMAL"));
+        verify(mqAdminExt, times(2)).getAllSubscriptionGroup(anyString(), anyLong());
+
+        // refreshing one group keeps the rest of the snapshot
+        requestBuilder = MockMvcRequestBuilders.get("/consumer/group.refresh");
+        requestBuilder.param("consumerGroup", "group_orderly");
+        perform = mockMvc.perform(requestBuilder);
+        perform.andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.subGroupType").value("FIFO"));
+        requestBuilder = MockMvcRequestBuilders.get(url);
+        perform = mockMvc.perform(requestBuilder);
+        perform.andExpect(status().isOk())
+                .andExpect(jsonPath("$.data", hasSize(2)));
+        consumerService.destroy();
+    }
+
     @Test
     public void testGroupQuery() throws Exception {
         final String url = "/consumer/group.query";
@@ -170,6 +288,55 @@ public class ConsumerControllerTest extends BaseControllerTest {
         perform.andExpect(status().isOk()).andExpect(jsonPath("$.data").isMap());
     }
 
+    @Test
+    public void testResetOffsetJob() throws Exception {
+        BrokerOperatorResult concurrentResult = new BrokerOperatorResult();
+        concurrentResult.setSuccessList(Lists.newArrayList("broker-a"));
+        concurrentResult.setFailureList(new ArrayList<>());
+        BrokerOperatorResult failedResult = new BrokerOperatorResult();
+        failedResult.setSuccessList(new ArrayList<>());
+        failedResult.setFailureList(Lists.newArrayList("broker-a"));
+        when(mqAdminExt.resetOffsetNewConcurrent(eq("group_a"), eq("topic_test"), anyLong()))
+                .thenReturn(AdminToolResult.success(concurrentResult));
+        when(mqAdminExt.resetOffsetNewConcurrent(eq("group_b"), eq("topic_test"), anyLong()))
+                .thenReturn(AdminToolResult.success(failedResult));
+        when(mqAdminExt.examineConsumeStats("group_a", "topic_test")).thenReturn(MockObjectUtil.createConsumeStats());
+        Map<MessageQueue, Long> rollbackStatsMap = new HashMap<>(0);
+        rollbackStatsMap.put(new MessageQueue("topic_test", "broker-a", 5), 10L);
+        when(mqAdminExt.resetOffsetByTimestamp(eq("topic_test"), eq("group_b"), anyLong(), anyBoolean()))
+                .thenReturn(rollbackStatsMap);
+
+        ResetOffsetRequest request = new ResetOffsetRequest();
+        request.setTopic("topic_test");
+        request.setResetTime(System.currentTimeMillis());
+        request.setForce(true);
+        request.setConsumerGroupList(Lists.newArrayList("group_a", "group_b"));
+        requestBuilder = MockMvcRequestBuilders.post("/consumer/submitResetOffsetJob.do");
+        requestBuilder.contentType(MediaType.APPLICATION_JSON_UTF8);
+        requestBuilder.content(JSON.toJSONString(request));
+        perform = mockMvc.perform(requestBuilder);
+        perform.andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.total").value(2));
+        String jobId = JSON.parseObject(perform.andReturn().getResponse().getContentAsString())
+                .getJSONObject("data").getString("jobId");
+
+        long deadline = System.currentTimeMillis() + 10000;
+        while (consumerService.queryResetOffsetJob(jobId).getStatus() == ResetOffsetJob.Status.RUNNING
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        requestBuilder = MockMvcRequestBuilders.get("/consumer/queryResetOffsetJob.query");
+        requestBuilder.param("jobId", jobId);
+        perform = mockMvc.perform(requestBuilder);
+        perform.andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.status").value(ResetOffsetJob.Status.FINISHED.name()))
+                .andExpect(jsonPath("$.data.succeeded").value(2))
+                .andExpect(jsonPath("$.data.groupRollbackStats.group_a.rollbackStatsList", hasSize(2)))
+                .andExpect(jsonPath("$.data.groupRollbackStats.group_a.rollbackStatsList[0].rollbackOffset").value(7L))
+                .andExpect(jsonPath("$.data.groupRollbackStats.group_b.rollbackStatsList[0].rollbackOffset").value(10L));
+        verify(mqAdminExt, never()).resetOffsetByTimestamp(eq("topic_test"), eq("group_a"), anyLong(), anyBoolean());
+    }
+
     @Test
     public void testFetchBrokerNameList() throws Exception {
         final String url = "/consumer/fetchBrokerNameList.query";
@@ -282,6 +449,37 @@ public class ConsumerControllerTest extends BaseControllerTest {
                 .andExpect(jsonPath("$.data[0].queueStatInfoList[1].brokerName").value("broker-1"));
     }
 
+    @Test
+    public void testQueryConsumerByTopicFromGroupIndex() throws Exception {
+        ConsumeStats stats = MockObjectUtil.createConsumeStats();
+        when(mqAdminExt.examineConsumeStats(anyString(), anyString(), isNull(), anyLong())).thenReturn(stats);
+        // rebuilding the snapshot does not accumulate broker addresses
+        for (int i = 0; i < 2; i++) {
+            requestBuilder = MockMvcRequestBuilders.get("/consumer/group.refresh.all");
+            perform = mockMvc.perform(requestBuilder);
+            perform.andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data[?(@.group == 'group_test')].address[*]", hasSize(1)));
+        }
+
+        final String url = "/consumer/queryTopicByConsumer.query";
+        requestBuilder = MockMvcRequestBuilders.get(url);
+        requestBuilder.param("consumerGroup", "group_test");
+        perform = mockMvc.perform(requestBuilder);
+        perform.andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].topic").value("topic_test"));
+        verify(mqAdminExt, times(1)).examineConsumeStats(eq("localhost:10911"), eq("group_test"), isNull(), anyLong());
+
+        // duplicated addresses are only queried once
+        requestBuilder = MockMvcRequestBuilders.get(url);
+        requestBuilder.param("consumerGroup", "group_test");
+        requestBuilder.param("address", "localhost:10911,localhost:10911");
+        perform = mockMvc.perform(requestBuilder);
+        perform.andExpect(status().isOk())
+                .andExpect(jsonPath("$.data", hasSize(1)));
+        verify(mqAdminExt, times(2)).examineConsumeStats(eq("localhost:10911"), eq("group_test"), isNull(), anyLong());
+        consumerService.destroy();
+    }
+
     @Test
     public void testConsumerConnection() throws Exception {
         // Prepare test data
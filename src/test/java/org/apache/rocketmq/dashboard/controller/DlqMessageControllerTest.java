@@ -21,11 +21,15 @@ import com.google.common.collect.Lists;
 import org.apache.rocketmq.client.exception.MQClientException;
 import org.apache.rocketmq.common.MixAll;
 import org.apache.rocketmq.dashboard.model.DlqMessageRequest;
+import org.apache.rocketmq.dashboard.model.DlqReproduceRequest;
+import org.apache.rocketmq.dashboard.model.DlqResendBatchResult;
 import org.apache.rocketmq.dashboard.model.MessagePage;
 import org.apache.rocketmq.dashboard.model.MessageView;
 import org.apache.rocketmq.dashboard.model.request.MessageQuery;
+import org.apache.rocketmq.dashboard.service.TopicRouteCache;
 import org.apache.rocketmq.dashboard.service.impl.DlqMessageServiceImpl;
 import org.apache.rocketmq.dashboard.service.impl.MessageServiceImpl;
+import org.apache.rocketmq.dashboard.support.DlqMessageReproducer;
 import org.apache.rocketmq.dashboard.util.MockObjectUtil;
 import org.apache.rocketmq.remoting.protocol.ResponseCode;
 import org.apache.rocketmq.remoting.protocol.body.CMResult;
@@ -44,6 +48,8 @@ import java.util.List;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -57,9 +63,15 @@ public class DlqMessageControllerTest extends BaseControllerTest {
     @Spy
     private DlqMessageServiceImpl dlqMessageService;
 
+    @Spy
+    private TopicRouteCache topicRouteCache;
+
     @Mock
     private MessageServiceImpl messageService;
 
+    @Mock
+    private DlqMessageReproducer dlqMessageReproducer;
+
     @Test
     public void testQueryDlqMessageByConsumerGroup() throws Exception {
         final String url = "/dlqMessage/queryDlqMessageByConsumerGroup.query";
@@ -155,6 +167,31 @@ public class DlqMessageControllerTest extends BaseControllerTest {
                 .andExpect(jsonPath("$.data[0].consumeResult").value("CR_SUCCESS"));
     }
 
+    @Test
+    public void testBatchReproduceDlqMessage() throws Exception {
+        final String url = "/dlqMessage/batchReproduceDlqMessage.do";
+        DlqReproduceRequest request = new DlqReproduceRequest();
+        request.setDlqMessages(MockObjectUtil.createDlqMessageRequest());
+        {
+            when(mqAdminExt.viewMessage("%DLQ%group_test", "0A9A003F00002A9F0000000000000310"))
+                    .thenThrow(new RuntimeException("message not found"));
+            when(mqAdminExt.viewMessage("%DLQ%group_test", "0A9A003F00002A9F0000000000000311"))
+                    .thenReturn(MockObjectUtil.createMessageExt());
+            DlqResendBatchResult result = new DlqResendBatchResult();
+            result.setSent(1);
+            when(dlqMessageReproducer.resend(anyList(), eq(DlqResendBatchResult.Target.RETRY_TOPIC), eq(false)))
+                    .thenReturn(result);
+        }
+        requestBuilder = MockMvcRequestBuilders.post(url);
+        requestBuilder.contentType(MediaType.APPLICATION_JSON_UTF8);
+        requestBuilder.content(JSON.toJSONString(request));
+        perform = mockMvc.perform(requestBuilder);
+        perform.andExpect(status().isOk())
+                .andExpect(jsonPath("$.data", hasSize(1)))
+                .andExpect(jsonPath("$.data[0].sent").value(1))
+                .andExpect(jsonPath("$.data[0].failures.0A9A003F00002A9F0000000000000310").value("message not found"));
+    }
+
     @Test
     public void testBatchExportDlqMessage() throws Exception {
         final String url = "/dlqMessage/batchExportDlqMessage.do";
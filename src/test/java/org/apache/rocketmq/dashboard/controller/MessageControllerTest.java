@@ -27,6 +27,8 @@ import org.apache.rocketmq.client.exception.MQClientException;
 import org.apache.rocketmq.common.message.MessageClientIDSetter;
 import org.apache.rocketmq.common.message.MessageExt;
 import org.apache.rocketmq.common.message.MessageQueue;
+import org.apache.rocketmq.dashboard.exception.ServiceException;
+import org.apache.rocketmq.dashboard.model.MessageView;
 import org.apache.rocketmq.dashboard.model.QueueOffsetInfo;
 import org.apache.rocketmq.dashboard.model.request.MessageQuery;
 import org.apache.rocketmq.dashboard.service.impl.MessageServiceImpl;
@@ -44,6 +46,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
 import java.lang.reflect.Field;
@@ -51,12 +54,19 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Consumer;
 
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.endsWith;
 import static org.hamcrest.Matchers.hasSize;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 public class MessageControllerTest extends BaseControllerTest {
@@ -237,6 +247,44 @@ public class MessageControllerTest extends BaseControllerTest {
                 .andExpect(jsonPath("$.data[0].msgId").value("0A9A003F00002A9F0000000000000319"));
     }
 
+    @Test
+    public void testStreamMessageByTopic() throws Exception {
+        final String url = "/message/queryMessageByTopic.stream";
+        requestBuilder = MockMvcRequestBuilders.get(url);
+        requestBuilder.param("topic", "topic_test")
+                .param("begin", Long.toString(System.currentTimeMillis() - 3 * 24 * 60 * 60 * 1000))
+                .param("end", Long.toString(System.currentTimeMillis()));
+        MvcResult mvcResult = mockMvc.perform(requestBuilder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(containsString("\"msgId\":\"0A9A003F00002A9F0000000000000319\"")))
+                .andExpect(content().string(endsWith("{\"status\":0,\"data\":1}\n")));
+    }
+
+    @Test
+    public void testStreamMessageByTopicFailure() throws Exception {
+        final String url = "/message/queryMessageByTopic.stream";
+        doAnswer(invocation -> {
+            Consumer<MessageView> sink = invocation.getArgument(3);
+            sink.accept(MessageView.summaryOf(MockObjectUtil.createMessageExt()));
+            throw new ServiceException(-1, "broker-a is unreachable");
+        }).when(messageService).queryMessageByTopic(anyString(), anyLong(), anyLong(), any());
+        requestBuilder = MockMvcRequestBuilders.get(url);
+        requestBuilder.param("topic", "topic_test")
+                .param("begin", Long.toString(System.currentTimeMillis() - 3 * 24 * 60 * 60 * 1000))
+                .param("end", Long.toString(System.currentTimeMillis()));
+        MvcResult mvcResult = mockMvc.perform(requestBuilder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("\"msgId\":\"0A9A003F00002A9F0000000000000319\"")))
+                .andExpect(content().string(endsWith("{\"status\":-1,\"errMsg\":\"broker-a is unreachable\"}\n")));
+    }
+
     @Test
     public void testConsumeMessageDirectly() throws Exception {
         final String url = "/message/consumeMessageDirectly.do";
@@ -20,14 +20,17 @@ import org.apache.rocketmq.client.QueryResult;
 import org.apache.rocketmq.client.exception.MQClientException;
 import org.apache.rocketmq.client.trace.TraceType;
 import org.apache.rocketmq.common.message.MessageExt;
+import org.apache.rocketmq.dashboard.admin.MQAdminClientManager;
 import org.apache.rocketmq.dashboard.service.impl.MessageServiceImpl;
 import org.apache.rocketmq.dashboard.service.impl.MessageTraceServiceImpl;
 import org.apache.rocketmq.dashboard.util.MockObjectUtil;
+import org.apache.rocketmq.tools.admin.MQAdminExt;
 import org.apache.rocketmq.tools.admin.api.MessageTrack;
 import org.apache.rocketmq.tools.admin.api.TrackType;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.InjectMocks;
+import org.mockito.Mock;
 import org.mockito.Spy;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
@@ -39,6 +42,9 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -54,6 +60,9 @@ public class MessageTraceControllerTest extends BaseControllerTest {
     @Spy
     private MessageTraceServiceImpl messageTraceService;
 
+    @Mock
+    private MQAdminClientManager mqAdminClientManager;
+
     @Before
     public void init() throws MQClientException, InterruptedException {
         super.mockRmqConfigure();
@@ -136,6 +145,33 @@ public class MessageTraceControllerTest extends BaseControllerTest {
                 .andExpect(jsonPath("$.data.messageTraceViews", hasSize(4)));
     }
 
+    @Test
+    public void testViewMessageTraceGraphFromCache() throws Exception {
+        final String url = "/messageTrace/viewMessageTraceGraph.query";
+        requestBuilder = MockMvcRequestBuilders.get(url);
+        requestBuilder.param("msgId", "0A9A003F00002A9F0000000000000319");
+        // failed lookups are not cached
+        perform = mockMvc.perform(requestBuilder);
+        performErrorExpect(perform);
+
+        perform = mockMvc.perform(requestBuilder);
+        perform.andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.messageTraceViews", hasSize(4)));
+        // the trace detail of the same message is served from the cached graph
+        perform = mockMvc.perform(MockMvcRequestBuilders.get("/messageTrace/viewMessageTraceDetail.query")
+                .param("msgId", "0A9A003F00002A9F0000000000000319"));
+        perform.andExpect(status().isOk())
+                .andExpect(jsonPath("$.data", hasSize(4)));
+        verify(mqAdminExt, times(2)).queryMessage(anyString(), anyString(), anyInt(), anyLong(), anyLong());
+
+        // a user with a client of their own does not get the graph loaded by another one
+        when(mqAdminClientManager.resolve("queryMessage")).thenReturn(mock(MQAdminExt.class));
+        perform = mockMvc.perform(requestBuilder);
+        perform.andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.messageTraceViews", hasSize(4)));
+        verify(mqAdminExt, times(3)).queryMessage(anyString(), anyString(), anyInt(), anyLong(), anyLong());
+    }
+
     @Override
     protected Object getTestController() {
         return messageTraceController;
@@ -17,12 +17,11 @@
 
 package org.apache.rocketmq.dashboard.controller;
 
-import org.apache.commons.pool2.impl.GenericObjectPool;
+import org.apache.rocketmq.dashboard.admin.MQAdminClientManager;
 import org.apache.rocketmq.dashboard.service.checker.RocketMqChecker;
 import org.apache.rocketmq.dashboard.service.checker.impl.ClusterHealthCheckerImpl;
 import org.apache.rocketmq.dashboard.service.checker.impl.TopicOnlyOneBrokerCheckerImpl;
 import org.apache.rocketmq.dashboard.service.impl.OpsServiceImpl;
-import org.apache.rocketmq.tools.admin.MQAdminExt;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -50,7 +49,7 @@ public class OpsControllerTest extends BaseControllerTest {
     private OpsServiceImpl opsService;
 
     @Mock
-    private GenericObjectPool<MQAdminExt> mqAdminExtPool;
+    private MQAdminClientManager mqAdminClientManager;
 
     @Before
     public void init() {
@@ -75,7 +74,7 @@ public class OpsControllerTest extends BaseControllerTest {
         final String url = "/ops/updateNameSvrAddr.do";
         {
             doNothing().when(configure).setNamesrvAddr(anyString());
-            doNothing().when(mqAdminExtPool).clear();
+            doNothing().when(mqAdminClientManager).reset();
         }
         requestBuilder = MockMvcRequestBuilders.post(url);
         requestBuilder.param("nameSvrAddrList", "127.0.0.1:9876");
@@ -29,11 +29,16 @@ import org.apache.rocketmq.common.MixAll;
 import org.apache.rocketmq.common.TopicConfig;
 import org.apache.rocketmq.common.message.Message;
 import org.apache.rocketmq.common.message.MessageQueue;
+import org.apache.rocketmq.dashboard.admin.MQAdminClientManager;
 import org.apache.rocketmq.dashboard.model.request.SendTopicMessageRequest;
 import org.apache.rocketmq.dashboard.model.request.TopicConfigInfo;
 import org.apache.rocketmq.dashboard.model.request.TopicTypeList;
 import org.apache.rocketmq.dashboard.service.ClusterInfoService;
 import org.apache.rocketmq.dashboard.service.ConsumerService;
+import org.apache.rocketmq.dashboard.service.TopicCatalog;
+import org.apache.rocketmq.dashboard.service.TopicConfigIndex;
+import org.apache.rocketmq.dashboard.service.TopicRouteCache;
+import org.apache.rocketmq.dashboard.service.client.MQAdminAsyncClient;
 import org.apache.rocketmq.dashboard.service.impl.TopicServiceImpl;
 import org.apache.rocketmq.dashboard.util.MockObjectUtil;
 import org.apache.rocketmq.remoting.RPCHook;
@@ -43,6 +48,7 @@ import org.apache.rocketmq.remoting.protocol.body.ClusterInfo;
 import org.apache.rocketmq.remoting.protocol.body.ConsumerConnection;
 import org.apache.rocketmq.remoting.protocol.body.ConsumerRunningInfo;
 import org.apache.rocketmq.remoting.protocol.body.GroupList;
+import org.apache.rocketmq.remoting.protocol.body.TopicConfigSerializeWrapper;
 import org.apache.rocketmq.remoting.protocol.body.TopicList;
 import org.apache.rocketmq.remoting.protocol.route.BrokerData;
 import org.apache.rocketmq.remoting.protocol.route.QueueData;
@@ -61,6 +67,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.hasSize;
@@ -68,6 +75,8 @@ import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -80,6 +89,21 @@ public class TopicControllerTest extends BaseControllerTest {
     @Spy
     private TopicServiceImpl topicService;
 
+    @Spy
+    private TopicRouteCache topicRouteCache;
+
+    @Spy
+    private TopicCatalog topicCatalog;
+
+    @Spy
+    private TopicConfigIndex topicConfigIndex;
+
+    @Mock
+    private MQAdminAsyncClient mqAdminAsyncClient;
+
+    @Mock
+    private MQAdminClientManager mqAdminClientManager;
+
     @Mock
     private ConsumerService consumerService;
 
@@ -92,11 +116,13 @@ public class TopicControllerTest extends BaseControllerTest {
     private String topicName = "topic_test";
 
     @Before
-    public void init() {
+    public void init() throws Exception {
         super.mockRmqConfigure();
+        when(mqAdminClientManager.resolve(anyString())).thenReturn(mqAdminExt);
         ClusterInfo mockClusterInfo = getClusterInfo();
         when(clusterInfoService.get()).thenReturn(mockClusterInfo);
-
+        when(mqAdminAsyncClient.getAllTopicConfig(anyString(), anyLong()))
+            .thenReturn(CompletableFuture.completedFuture(MockObjectUtil.createTopicConfigWrapper()));
     }
 
     @Test
@@ -390,6 +416,61 @@ public class TopicControllerTest extends BaseControllerTest {
                 .andExpect(jsonPath("$.data.messageTypeList[2]").value("SYSTEM"));
     }
 
+    @Test
+    public void testCatalog() throws Exception {
+        {
+            TopicTypeList topicTypeList = new TopicTypeList(
+                Lists.newArrayList("order_b", "%SYS%topic3", "order_a", "pay", "order_c"),
+                Lists.newArrayList("FIFO", "SYSTEM", "NORMAL", "NORMAL", "FIFO"));
+            doReturn(topicTypeList).when(topicService).examineAllTopicType(any(TopicConfigIndex.Snapshot.class));
+        }
+        final String url = "/topic/catalog.query";
+        requestBuilder = MockMvcRequestBuilders.get(url)
+            .param("prefix", "order")
+            .param("limit", "2");
+        perform = mockMvc.perform(requestBuilder);
+        performOkExpect(perform)
+            .andExpect(jsonPath("$.data.topics", hasSize(2)))
+            .andExpect(jsonPath("$.data.topics[0].topicName").value("order_a"))
+            .andExpect(jsonPath("$.data.topics[1].topicName").value("order_b"))
+            .andExpect(jsonPath("$.data.nextCursor").value("order_b"))
+            .andExpect(jsonPath("$.data.total").value(3))
+            .andExpect(jsonPath("$.data.typeCounts.FIFO").value(2))
+            .andExpect(jsonPath("$.data.typeCounts.NORMAL").value(1));
+
+        requestBuilder = MockMvcRequestBuilders.get(url)
+            .param("keyword", "ORDER")
+            .param("types", "FIFO")
+            .param("cursor", "order_b")
+            .param("limit", "2");
+        perform = mockMvc.perform(requestBuilder);
+        performOkExpect(perform)
+            .andExpect(jsonPath("$.data.topics", hasSize(1)))
+            .andExpect(jsonPath("$.data.topics[0].topicName").value("order_c"))
+            .andExpect(jsonPath("$.data.nextCursor").doesNotExist())
+            .andExpect(jsonPath("$.data.total").value(2));
+        // both pages are cut from the index built by the first query
+        verify(topicService, times(1)).examineAllTopicType(any(TopicConfigIndex.Snapshot.class));
+
+        // the configs are fetched again after a write, the index is kept while no broker changed
+        topicConfigIndex.invalidate();
+        perform = mockMvc.perform(requestBuilder);
+        performOkExpect(perform)
+            .andExpect(jsonPath("$.data.total").value(2))
+            .andExpect(jsonPath("$.data.timestamp").value(topicConfigIndex.get().getTimestamp()));
+        verify(topicService, times(1)).examineAllTopicType(any(TopicConfigIndex.Snapshot.class));
+
+        TopicConfigSerializeWrapper changed = MockObjectUtil.createTopicConfigWrapper();
+        changed.getDataVersion().nextVersion();
+        when(mqAdminAsyncClient.getAllTopicConfig(anyString(), anyLong()))
+            .thenReturn(CompletableFuture.completedFuture(changed));
+        topicConfigIndex.invalidate();
+        perform = mockMvc.perform(requestBuilder);
+        performOkExpect(perform)
+            .andExpect(jsonPath("$.data.total").value(2));
+        verify(topicService, times(2)).examineAllTopicType(any(TopicConfigIndex.Snapshot.class));
+    }
+
     @Override
     protected Object getTestController() {
         return topicController;
@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.rocketmq.dashboard.service;
+
+import org.apache.rocketmq.dashboard.service.client.MQAdminAsyncClient;
+import org.apache.rocketmq.dashboard.util.MockObjectUtil;
+import org.apache.rocketmq.remoting.protocol.body.ClusterInfo;
+import org.apache.rocketmq.remoting.protocol.body.KVTable;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class BrokerRuntimeStatsServiceTest {
+
+    @InjectMocks
+    private BrokerRuntimeStatsService brokerRuntimeStatsService;
+
+    @Mock
+    private ClusterInfoService clusterInfoService;
+
+    @Mock
+    private MQAdminAsyncClient mqAdminAsyncClient;
+
+    private final List<CompletableFuture<KVTable>> pending = Collections.synchronizedList(new ArrayList<>());
+
+    @Before
+    public void init() {
+        ClusterInfo clusterInfo = MockObjectUtil.createClusterInfo();
+        clusterInfo.getBrokerAddrTable().get("broker-a").getBrokerAddrs().put(1L, "127.0.0.2:10911");
+        when(clusterInfoService.get()).thenReturn(clusterInfo);
+        when(mqAdminAsyncClient.fetchBrokerRuntimeStats(eq("127.0.0.1:10911"), anyLong())).thenAnswer(invocation -> {
+            CompletableFuture<KVTable> future = new CompletableFuture<>();
+            pending.add(future);
+            return future;
+        });
+        CompletableFuture<KVTable> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new IllegalStateException("slave is down"));
+        when(mqAdminAsyncClient.fetchBrokerRuntimeStats(eq("127.0.0.2:10911"), anyLong())).thenReturn(failed);
+    }
+
+    @After
+    public void destroy() {
+        brokerRuntimeStatsService.shutdown();
+    }
+
+    @Test
+    public void testConcurrentReadsShareOneRefresh() throws Exception {
+        List<CompletableFuture<BrokerRuntimeStatsService.Snapshot>> reads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            reads.add(CompletableFuture.supplyAsync(brokerRuntimeStatsService::get));
+        }
+        while (pending.isEmpty()) {
+            Thread.sleep(10);
+        }
+        KVTable kvTable = new KVTable();
+        kvTable.getTable().put("getTotalTps", "1.0 1.0 1.0");
+        pending.get(0).complete(kvTable);
+        for (CompletableFuture<BrokerRuntimeStatsService.Snapshot> read : reads) {
+            BrokerRuntimeStatsService.Snapshot snapshot = read.get(10, TimeUnit.SECONDS);
+            Assert.assertEquals("1.0 1.0 1.0", snapshot.getStats().get("127.0.0.1:10911").get("getTotalTps"));
+            // the slave that failed has no stats but does not fail the snapshot
+            Assert.assertFalse(snapshot.getStats().containsKey("127.0.0.2:10911"));
+        }
+        Assert.assertEquals(1, pending.size());
+        verify(mqAdminAsyncClient, times(2)).fetchBrokerRuntimeStats(anyString(), anyLong());
+    }
+
+    @Test
+    public void testStaleSnapshotIsServedWhileRefreshing() throws Exception {
+        ReflectionTestUtils.setField(brokerRuntimeStatsService, "refreshIntervalMs", 0L);
+        CompletableFuture<BrokerRuntimeStatsService.Snapshot> first = brokerRuntimeStatsService.refresh();
+        while (pending.isEmpty()) {
+            Thread.sleep(10);
+        }
+        pending.get(0).complete(new KVTable());
+        BrokerRuntimeStatsService.Snapshot snapshot = first.get(10, TimeUnit.SECONDS);
+        Thread.sleep(5);
+
+        // a stale snapshot is returned right away and starts the next refresh
+        Assert.assertSame(snapshot, brokerRuntimeStatsService.get());
+        while (pending.size() < 2) {
+            Thread.sleep(10);
+        }
+        pending.get(1).complete(new KVTable());
+        long deadline = System.currentTimeMillis() + 10000;
+        while (brokerRuntimeStatsService.get(Long.MAX_VALUE) == snapshot && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertTrue(brokerRuntimeStatsService.get(Long.MAX_VALUE).getTimestamp() > snapshot.getTimestamp());
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.rocketmq.dashboard.service;
+
+import org.apache.rocketmq.common.TopicConfig;
+import org.apache.rocketmq.dashboard.admin.MQAdminClientManager;
+import org.apache.rocketmq.dashboard.service.client.MQAdminAsyncClient;
+import org.apache.rocketmq.dashboard.util.MockObjectUtil;
+import org.apache.rocketmq.remoting.protocol.DataVersion;
+import org.apache.rocketmq.remoting.protocol.body.ClusterInfo;
+import org.apache.rocketmq.remoting.protocol.body.TopicConfigSerializeWrapper;
+import org.apache.rocketmq.tools.admin.MQAdminExt;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class TopicConfigIndexTest {
+
+    private static final String BROKER_ADDR = "127.0.0.1:10911";
+
+    @InjectMocks
+    private TopicConfigIndex topicConfigIndex;
+
+    @Mock
+    private ClusterInfoService clusterInfoService;
+
+    @Mock
+    private MQAdminAsyncClient mqAdminAsyncClient;
+
+    @Mock
+    private MQAdminClientManager mqAdminClientManager;
+
+    @Mock
+    private MQAdminExt mqAdminExt;
+
+    @Before
+    public void init() throws Exception {
+        ClusterInfo clusterInfo = MockObjectUtil.createClusterInfo();
+        when(clusterInfoService.get()).thenReturn(clusterInfo);
+        when(mqAdminClientManager.resolve("getAllTopicConfig")).thenReturn(mqAdminExt);
+    }
+
+    @Test
+    public void testUnchangedBrokerKeepsIndex() {
+        TopicConfigSerializeWrapper wrapper = MockObjectUtil.createTopicConfigWrapper();
+        when(mqAdminAsyncClient.getAllTopicConfig(eq(BROKER_ADDR), anyLong()))
+            .thenReturn(CompletableFuture.completedFuture(wrapper));
+
+        TopicConfigIndex.Snapshot first = topicConfigIndex.get();
+        Assert.assertEquals("topic_test", first.getTopicConfigs("topic_test").get("broker-a").getTopicName());
+        Assert.assertTrue(first.getTopicConfigs("topic_absent").isEmpty());
+        // cached until invalidated
+        Assert.assertSame(first, topicConfigIndex.get());
+        verify(mqAdminAsyncClient, times(1)).getAllTopicConfig(eq(BROKER_ADDR), anyLong());
+
+        // same data version, the merged index is reused
+        topicConfigIndex.invalidate();
+        TopicConfigSerializeWrapper unchanged = MockObjectUtil.createTopicConfigWrapper();
+        unchanged.getDataVersion().assignNewOne(wrapper.getDataVersion());
+        unchanged.getTopicConfigTable().put("topic_new", new TopicConfig("topic_new"));
+        when(mqAdminAsyncClient.getAllTopicConfig(eq(BROKER_ADDR), anyLong()))
+            .thenReturn(CompletableFuture.completedFuture(unchanged));
+        TopicConfigIndex.Snapshot second = topicConfigIndex.get();
+        Assert.assertNotSame(first, second);
+        Assert.assertSame(first.getTopicConfigs(), second.getTopicConfigs());
+
+        // new data version, the broker is indexed again
+        topicConfigIndex.invalidate();
+        DataVersion dataVersion = new DataVersion();
+        dataVersion.assignNewOne(wrapper.getDataVersion());
+        dataVersion.nextVersion();
+        unchanged.setDataVersion(dataVersion);
+        Assert.assertFalse(topicConfigIndex.get().getTopicConfigs("topic_new").isEmpty());
+    }
+
+    @Test
+    public void testFailedBrokerKeepsPreviousConfigs() {
+        when(mqAdminAsyncClient.getAllTopicConfig(eq(BROKER_ADDR), anyLong()))
+            .thenReturn(CompletableFuture.completedFuture(MockObjectUtil.createTopicConfigWrapper()));
+        topicConfigIndex.get();
+
+        topicConfigIndex.invalidate();
+        CompletableFuture<TopicConfigSerializeWrapper> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new IllegalStateException("broker is down"));
+        when(mqAdminAsyncClient.getAllTopicConfig(eq(BROKER_ADDR), anyLong())).thenReturn(failed);
+        Assert.assertFalse(topicConfigIndex.get().getTopicConfigs("topic_test").isEmpty());
+    }
+
+    @Test
+    public void testIndexPerClient() throws Exception {
+        TopicConfigSerializeWrapper wrapper = MockObjectUtil.createTopicConfigWrapper();
+        when(mqAdminAsyncClient.getAllTopicConfig(eq(BROKER_ADDR), anyLong()))
+            .thenReturn(CompletableFuture.completedFuture(wrapper));
+        TopicConfigIndex.Snapshot first = topicConfigIndex.get();
+
+        // another user of an ACL login reads with its own client and gets its own index
+        MQAdminExt otherClient = mock(MQAdminExt.class);
+        when(mqAdminClientManager.resolve("getAllTopicConfig")).thenReturn(otherClient);
+        TopicConfigSerializeWrapper otherWrapper = MockObjectUtil.createTopicConfigWrapper();
+        otherWrapper.getTopicConfigTable().remove("topic_test");
+        when(mqAdminAsyncClient.getAllTopicConfig(eq(BROKER_ADDR), anyLong()))
+            .thenReturn(CompletableFuture.completedFuture(otherWrapper));
+        TopicConfigIndex.Snapshot other = topicConfigIndex.get();
+        Assert.assertNotSame(first, other);
+        Assert.assertTrue(other.getTopicConfigs("topic_test").isEmpty());
+        Assert.assertSame(other, topicConfigIndex.get());
+
+        when(mqAdminClientManager.resolve("getAllTopicConfig")).thenReturn(mqAdminExt);
+        Assert.assertSame(first, topicConfigIndex.get());
+        verify(mqAdminAsyncClient, times(2)).getAllTopicConfig(eq(BROKER_ADDR), anyLong());
+    }
+}
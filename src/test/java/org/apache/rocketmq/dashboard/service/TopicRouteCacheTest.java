@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.rocketmq.dashboard.service;
+
+import org.apache.rocketmq.client.exception.MQClientException;
+import org.apache.rocketmq.dashboard.service.client.MQAdminAsyncClient;
+import org.apache.rocketmq.dashboard.util.MockObjectUtil;
+import org.apache.rocketmq.remoting.protocol.ResponseCode;
+import org.apache.rocketmq.remoting.protocol.route.TopicRouteData;
+import org.apache.rocketmq.tools.admin.MQAdminExt;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class TopicRouteCacheTest {
+
+    @InjectMocks
+    private TopicRouteCache topicRouteCache;
+
+    @Mock
+    private MQAdminExt mqAdminExt;
+
+    @Mock
+    private MQAdminAsyncClient mqAdminAsyncClient;
+
+    @After
+    public void destroy() {
+        topicRouteCache.shutdown();
+    }
+
+    @Test
+    public void testGetAndInvalidate() throws Exception {
+        TopicRouteData route = MockObjectUtil.createTopicRouteData();
+        when(mqAdminExt.examineTopicRouteInfo("topic_test")).thenReturn(route);
+
+        Assert.assertSame(route, topicRouteCache.get("topic_test"));
+        Assert.assertSame(route, topicRouteCache.get("topic_test"));
+        verify(mqAdminExt, times(1)).examineTopicRouteInfo("topic_test");
+
+        topicRouteCache.invalidate("topic_test");
+        topicRouteCache.get("topic_test");
+        verify(mqAdminExt, times(2)).examineTopicRouteInfo("topic_test");
+    }
+
+    @Test
+    public void testExpiredRouteIsLoadedAgain() throws Exception {
+        ReflectionTestUtils.setField(topicRouteCache, "cacheExpireMs", -1L);
+        when(mqAdminExt.examineTopicRouteInfo("topic_test")).thenReturn(MockObjectUtil.createTopicRouteData());
+
+        topicRouteCache.get("topic_test");
+        topicRouteCache.get("topic_test");
+        verify(mqAdminExt, times(2)).examineTopicRouteInfo("topic_test");
+    }
+
+    @Test
+    public void testRefresh() throws Exception {
+        TopicRouteData route = MockObjectUtil.createTopicRouteData();
+        when(mqAdminExt.examineTopicRouteInfo("topic_test")).thenReturn(route);
+        when(mqAdminExt.examineTopicRouteInfo("topic_deleted")).thenReturn(route);
+        topicRouteCache.get("topic_test");
+        topicRouteCache.get("topic_deleted");
+
+        TopicRouteData refreshed = MockObjectUtil.createTopicRouteData();
+        when(mqAdminAsyncClient.examineTopicRouteInfo("topic_test"))
+            .thenReturn(CompletableFuture.completedFuture(refreshed));
+        CompletableFuture<TopicRouteData> notExist = new CompletableFuture<>();
+        notExist.completeExceptionally(new MQClientException(ResponseCode.TOPIC_NOT_EXIST, "topic not exist"));
+        when(mqAdminAsyncClient.examineTopicRouteInfo("topic_deleted")).thenReturn(notExist);
+        topicRouteCache.refresh();
+
+        // the refreshed route is served from memory, the deleted topic is looked up again
+        Assert.assertSame(refreshed, topicRouteCache.get("topic_test"));
+        verify(mqAdminExt, times(1)).examineTopicRouteInfo("topic_test");
+        when(mqAdminExt.examineTopicRouteInfo("topic_deleted"))
+            .thenThrow(new MQClientException(ResponseCode.TOPIC_NOT_EXIST, "topic not exist"));
+        try {
+            topicRouteCache.get("topic_deleted");
+            Assert.fail();
+        } catch (MQClientException e) {
+            Assert.assertEquals(ResponseCode.TOPIC_NOT_EXIST, e.getResponseCode());
+        }
+    }
+
+    @Test
+    public void testRefreshDoesNotReplaceNewerRoute() throws Exception {
+        TopicRouteData route = MockObjectUtil.createTopicRouteData();
+        TopicRouteData updated = MockObjectUtil.createTopicRouteData();
+        when(mqAdminExt.examineTopicRouteInfo("topic_test")).thenReturn(route);
+        topicRouteCache.get("topic_test");
+
+        // the topic is updated and looked up again while its refresh is in flight
+        TopicRouteData stale = MockObjectUtil.createTopicRouteData();
+        when(mqAdminAsyncClient.examineTopicRouteInfo("topic_test")).thenAnswer(invocation -> {
+            topicRouteCache.invalidate("topic_test");
+            when(mqAdminExt.examineTopicRouteInfo("topic_test")).thenReturn(updated);
+            topicRouteCache.get("topic_test");
+            return CompletableFuture.completedFuture(stale);
+        });
+        topicRouteCache.refresh();
+
+        Assert.assertSame(updated, topicRouteCache.get("topic_test"));
+        verify(mqAdminExt, times(2)).examineTopicRouteInfo("topic_test");
+    }
+}
@@ -0,0 +1,269 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.rocketmq.dashboard.service.impl;
+
+import org.apache.rocketmq.client.consumer.DefaultMQPullConsumer;
+import org.apache.rocketmq.client.consumer.PullResult;
+import org.apache.rocketmq.client.consumer.PullStatus;
+import org.apache.rocketmq.common.message.MessageExt;
+import org.apache.rocketmq.common.message.MessageQueue;
+import org.apache.rocketmq.dashboard.config.RMQConfigure;
+import org.apache.rocketmq.dashboard.exception.ServiceException;
+import org.apache.rocketmq.dashboard.model.DlqBulkJob;
+import org.apache.rocketmq.dashboard.model.DlqBulkJobRequest;
+import org.apache.rocketmq.dashboard.model.DlqMessageExcelModel;
+import org.apache.rocketmq.dashboard.model.DlqMessageRequest;
+import org.apache.rocketmq.dashboard.service.MessageService;
+import org.apache.rocketmq.dashboard.support.AutoCloseConsumerWrapper;
+import org.apache.rocketmq.dashboard.util.UserInfoContext;
+import org.apache.rocketmq.dashboard.util.WebUtil;
+import org.apache.rocketmq.remoting.protocol.body.CMResult;
+import org.apache.rocketmq.remoting.protocol.body.ConsumeMessageDirectlyResult;
+import org.apache.rocketmq.remoting.protocol.body.UserInfo;
+import org.apache.rocketmq.tools.admin.MQAdminExt;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class DlqMessageServiceImplTest {
+
+    @InjectMocks
+    @Spy
+    private DlqMessageServiceImpl dlqMessageService;
+
+    @Mock
+    private MQAdminExt mqAdminExt;
+
+    @Mock
+    private MessageService messageService;
+
+    @Mock
+    private RMQConfigure configure;
+
+    @Mock
+    private AutoCloseConsumerWrapper autoCloseConsumerWrapper;
+
+    @Mock
+    private DefaultMQPullConsumer defaultMQPullConsumer;
+
+    private static final String DLQ_TOPIC = "%DLQ%group_test";
+
+    private final MessageQueue mq = new MessageQueue(DLQ_TOPIC, "broker-a", 0);
+
+    private final List<MessageExt> messages = new ArrayList<>();
+
+    @Before
+    public void setUp() throws Exception {
+        when(autoCloseConsumerWrapper.getConsumer(any(), anyBoolean())).thenReturn(defaultMQPullConsumer);
+        when(defaultMQPullConsumer.fetchSubscribeMessageQueues(DLQ_TOPIC)).thenReturn(Collections.singleton(mq));
+        when(defaultMQPullConsumer.searchOffset(eq(mq), anyLong())).thenReturn(0L);
+        when(defaultMQPullConsumer.pull(eq(mq), anyString(), anyLong(), anyInt())).thenAnswer(invocation -> {
+            long offset = invocation.getArgument(2);
+            int maxNums = invocation.getArgument(3);
+            List<MessageExt> found = new ArrayList<>();
+            for (long i = offset; i < messages.size() && found.size() < maxNums; i++) {
+                found.add(messages.get((int) i));
+            }
+            PullStatus status = found.isEmpty() ? PullStatus.NO_NEW_MSG : PullStatus.FOUND;
+            return new PullResult(status, offset + found.size(), 0, messages.size(), found);
+        });
+        addMessage("msg0", 500L, "key_test");
+        addMessage("msg1", 1500L, "key_test");
+        addMessage("msg2", 1600L, "key_other");
+        addMessage("msg3", 2500L, "key_test");
+        when(defaultMQPullConsumer.maxOffset(mq)).thenReturn((long) messages.size());
+    }
+
+    @Test
+    public void testBulkResendWithinTimeRangeAndKey() throws Exception {
+        ConsumeMessageDirectlyResult consumeResult = new ConsumeMessageDirectlyResult();
+        consumeResult.setConsumeResult(CMResult.CR_SUCCESS);
+        UserInfo userInfo = new UserInfo();
+        userInfo.setUsername("user_test");
+        List<Object> callers = Collections.synchronizedList(new ArrayList<>());
+        when(messageService.consumeMessageDirectly(anyString(), anyString(), anyString(), isNull()))
+                .thenAnswer(invocation -> {
+                    callers.add(UserInfoContext.get(WebUtil.USER_NAME));
+                    return consumeResult;
+                });
+
+        DlqBulkJobRequest request = new DlqBulkJobRequest();
+        request.setTopic(DLQ_TOPIC);
+        request.setBegin(1000L);
+        request.setEnd(2000L);
+        request.setKey("key_test");
+        request.setAction(DlqBulkJobRequest.Action.RESEND);
+        UserInfoContext.set(WebUtil.USER_NAME, userInfo);
+        DlqBulkJob job;
+        try {
+            job = awaitBulkJob(dlqMessageService.submitBulkJob(request).getJobId());
+        } finally {
+            UserInfoContext.clear();
+        }
+
+        assertEquals(DlqBulkJob.Status.SUCCEEDED, job.getStatus());
+        assertEquals(2, job.getTotal());
+        assertEquals(2, job.getScanned());
+        assertEquals(1, job.getMatched());
+        assertEquals(1, job.getSucceeded());
+        assertEquals(0, job.getFailed());
+        verify(messageService, times(1)).consumeMessageDirectly(anyString(), anyString(), anyString(), isNull());
+        verify(messageService).consumeMessageDirectly(DLQ_TOPIC, "msg1", "group_test", null);
+        // the job resends as the user who submitted it
+        assertEquals(Collections.singletonList(userInfo), callers);
+    }
+
+    @Test
+    public void testBatchExportAsCurrentUser() throws Exception {
+        UserInfo userInfo = new UserInfo();
+        userInfo.setUsername("user_test");
+        List<Object> callers = Collections.synchronizedList(new ArrayList<>());
+        when(mqAdminExt.viewMessage(eq(DLQ_TOPIC), anyString())).thenAnswer(invocation -> {
+            callers.add(UserInfoContext.get(WebUtil.USER_NAME));
+            String msgId = invocation.getArgument(1);
+            if ("msg_failed".equals(msgId)) {
+                throw new RuntimeException("viewMessage exception");
+            }
+            return messages.stream().filter(messageExt -> messageExt.getMsgId().equals(msgId)).findFirst().get();
+        });
+        List<DlqMessageRequest> requests = new ArrayList<>();
+        for (String msgId : new String[] {"msg0", "msg_failed", "msg2", "msg3"}) {
+            DlqMessageRequest request = new DlqMessageRequest();
+            request.setConsumerGroup("group_test");
+            request.setMsgId(msgId);
+            requests.add(request);
+        }
+        List<DlqMessageExcelModel> rows = new ArrayList<>();
+        UserInfoContext.set(WebUtil.USER_NAME, userInfo);
+        try {
+            dlqMessageService.batchExportDlqMessage(requests, rows::add);
+        } finally {
+            UserInfoContext.clear();
+        }
+
+        // rows keep the order of the request, a failed lookup is exported with its error
+        assertEquals(4, rows.size());
+        assertEquals("msg0", rows.get(0).getMsgId());
+        assertEquals("msg_failed", rows.get(1).getMsgId());
+        assertEquals("viewMessage exception", rows.get(1).getException());
+        assertEquals("msg3", rows.get(3).getMsgId());
+        // the lookups run on the export pool as the user who asked for the export
+        assertEquals(4, callers.size());
+        for (Object caller : callers) {
+            assertSame(userInfo, caller);
+        }
+    }
+
+    @Test
+    public void testBulkJobOfAnotherUser() throws Exception {
+        ConsumeMessageDirectlyResult consumeResult = new ConsumeMessageDirectlyResult();
+        consumeResult.setConsumeResult(CMResult.CR_SUCCESS);
+        when(messageService.consumeMessageDirectly(anyString(), anyString(), anyString(), isNull())).thenReturn(consumeResult);
+        UserInfo owner = new UserInfo();
+        owner.setUsername("user_test");
+        UserInfo other = new UserInfo();
+        other.setUsername("user_other");
+
+        DlqBulkJobRequest request = new DlqBulkJobRequest();
+        request.setTopic(DLQ_TOPIC);
+        request.setAction(DlqBulkJobRequest.Action.RESEND);
+        UserInfoContext.set(WebUtil.USER_NAME, owner);
+        String jobId;
+        try {
+            jobId = dlqMessageService.submitBulkJob(request).getJobId();
+        } finally {
+            UserInfoContext.clear();
+        }
+
+        // another user can neither poll, cancel nor download the job, even with its id
+        UserInfoContext.set(WebUtil.USER_NAME, other);
+        try {
+            for (Consumer<String> call : Arrays.<Consumer<String>>asList(dlqMessageService::queryBulkJob,
+                    dlqMessageService::cancelBulkJob, dlqMessageService::bulkJobExportFile)) {
+                try {
+                    call.accept(jobId);
+                    fail();
+                } catch (ServiceException e) {
+                    assertEquals(String.format("bulk job %s not found", jobId), e.getMessage());
+                }
+            }
+        } finally {
+            UserInfoContext.clear();
+        }
+
+        UserInfoContext.set(WebUtil.USER_NAME, owner);
+        try {
+            assertEquals(DlqBulkJob.Status.SUCCEEDED, awaitBulkJob(jobId).getStatus());
+        } finally {
+            UserInfoContext.clear();
+        }
+    }
+
+    @Test(expected = ServiceException.class)
+    public void testSubmitBulkJobRejectsNonDlqTopic() {
+        DlqBulkJobRequest request = new DlqBulkJobRequest();
+        request.setTopic("topic_test");
+        request.setAction(DlqBulkJobRequest.Action.EXPORT);
+        dlqMessageService.submitBulkJob(request);
+    }
+
+    private DlqBulkJob awaitBulkJob(String jobId) throws InterruptedException {
+        DlqBulkJob job = dlqMessageService.queryBulkJob(jobId);
+        for (int i = 0; i < 100 && (job.getStatus() == DlqBulkJob.Status.PENDING
+                || job.getStatus() == DlqBulkJob.Status.RUNNING); i++) {
+            Thread.sleep(50);
+            job = dlqMessageService.queryBulkJob(jobId);
+        }
+        return job;
+    }
+
+    private void addMessage(String msgId, long storeTimestamp, String keys) {
+        MessageExt messageExt = new MessageExt();
+        messageExt.setTopic(DLQ_TOPIC);
+        messageExt.setMsgId(msgId);
+        messageExt.setQueueOffset(messages.size());
+        messageExt.setStoreTimestamp(storeTimestamp);
+        messageExt.setKeys(keys);
+        messageExt.setBody(msgId.getBytes());
+        messages.add(messageExt);
+    }
+}
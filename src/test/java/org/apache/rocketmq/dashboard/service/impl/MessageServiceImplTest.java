@@ -32,6 +32,7 @@ import org.apache.rocketmq.dashboard.model.MessagePage;
 import org.apache.rocketmq.dashboard.model.MessageQueryByPage;
 import org.apache.rocketmq.dashboard.model.MessageView;
 import org.apache.rocketmq.dashboard.model.QueueOffsetInfo;
+import org.apache.rocketmq.dashboard.model.request.MessageQuery;
 import org.apache.rocketmq.dashboard.support.AutoCloseConsumerWrapper;
 import org.apache.rocketmq.remoting.RPCHook;
 import org.apache.rocketmq.remoting.protocol.body.Connection;
@@ -54,9 +55,12 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.function.LongUnaryOperator;
+import java.util.stream.Collectors;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -178,8 +182,10 @@ public class MessageServiceImplTest {
     public void testQueryMessageByTopic() throws Exception {
         // Setup message queues
         Set<MessageQueue> messageQueues = new HashSet<>();
-        messageQueues.add(new MessageQueue(TOPIC, "broker-1", 0));
-        messageQueues.add(new MessageQueue(TOPIC, "broker-2", 1));
+        MessageQueue mq1 = new MessageQueue(TOPIC, "broker-1", 0);
+        MessageQueue mq2 = new MessageQueue(TOPIC, "broker-2", 1);
+        messageQueues.add(mq1);
+        messageQueues.add(mq2);
         System.out.println("Consumer from wrapper: " + autoCloseConsumerWrapper.getConsumer(new AclClientRPCHook(new SessionCredentials(configure.getAccessKey(), configure.getSecretKey())), false));
         when(defaultMQPullConsumer.fetchSubscribeMessageQueues(TOPIC)).thenReturn(messageQueues);
         System.out.println(defaultMQPullConsumer.fetchSubscribeMessageQueues(TOPIC));
@@ -196,10 +202,14 @@ public class MessageServiceImplTest {
 
         PullResult emptyResult = createPullResult(PullStatus.NO_NEW_MSG, Collections.emptyList(), 10, 10);
 
-        // First pull gets messages, second pull gets empty to terminate loop
-        when(defaultMQPullConsumer.pull(any(MessageQueue.class), anyString(), anyLong(), anyInt()))
+        // Both queues hold offsets 0 and 1 in the queried range
+        when(defaultMQPullConsumer.searchOffset(any(MessageQueue.class), eq(3000L))).thenReturn(1L);
+
+        // Queues are pulled concurrently, so every queue gets its own results
+        when(defaultMQPullConsumer.pull(eq(mq1), anyString(), anyLong(), anyInt()))
                 .thenReturn(pullResult1)
-                .thenReturn(emptyResult)
+                .thenReturn(emptyResult);
+        when(defaultMQPullConsumer.pull(eq(mq2), anyString(), anyLong(), anyInt()))
                 .thenReturn(pullResult2)
                 .thenReturn(emptyResult);
 
@@ -217,7 +227,9 @@ public class MessageServiceImplTest {
         assertEquals("id3", result.get(2).getMsgId()); // 1800
         assertEquals("id1", result.get(3).getMsgId()); // 1500
 
-        verify(defaultMQPullConsumer, times(4)).pull(any(MessageQueue.class), eq("*"), anyLong(), anyInt());
+        // The whole offset range of a queue is read by its first pull
+        verify(defaultMQPullConsumer, times(1)).pull(eq(mq1), eq("*"), anyLong(), anyInt());
+        verify(defaultMQPullConsumer, times(1)).pull(eq(mq2), eq("*"), anyLong(), anyInt());
 
     }
 
@@ -433,6 +445,96 @@ public class MessageServiceImplTest {
         assertEquals(10, (qo1.getEndOffset() - 5L) + (qo2.getEndOffset() - 10L));
     }
 
+    @Test
+    public void testQueryMessageByPageBisectsTimeRange() throws Exception {
+        MessageQueue mq = new MessageQueue(TOPIC, "broker-1", 0);
+        when(defaultMQPullConsumer.fetchSubscribeMessageQueues(TOPIC)).thenReturn(Collections.singleton(mq));
+        // searchOffset only gives a rough estimate of the range
+        when(defaultMQPullConsumer.searchOffset(mq, 1500L)).thenReturn(0L);
+        when(defaultMQPullConsumer.searchOffset(mq, 1800L)).thenReturn(100L);
+        mockQueue(mq, 100, 0);
+
+        MessageQuery query = new MessageQuery();
+        query.setPageNum(1);
+        query.setPageSize(10);
+        query.setTopic(TOPIC);
+        query.setBegin(1500);
+        query.setEnd(1800);
+        query.setTaskId("");
+        MessagePage page = messageService.queryMessageByPage(query);
+
+        // offsets 50 to 80 are stored in the time range
+        assertEquals(31, page.getPage().getTotalElements());
+        assertEquals("id50", page.getPage().getContent().get(0).getMsgId());
+        int singlePulls = mockingDetails(defaultMQPullConsumer).getInvocations().stream()
+                .filter(invocation -> invocation.getMethod().getName().equals("pull")
+                        && invocation.getArgument(3).equals(1))
+                .mapToInt(invocation -> 1).sum();
+        assertTrue(singlePulls <= 14);
+
+        // the boundaries of the range are cached
+        clearInvocations(defaultMQPullConsumer);
+        query.setTaskId("");
+        page = messageService.queryMessageByPage(query);
+        assertEquals(31, page.getPage().getTotalElements());
+        verify(defaultMQPullConsumer, never()).pull(eq(mq), anyString(), anyLong(), eq(1));
+    }
+
+    @Test
+    public void testQueryMessageByPageWithinByteBudget() throws Exception {
+        MessageQueue mq = new MessageQueue(TOPIC, "broker-1", 0);
+        when(defaultMQPullConsumer.fetchSubscribeMessageQueues(TOPIC)).thenReturn(Collections.singleton(mq));
+        when(defaultMQPullConsumer.searchOffset(mq, 1000L)).thenReturn(0L);
+        when(defaultMQPullConsumer.searchOffset(mq, 2000L)).thenReturn(100L);
+        when(configure.getMessageListByteBudget()).thenReturn(8L * 1024 * 1024);
+        mockQueue(mq, 100, 1024 * 1024);
+
+        MessageQuery query = new MessageQuery();
+        query.setPageNum(1);
+        query.setPageSize(20);
+        query.setTopic(TOPIC);
+        query.setBegin(1000);
+        query.setEnd(2000);
+        query.setTaskId("");
+        MessagePage page = messageService.queryMessageByPage(query);
+
+        assertEquals(20, page.getPage().getContent().size());
+        for (int i = 0; i < 20; i++) {
+            assertEquals("id" + i, page.getPage().getContent().get(i).getMsgId());
+            assertNull(page.getPage().getContent().get(i).getMessageBody());
+        }
+        // messages are assumed to be 4MB until the first pull shows they are 1MB
+        verify(defaultMQPullConsumer).pull(mq, "*", 0L, 2);
+        verify(defaultMQPullConsumer).pull(mq, "*", 2L, 8);
+        verify(defaultMQPullConsumer).pull(mq, "*", 10L, 8);
+        verify(defaultMQPullConsumer).pull(mq, "*", 18L, 2);
+    }
+
+    @Test
+    public void testScanQueuesOfUnequalSize() throws Exception {
+        // queue 0 holds 1 message in range, queue 1 holds 5 and queue 2 holds 50, the stores interleave in time
+        MessageQueue mq0 = new MessageQueue(TOPIC, "broker-1", 0);
+        MessageQueue mq1 = new MessageQueue(TOPIC, "broker-1", 1);
+        MessageQueue mq2 = new MessageQueue(TOPIC, "broker-2", 2);
+        when(defaultMQPullConsumer.fetchSubscribeMessageQueues(TOPIC)).thenReturn(new HashSet<>(Arrays.asList(mq0, mq1, mq2)));
+        mockQueue(mq0, 1, offset -> 1495L);
+        mockQueue(mq1, 5, offset -> 1421 + offset * 20);
+        mockQueue(mq2, 50, offset -> 1002 + offset * 10);
+
+        List<MessageView> result = new ArrayList<>();
+        int count = new MessageRangeScanner(defaultMQPullConsumer, Runnable::run, 0)
+                .scan(TOPIC, 1000, 2000, 12, result::add);
+
+        // a cap of 12 is 4 per queue, queue 0 needs 1 of its share so queue 1 gets 5 and queue 2 the remaining 6
+        assertEquals(12, count);
+        assertEquals(Arrays.asList("q1-4", "q0-0", "q2-49", "q2-48", "q1-3", "q2-47", "q2-46", "q1-2",
+                "q2-45", "q2-44", "q1-1", "q1-0"),
+                result.stream().map(MessageView::getMsgId).collect(Collectors.toList()));
+        for (int i = 1; i < result.size(); i++) {
+            assertTrue(result.get(i - 1).getStoreTimestamp() > result.get(i).getStoreTimestamp());
+        }
+    }
+
     // Helper methods
 
     private MessageExt createMessageExt(String msgId, String topic, String body, long storeTimestamp) {
@@ -444,6 +546,38 @@ public class MessageServiceImplTest {
         return msg;
     }
 
+    private void mockQueue(MessageQueue mq, long maxOffset, int storeSize) throws Exception {
+        // the message at offset n is stored at 1000 + n * 10
+        when(defaultMQPullConsumer.pull(eq(mq), anyString(), anyLong(), anyInt())).thenAnswer(invocation -> {
+            long offset = invocation.getArgument(2);
+            int maxNums = invocation.getArgument(3);
+            List<MessageExt> found = new ArrayList<>();
+            for (long i = offset; i < Math.min(offset + maxNums, maxOffset); i++) {
+                MessageExt messageExt = createMessageExt("id" + i, TOPIC, "body", 1000 + i * 10);
+                messageExt.setQueueOffset(i);
+                messageExt.setStoreSize(storeSize);
+                found.add(messageExt);
+            }
+            return createPullResult(found.isEmpty() ? PullStatus.NO_NEW_MSG : PullStatus.FOUND, found, offset + found.size(), offset);
+        });
+    }
+
+    private void mockQueue(MessageQueue mq, long size, LongUnaryOperator storeTimestamp) throws Exception {
+        when(defaultMQPullConsumer.searchOffset(mq, 1000L)).thenReturn(0L);
+        when(defaultMQPullConsumer.searchOffset(mq, 2000L)).thenReturn(size - 1);
+        when(defaultMQPullConsumer.pull(eq(mq), anyString(), anyLong(), anyInt())).thenAnswer(invocation -> {
+            long offset = invocation.getArgument(2);
+            int maxNums = invocation.getArgument(3);
+            List<MessageExt> found = new ArrayList<>();
+            for (long i = offset; i < Math.min(offset + maxNums, size); i++) {
+                MessageExt messageExt = createMessageExt("q" + mq.getQueueId() + "-" + i, TOPIC, "body", storeTimestamp.applyAsLong(i));
+                messageExt.setQueueOffset(i);
+                found.add(messageExt);
+            }
+            return createPullResult(found.isEmpty() ? PullStatus.NO_NEW_MSG : PullStatus.FOUND, found, offset + found.size(), offset);
+        });
+    }
+
     private PullResult createPullResult(PullStatus status, List<MessageExt> msgFoundList, long nextBeginOffset, long minOffset) {
         return new PullResult(status, nextBeginOffset, minOffset, minOffset + msgFoundList.size(), msgFoundList);
     }
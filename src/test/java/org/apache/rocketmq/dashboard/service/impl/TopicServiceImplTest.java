@@ -17,6 +17,7 @@
 
 package org.apache.rocketmq.dashboard.service.impl;
 
+import com.google.common.collect.Lists;
 import org.apache.rocketmq.acl.common.AclClientRPCHook;
 import org.apache.rocketmq.client.producer.DefaultMQProducer;
 import org.apache.rocketmq.client.producer.SendResult;
@@ -26,6 +27,9 @@ import org.apache.rocketmq.common.attribute.TopicMessageType;
 import org.apache.rocketmq.common.message.Message;
 import org.apache.rocketmq.dashboard.BaseTest;
 import org.apache.rocketmq.dashboard.config.RMQConfigure;
+import org.apache.rocketmq.dashboard.exception.ServiceException;
+import org.apache.rocketmq.dashboard.model.SendLoadJob;
+import org.apache.rocketmq.dashboard.model.SendLoadJobRequest;
 import org.apache.rocketmq.dashboard.model.request.SendTopicMessageRequest;
 import org.apache.rocketmq.dashboard.model.request.TopicConfigInfo;
 import org.apache.rocketmq.dashboard.model.request.TopicTypeList;
@@ -69,7 +73,7 @@ public class TopicServiceImplTest extends BaseTest {
 
     @Before
     public void setUp() {
-        when(configure.getNamesrvAddr()).thenReturn("localhost:9876");
+        lenient().when(configure.getNamesrvAddr()).thenReturn("localhost:9876");
         // Use lenient() to prevent the unnecessary stubbing error
         lenient().when(configure.isUseTLS()).thenReturn(false);
     }
@@ -123,7 +127,14 @@ public class TopicServiceImplTest extends BaseTest {
         Assert.assertEquals("testKey", sentMessage.getKeys());
         Assert.assertEquals("Hello RocketMQ", new String(sentMessage.getBody()));
 
+        // The producer is kept for the next send
+        verify(mockProducer, never()).shutdown();
+        topicService.sendTopicMessageRequest(request);
+        verify(mockProducer, times(1)).start();
+        verify(topicService, times(1)).buildDefaultMQProducer(any(), any(), anyBoolean());
+
         // Verify producer shutdown
+        topicService.shutdown();
         verify(mockProducer).shutdown();
     }
 
@@ -178,6 +189,8 @@ public class TopicServiceImplTest extends BaseTest {
         Assert.assertEquals("Hello RocketMQ", new String(sentMessage.getBody()));
 
         // Verify producer shutdown
+        verify(mockProducer, never()).shutdown();
+        topicService.shutdown();
         verify(mockProducer).shutdown();
     }
 
@@ -224,7 +237,6 @@ public class TopicServiceImplTest extends BaseTest {
         // Verify producer methods
         verify(mockProducer).start();
         verify(mockProducer).send(any(Message.class));
-        verify(mockProducer).shutdown();
     }
 
     @Test
@@ -251,9 +263,6 @@ public class TopicServiceImplTest extends BaseTest {
         DefaultMQProducer mockProducer = mock(DefaultMQProducer.class);
         doReturn(mockProducer).when(topicService).buildDefaultMQProducer(any(), any(), eq(true));
 
-        // Cannot mock waitSendTraceFinish as it's private
-        // doNothing().when(topicService).waitSendTraceFinish(any(DefaultMQProducer.class), eq(true));
-
         // Mock send result
         SendResult expectedResult = new SendResult();
         expectedResult.setSendStatus(SendStatus.SEND_OK);
@@ -267,8 +276,76 @@ public class TopicServiceImplTest extends BaseTest {
 
         // Verify that buildDefaultMQProducer was called with traceEnabled=true
         verify(topicService).buildDefaultMQProducer(any(), any(), eq(true));
+    }
+
+    @Test
+    public void testSendLoadJobInBatches() throws Exception {
+        TopicConfigInfo configInfo = new TopicConfigInfo();
+        configInfo.setMessageType(TopicMessageType.NORMAL.name());
+        doReturn(Lists.newArrayList(configInfo)).when(topicService).examineTopicConfig("testTopic");
+        DefaultMQProducer mockProducer = mock(DefaultMQProducer.class);
+        doReturn(mockProducer).when(topicService).buildDefaultMQProducer(any(), any(), eq(false));
+        when(mockProducer.send(anyCollection())).thenReturn(new SendResult());
+
+        SendLoadJobRequest request = new SendLoadJobRequest();
+        request.setTopic("testTopic");
+        request.setMessageCount(10);
+        request.setBodySize(16);
+        request.setConcurrency(2);
+        request.setMode(SendLoadJobRequest.Mode.BATCH);
+        request.setBatchSize(4);
+        SendLoadJob job = awaitLoadJob(topicService.submitSendLoadJob(request).getJobId());
+
+        Assert.assertEquals(SendLoadJob.Status.SUCCEEDED, job.getStatus());
+        Assert.assertEquals(10, job.getSucceeded());
+        Assert.assertEquals(0, job.getFailed());
+        Assert.assertTrue(job.getLatencyP99() <= job.getLatencyMax());
+        // batches of 4, 4 and 2 messages
+        verify(mockProducer, times(3)).send(anyCollection());
+        verify(mockProducer, never()).send(any(Message.class));
+        verify(mockProducer).shutdown();
+    }
+
+    @Test
+    public void testCancelSendLoadJob() throws Exception {
+        TopicConfigInfo configInfo = new TopicConfigInfo();
+        configInfo.setMessageType(TopicMessageType.NORMAL.name());
+        doReturn(Lists.newArrayList(configInfo)).when(topicService).examineTopicConfig("testTopic");
+        DefaultMQProducer mockProducer = mock(DefaultMQProducer.class);
+        lenient().doReturn(mockProducer).when(topicService).buildDefaultMQProducer(any(), any(), eq(false));
+        lenient().when(mockProducer.send(any(Message.class))).thenReturn(new SendResult());
+
+        SendLoadJobRequest request = new SendLoadJobRequest();
+        request.setTopic("testTopic");
+        request.setMessageCount(1000);
+        request.setTps(10);
+        String jobId = topicService.submitSendLoadJob(request).getJobId();
+        topicService.cancelSendLoadJob(jobId);
+        SendLoadJob job = awaitLoadJob(jobId);
+
+        Assert.assertEquals(SendLoadJob.Status.CANCELLED, job.getStatus());
+        Assert.assertTrue(job.getSucceeded() < 1000);
+    }
+
+    @Test(expected = ServiceException.class)
+    public void testSendLoadJobTooLargeBatch() {
+        SendLoadJobRequest request = new SendLoadJobRequest();
+        request.setTopic("testTopic");
+        request.setMessageCount(10);
+        request.setBodySize(1024 * 1024);
+        request.setMode(SendLoadJobRequest.Mode.BATCH);
+        request.setBatchSize(8);
+        topicService.submitSendLoadJob(request);
+    }
 
-        // Cannot verify waitSendTraceFinish as it's private
-        // verify(topicService).waitSendTraceFinish(mockProducer, true);
+    private SendLoadJob awaitLoadJob(String jobId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        SendLoadJob job = topicService.querySendLoadJob(jobId);
+        while ((job.getStatus() == SendLoadJob.Status.PENDING || job.getStatus() == SendLoadJob.Status.RUNNING)
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            job = topicService.querySendLoadJob(jobId);
+        }
+        return job;
     }
 }
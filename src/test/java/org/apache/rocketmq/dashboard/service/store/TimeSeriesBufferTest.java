@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.rocketmq.dashboard.service.store;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TimeSeriesBufferTest {
+
+    @Test
+    public void testCopyAndDiscard() {
+        TimeSeriesBuffer buffer = new TimeSeriesBuffer(2, 4);
+        buffer.add(1L, 1.5D, 10L, 2.5D, 20L);
+        buffer.add(2L, 3.5D, 30L, 4.5D, 40L);
+
+        TimeSeriesData data = new TimeSeriesData(2);
+        long copied = buffer.copyTo(data);
+        Assert.assertEquals(2, data.size());
+        Assert.assertEquals(4.5D, data.getValue(1, 1), 0D);
+        Assert.assertEquals(40L, data.getCount(1, 1));
+
+        // a sample arriving between copy and discard is kept
+        buffer.add(3L, 5.5D, 50L, 6.5D, 60L);
+        buffer.discard(copied);
+        Assert.assertEquals(1, buffer.size());
+        data = new TimeSeriesData(2);
+        buffer.copyTo(data);
+        Assert.assertEquals(3L, data.getTimestamp(0));
+    }
+
+    @Test
+    public void testDiscardAfterWrap() {
+        TimeSeriesBuffer buffer = new TimeSeriesBuffer(1, 3);
+        for (int i = 0; i < 3; i++) {
+            buffer.add(i, i, i);
+        }
+        long copied = buffer.copyTo(new TimeSeriesData(1));
+
+        // the full ring wraps while the copy is being persisted
+        buffer.add(3L, 3D, 3L);
+        buffer.add(4L, 4D, 4L);
+        buffer.discard(copied);
+        Assert.assertEquals(2, buffer.size());
+        TimeSeriesData data = new TimeSeriesData(1);
+        buffer.copyTo(data);
+        Assert.assertEquals(3L, data.getTimestamp(0));
+        Assert.assertEquals(4L, data.getTimestamp(1));
+    }
+
+    @Test
+    public void testOverwriteOldest() {
+        TimeSeriesBuffer buffer = new TimeSeriesBuffer(1, 3);
+        for (int i = 0; i < 5; i++) {
+            buffer.add(i, i, i);
+        }
+        Assert.assertEquals(3, buffer.size());
+        Assert.assertEquals(2, buffer.getOverwritten());
+        TimeSeriesData data = new TimeSeriesData(1);
+        buffer.copyTo(data);
+        Assert.assertEquals(2L, data.getTimestamp(0));
+        Assert.assertEquals(4L, data.getTimestamp(2));
+        Assert.assertEquals(4D, data.getValue(2, 0), 0D);
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.rocketmq.dashboard.service.store;
+
+import org.apache.rocketmq.common.UtilAll;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.HashMap;
+import java.util.Map;
+
+public class TimeSeriesStoreTest {
+
+    private File rootDir;
+
+    private String today;
+
+    private long now;
+
+    @Before
+    public void init() {
+        rootDir = new File(System.getProperty("java.io.tmpdir"), "time-series-store-test-" + System.nanoTime());
+        now = System.currentTimeMillis();
+        today = TimeSeriesStore.dayOf(now);
+    }
+
+    @After
+    public void after() {
+        UtilAll.deleteFile(rootDir);
+    }
+
+    @Test
+    public void testAppendAndRead() throws Exception {
+        TimeSeriesStore store = new TimeSeriesStore(rootDir.getPath(), "topic", 2);
+        Assert.assertFalse(store.hasDay(today));
+        Assert.assertNull(store.readAll(today));
+
+        for (int i = 0; i < 10; i++) {
+            Map<String, TimeSeriesData> batch = new HashMap<>();
+            batch.put("topic_a", sample(now + i, i, i * 10));
+            batch.put("topic_b", sample(now + i, -i, i * 100));
+            store.append(batch);
+        }
+        Assert.assertTrue(store.hasDay(today));
+
+        TimeSeriesData range = store.read(today, "topic_a", now + 3, now + 5);
+        Assert.assertEquals(3, range.size());
+        Assert.assertEquals(now + 3, range.getTimestamp(0));
+        Assert.assertEquals(3D, range.getValue(0, 0), 0D);
+        Assert.assertEquals(30L, range.getCount(0, 0));
+        Assert.assertEquals(30L, range.getCount(0, 1));
+        Assert.assertEquals(0, store.read(today, "topic_c", Long.MIN_VALUE, Long.MAX_VALUE).size());
+
+        Map<String, TimeSeriesData> all = store.readAll(today);
+        Assert.assertEquals(2, all.size());
+        Assert.assertEquals(10, all.get("topic_b").size());
+
+        Map<String, TimeSeriesData> latest = store.readLatest(today);
+        Assert.assertEquals(1, latest.get("topic_b").size());
+        Assert.assertEquals(-9D, latest.get("topic_b").getValue(0, 0), 0D);
+    }
+
+    @Test
+    public void testReopenAndRecover() throws Exception {
+        TimeSeriesStore store = new TimeSeriesStore(rootDir.getPath(), "broker", 1);
+        Map<String, TimeSeriesData> batch = new HashMap<>();
+        TimeSeriesData data = new TimeSeriesData(1);
+        data.add(now, new double[] {1.5D}, null);
+        data.add(now + 1, new double[] {2.5D}, null);
+        batch.put("broker-a:0", data);
+        store.append(batch);
+
+        // simulate a record that was only partially written before a crash
+        File segment = new File(new File(rootDir, today), "broker.seg");
+        try (RandomAccessFile file = new RandomAccessFile(segment, "rw")) {
+            file.setLength(file.length() + 7);
+        }
+
+        TimeSeriesStore reopened = new TimeSeriesStore(rootDir.getPath(), "broker", 1);
+        TimeSeriesData read = reopened.read(today, "broker-a:0", Long.MIN_VALUE, Long.MAX_VALUE);
+        Assert.assertEquals(2, read.size());
+        Assert.assertEquals(2.5D, read.getValue(1, 0), 0D);
+
+        reopened.append(batch);
+        Assert.assertEquals(4, reopened.readAll(today).get("broker-a:0").size());
+    }
+
+    @Test
+    public void testReadPastDaysWhileAppending() throws Exception {
+        TimeSeriesStore store = new TimeSeriesStore(rootDir.getPath(), "topic", 2);
+        for (int day = 1; day <= 6; day++) {
+            Map<String, TimeSeriesData> batch = new HashMap<>();
+            batch.put("topic_old", sample(now, day, day));
+            store.append("2000-01-0" + day, batch);
+        }
+        Map<String, TimeSeriesData> batch = new HashMap<>();
+        batch.put("topic_a", sample(now, 1, 1));
+        store.append(batch);
+        for (int day = 1; day <= 6; day++) {
+            Assert.assertEquals(1, store.readAll("2000-01-0" + day).get("topic_old").size());
+        }
+        batch = new HashMap<>();
+        batch.put("topic_b", sample(now + 1, 2, 2));
+        store.append(batch);
+
+        TimeSeriesStore reopened = new TimeSeriesStore(rootDir.getPath(), "topic", 2);
+        Map<String, TimeSeriesData> all = reopened.readAll(today);
+        Assert.assertEquals(2, all.size());
+        Assert.assertEquals(1D, all.get("topic_a").getValue(0, 0), 0D);
+        Assert.assertEquals(2D, all.get("topic_b").getValue(0, 0), 0D);
+    }
+
+    private TimeSeriesData sample(long timestamp, double value, long count) {
+        TimeSeriesData data = new TimeSeriesData(2);
+        data.add(timestamp, new double[] {value, value}, new long[] {count, count});
+        return data;
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.rocketmq.dashboard.support;
+
+import org.apache.rocketmq.dashboard.exception.ServiceException;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class BackgroundJobsTest {
+
+    @Test
+    public void testOnlyFinishedJobsAreDropped() throws Exception {
+        BackgroundJobs<TestJob> jobs = new BackgroundJobs<>("test job", 0);
+        TestJob running = new TestJob("running", null);
+        TestJob finished = new TestJob("finished", null);
+        jobs.add(running);
+        jobs.add(finished);
+        finished.finishTime = System.currentTimeMillis();
+        Thread.sleep(10);
+
+        // the running job outlives the retention, nobody polled it in between
+        assertSame(running, jobs.get("running", null));
+        assertFalse(running.cancelled);
+        assertFalse(running.discarded);
+        try {
+            jobs.get("finished", null);
+            fail();
+        } catch (ServiceException e) {
+            assertEquals("test job finished not found", e.getMessage());
+        }
+        assertTrue(finished.discarded);
+    }
+
+    @Test
+    public void testOnlyOwnerGetsJob() {
+        BackgroundJobs<TestJob> jobs = new BackgroundJobs<>("test job", 60000);
+        TestJob job = new TestJob("job_test", "user_a");
+        jobs.add(job);
+
+        assertSame(job, jobs.get("job_test", "user_a"));
+        // another user, or a request without login, is told there is no such job
+        for (String other : new String[] {"user_b", null}) {
+            try {
+                jobs.get("job_test", other);
+                fail();
+            } catch (ServiceException e) {
+                assertEquals("test job job_test not found", e.getMessage());
+            }
+        }
+        assertFalse(job.cancelled);
+    }
+
+    @Test
+    public void testClear() {
+        BackgroundJobs<TestJob> jobs = new BackgroundJobs<>("test job", 60000);
+        TestJob running = new TestJob("running", null);
+        jobs.add(running);
+
+        jobs.clear();
+        assertTrue(running.cancelled);
+        assertTrue(running.discarded);
+        try {
+            jobs.get("running", null);
+            fail();
+        } catch (ServiceException e) {
+            assertEquals("test job running not found", e.getMessage());
+        }
+    }
+
+    private static final class TestJob implements BackgroundJobs.Job {
+        private final String jobId;
+        private final String owner;
+        private volatile long finishTime;
+        private volatile boolean cancelled;
+        private volatile boolean discarded;
+
+        private TestJob(String jobId, String owner) {
+            this.jobId = jobId;
+            this.owner = owner;
+        }
+
+        @Override
+        public String getJobId() {
+            return jobId;
+        }
+
+        @Override
+        public String getOwner() {
+            return owner;
+        }
+
+        @Override
+        public long getFinishTime() {
+            return finishTime;
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+
+        @Override
+        public void discard() {
+            discarded = true;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.rocketmq.dashboard.support;
+
+import org.apache.rocketmq.client.producer.DefaultMQProducer;
+import org.apache.rocketmq.client.producer.SendCallback;
+import org.apache.rocketmq.client.producer.SendResult;
+import org.apache.rocketmq.common.message.Message;
+import org.apache.rocketmq.common.message.MessageAccessor;
+import org.apache.rocketmq.common.message.MessageConst;
+import org.apache.rocketmq.common.message.MessageExt;
+import org.apache.rocketmq.dashboard.config.RMQConfigure;
+import org.apache.rocketmq.dashboard.model.DlqResendBatchResult;
+import org.apache.rocketmq.remoting.RPCHook;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class DlqMessageReproducerTest {
+
+    @InjectMocks
+    private DlqMessageReproducer reproducer = new DlqMessageReproducer() {
+        @Override
+        protected DefaultMQProducer createProducer(RPCHook rpcHook) {
+            return producer;
+        }
+    };
+
+    @Mock
+    private RMQConfigure configure;
+
+    @Mock
+    private DefaultMQProducer producer;
+
+    @Before
+    public void setUp() throws Exception {
+        when(configure.getDlqResendPermitsPerSecond()).thenReturn(0);
+        when(producer.getSendMsgTimeout()).thenReturn(3000);
+        doAnswer(invocation -> {
+            SendCallback callback = invocation.getArgument(1);
+            callback.onSuccess(new SendResult());
+            return null;
+        }).when(producer).send(any(Message.class), any(SendCallback.class));
+        when(producer.send(anyCollection())).thenReturn(new SendResult());
+    }
+
+    @Test
+    public void testResendToRetryTopicOnce() throws Exception {
+        MessageExt messageExt = createDlqMessage("msg1");
+
+        DlqResendBatchResult result = reproducer.resend(Collections.singletonList(messageExt),
+                DlqResendBatchResult.Target.RETRY_TOPIC, false);
+        assertEquals(1, result.getSent());
+        assertTrue(result.getFailures().isEmpty());
+        ArgumentCaptor<Message> captor = ArgumentCaptor.forClass(Message.class);
+        verify(producer).send(captor.capture(), any(SendCallback.class));
+        assertEquals("%RETRY%group_test", captor.getValue().getTopic());
+        assertEquals("topic_test", captor.getValue().getProperty(MessageConst.PROPERTY_RETRY_TOPIC));
+        assertEquals("KeyA", captor.getValue().getKeys());
+        assertNull(captor.getValue().getProperty(MessageConst.PROPERTY_RECONSUME_TIME));
+
+        // the ledger knows the message as resent
+        result = reproducer.resend(Collections.singletonList(messageExt), DlqResendBatchResult.Target.RETRY_TOPIC, false);
+        assertEquals(0, result.getSent());
+        assertEquals(1, result.getSkipped());
+
+        result = reproducer.resend(Collections.singletonList(messageExt), DlqResendBatchResult.Target.RETRY_TOPIC, true);
+        assertEquals(1, result.getSent());
+        verify(producer, times(2)).send(any(Message.class), any(SendCallback.class));
+    }
+
+    @Test
+    public void testResendToOriginTopicInBatch() throws Exception {
+        MessageExt noOrigin = createDlqMessage("msg3");
+        MessageAccessor.clearProperty(noOrigin, MessageConst.PROPERTY_RETRY_TOPIC);
+
+        DlqResendBatchResult result = reproducer.resend(Arrays.asList(createDlqMessage("msg1"),
+                createDlqMessage("msg2"), noOrigin), DlqResendBatchResult.Target.ORIGIN_TOPIC, false);
+        assertEquals(2, result.getSent());
+        assertEquals(1, result.getFailures().size());
+        assertTrue(result.getFailures().containsKey("msg3"));
+        ArgumentCaptor<Collection<Message>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(producer).send(captor.capture());
+        assertEquals(2, captor.getValue().size());
+        for (Message message : captor.getValue()) {
+            assertEquals("topic_test", message.getTopic());
+        }
+
+        // a failed message is not recorded in the ledger
+        MessageAccessor.putProperty(noOrigin, MessageConst.PROPERTY_RETRY_TOPIC, "topic_test");
+        result = reproducer.resend(Collections.singletonList(noOrigin), DlqResendBatchResult.Target.ORIGIN_TOPIC, false);
+        assertEquals(1, result.getSent());
+    }
+
+    private MessageExt createDlqMessage(String msgId) {
+        MessageExt messageExt = new MessageExt();
+        messageExt.setTopic("%DLQ%group_test");
+        messageExt.setMsgId(msgId);
+        messageExt.setBody("body".getBytes());
+        messageExt.setKeys("KeyA");
+        MessageAccessor.putProperty(messageExt, MessageConst.PROPERTY_RETRY_TOPIC, "topic_test");
+        MessageAccessor.putProperty(messageExt, MessageConst.PROPERTY_RECONSUME_TIME, "16");
+        return messageExt;
+    }
+}
@@ -17,22 +17,25 @@
 
 package org.apache.rocketmq.dashboard.task;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.google.common.cache.LoadingCache;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import org.apache.rocketmq.common.MixAll;
 import org.apache.rocketmq.dashboard.BaseTest;
 import org.apache.rocketmq.dashboard.config.CollectExecutorConfig;
 import org.apache.rocketmq.dashboard.config.RMQConfigure;
+import org.apache.rocketmq.dashboard.service.BrokerRuntimeStatsService;
+import org.apache.rocketmq.dashboard.service.ClusterInfoService;
+import org.apache.rocketmq.dashboard.service.TopicRouteCache;
 import org.apache.rocketmq.dashboard.service.impl.DashboardCollectServiceImpl;
+import org.apache.rocketmq.dashboard.service.store.TimeSeriesBuffer;
+import org.apache.rocketmq.dashboard.service.store.TimeSeriesData;
 import org.apache.rocketmq.dashboard.util.JsonUtil;
 import org.apache.rocketmq.dashboard.util.MockObjectUtil;
 import org.apache.rocketmq.remoting.protocol.body.BrokerStatsData;
 import org.apache.rocketmq.remoting.protocol.body.ClusterInfo;
 import org.apache.rocketmq.remoting.protocol.body.GroupList;
-import org.apache.rocketmq.remoting.protocol.body.KVTable;
 import org.apache.rocketmq.remoting.protocol.body.TopicList;
+import org.apache.rocketmq.remoting.protocol.route.BrokerData;
 import org.apache.rocketmq.remoting.protocol.route.TopicRouteData;
 import org.apache.rocketmq.tools.admin.MQAdminExt;
 import org.junit.After;
@@ -46,16 +49,27 @@ import org.mockito.Spy;
 import java.io.File;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anySet;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class DashboardCollectTaskTest extends BaseTest {
@@ -72,24 +86,59 @@ public class DashboardCollectTaskTest extends BaseTest {
     @Mock
     private RMQConfigure rmqConfigure;
 
+    /**
+     * DashboardCollectServiceImpl names its configure field differently from the task
+     */
+    private RMQConfigure configure;
+
+    @Spy
+    private TopicStatsCollector topicStatsCollector;
+
+    @Spy
+    private TopicRouteCache topicRouteCache;
+
     @Mock
+    private ClusterInfoService clusterInfoService;
+
+    @Mock
+    private BrokerRuntimeStatsService brokerRuntimeStatsService;
+
+    private CollectExecutorConfig collectExecutorConfig;
+
     private ExecutorService collectExecutor;
 
+    private static final String DEAD_BROKER_ADDR = "127.0.0.2:10911";
+
     private int taskExecuteNum = 10;
 
     private File brokerFile;
 
     private File topicFile;
 
+    private File storeDir;
+
+    private String nowDateStr;
+
     @Before
     public void init() throws Exception {
         MockitoAnnotations.initMocks(this);
         when(rmqConfigure.getDashboardCollectData()).thenReturn("/tmp/rocketmq-console/test/data");
         ClusterInfo clusterInfo = MockObjectUtil.createClusterInfo();
         when(mqAdminExt.examineBrokerClusterInfo()).thenReturn(clusterInfo);
+        when(clusterInfoService.get()).thenReturn(clusterInfo);
+        when(mqAdminExt.examineTopicRouteInfo(anyString())).thenReturn(MockObjectUtil.createTopicRouteData());
+        collectExecutorConfig = new CollectExecutorConfig();
+        collectExecutorConfig.setCoreSize(10);
+        collectExecutorConfig.setMaxSize(10);
+        collectExecutorConfig.setQueueSize(500);
+        collectExecutorConfig.setKeepAliveTime(3000);
+        collectExecutor = collectExecutorConfig.collectExecutor(collectExecutorConfig);
         String dataLocationPath = rmqConfigure.getDashboardCollectData();
         DateFormat format = new SimpleDateFormat("yyyy-MM-dd");
-        String nowDateStr = format.format(new Date());
+        nowDateStr = format.format(new Date());
+        storeDir = new File(dataLocationPath, nowDateStr);
+        deleteStoreDir();
+        configure = rmqConfigure;
         brokerFile = new File(dataLocationPath + nowDateStr + ".json");
         topicFile = new File(dataLocationPath + nowDateStr + "_topic" + ".json");
         autoInjection();
@@ -111,8 +160,6 @@ public class DashboardCollectTaskTest extends BaseTest {
             when(mqAdminExt.fetchAllTopicList())
                     .thenThrow(new RuntimeException("fetchAllTopicList exception"))
                     .thenReturn(topicList);
-            TopicRouteData topicRouteData = MockObjectUtil.createTopicRouteData();
-            when(mqAdminExt.examineTopicRouteInfo(anyString())).thenReturn(topicRouteData);
             GroupList list = new GroupList();
             list.setGroupList(Sets.newHashSet("group_test"));
             when(mqAdminExt.queryTopicConsumeByWho(anyString())).thenReturn(list);
@@ -129,35 +176,126 @@ public class DashboardCollectTaskTest extends BaseTest {
         } catch (Exception e) {
             Assert.assertEquals(e.getMessage(), "fetchAllTopicList exception");
         }
+        doReturn(CompletableFuture.completedFuture(null)).when(topicStatsCollector).collect(anySet());
         dashboardCollectTask.collectTopic();
+        verify(topicStatsCollector).collect(Sets.newHashSet("topic_test"));
 
         // multiple topic collection
-        CollectExecutorConfig config = new CollectExecutorConfig();
-        config.setCoreSize(10);
-        config.setMaxSize(10);
-        config.setQueueSize(500);
-        config.setKeepAliveTime(3000);
-        ExecutorService collectExecutor = config.collectExecutor(config);
+        doCallRealMethod().when(topicStatsCollector).collect(anySet());
+        Set<String> topics = new HashSet<>();
         for (int i = 0; i < taskExecuteNum; i++) {
-            CollectTaskRunnble collectTask = new CollectTaskRunnble("topic_test" + i, mqAdminExt, dashboardCollectService);
-            collectExecutor.submit(collectTask);
+            topics.add("topic_test" + i);
         }
+        CollectCycleStats stats = topicStatsCollector.collect(topics).get(1, TimeUnit.MINUTES);
+        Assert.assertEquals(stats.getCollectedTopics(), taskExecuteNum);
+        // queryTopicConsumeByWho and two stats requests per topic
+        Assert.assertEquals(stats.getRpcCount(), taskExecuteNum * 3);
+        Assert.assertEquals(stats.getRpcFailures(), 2);
+        Assert.assertTrue(stats.getDurationMs() >= 0);
+        Assert.assertSame(stats, topicStatsCollector.getLastCycle());
+
+        // consumer groups and routes are cached between cycles
+        stats = topicStatsCollector.collect(topics).get(1, TimeUnit.MINUTES);
+        Assert.assertEquals(stats.getRpcCount(), taskExecuteNum * 2);
+        verify(mqAdminExt, times(taskExecuteNum)).examineTopicRouteInfo(anyString());
         collectExecutor.shutdown();
-        boolean loop = true;
-        do {
-            // Wait for all collectTasks to complete
-            loop = !collectExecutor.awaitTermination(Long.MAX_VALUE, TimeUnit.MINUTES);
-        }
-        while (loop);
-        LoadingCache<String, List<String>> map = dashboardCollectService.getTopicMap();
+        Map<String, TimeSeriesBuffer> map = dashboardCollectService.getTopicMap();
         Assert.assertEquals(map.size(), taskExecuteNum);
         dashboardCollectTask.saveData();
-        Assert.assertEquals(topicFile.exists(), true);
-        Map<String, List<String>> topicData =
-                JsonUtil.string2Obj(MixAll.file2String(topicFile),
-                        new TypeReference<Map<String, List<String>>>() {
-                        });
+        Assert.assertEquals(new File(storeDir, "topic.seg").exists(), true);
+        Map<String, TimeSeriesData> topicData = dashboardCollectService.getTopicCache(nowDateStr);
         Assert.assertEquals(topicData.size(), taskExecuteNum);
+        Assert.assertEquals(dashboardCollectService.getTopicCache(nowDateStr, "topic_test0").size(), 2);
+        Assert.assertEquals(dashboardCollectService.getTopicLatest(nowDateStr).size(), taskExecuteNum);
+
+        // samples already flushed are not appended twice
+        dashboardCollectTask.saveData();
+        Assert.assertEquals(dashboardCollectService.getTopicCache(nowDateStr, "topic_test0").size(), 2);
+    }
+
+    @Test
+    public void testCollectTopicDeadline() throws Exception {
+        Set<String> topics = new HashSet<>();
+        for (int i = 0; i < taskExecuteNum; i++) {
+            topics.add("topic_test" + i);
+        }
+        when(mqAdminExt.queryTopicConsumeByWho(anyString())).thenReturn(new GroupList());
+        BrokerStatsData brokerStatsData = MockObjectUtil.createBrokerStatsData();
+        List<String> requested = Collections.synchronizedList(new ArrayList<>());
+        AtomicLong latency = new AtomicLong(100);
+        when(mqAdminExt.viewBrokerStatsData(anyString(), anyString(), anyString())).thenAnswer(invocation -> {
+            requested.add(invocation.getArgument(2));
+            Thread.sleep(latency.get());
+            return brokerStatsData;
+        });
+        collectExecutorConfig.setBrokerConcurrency(1);
+        collectExecutorConfig.setCycleDeadline(450);
+
+        // a cycle still running absorbs the next tick
+        CompletableFuture<CollectCycleStats> cycle = topicStatsCollector.collect(topics);
+        Assert.assertSame(cycle, topicStatsCollector.collect(topics));
+        Assert.assertEquals(topicStatsCollector.getSkippedCycles(), 1);
+
+        // topics not sampled before the deadline are reported instead of silently missing
+        CollectCycleStats stats = cycle.get(1, TimeUnit.MINUTES);
+        Assert.assertTrue(stats.isDeadlineExceeded());
+        Assert.assertTrue(stats.getCollectedTopics() > 0);
+        Assert.assertTrue(stats.getMissedTopics() > 0);
+        Assert.assertEquals(stats.getCollectedTopics() + stats.getMissedTopics(), taskExecuteNum);
+        Assert.assertTrue(stats.getCompletionRatio() < 1D);
+        Set<String> collected = new HashSet<>(dashboardCollectService.getTopicMap().keySet());
+        Assert.assertEquals(collected.size(), stats.getCollectedTopics());
+
+        // topics with traffic in the last cycle are requested first
+        latency.set(0);
+        collectExecutorConfig.setCycleDeadline(60000);
+        requested.clear();
+        stats = topicStatsCollector.collect(topics).get(1, TimeUnit.MINUTES);
+        Assert.assertFalse(stats.isDeadlineExceeded());
+        Assert.assertEquals(stats.getCompletionRatio(), 1D, 0D);
+        Assert.assertEquals(new HashSet<>(requested.subList(0, collected.size())), collected);
+        collectExecutor.shutdown();
+    }
+
+    @Test
+    public void testCollectTopicRouteFailure() throws Exception {
+        Set<String> topics = new HashSet<>();
+        for (int i = 0; i < taskExecuteNum; i++) {
+            topics.add("topic_test" + i);
+        }
+        // every topic is also hosted by a master that never answers
+        TopicRouteData route = MockObjectUtil.createTopicRouteData();
+        BrokerData deadBroker = new BrokerData("DefaultCluster", "broker-b",
+                new HashMap<>(Collections.singletonMap(MixAll.MASTER_ID, DEAD_BROKER_ADDR)));
+        route.getBrokerDatas().add(deadBroker);
+        when(mqAdminExt.examineTopicRouteInfo(anyString())).thenReturn(route);
+        when(mqAdminExt.examineTopicRouteInfo("topic_test0"))
+                .thenThrow(new RuntimeException("examineTopicRouteInfo exception"))
+                .thenReturn(route)
+                .thenThrow(new RuntimeException("examineTopicRouteInfo exception"));
+        when(mqAdminExt.queryTopicConsumeByWho(anyString())).thenReturn(new GroupList());
+        when(mqAdminExt.viewBrokerStatsData(anyString(), anyString(), anyString()))
+                .thenReturn(MockObjectUtil.createBrokerStatsData());
+        when(mqAdminExt.viewBrokerStatsData(eq(DEAD_BROKER_ADDR), anyString(), anyString()))
+                .thenThrow(new RuntimeException("viewBrokerStatsData exception"));
+
+        // the dead master does not blank the other topics, only the topic without a route is skipped
+        CollectCycleStats stats = topicStatsCollector.collect(topics).get(1, TimeUnit.MINUTES);
+        Assert.assertEquals(stats.getCollectedTopics(), taskExecuteNum - 1);
+        Assert.assertEquals(stats.getSkippedTopics(), 1);
+        Assert.assertFalse(dashboardCollectService.getTopicMap().containsKey("topic_test0"));
+        Assert.assertEquals(stats.getRpcFailures(), taskExecuteNum - 1);
+
+        topicRouteCache.invalidate("topic_test0");
+        stats = topicStatsCollector.collect(topics).get(1, TimeUnit.MINUTES);
+        Assert.assertEquals(stats.getCollectedTopics(), taskExecuteNum);
+
+        // a failure after that falls back to the brokers of the last cycle
+        topicRouteCache.invalidate("topic_test0");
+        stats = topicStatsCollector.collect(topics).get(1, TimeUnit.MINUTES);
+        Assert.assertEquals(stats.getCollectedTopics(), taskExecuteNum);
+        Assert.assertEquals(stats.getSkippedTopics(), 0);
+        collectExecutor.shutdown();
     }
 
     @Test
@@ -169,11 +307,13 @@ public class DashboardCollectTaskTest extends BaseTest {
             HashMap<String, String> result = new HashMap<>();
             result.put("getTotalTps", "0.0 0.033330000333300004 0.03332972261338355");
             result.put("commitLogMinOffset", "0");
-            KVTable kvTable = new KVTable();
-            kvTable.setTable(result);
-            when(mqAdminExt.fetchBrokerRuntimeStats(anyString()))
+            ClusterInfo clusterInfo = MockObjectUtil.createClusterInfo();
+            Map<String, Map<String, String>> stats = new HashMap<>();
+            stats.put("127.0.0.1:10911", result);
+            AtomicLong timestamp = new AtomicLong(System.currentTimeMillis());
+            when(brokerRuntimeStatsService.get(anyLong()))
                     .thenThrow(new RuntimeException("fetchBrokerRuntimeStats exception"))
-                    .thenReturn(kvTable);
+                    .thenAnswer(invocation -> new BrokerRuntimeStatsService.Snapshot(timestamp.incrementAndGet(), clusterInfo, stats));
             when(rmqConfigure.isEnableDashBoardCollect()).thenReturn(true);
         }
         // fetchBrokerRuntimeStats exception
@@ -186,17 +326,17 @@ public class DashboardCollectTaskTest extends BaseTest {
         for (int i = 0; i < taskExecuteNum; i++) {
             dashboardCollectTask.collectBroker();
         }
-        LoadingCache<String, List<String>> map = dashboardCollectService.getBrokerMap();
+        Map<String, TimeSeriesBuffer> map = dashboardCollectService.getBrokerMap();
         Assert.assertEquals(map.size(), 1);
         Assert.assertEquals(map.get("broker-a" + ":" + MixAll.MASTER_ID).size(), taskExecuteNum);
         mockBrokerFileExistBeforeSaveData();
         dashboardCollectTask.saveData();
-        Assert.assertEquals(brokerFile.exists(), true);
-        Map<String, List<String>> brokerData =
-                JsonUtil.string2Obj(MixAll.file2String(brokerFile),
-                        new TypeReference<Map<String, List<String>>>() {
-                        });
+        Assert.assertEquals(new File(storeDir, "broker.seg").exists(), true);
+        Assert.assertEquals(map.get("broker-a" + ":" + MixAll.MASTER_ID).size(), 0);
+        // the json file of the same day is imported into the store before the first append
+        Map<String, TimeSeriesData> brokerData = dashboardCollectService.getBrokerCache(nowDateStr);
         Assert.assertEquals(brokerData.get("broker-a" + ":" + MixAll.MASTER_ID).size(), taskExecuteNum + 2);
+        Assert.assertEquals(brokerData.get("broker-b" + ":" + MixAll.MASTER_ID).size(), 2);
     }
 
     @After
@@ -207,6 +347,17 @@ public class DashboardCollectTaskTest extends BaseTest {
         if (topicFile != null && topicFile.exists()) {
             topicFile.delete();
         }
+        deleteStoreDir();
+    }
+
+    private void deleteStoreDir() {
+        File[] files = storeDir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        storeDir.delete();
     }
 
     private void mockBrokerFileExistBeforeSaveData() throws Exception {
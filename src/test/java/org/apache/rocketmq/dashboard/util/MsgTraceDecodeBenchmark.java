@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.rocketmq.dashboard.util;
+
+import org.apache.rocketmq.client.producer.LocalTransactionState;
+import org.apache.rocketmq.client.trace.TraceConstants;
+import org.apache.rocketmq.client.trace.TraceContext;
+import org.apache.rocketmq.client.trace.TraceType;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+
+/**
+ * Compares the string and the byte decoder of trace message bodies on a batch of the Pub, SubBefore,
+ * SubAfter and EndTransaction traces of 32 messages, looking up the traces of one of them.
+ * <p>
+ * Not a unit test, run it with {@code java -cp <test classpath> org.apache.rocketmq.dashboard.util.MsgTraceDecodeBenchmark}.
+ */
+public class MsgTraceDecodeBenchmark {
+
+    private static final int MESSAGES_PER_BATCH = 32;
+
+    private static final int WARMUP_ROUNDS = 5;
+
+    private static final int ROUNDS = 5;
+
+    private static final int OPERATIONS_PER_ROUND = 20000;
+
+    private static volatile Object blackhole;
+
+    public static void main(String[] args) {
+        byte[] body = createBatch().getBytes(StandardCharsets.UTF_8);
+        String msgId = msgId(MESSAGES_PER_BATCH / 2);
+        System.out.printf("batch of %d bytes, %d contexts%n", body.length, MESSAGES_PER_BATCH * 4);
+        for (int round = 0; round < WARMUP_ROUNDS + ROUNDS; round++) {
+            long stringDecoder = measure(() -> decodeString(body, msgId));
+            long byteDecoder = measure(() -> decodeBytes(body, msgId));
+            if (round >= WARMUP_ROUNDS) {
+                System.out.printf("round %d: string decoder %d ns/op, byte decoder %d ns/op%n",
+                        round - WARMUP_ROUNDS, stringDecoder, byteDecoder);
+            }
+        }
+    }
+
+    private static long measure(Runnable operation) {
+        long start = System.nanoTime();
+        for (int i = 0; i < OPERATIONS_PER_ROUND; i++) {
+            operation.run();
+        }
+        return (System.nanoTime() - start) / OPERATIONS_PER_ROUND;
+    }
+
+    /**
+     * What the trace lookup did before the byte decoder.
+     */
+    private static void decodeString(byte[] body, String msgId) {
+        int found = 0;
+        for (TraceContext context : MsgTraceDecodeUtil.decoderFromTraceDataString(new String(body, StandardCharsets.UTF_8))) {
+            if (context.getTraceBeans().get(0).getMsgId().equals(msgId)) {
+                found++;
+            }
+        }
+        blackhole = found;
+    }
+
+    private static void decodeBytes(byte[] body, String msgId) {
+        int found = 0;
+        Iterator<TraceContext> contexts = MsgTraceDecodeUtil.decoderFromTraceData(body, msgId);
+        while (contexts.hasNext()) {
+            contexts.next();
+            found++;
+        }
+        blackhole = found;
+    }
+
+    private static String msgId(int index) {
+        return String.format("7F000001752818B4AAC29513%08X", index);
+    }
+
+    private static String createBatch() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < MESSAGES_PER_BATCH; i++) {
+            String msgId = msgId(i);
+            long timestamp = 1627568812564L + i;
+            sb.append(TraceType.Pub.name()).append(TraceConstants.CONTENT_SPLITOR)
+                    .append(timestamp).append(TraceConstants.CONTENT_SPLITOR)
+                    .append("DefaultRegion").append(TraceConstants.CONTENT_SPLITOR)
+                    .append("PID_test").append(TraceConstants.CONTENT_SPLITOR)
+                    .append("topic_test").append(TraceConstants.CONTENT_SPLITOR)
+                    .append(msgId).append(TraceConstants.CONTENT_SPLITOR)
+                    .append("TagA").append(TraceConstants.CONTENT_SPLITOR)
+                    .append("KeyA").append(TraceConstants.CONTENT_SPLITOR)
+                    .append("127.0.0.1:10911").append(TraceConstants.CONTENT_SPLITOR)
+                    .append("1024").append(TraceConstants.CONTENT_SPLITOR)
+                    .append("12").append(TraceConstants.CONTENT_SPLITOR)
+                    .append("0").append(TraceConstants.CONTENT_SPLITOR)
+                    .append("0A9A003F00002A9F0000000000000319").append(TraceConstants.CONTENT_SPLITOR)
+                    .append("true").append(TraceConstants.CONTENT_SPLITOR)
+                    .append("127.0.0.1").append(TraceConstants.FIELD_SPLITOR);
+            sb.append(TraceType.SubBefore.name()).append(TraceConstants.CONTENT_SPLITOR)
+                    .append(timestamp + 10).append(TraceConstants.CONTENT_SPLITOR)
+                    .append("DefaultRegion").append(TraceConstants.CONTENT_SPLITOR)
+                    .append("group_test").append(TraceConstants.CONTENT_SPLITOR)
+                    .append("7F000001752818B4AAC2951341580000").append(TraceConstants.CONTENT_SPLITOR)
+                    .append(msgId).append(TraceConstants.CONTENT_SPLITOR)
+                    .append("0").append(TraceConstants.CONTENT_SPLITOR)
+                    .append("KeyA").append(TraceConstants.FIELD_SPLITOR);
+            sb.append(TraceType.SubAfter.name()).append(TraceConstants.CONTENT_SPLITOR)
+                    .append("7F000001752818B4AAC2951341580000").append(TraceConstants.CONTENT_SPLITOR)
+                    .append(msgId).append(TraceConstants.CONTENT_SPLITOR)
+                    .append("200").append(TraceConstants.CONTENT_SPLITOR)
+                    .append("true").append(TraceConstants.CONTENT_SPLITOR)
+                    .append("KeyA").append(TraceConstants.CONTENT_SPLITOR)
+                    .append("0").append(TraceConstants.CONTENT_SPLITOR)
+                    .append(timestamp + 210).append(TraceConstants.CONTENT_SPLITOR)
+                    .append("group_test").append(TraceConstants.FIELD_SPLITOR);
+            sb.append(TraceType.EndTransaction.name()).append(TraceConstants.CONTENT_SPLITOR)
+                    .append(timestamp + 5).append(TraceConstants.CONTENT_SPLITOR)
+                    .append("DefaultRegion").append(TraceConstants.CONTENT_SPLITOR)
+                    .append("PID_test").append(TraceConstants.CONTENT_SPLITOR)
+                    .append("topic_test").append(TraceConstants.CONTENT_SPLITOR)
+                    .append(msgId).append(TraceConstants.CONTENT_SPLITOR)
+                    .append("TagA").append(TraceConstants.CONTENT_SPLITOR)
+                    .append("KeyA").append(TraceConstants.CONTENT_SPLITOR)
+                    .append("127.0.0.1:10911").append(TraceConstants.CONTENT_SPLITOR)
+                    .append(2).append(TraceConstants.CONTENT_SPLITOR)
+                    .append("7F000001752818B4AAC2951341580000").append(TraceConstants.CONTENT_SPLITOR)
+                    .append(LocalTransactionState.COMMIT_MESSAGE).append(TraceConstants.CONTENT_SPLITOR)
+                    .append("true").append(TraceConstants.FIELD_SPLITOR);
+        }
+        return sb.toString();
+    }
+}
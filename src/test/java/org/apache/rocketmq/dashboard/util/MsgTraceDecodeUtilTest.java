@@ -17,6 +17,8 @@
 
 package org.apache.rocketmq.dashboard.util;
 
+import com.google.common.collect.Lists;
+import org.apache.rocketmq.client.trace.TraceBean;
 import org.apache.rocketmq.client.trace.TraceConstants;
 import org.apache.rocketmq.client.trace.TraceContext;
 import org.apache.rocketmq.common.UtilAll;
@@ -24,6 +26,7 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 public class MsgTraceDecodeUtilTest {
@@ -183,4 +186,75 @@ public class MsgTraceDecodeUtilTest {
         Assert.assertEquals(traceContextList.get(1).getTraceBeans().get(0).getMsgId(), "0A741C02622500000000080cc698003f");
         Assert.assertEquals(traceContextList.get(1).getGroupName(), "test_consumer_group");
     }
+
+    @Test
+    public void testDecodeTraceDataMatchesStringDecoder() {
+        String pubTraceData = new StringBuilder(pubTraceDataBase)
+                .append("0A741D02000078BF000000000132F7C9").append(TraceConstants.CONTENT_SPLITOR)
+                .append("true").append(TraceConstants.CONTENT_SPLITOR)
+                .append("10.10.10.11").append(TraceConstants.CONTENT_SPLITOR)
+                .toString();
+        String subTraceData = new StringBuilder(subTraceDataBase)
+                .append("4").append(TraceConstants.CONTENT_SPLITOR)
+                .append("1614666740499").append(TraceConstants.CONTENT_SPLITOR)
+                .append("test_consumer_group").append(TraceConstants.CONTENT_SPLITOR)
+                .toString();
+        for (String traceData : new String[] {pubTraceDataBase.toString(), pubTraceData, subTraceDataBase.toString(),
+            subTraceData, MockObjectUtil.createTraceData()}) {
+            List<TraceContext> expected = MsgTraceDecodeUtil.decoderFromTraceDataString(traceData);
+            List<TraceContext> actual = Lists.newArrayList(
+                    MsgTraceDecodeUtil.decoderFromTraceData(traceData.getBytes(StandardCharsets.UTF_8), null));
+            Assert.assertEquals(expected.size(), actual.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertTraceContextEquals(expected.get(i), actual.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void testDecodeTraceDataFiltersByMsgId() {
+        String traceData = new StringBuilder(pubTraceDataBase).append(TraceConstants.FIELD_SPLITOR)
+                .append(subTraceDataBase).toString();
+        byte[] body = traceData.getBytes(StandardCharsets.UTF_8);
+
+        List<TraceContext> pubContexts = Lists.newArrayList(
+                MsgTraceDecodeUtil.decoderFromTraceData(body, "0A741C02622500000000080cc6980189"));
+        Assert.assertEquals(1, pubContexts.size());
+        Assert.assertEquals("Pub", pubContexts.get(0).getTraceType().toString());
+
+        List<TraceContext> subContexts = Lists.newArrayList(
+                MsgTraceDecodeUtil.decoderFromTraceData(body, "0A741C02622500000000080cc698003f"));
+        Assert.assertEquals(2, subContexts.size());
+        Assert.assertEquals("SubBefore", subContexts.get(0).getTraceType().toString());
+        Assert.assertEquals("SubAfter", subContexts.get(1).getTraceType().toString());
+
+        Assert.assertFalse(MsgTraceDecodeUtil.decoderFromTraceData(body, "0A741C02622500000000080cc6980000").hasNext());
+        Assert.assertFalse(MsgTraceDecodeUtil.decoderFromTraceData(null, null).hasNext());
+    }
+
+    private void assertTraceContextEquals(TraceContext expected, TraceContext actual) {
+        Assert.assertEquals(expected.getTraceType(), actual.getTraceType());
+        Assert.assertEquals(expected.getTimeStamp(), actual.getTimeStamp());
+        Assert.assertEquals(expected.getRegionId(), actual.getRegionId());
+        Assert.assertEquals(expected.getGroupName(), actual.getGroupName());
+        Assert.assertEquals(expected.getRequestId(), actual.getRequestId());
+        Assert.assertEquals(expected.getCostTime(), actual.getCostTime());
+        Assert.assertEquals(expected.isSuccess(), actual.isSuccess());
+        Assert.assertEquals(expected.getContextCode(), actual.getContextCode());
+        TraceBean expectedBean = expected.getTraceBeans().get(0);
+        TraceBean actualBean = actual.getTraceBeans().get(0);
+        Assert.assertEquals(expectedBean.getTopic(), actualBean.getTopic());
+        Assert.assertEquals(expectedBean.getMsgId(), actualBean.getMsgId());
+        Assert.assertEquals(expectedBean.getOffsetMsgId(), actualBean.getOffsetMsgId());
+        Assert.assertEquals(expectedBean.getTags(), actualBean.getTags());
+        Assert.assertEquals(expectedBean.getKeys(), actualBean.getKeys());
+        Assert.assertEquals(expectedBean.getStoreHost(), actualBean.getStoreHost());
+        Assert.assertEquals(expectedBean.getClientHost(), actualBean.getClientHost());
+        Assert.assertEquals(expectedBean.getBodyLength(), actualBean.getBodyLength());
+        Assert.assertEquals(expectedBean.getMsgType(), actualBean.getMsgType());
+        Assert.assertEquals(expectedBean.getRetryTimes(), actualBean.getRetryTimes());
+        Assert.assertEquals(expectedBean.getTransactionId(), actualBean.getTransactionId());
+        Assert.assertEquals(expectedBean.getTransactionState(), actualBean.getTransactionState());
+        Assert.assertEquals(expectedBean.isFromTransactionCheck(), actualBean.isFromTransactionCheck());
+    }
 }